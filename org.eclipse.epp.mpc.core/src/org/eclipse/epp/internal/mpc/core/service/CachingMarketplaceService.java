@@ -53,6 +53,8 @@ public class CachingMarketplaceService implements IMarketplaceService {
 
 	private final ReferenceQueue<Object> cacheReferenceQueue = new ReferenceQueue<>();
 
+	private final NodeIndex nodeIndex = new NodeIndex();
+
 	public CachingMarketplaceService(IMarketplaceService delegate) {
 		if (delegate == null) {
 			throw new IllegalArgumentException();
@@ -64,6 +66,13 @@ public class CachingMarketplaceService implements IMarketplaceService {
 		return delegate;
 	}
 
+	/**
+	 * @return the index of all nodes retrieved through this service so far, for searching them locally
+	 */
+	public NodeIndex getNodeIndex() {
+		return nodeIndex;
+	}
+
 	@Override
 	public List<? extends IMarket> listMarkets(IProgressMonitor monitor) throws CoreException {
 		String marketsKey = "Markets:Markets"; //$NON-NLS-1$
@@ -149,6 +158,9 @@ public class CachingMarketplaceService implements IMarketplaceService {
 			cache(computeNodeUrlKey(node), node);
 			cache(computeNodeIdUrlKey(node), node);
 		}
+		if (!MISSING_NODE_TYPE.equals(node.getType())) {
+			nodeIndex.add(node);
+		}
 	}
 
 	@Override
@@ -306,6 +318,17 @@ public class CachingMarketplaceService implements IMarketplaceService {
 		return performSearch(monitor, key, monitor1 -> delegate.search(market, category, queryText, monitor1));
 	}
 
+	@Override
+	public ISearchResult search(final IMarket market, final ICategory category, final String queryText,
+			final int page, IProgressMonitor monitor) throws CoreException {
+		if (page <= 0) {
+			return search(market, category, queryText, monitor);
+		}
+		String key = computeSearchKey("search", market, category, queryText) + "#page=" + page; //$NON-NLS-1$ //$NON-NLS-2$
+		return performSearch(monitor, key,
+				monitor1 -> delegate.search(market, category, queryText, page, monitor1));
+	}
+
 	@Override
 	public ISearchResult tagged(final String tag, IProgressMonitor monitor) throws CoreException {
 		String key = computeSearchKey("tagged", null, null, tag); //$NON-NLS-1$
@@ -336,6 +359,7 @@ public class CachingMarketplaceService implements IMarketplaceService {
 						cache(computeNodeKey(node), node);
 					}
 				}
+				nodeIndex.addAll(result.getNodes());
 			}
 		}
 		return result;
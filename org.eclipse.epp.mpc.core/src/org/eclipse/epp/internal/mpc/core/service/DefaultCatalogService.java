@@ -13,11 +13,19 @@
  *******************************************************************************/
 package org.eclipse.epp.internal.mpc.core.service;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.epp.internal.mpc.core.MarketplaceClientCore;
 import org.eclipse.epp.internal.mpc.core.ServiceLocator;
 import org.eclipse.epp.internal.mpc.core.model.Catalog;
 import org.eclipse.epp.internal.mpc.core.model.CatalogBranding;
@@ -28,6 +36,7 @@ import org.eclipse.epp.mpc.core.service.ICatalogService;
 import org.eclipse.epp.mpc.core.service.IMarketplaceServiceLocator;
 import org.eclipse.epp.mpc.core.service.IUserFavoritesService;
 import org.eclipse.epp.mpc.core.service.ServiceHelper;
+import org.eclipse.epp.mpc.core.service.UnmarshalException;
 
 public class DefaultCatalogService extends RemoteMarketplaceService<Catalogs> implements ICatalogService {
 
@@ -40,6 +49,12 @@ public class DefaultCatalogService extends RemoteMarketplaceService<Catalogs> im
 		DEFAULT_CATALOG_SERVICE_URL = ServiceUtil.parseUrl(DEFAULT_CATALOG_SERVICE_LOCATION);
 	}
 
+	private static final String CACHE_FILE_PREFIX = "catalogs-"; //$NON-NLS-1$
+
+	private static final String CACHE_FILE_SUFFIX = ".xml"; //$NON-NLS-1$
+
+	private volatile File cacheDirectory;
+
 	public DefaultCatalogService() {
 		this(null);
 	}
@@ -48,9 +63,53 @@ public class DefaultCatalogService extends RemoteMarketplaceService<Catalogs> im
 		this.baseUrl = baseUrl == null ? DEFAULT_CATALOG_SERVICE_URL : baseUrl;
 	}
 
+	/**
+	 * Keep a copy of the catalogs listed by {@link #listCatalogs(IProgressMonitor)} in the given directory, so they are
+	 * available from {@link #listCachedCatalogs(IProgressMonitor)} right away in later sessions.
+	 *
+	 * @param cacheDirectory
+	 *            the directory for the cached catalogs, or null to disable caching
+	 */
+	public void setCacheDirectory(File cacheDirectory) {
+		this.cacheDirectory = cacheDirectory;
+	}
+
+	public File getCacheDirectory() {
+		return cacheDirectory;
+	}
+
 	@Override
 	public List<? extends ICatalog> listCatalogs(IProgressMonitor monitor) throws CoreException {
 		Catalogs result = processRequest("catalogs/" + API_URI_SUFFIX, monitor); //$NON-NLS-1$
+		return registerCatalogs(result);
+	}
+
+	/**
+	 * List the catalogs of the last successful {@link #listCatalogs(IProgressMonitor)} call without contacting the
+	 * server. Only available if a {@link #setCacheDirectory(File) cache directory} is set.
+	 *
+	 * @return the cached catalogs, or null if there are none
+	 */
+	public List<? extends ICatalog> listCachedCatalogs(IProgressMonitor monitor) {
+		File cacheFile = getCacheFile();
+		if (cacheFile == null || !cacheFile.isFile()) {
+			return null;
+		}
+		Catalogs result;
+		try (InputStream in = Files.newInputStream(cacheFile.toPath())) {
+			result = super.unmarshal(in, monitor);
+		} catch (IOException | UnmarshalException e) {
+			MarketplaceClientCore.getLog()
+			.log(createStatus(IStatus.WARNING, Messages.DefaultCatalogService_cacheReadError, cacheFile, e));
+			return null;
+		}
+		if (result == null || result.getCatalogs() == null) {
+			return null;
+		}
+		return registerCatalogs(result);
+	}
+
+	private List<Catalog> registerCatalogs(Catalogs result) {
 		List<Catalog> catalogs = result.getCatalogs();
 		for (Catalog catalog : catalogs) {
 			registerDynamicFavoritesService(catalog);
@@ -58,6 +117,40 @@ public class DefaultCatalogService extends RemoteMarketplaceService<Catalogs> im
 		return catalogs;
 	}
 
+	@Override
+	protected Catalogs unmarshal(InputStream in, IProgressMonitor monitor) throws UnmarshalException, IOException {
+		File cacheFile = getCacheFile();
+		if (cacheFile == null) {
+			return super.unmarshal(in, monitor);
+		}
+		byte[] content = in.readAllBytes();
+		Catalogs result = super.unmarshal(new ByteArrayInputStream(content), monitor);
+		// only cache what could be parsed
+		writeCache(cacheFile, content);
+		return result;
+	}
+
+	private void writeCache(File cacheFile, byte[] content) {
+		File tempFile = new File(cacheFile.getParentFile(), cacheFile.getName() + ".tmp"); //$NON-NLS-1$
+		try {
+			Files.write(tempFile.toPath(), content);
+			Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			MarketplaceClientCore.getLog()
+			.log(createStatus(IStatus.WARNING, Messages.DefaultCatalogService_cacheWriteError, cacheFile, e));
+		}
+	}
+
+	private File getCacheFile() {
+		File directory = cacheDirectory;
+		if (directory == null || baseUrl == null) {
+			return null;
+		}
+		// one file per marketplace server
+		String name = CACHE_FILE_PREFIX + Integer.toHexString(baseUrl.toExternalForm().hashCode()) + CACHE_FILE_SUFFIX;
+		return new File(directory, name);
+	}
+
 	private void registerDynamicFavoritesService(Catalog catalog) {
 		CatalogBranding branding = catalog.getBranding();
 		if (branding == null) {
@@ -409,7 +409,13 @@ MarketplaceService {
 	@Override
 	public SearchResult search(IMarket market, ICategory category, String queryText, IProgressMonitor monitor)
 			throws CoreException {
-		String relativeUrl = computeRelativeSearchUrl(market, category, queryText, true);
+		return search(market, category, queryText, 0, monitor);
+	}
+
+	@Override
+	public SearchResult search(IMarket market, ICategory category, String queryText, int page,
+			IProgressMonitor monitor) throws CoreException {
+		String relativeUrl = computeRelativeSearchUrl(market, category, queryText, page, true);
 		return processSearchRequest(relativeUrl, queryText, monitor);
 	}
 
@@ -488,6 +494,25 @@ MarketplaceService {
 		return relativeUrl;
 	}
 
+	/**
+	 * Creates the query URL for one page of search results. This is the same as
+	 * {@link #computeRelativeSearchUrl(IMarket, ICategory, String, boolean)} with an added <code>page=[page]</code>
+	 * parameter. The first page is the server default, so the parameter is omitted for it.
+	 *
+	 * @param page
+	 *            the zero-based page
+	 * @return the relative search url, e.g.
+	 *         <code>api/p/search/apachesolr_search/WikiText?filters=tid:38%20tid:31&page=2</code>
+	 */
+	public String computeRelativeSearchUrl(IMarket market, ICategory category, String queryText, int page,
+			boolean api) {
+		String relativeUrl = computeRelativeSearchUrl(market, category, queryText, api);
+		if (relativeUrl == null || page <= 0) {
+			return relativeUrl;
+		}
+		return relativeUrl + (relativeUrl.indexOf('?') == -1 ? '?' : '&') + "page=" + page; //$NON-NLS-1$
+	}
+
 	private SearchResult processSearchRequest(String relativeUrl, String queryText, IProgressMonitor monitor)
 			throws CoreException {
 		SearchResult result = new SearchResult();
@@ -18,6 +18,10 @@ class Messages extends NLS {
 	private static final String BUNDLE_NAME = "org.eclipse.epp.internal.mpc.core.service.messages"; //$NON-NLS-1$
 
 
+	public static String DefaultCatalogService_cacheReadError;
+
+	public static String DefaultCatalogService_cacheWriteError;
+
 	public static String DefaultMarketplaceService_cannotCompleteRequest_reason;
 
 	public static String DefaultMarketplaceService_categoryNotFound;
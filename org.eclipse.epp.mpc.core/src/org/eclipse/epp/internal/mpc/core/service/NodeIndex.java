@@ -0,0 +1,231 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.internal.mpc.core.service;
+
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.eclipse.epp.mpc.core.model.ICategories;
+import org.eclipse.epp.mpc.core.model.ICategory;
+import org.eclipse.epp.mpc.core.model.IMarket;
+import org.eclipse.epp.mpc.core.model.INode;
+
+/**
+ * In-memory inverted index over the nodes retrieved from the marketplace, for searching them without a server
+ * round-trip. Nodes and queries are split into words by the {@link NodeTokenizer}, which also decides what matches
+ * when already retrieved results are filtered on the client.
+ * <p>
+ * The index holds the words of at most {@link #DEFAULT_MAX_NODES} nodes and
+ * {@link NodeTokenizer#MAX_TOKENS_PER_NODE} words per node. When it is full, the least recently indexed node is
+ * dropped. The nodes themselves are only softly referenced, so the index doesn't keep them in memory longer than
+ * the service caches do. Nodes that were garbage collected are dropped from the index when they are found by a
+ * search.
+ */
+public class NodeIndex {
+
+	public static final int DEFAULT_MAX_NODES = 5000;
+
+	private static final class Entry {
+
+		private final Reference<INode> node;
+
+		private final String[] tokens;
+
+		private final Set<String> nameTokens;
+
+		private final Set<String> categoryIds;
+
+		Entry(INode node, String[] tokens, Set<String> nameTokens, Set<String> categoryIds) {
+			this.node = new SoftReference<>(node);
+			this.tokens = tokens;
+			this.nameTokens = nameTokens;
+			this.categoryIds = categoryIds;
+		}
+	}
+
+	private final int maxNodes;
+
+	private final Map<String, Entry> entries;
+
+	private final NavigableMap<String, Set<String>> postings = new TreeMap<>();
+
+	public NodeIndex() {
+		this(DEFAULT_MAX_NODES);
+	}
+
+	public NodeIndex(int maxNodes) {
+		this.maxNodes = maxNodes;
+		this.entries = new LinkedHashMap<>(Math.min(maxNodes, 256), 0.75f, false);
+	}
+
+	/**
+	 * Add or update the given nodes. Nodes without an id are ignored.
+	 */
+	public synchronized void addAll(Collection<? extends INode> nodes) {
+		for (INode node : nodes) {
+			add(node);
+		}
+	}
+
+	/**
+	 * Add or update the given node. Nodes without an id are ignored.
+	 * <p>
+	 * Search results only carry part of a node's details. If the node is already indexed, fields that the given node
+	 * doesn't have are kept from the indexed one, and the indexed node is kept if only it has installable units.
+	 */
+	public synchronized void add(INode node) {
+		String id = node.getId();
+		if (id == null) {
+			return;
+		}
+		Entry previous = entries.get(id);
+		INode previousNode = previous == null ? null : previous.node.get();
+		INode fallback = previousNode == node ? null : previousNode;
+		remove(id);
+
+		Set<String> nameTokens = NodeTokenizer.nameTokens(fallback == null || node.getName() != null ? node : fallback);
+		String[] indexedTokens = NodeTokenizer.tokens(node, fallback).toArray(new String[0]);
+		Set<String> categoryIds = new HashSet<>();
+		ICategories categories = NodeTokenizer.categories(node, fallback);
+		if (categories != null) {
+			for (ICategory category : categories.getCategory()) {
+				categoryIds.add(category.getId());
+			}
+		}
+		INode indexedNode = node;
+		if (fallback != null && !NodeTokenizer.hasIus(node) && NodeTokenizer.hasIus(fallback)) {
+			indexedNode = fallback;
+		}
+
+		for (String token : indexedTokens) {
+			postings.computeIfAbsent(token, t -> new HashSet<>(4)).add(id);
+		}
+		entries.put(id, new Entry(indexedNode, indexedTokens, nameTokens, categoryIds));
+
+		for (Iterator<String> i = entries.keySet().iterator(); entries.size() > maxNodes && i.hasNext();) {
+			removePostings(i.next());
+			i.remove();
+		}
+	}
+
+	private void remove(String id) {
+		if (entries.containsKey(id)) {
+			removePostings(id);
+			entries.remove(id);
+		}
+	}
+
+	private void removePostings(String id) {
+		Entry entry = entries.get(id);
+		if (entry == null) {
+			return;
+		}
+		for (String token : entry.tokens) {
+			Set<String> ids = postings.get(token);
+			if (ids != null && ids.remove(id) && ids.isEmpty()) {
+				postings.remove(token);
+			}
+		}
+	}
+
+	/**
+	 * Find the indexed nodes matching the given query text, optionally restricted to a market or category. Nodes whose
+	 * name matches all query words come first.
+	 *
+	 * @param limit
+	 *            the maximum number of returned nodes
+	 * @return the matching nodes, or an empty list if the query text has no words
+	 */
+	public synchronized List<INode> search(IMarket market, ICategory category, String queryText, int limit) {
+		List<String> terms = new ArrayList<>(NodeTokenizer.tokenize(queryText, new LinkedHashSet<>()));
+		if (terms.isEmpty()) {
+			return new ArrayList<>();
+		}
+		Set<String> candidates = null;
+		for (String term : terms) {
+			Set<String> matches = new HashSet<>();
+			for (Set<String> ids : prefixPostings(term).values()) {
+				matches.addAll(ids);
+			}
+			if (candidates == null) {
+				candidates = matches;
+			} else {
+				candidates.retainAll(matches);
+			}
+			if (candidates.isEmpty()) {
+				return new ArrayList<>();
+			}
+		}
+
+		List<INode> nameMatches = new ArrayList<>();
+		List<INode> otherMatches = new ArrayList<>();
+		List<String> collected = new ArrayList<>();
+		for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+			Entry entry = mapEntry.getValue();
+			if (!candidates.contains(mapEntry.getKey()) || !isInScope(entry.categoryIds, market, category)) {
+				continue;
+			}
+			INode node = entry.node.get();
+			if (node == null) {
+				collected.add(mapEntry.getKey());
+			} else if (NodeTokenizer.matchesAll(entry.nameTokens, terms)) {
+				nameMatches.add(node);
+			} else {
+				otherMatches.add(node);
+			}
+		}
+		for (String id : collected) {
+			remove(id);
+		}
+		List<INode> result = nameMatches;
+		result.addAll(otherMatches);
+		return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	private NavigableMap<String, Set<String>> prefixPostings(String prefix) {
+		return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+	}
+
+	private static boolean isInScope(Set<String> categoryIds, IMarket market, ICategory category) {
+		if (market == null && category == null) {
+			return true;
+		}
+		if (category != null && !categoryIds.contains(category.getId())) {
+			return false;
+		}
+		if (market != null) {
+			for (ICategory marketCategory : market.getCategory()) {
+				if (categoryIds.contains(marketCategory.getId())) {
+					return true;
+				}
+			}
+			return false;
+		}
+		return true;
+	}
+}
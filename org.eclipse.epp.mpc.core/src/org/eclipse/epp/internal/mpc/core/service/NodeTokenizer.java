@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.internal.mpc.core.service;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.eclipse.epp.internal.mpc.core.util.HtmlText;
+import org.eclipse.epp.mpc.core.model.ICategories;
+import org.eclipse.epp.mpc.core.model.ICategory;
+import org.eclipse.epp.mpc.core.model.IIu;
+import org.eclipse.epp.mpc.core.model.IIus;
+import org.eclipse.epp.mpc.core.model.INode;
+import org.eclipse.epp.mpc.core.model.ITag;
+import org.eclipse.epp.mpc.core.model.ITags;
+
+/**
+ * Splits nodes and query texts into the lower-case words used for searching nodes on the client, so that the
+ * {@link NodeIndex} and the filtering of already retrieved results agree on what a query matches. A query matches a
+ * node if each of its words is a prefix of one of the node's words.
+ * <p>
+ * A node's words are taken from its name, short description, tags, categories, owner, company, installable unit ids
+ * and the plain text of its body, in this order, and limited to {@link #MAX_TOKENS_PER_NODE} words.
+ */
+public final class NodeTokenizer {
+
+	public static final int MAX_TOKENS_PER_NODE = 256;
+
+	private NodeTokenizer() {
+	}
+
+	/**
+	 * @return the words of the node's name
+	 */
+	public static Set<String> nameTokens(INode node) {
+		return tokenize(node.getName(), new LinkedHashSet<>());
+	}
+
+	/**
+	 * @return the words of the node, name words first
+	 */
+	public static Set<String> tokens(INode node) {
+		return tokens(node, null);
+	}
+
+	/**
+	 * @param fallback
+	 *            a node whose fields are used where the given node doesn't have them, or null
+	 * @return the words of the node, name words first
+	 */
+	static Set<String> tokens(INode node, INode fallback) {
+		Set<String> tokens = new LinkedHashSet<>();
+		tokenize(fallback == null || node.getName() != null ? node.getName() : fallback.getName(), tokens);
+		tokenize(fallback == null || node.getShortdescription() != null ? node.getShortdescription()
+				: fallback.getShortdescription(), tokens);
+		ITags tags = fallback == null || hasTags(node) ? node.getTags() : fallback.getTags();
+		if (tags != null) {
+			for (ITag tag : tags.getTags()) {
+				tokenize(tag.getName(), tokens);
+			}
+		}
+		ICategories categories = categories(node, fallback);
+		if (categories != null) {
+			for (ICategory category : categories.getCategory()) {
+				tokenize(category.getName(), tokens);
+			}
+		}
+		tokenize(fallback == null || node.getOwner() != null ? node.getOwner() : fallback.getOwner(), tokens);
+		tokenize(fallback == null || node.getCompanyname() != null ? node.getCompanyname()
+				: fallback.getCompanyname(), tokens);
+		IIus ius = fallback == null || hasIus(node) ? node.getIus() : fallback.getIus();
+		if (ius != null) {
+			for (IIu iu : ius.getIuElements()) {
+				tokenize(iu.getId(), tokens);
+			}
+		}
+		HtmlText body = HtmlText.of(fallback == null || node.getBody() != null ? node.getBody() : fallback.getBody());
+		if (body != null && tokens.size() < MAX_TOKENS_PER_NODE) {
+			tokenize(body.getPlainText(), tokens);
+		}
+		if (tokens.size() > MAX_TOKENS_PER_NODE) {
+			Set<String> limited = new LinkedHashSet<>();
+			tokens.stream().limit(MAX_TOKENS_PER_NODE).forEach(limited::add);
+			return limited;
+		}
+		return tokens;
+	}
+
+	static ICategories categories(INode node, INode fallback) {
+		ICategories categories = node.getCategories();
+		if (fallback != null && (categories == null || categories.getCategory().isEmpty())) {
+			return fallback.getCategories();
+		}
+		return categories;
+	}
+
+	static boolean hasIus(INode node) {
+		return node.getIus() != null && !node.getIus().getIuElements().isEmpty();
+	}
+
+	private static boolean hasTags(INode node) {
+		return node.getTags() != null && !node.getTags().getTags().isEmpty();
+	}
+
+	/**
+	 * Split the given text into lower-case words of letters and digits
+	 */
+	public static <C extends Collection<String>> C tokenize(String text, C tokens) {
+		if (text == null) {
+			return tokens;
+		}
+		String lowerCaseText = text.toLowerCase(Locale.ROOT);
+		int start = -1;
+		for (int i = 0; i <= lowerCaseText.length(); i++) {
+			boolean wordChar = i < lowerCaseText.length() && Character.isLetterOrDigit(lowerCaseText.charAt(i));
+			if (wordChar && start == -1) {
+				start = i;
+			} else if (!wordChar && start != -1) {
+				tokens.add(lowerCaseText.substring(start, i));
+				start = -1;
+			}
+		}
+		return tokens;
+	}
+
+	/**
+	 * @return true if each of the terms is a prefix of one of the tokens
+	 */
+	public static boolean matchesAll(Collection<String> tokens, List<String> terms) {
+		for (String term : terms) {
+			boolean found = false;
+			for (String token : tokens) {
+				if (token.startsWith(term)) {
+					found = true;
+					break;
+				}
+			}
+			if (!found) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
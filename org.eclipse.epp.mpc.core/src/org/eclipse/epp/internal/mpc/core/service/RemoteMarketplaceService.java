@@ -13,6 +13,7 @@
  *******************************************************************************/
 package org.eclipse.epp.internal.mpc.core.service;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
@@ -20,6 +21,8 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.text.MessageFormat;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.eclipse.core.runtime.CoreException;
@@ -55,6 +58,8 @@ public class RemoteMarketplaceService<T> {
 
 	private Map<String, String> requestMetaParameters;
 
+	private volatile String encodedMetaParameters;
+
 	public RemoteMarketplaceService() {
 		this.transport = TransportFactory.createTransport();
 		IMarketplaceUnmarshaller unmarshaller = ServiceHelper.getMarketplaceUnmarshaller();
@@ -134,7 +139,6 @@ public class RemoteMarketplaceService<T> {
 		return processRequest(baseUri, relativePath, true, monitor);
 	}
 
-	@SuppressWarnings({ "unchecked" })
 	protected T processRequest(String baseUri, String relativePath, boolean withMetaParams, IProgressMonitor monitor)
 			throws CoreException {
 		checkConfiguration();
@@ -166,14 +170,15 @@ public class RemoteMarketplaceService<T> {
 						progress.setWorkRemaining(100);
 						progress.worked(30);
 
-						return (T) unmarshaller.unmarshal(in, Object.class, progress.newChild(70));//FIXME having T.class available here would be great...
+						return unmarshal(in, progress.newChild(70));
 					} catch (UnmarshalException e) {
 						MarketplaceClientCore.error(
 								NLS.bind(Messages.DefaultMarketplaceService_parseError, location.toString()), e);
 						throw e;
 					}
 				} catch (Exception e) {
-					if (e.getCause() instanceof OperationCanceledException) {
+					if (e.getCause() instanceof OperationCanceledException || progress.isCanceled()) {
+						// the transport aborts requests once they are cancelled
 						throw new CoreException(Status.CANCEL_STATUS);
 					}
 					String causeMessage = e.getMessage();
@@ -200,31 +205,43 @@ public class RemoteMarketplaceService<T> {
 		}
 	}
 
+	/**
+	 * Parse the response of a request. Subclasses can override this to keep a copy of the response.
+	 */
+	@SuppressWarnings({ "unchecked" })
+	protected T unmarshal(InputStream in, IProgressMonitor monitor) throws UnmarshalException, IOException {
+		return (T) unmarshaller.unmarshal(in, Object.class, monitor);//FIXME having T.class available here would be great...
+	}
+
 	public String addMetaParameters(String uri) {
-		if (requestMetaParameters != null) {
-			try {
-				boolean hasQueryString = uri.indexOf('?') != -1;
-				for (Map.Entry<String, String> param : requestMetaParameters.entrySet()) {
-					if (param.getKey() == null) {
-						continue;
-					}
-					if (hasQueryString) {
-						uri += '&';
-					} else {
-						hasQueryString = true;
-						uri += '?';
-					}
-					uri += URLEncoder.encode(param.getKey(), UTF_8);
-					uri += '=';
-					if (param.getValue() != null) {
-						uri += URLEncoder.encode(param.getValue(), UTF_8);
-					}
-				}
-			} catch (UnsupportedEncodingException e) {
-				throw new IllegalStateException(e);
+		String suffix = encodedMetaParameters;
+		if (suffix == null || suffix.isEmpty()) {
+			return uri;
+		}
+		StringBuilder builder = new StringBuilder(uri.length() + suffix.length() + 1);
+		builder.append(uri).append(uri.indexOf('?') == -1 ? '?' : '&').append(suffix);
+		return builder.toString();
+	}
+
+	private static String encodeMetaParameters(Map<String, String> requestMetaParameters) {
+		if (requestMetaParameters == null) {
+			return null;
+		}
+		StringBuilder builder = new StringBuilder();
+		for (Map.Entry<String, String> param : requestMetaParameters.entrySet()) {
+			if (param.getKey() == null) {
+				continue;
+			}
+			if (builder.length() > 0) {
+				builder.append('&');
+			}
+			builder.append(urlEncode(param.getKey()));
+			builder.append('=');
+			if (param.getValue() != null) {
+				builder.append(urlEncode(param.getValue()));
 			}
 		}
-		return uri;
+		return builder.toString();
 	}
 
 	/**
@@ -240,10 +257,13 @@ public class RemoteMarketplaceService<T> {
 	 * The meta-parameters to be included in API requests
 	 *
 	 * @param requestMetaParameters
-	 *            the parameters or null if there should be none
+	 *            the parameters or null if there should be none. The parameters are encoded once when they are
+	 *            set, so later modifications of the map have no effect.
 	 */
 	public void setRequestMetaParameters(Map<String, String> requestMetaParameters) {
-		this.requestMetaParameters = requestMetaParameters;
+		this.requestMetaParameters = requestMetaParameters == null ? null
+				: Collections.unmodifiableMap(new LinkedHashMap<>(requestMetaParameters));
+		this.encodedMetaParameters = encodeMetaParameters(requestMetaParameters);
 	}
 
 	protected static String urlEncode(String urlPart) {
@@ -27,11 +27,13 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -52,6 +54,8 @@ import org.eclipse.epp.internal.mpc.core.util.URLUtil;
 import org.eclipse.epp.mpc.core.model.IFavoriteList;
 import org.eclipse.epp.mpc.core.model.INode;
 import org.eclipse.epp.mpc.core.service.IMarketplaceService;
+import org.eclipse.epp.mpc.core.service.IMarketplaceStorageService;
+import org.eclipse.epp.mpc.core.service.IMarketplaceStorageService.LoginListener;
 import org.eclipse.epp.mpc.core.service.IUserFavoritesService;
 import org.eclipse.epp.mpc.core.service.QueryHelper;
 import org.eclipse.epp.mpc.core.service.ServiceHelper;
@@ -136,10 +140,40 @@ public class UserFavoritesService extends AbstractDataStorageService implements
 
 	private static final String SEPARATOR = ","; //$NON-NLS-1$
 
+	/**
+	 * How long the cached favorites are used without asking the server again
+	 */
+	private static final long FAVORITES_MAX_AGE = TimeUnit.MINUTES.toMillis(5);
+
 	private final Map<String, Integer> favoritesCorrections = new HashMap<>();
 
 	private final Set<String> favorites = new HashSet<>();
 
+	/**
+	 * The favorites as last read from or written to the storage, or null if they haven't been read yet. Changes are
+	 * applied on top of these, so they don't have to be downloaded again for every change.
+	 */
+	private Set<String> storedFavorites;
+
+	/**
+	 * The version of the favorites blob that {@link #storedFavorites} correspond to
+	 */
+	private String storedETag;
+
+	/**
+	 * When the favorites were last requested from or written to the storage, successfully or not
+	 */
+	private long storedTimestamp;
+
+	private final LoginListener loginListener = (oldUser, newUser) -> invalidateFavorites();
+
+	/**
+	 * Changes waiting for the update that is currently running, if any. They are written together once it is done.
+	 */
+	private FavoritesUpdate pendingUpdate;
+
+	private final Object updateLock = new Object();
+
 	private HttpClientService httpClient;
 
 	protected IBlob getFavoritesBlob() {
@@ -163,22 +197,76 @@ public class UserFavoritesService extends AbstractDataStorageService implements
 		return Collections.unmodifiableSet(favorites);
 	}
 
+	/**
+	 * Returns the favorites as last read from or written to the storage, without contacting the server.
+	 *
+	 * @return the cached favorite ids, or null if they are not known, e.g. because the user isn't logged in
+	 * @see #isFavoritesCacheStale()
+	 */
+	public synchronized Set<String> getCachedFavoriteIds() {
+		return storedFavorites == null ? null : new HashSet<>(storedFavorites);
+	}
+
+	/**
+	 * @return true if the cached favorites should be refreshed with {@link #getFavoriteIds(IProgressMonitor)}, because
+	 *         they are unknown or outdated and the last attempt to read them is some time ago
+	 */
+	public synchronized boolean isFavoritesCacheStale() {
+		return System.currentTimeMillis() - storedTimestamp > FAVORITES_MAX_AGE;
+	}
+
+	/**
+	 * Forget the cached favorites, so they are read again on the next request. This happens automatically if the user
+	 * logs in or out.
+	 */
+	public synchronized void invalidateFavorites() {
+		storedFavorites = null;
+		storedETag = null;
+		storedTimestamp = 0;
+	}
+
+	@Override
+	public void setStorageService(IMarketplaceStorageService storageService) {
+		IMarketplaceStorageService oldStorageService = getStorageService();
+		if (oldStorageService == storageService) {
+			return;
+		}
+		if (oldStorageService != null) {
+			oldStorageService.removeLoginListener(loginListener);
+		}
+		invalidateFavorites();
+		super.setStorageService(storageService);
+		if (storageService != null) {
+			storageService.addLoginListener(loginListener);
+		}
+	}
+
 	@Override
 	public Set<String> getFavoriteIds(IProgressMonitor monitor)
 			throws NoServiceException, NotAuthorizedException, IllegalStateException, IOException {
 //		throw new IOException("simulates favorites failure");
 		SubMonitor progress = SubMonitor.convert(monitor, Messages.DefaultMarketplaceService_FavoritesRetrieve, 1000);
+		synchronized (this) {
+			storedTimestamp = System.currentTimeMillis();
+		}
 		try {
-			String favoritesData = getFavoritesBlob().getContentsUTF();
+			IBlob favoritesBlob = getFavoritesBlob();
+			String favoritesData = favoritesBlob.getContentsUTF();
 			progress.worked(950);//FIXME waiting for USS bug 488335 to have proper progress and cancelation
 			Set<String> result = parseFavoritesBlobData(favoritesData);
 			synchronized (this) {
 				favorites.clear();
 				favorites.addAll(result);
+				storedFavorites = new LinkedHashSet<>(result);
+				storedETag = favoritesBlob.getETag();
 			}
 			return result;
 		} catch (NotFoundException ex) {
 			//the user does not yet have favorites
+			synchronized (this) {
+				storedFavorites = new LinkedHashSet<>();
+				storedETag = null;
+			}
 			return new LinkedHashSet<>();
 		} catch (OperationCanceledException ex) {
 			throw processProtocolException(ex);
@@ -339,41 +427,54 @@ public class UserFavoritesService extends AbstractDataStorageService implements
 	public void setFavorites(Collection<? extends INode> nodes, IProgressMonitor monitor)
 			throws NoServiceException, ConflictException, NotAuthorizedException, IllegalStateException, IOException {
 		SubMonitor progress = SubMonitor.convert(monitor, Messages.UserFavoritesService_SettingUserFavorites, 1000);
-		String favoritesData = createFavoritesBlobData(nodes);
+		Set<String> favoriteIds = new LinkedHashSet<>(nodes.size());
+		for (INode node : nodes) {
+			favoriteIds.add(node.getId());
+		}
 		try {
-			if (favoritesData == null || "".equals(favoritesData)) { //$NON-NLS-1$
-				getFavoritesBlob().delete();
-			} else {
-				getFavoritesBlob().setContentsUTF(favoritesData);
-			}
-			progress.worked(900);//FIXME waiting for USS bug 488335 to have proper progress and cancelation
+			writeFavorites(getFavoritesBlob(), favoriteIds, progress.newChild(900));
 		} catch (OperationCanceledException ex) {
 			throw processProtocolException(ex);
 		} catch (ProtocolException ex) {
 			throw processProtocolException(ex);
 		}
+		updateFavorites(favoriteIds, progress.newChild(100));
+	}
+
+	private void writeFavorites(IBlob favoritesBlob, Set<String> favoriteIds, IProgressMonitor monitor)
+			throws ConflictException, IOException {
+		String favoritesData = createFavoritesBlobData(favoriteIds);
+		if (favoritesData == null || "".equals(favoritesData)) { //$NON-NLS-1$
+			favoritesBlob.delete();
+		} else {
+			favoritesBlob.setContentsUTF(favoritesData);
+		}
+		SubMonitor.done(monitor);//FIXME waiting for USS bug 488335 to have proper progress and cancelation
 		synchronized (this) {
-			SubMonitor notifyNewProgress = SubMonitor.convert(progress.newChild(50), nodes.size());
-			Set<String> newFavorites = new HashSet<>();
-			for (INode node : nodes) {
-				String id = node.getId();
-				if (newFavorites.add(id)) {
-					boolean newFavorite = favorites.add(id);
-					if (newFavorite) {
-						didChangeFavorite(id, true);
-					}
-				}
-				notifyNewProgress.worked(1);
+			storedFavorites = new LinkedHashSet<>(favoriteIds);
+			storedETag = favoritesData == null ? null : favoritesBlob.getETag();
+			storedTimestamp = System.currentTimeMillis();
+		}
+	}
+
+	private synchronized void updateFavorites(Set<String> newFavorites, IProgressMonitor monitor) {
+		SubMonitor progress = SubMonitor.convert(monitor, 2);
+		SubMonitor notifyNewProgress = SubMonitor.convert(progress.newChild(1), newFavorites.size());
+		for (String id : newFavorites) {
+			boolean newFavorite = favorites.add(id);
+			if (newFavorite) {
+				didChangeFavorite(id, true);
 			}
-			SubMonitor notifyRemovedProgress = SubMonitor.convert(progress.newChild(50), favorites.size());
-			for (Iterator<String> i = favorites.iterator(); i.hasNext();) {
-				String id = i.next();
-				if (!newFavorites.contains(id)) {
-					i.remove();
-					didChangeFavorite(id, false);
-				}
-				notifyRemovedProgress.worked(1);
+			notifyNewProgress.worked(1);
+		}
+		SubMonitor notifyRemovedProgress = SubMonitor.convert(progress.newChild(1), favorites.size());
+		for (Iterator<String> i = favorites.iterator(); i.hasNext();) {
+			String id = i.next();
+			if (!newFavorites.contains(id)) {
+				i.remove();
+				didChangeFavorite(id, false);
 			}
+			notifyRemovedProgress.worked(1);
 		}
 	}
 
@@ -395,14 +496,11 @@ public class UserFavoritesService extends AbstractDataStorageService implements
 		}
 	}
 
-	protected String createFavoritesBlobData(Collection<? extends INode> nodes) {
-		if (nodes.isEmpty()) {
+	protected String createFavoritesBlobData(Collection<String> favoriteIds) {
+		if (favoriteIds.isEmpty()) {
 			return null;
 		}
-		List<String> nodeIds = new ArrayList<>(nodes.size());
-		for (INode node : nodes) {
-			nodeIds.add(node.getId());
-		}
+		List<String> nodeIds = new ArrayList<>(favoriteIds);
 		Collections.sort(nodeIds);
 		StringBuilder builder = new StringBuilder();
 		boolean first = true;
@@ -435,14 +533,97 @@ public class UserFavoritesService extends AbstractDataStorageService implements
 		alterFavorites(nodes, false, monitor);
 	}
 
+	/**
+	 * Queue the changes and write them together with all other changes that were queued while a previous update was
+	 * running. Returns once the changes have been written, or throws the error that prevented that.
+	 * <p>
+	 * The combined update runs with the monitor of the caller that gets to it first. If that caller cancels, the
+	 * update is run again by the next caller that hasn't been canceled, so canceling one caller doesn't fail the
+	 * others. The changes of a canceled caller can still be written along with theirs.
+	 */
 	private void alterFavorites(Collection<? extends INode> nodes, boolean favorite, IProgressMonitor monitor)
 			throws NotAuthorizedException, ConflictException, IOException {
+		FavoritesUpdate update;
+		synchronized (this) {
+			if (pendingUpdate == null) {
+				pendingUpdate = new FavoritesUpdate();
+			}
+			update = pendingUpdate;
+			for (INode node : nodes) {
+				update.changes.put(node.getId(), favorite);
+			}
+		}
+		synchronized (updateLock) {
+			synchronized (this) {
+				if (pendingUpdate == update) {
+					pendingUpdate = null;
+				}
+			}
+			if (!update.done || (update.canceled && (monitor == null || !monitor.isCanceled()))) {
+				update.failure = null;
+				update.canceled = false;
+				try {
+					applyFavoriteChanges(update.changes, monitor);
+				} catch (IOException | RuntimeException ex) {
+					update.failure = ex;
+					update.canceled = monitor != null && monitor.isCanceled();
+				} finally {
+					update.done = true;
+				}
+			}
+		}
+		if (update.failure instanceof IOException) {
+			throw (IOException) update.failure;
+		} else if (update.failure != null) {
+			throw (RuntimeException) update.failure;
+		}
+	}
+
+	/**
+	 * Apply the changes to the last known favorites and write them conditionally on the blob being unchanged since.
+	 * If it was changed in the meantime, the current favorites are read again and the changes are applied on top of
+	 * them, so concurrent changes to other entries are kept.
+	 * <p>
+	 * The write is only skipped if the changes don't alter favorites that were read during this update. The last known
+	 * favorites can be outdated, e.g. if another client removed an entry that is favorited again now.
+	 */
+	private void applyFavoriteChanges(Map<String, Boolean> changes, IProgressMonitor monitor)
+			throws NotAuthorizedException, ConflictException, IOException {
 		SubMonitor progress = SubMonitor.convert(monitor, Messages.UserFavoritesService_SettingUserFavorites, 1000);
 		ConflictException conflictException = null;
 		for (int i = 0; i < RETRY_COUNT; i++) {
+			progress.setWorkRemaining(1000);
 			try {
-				progress.setWorkRemaining(1000);
-				doAlterFavorites(nodes, favorite, progress.newChild(800));
+				Set<String> baseFavorites;
+				String baseETag;
+				synchronized (this) {
+					baseFavorites = storedFavorites;
+					baseETag = storedETag;
+				}
+				boolean fresh = false;
+				if (baseFavorites == null || conflictException != null) {
+					getFavoriteIds(progress.newChild(300));
+					synchronized (this) {
+						baseFavorites = storedFavorites;
+						baseETag = storedETag;
+					}
+					fresh = true;
+				}
+				Set<String> newFavorites = applyChanges(baseFavorites, changes);
+				if (!fresh && newFavorites.equals(baseFavorites)) {
+					getFavoriteIds(progress.newChild(300));
+					synchronized (this) {
+						baseFavorites = storedFavorites;
+						baseETag = storedETag;
+					}
+					newFavorites = applyChanges(baseFavorites, changes);
+				}
+				if (!newFavorites.equals(baseFavorites)) {
+					IBlob favoritesBlob = getFavoritesBlob();
+					favoritesBlob.setETag(baseETag);
+					writeFavorites(favoritesBlob, newFavorites, progress.newChild(600));
+				}
+				updateFavorites(newFavorites, progress.newChild(100));
 				progress.done();
 				return;
 			} catch (ConflictException e) {
@@ -453,24 +634,29 @@ public class UserFavoritesService extends AbstractDataStorageService implements
 				throw processProtocolException(ex);
 			}
 		}
-		if (conflictException != null) {
-			throw conflictException;
-		}
+		throw conflictException;
 	}
 
-	private void doAlterFavorites(Collection<? extends INode> nodes, boolean favorite, IProgressMonitor monitor)
-			throws ConflictException, IOException {
-		SubMonitor progress = SubMonitor.convert(monitor, Messages.UserFavoritesService_SettingUserFavorites, 1000);
-		List<INode> favorites = getFavorites(progress.newChild(300));
-		for (INode node : nodes) {
-			INode currentFavorite = QueryHelper.findById(favorites, node);
-			if (currentFavorite != null && !favorite) {
-				favorites.remove(currentFavorite);
-			} else if (currentFavorite == null && favorite) {
-				favorites.add(node);
+	private static Set<String> applyChanges(Set<String> favorites, Map<String, Boolean> changes) {
+		Set<String> newFavorites = new LinkedHashSet<>(favorites);
+		for (Map.Entry<String, Boolean> change : changes.entrySet()) {
+			if (change.getValue()) {
+				newFavorites.add(change.getKey());
+			} else {
+				newFavorites.remove(change.getKey());
 			}
 		}
-		setFavorites(favorites, progress.newChild(700));
+		return newFavorites;
+	}
+
+	private static class FavoritesUpdate {
+		private final Map<String, Boolean> changes = new LinkedHashMap<>();
+
+		private boolean done;
+
+		private boolean canceled;
+
+		private Exception failure;
 	}
 
 	@Override
@@ -15,6 +15,9 @@ package org.eclipse.epp.internal.mpc.core.transport.httpclient;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.hc.client5.http.ClientProtocolException;
 import org.apache.hc.client5.http.auth.AuthScope;
@@ -36,6 +39,7 @@ import org.apache.hc.core5.http.HttpHost;
 import org.apache.hc.core5.http.HttpResponse;
 import org.apache.hc.core5.http.io.support.ClassicRequestBuilder;
 import org.apache.hc.core5.http.protocol.HttpContext;
+import org.eclipse.core.net.proxy.IProxyChangeListener;
 import org.eclipse.core.net.proxy.IProxyData;
 import org.eclipse.core.net.proxy.IProxyService;
 import org.eclipse.epp.internal.mpc.core.util.ProxyHelper;
@@ -53,10 +57,22 @@ public class HttpClientService {
 
 	private volatile IProxyService proxyService;
 
+	private static final int MAX_CACHED_REQUEST_CONTEXTS = 64;
+
+	private final Map<String, ResolvedRequestContext> requestContexts = new ConcurrentHashMap<>();
+
+	/**
+	 * Incremented whenever the cached request contexts become invalid
+	 */
+	private final AtomicLong requestContextGeneration = new AtomicLong();
+
+	private final IProxyChangeListener proxyChangeListener = event -> invalidateRequestContexts();
+
 	@Reference(policy = ReferencePolicy.DYNAMIC, policyOption = ReferencePolicyOption.GREEDY, updated = "bindClientFactory", unbind = "unbindClientFactory")
 	void bindClientFactory(HttpClientFactory factory) {
 		context = factory.build(context);
 		client = context.getClient();
+		invalidateRequestContexts();
 	}
 
 	void unbindClientFactory(HttpClientFactory factory) {
@@ -64,14 +80,18 @@ public class HttpClientService {
 	}
 
 	@Reference(field = "proxyService", unbind = "unbindProxyService", policy = ReferencePolicy.DYNAMIC)
-	void bindProxyService(IProxyService proxyService) {
+	public void bindProxyService(IProxyService proxyService) {
 		this.proxyService = proxyService;
+		proxyService.addProxyChangeListener(proxyChangeListener);
+		invalidateRequestContexts();
 	}
 
-	void unbindProxyService(IProxyService proxyService) {
+	public void unbindProxyService(IProxyService proxyService) {
+		proxyService.removeProxyChangeListener(proxyChangeListener);
 		if (this.proxyService == proxyService) {
 			this.proxyService = null;
 		}
+		invalidateRequestContexts();
 	}
 
 	public ClassicHttpResponse execute(ClassicHttpRequest request)
@@ -110,11 +130,80 @@ public class HttpClientService {
 
 	protected void configureRequestExecution(ClassicHttpRequest request, HttpClientContext context,
 			RequestConfig.Builder builder) throws IOException {
+		ResolvedRequestContext requestContext;
 		try {
-			configureProxy(request.getUri(), context, builder);
+			requestContext = getRequestContext(request.getUri());
 		} catch (URISyntaxException e) {
 			throw new IOException(e);
 		}
+		builder.setProxy(requestContext.getProxyHost());
+		if (requestContext.getProxyCredentials() != null) {
+			setAuth(context, requestContext.proxyAuthScope, requestContext.getProxyCredentials());
+		}
+	}
+
+	/**
+	 * Resolve proxy settings and credentials for the given request target. Results are memoized per scheme, host and
+	 * port until the proxy settings or the client configuration change.
+	 */
+	public ResolvedRequestContext getRequestContext(URI uri) throws IOException {
+		String key = getRequestContextKey(uri);
+		if (key == null) {
+			return resolveRequestContext(uri);
+		}
+		ResolvedRequestContext requestContext = requestContexts.get(key);
+		if (requestContext != null) {
+			return requestContext;
+		}
+		long generation = requestContextGeneration.get();
+		requestContext = resolveRequestContext(uri);
+		if (requestContexts.size() >= MAX_CACHED_REQUEST_CONTEXTS) {
+			requestContexts.clear();
+		}
+		ResolvedRequestContext existing = requestContexts.putIfAbsent(key, requestContext);
+		if (existing != null) {
+			return existing;
+		}
+		if (requestContextGeneration.get() != generation) {
+			// the settings changed while resolving, and the invalidation might have missed the new entry
+			requestContexts.remove(key, requestContext);
+		}
+		return requestContext;
+	}
+
+	private static String getRequestContextKey(URI uri) {
+		if (uri.getHost() == null || uri.getScheme() == null) {
+			return null;
+		}
+		return uri.getScheme().toLowerCase() + "://" + uri.getHost().toLowerCase() + ":" + uri.getPort(); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	void invalidateRequestContexts() {
+		// bump the generation first, so concurrent lookups can tell if they resolved with outdated settings
+		requestContextGeneration.incrementAndGet();
+		requestContexts.clear();
+	}
+
+	private ResolvedRequestContext resolveRequestContext(URI uri) throws IOException {
+		IProxyData proxy = getProxyData(uri);
+		if (proxy == null) {
+			return ResolvedRequestContext.NO_PROXY;
+		}
+		HttpHost proxyHost = getProxyHost(proxy);
+		String proxyUserID;
+		if (proxyHost == null || (proxyUserID = proxy.getUserId()) == null) {
+			return new ResolvedRequestContext(proxyHost, null, null);
+		}
+		String domainUserID = NTLMDomainUtil.getNTLMUserName(proxyUserID);
+		char[] password = proxy.getPassword().toCharArray();
+		String domain = NTLMDomainUtil.getNTLMUserDomain(proxyUserID);
+		if (domain != null || !proxyUserID.equals(domainUserID)) {
+			String workstation = NTLMDomainUtil.getNTLMWorkstation();
+			return new ResolvedRequestContext(proxyHost, new AuthScope(proxyHost, null, StandardAuthScheme.NTLM),
+					new NTCredentials(domainUserID, password, workstation, domain));
+		}
+		return new ResolvedRequestContext(proxyHost, new AuthScope(proxyHost, null, null),
+				new UsernamePasswordCredentials(proxyUserID, password));
 	}
 
 	private static ClassicHttpRequest setConfig(ClassicHttpRequest request, RequestConfig config) {
@@ -156,7 +245,7 @@ public class HttpClientService {
 		return proxyService == null ? null : ProxyHelper.getProxyData(uri, proxyService);
 	}
 
-	private HttpHost getProxyHost(IProxyData proxy) {
+	private static HttpHost getProxyHost(IProxyData proxy) {
 		if (IProxyData.HTTPS_PROXY_TYPE.equals(proxy.getType()) || IProxyData.HTTP_PROXY_TYPE.equals(proxy.getType())) {
 			return new HttpHost(proxy.getHost(), proxy.getPort());
 		}
@@ -164,34 +253,6 @@ public class HttpClientService {
 		return null;
 	}
 
-	private void configureProxy(URI uri, HttpClientContext context, RequestConfig.Builder builder) throws IOException {
-		IProxyData proxy = getProxyData(uri);
-		if (proxy != null) {
-			builder.setProxy(getProxyHost(proxy));
-			setProxyAuthentication(context, proxy);
-		} else {
-			builder.setProxy(null);
-		}
-	}
-
-	private void setProxyAuthentication(HttpClientContext context, IProxyData proxy) throws IOException {
-		String proxyUserID;
-		HttpHost proxyHost;
-		if ((proxyUserID = proxy.getUserId()) != null && (proxyHost = getProxyHost(proxy)) != null) {
-			String domainUserID = NTLMDomainUtil.getNTLMUserName(proxyUserID);
-			char[] password = proxy.getPassword().toCharArray();
-			String domain = NTLMDomainUtil.getNTLMUserDomain(proxyUserID);
-			if (domain != null || !proxyUserID.equals(domainUserID)) {
-				String workstation = NTLMDomainUtil.getNTLMWorkstation();
-				setAuth(context, new AuthScope(proxyHost, null, StandardAuthScheme.NTLM),
-						new NTCredentials(domainUserID, password, workstation, domain));
-			} else {
-				setAuth(context, new AuthScope(proxyHost, null, null),
-						new UsernamePasswordCredentials(proxyUserID, password));
-			}
-		}
-	}
-
 	private void setAuth(HttpClientContext clientContext, AuthScope authScope, Credentials credentials) {
 		CredentialsStore authStore = (CredentialsStore) clientContext.getCredentialsProvider();
 		if (authStore == null) {
@@ -201,4 +262,35 @@ public class HttpClientService {
 		}
 		authStore.setCredentials(authScope, credentials);
 	}
+
+	/**
+	 * Proxy host and proxy credentials for one request target.
+	 */
+	public static final class ResolvedRequestContext {
+
+		static final ResolvedRequestContext NO_PROXY = new ResolvedRequestContext(null, null, null);
+
+		private final HttpHost proxyHost;
+
+		private final AuthScope proxyAuthScope;
+
+		private final Credentials proxyCredentials;
+
+		ResolvedRequestContext(HttpHost proxyHost, AuthScope proxyAuthScope, Credentials proxyCredentials) {
+			this.proxyHost = proxyHost;
+			this.proxyAuthScope = proxyAuthScope;
+			this.proxyCredentials = proxyCredentials;
+		}
+
+		/**
+		 * @return the HTTP proxy to use, or null for a direct connection
+		 */
+		public HttpHost getProxyHost() {
+			return proxyHost;
+		}
+
+		public Credentials getProxyCredentials() {
+			return proxyCredentials;
+		}
+	}
 }
@@ -14,6 +14,7 @@ package org.eclipse.epp.internal.mpc.core.transport.httpclient;
 
 import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
@@ -26,13 +27,18 @@ import org.apache.hc.client5.http.classic.HttpClient;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.classic.methods.HttpUriRequest;
 import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.HttpHeaders;
 import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.epp.internal.mpc.core.MarketplaceClientCore;
+import org.eclipse.epp.internal.mpc.core.util.IConditionalTransport;
 import org.eclipse.epp.internal.mpc.core.util.UserAgentUtil;
 import org.eclipse.epp.mpc.core.service.ITransport;
 import org.eclipse.epp.mpc.core.service.ServiceUnavailableException;
@@ -41,7 +47,7 @@ import org.osgi.service.component.annotations.Reference;
 
 @Component(name = "org.eclipse.epp.mpc.core.transport.http", service = { HttpClientTransport.class,
 		ITransport.class })
-public class HttpClientTransport implements ITransport {
+public class HttpClientTransport implements IConditionalTransport {
 
 	public static final String USER_AGENT;
 
@@ -93,8 +99,19 @@ public class HttpClientTransport implements ITransport {
 	@Override
 	public InputStream stream(URI location, IProgressMonitor monitor)
 			throws FileNotFoundException, ServiceUnavailableException, CoreException {
+		return execute(createStreamingRequest(), location, monitor);
+	}
+
+	@Override
+	public ConditionalResponse stream(URI location, String etag, String lastModified, IProgressMonitor monitor)
+			throws FileNotFoundException, ServiceUnavailableException, CoreException {
+		return execute(createConditionalRequest(etag, lastModified), location, monitor);
+	}
+
+	private <T> T execute(RequestTemplate<T> request, URI location, IProgressMonitor monitor)
+			throws FileNotFoundException, ServiceUnavailableException, CoreException {
 		try {
-			return createStreamingRequest().execute(clientService, location, false);
+			return request.execute(clientService, location, false, monitor);
 		} catch (HttpResponseException e) {
 			int statusCode = e.getStatusCode();
 			switch (statusCode) {
@@ -138,6 +155,88 @@ public class HttpClientTransport implements ITransport {
 			protected InputStream handleEmptyResponse() {
 				return new ByteArrayInputStream(new byte[0]);
 			}
+
+			@Override
+			protected InputStream watchResponse(InputStream response, Runnable unwatch) {
+				return closing(response, unwatch);
+			}
+		};
+	}
+
+	protected RequestTemplate<ConditionalResponse> createConditionalRequest(final String etag,
+			final String lastModified) {
+		return new RequestTemplate<>() {
+
+			@Override
+			protected HttpUriRequest createRequest(URI uri) {
+				HttpGet request = new HttpGet(uri);
+				if (etag != null) {
+					request.setHeader(HttpHeaders.IF_NONE_MATCH, etag);
+				}
+				if (lastModified != null) {
+					request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+				}
+				return request;
+			}
+
+			@Override
+			protected ConditionalResponse handleResponse(ClassicHttpResponse response)
+					throws ClientProtocolException, IOException {
+				String responseEtag = getHeaderValue(response, HttpHeaders.ETAG);
+				String responseLastModified = getHeaderValue(response, HttpHeaders.LAST_MODIFIED);
+				HttpEntity entity = response.getEntity();
+				if (response.getCode() == HttpStatus.SC_NOT_MODIFIED) {
+					EntityUtils.consumeQuietly(entity);
+					response.close();
+					return new ConditionalResponse(null, responseEtag == null ? etag : responseEtag,
+							responseLastModified == null ? lastModified : responseLastModified);
+				}
+				handleResponseStatus(response.getCode(), response.getReasonPhrase());
+				ConditionalResponse content = handleResponseEntity(entity);
+				return new ConditionalResponse(content.getContent(), responseEtag, responseLastModified);
+			}
+
+			@Override
+			protected ConditionalResponse handleResponseStream(InputStream content, Charset charset)
+					throws IOException {
+				return new ConditionalResponse(content, null, null);
+			}
+
+			@Override
+			protected ConditionalResponse watchResponse(ConditionalResponse response, Runnable unwatch) {
+				if (response.getContent() == null) {
+					unwatch.run();
+					return response;
+				}
+				return new ConditionalResponse(closing(response.getContent(), unwatch), response.getEtag(),
+						response.getLastModified());
+			}
+
+			@Override
+			protected ConditionalResponse handleEmptyResponse() {
+				return new ConditionalResponse(new ByteArrayInputStream(new byte[0]), null, null);
+			}
+		};
+	}
+
+	private static String getHeaderValue(ClassicHttpResponse response, String name) {
+		Header header = response.getFirstHeader(name);
+		return header == null ? null : header.getValue();
+	}
+
+	/**
+	 * @return a stream that runs the given action when it is closed
+	 */
+	private static InputStream closing(InputStream in, final Runnable onClose) {
+		return new FilterInputStream(in) {
+			@Override
+			public void close() throws IOException {
+				try {
+					super.close();
+				} finally {
+					onClose.run();
+				}
+			}
 		};
 	}
 }
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.internal.mpc.core.transport.httpclient;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.client5.http.classic.methods.HttpUriRequest;
+import org.eclipse.core.runtime.IProgressMonitor;
+
+/**
+ * Aborts running requests as soon as the progress monitor of their caller is cancelled, so a superseded request
+ * doesn't keep its connection busy until the server answered. The monitors are polled from a single daemon thread
+ * that only runs while there are requests to watch.
+ */
+public final class RequestCancellation {
+
+	private static final long POLL_INTERVAL = 100;
+
+	private static final Map<Watch, Boolean> watches = new ConcurrentHashMap<>();
+
+	private static ScheduledExecutorService executor;
+
+	private static ScheduledFuture<?> poller;
+
+	/**
+	 * A watched request. Closing it stops watching, it does not abort the request.
+	 */
+	public static final class Watch implements AutoCloseable {
+
+		private static final Watch NONE = new Watch(null, null);
+
+		private final HttpUriRequest request;
+
+		private final IProgressMonitor monitor;
+
+		private Watch(HttpUriRequest request, IProgressMonitor monitor) {
+			this.request = request;
+			this.monitor = monitor;
+		}
+
+		@Override
+		public void close() {
+			if (this != NONE) {
+				unwatch(this);
+			}
+		}
+
+		private boolean abortIfCanceled() {
+			if (monitor.isCanceled()) {
+				request.abort();
+				return true;
+			}
+			return false;
+		}
+	}
+
+	private RequestCancellation() {
+	}
+
+	/**
+	 * Start watching the given request
+	 *
+	 * @return a handle that must be closed once the request and its response stream are done
+	 */
+	public static Watch watch(Object request, IProgressMonitor monitor) {
+		if (monitor == null || !(request instanceof HttpUriRequest)) {
+			return Watch.NONE;
+		}
+		Watch watch = new Watch((HttpUriRequest) request, monitor);
+		if (watch.abortIfCanceled()) {
+			return watch;
+		}
+		watches.put(watch, Boolean.TRUE);
+		startPolling();
+		return watch;
+	}
+
+	private static void unwatch(Watch watch) {
+		if (watches.remove(watch) != null && watches.isEmpty()) {
+			stopPolling();
+		}
+	}
+
+	private static synchronized void startPolling() {
+		if (poller != null) {
+			return;
+		}
+		if (executor == null) {
+			executor = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread thread = new Thread(r, RequestCancellation.class.getSimpleName());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		poller = executor.scheduleWithFixedDelay(RequestCancellation::poll, POLL_INTERVAL, POLL_INTERVAL,
+				TimeUnit.MILLISECONDS);
+	}
+
+	private static synchronized void stopPolling() {
+		if (poller != null && watches.isEmpty()) {
+			poller.cancel(false);
+			poller = null;
+		}
+	}
+
+	private static void poll() {
+		for (Watch watch : watches.keySet()) {
+			if (watch.abortIfCanceled()) {
+				watches.remove(watch);
+			}
+		}
+		if (watches.isEmpty()) {
+			stopPolling();
+		}
+	}
+}
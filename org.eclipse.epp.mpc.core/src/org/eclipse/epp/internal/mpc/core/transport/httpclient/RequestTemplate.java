@@ -26,6 +26,7 @@ import org.apache.hc.core5.http.ContentType;
 import org.apache.hc.core5.http.HttpEntity;
 import org.apache.hc.core5.http.HttpHeaders;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.eclipse.core.runtime.IProgressMonitor;
 
 
 public abstract class RequestTemplate<T> {
@@ -40,14 +41,46 @@ public abstract class RequestTemplate<T> {
 
 	public T execute(HttpClientService client, URI uri, boolean closeResponse)
 			throws ClientProtocolException, IOException {
+		return execute(client, uri, closeResponse, null);
+	}
+
+	/**
+	 * Execute the request, aborting it if the given monitor is cancelled before the response was handled. For
+	 * streamed responses that aren't closed here, cancellation is also watched until the returned stream is closed.
+	 */
+	public T execute(HttpClientService client, URI uri, boolean closeResponse, IProgressMonitor monitor)
+			throws ClientProtocolException, IOException {
 		ClassicHttpRequest request = createRequest(uri);
 		request = configureRequest(client, request);
-		ClassicHttpResponse response = client.execute(request);
-		T handledResponse = handleResponse(response);
-		if (closeResponse) {
-			response.close();
+		RequestCancellation.Watch watch = RequestCancellation.watch(request, monitor);
+		boolean streaming = false;
+		try {
+			ClassicHttpResponse response = client.execute(request);
+			T handledResponse = handleResponse(response);
+			if (closeResponse) {
+				response.close();
+			} else {
+				handledResponse = watchResponse(handledResponse, watch::close);
+				streaming = true;
+			}
+			return handledResponse;
+		} finally {
+			if (!streaming) {
+				watch.close();
+			}
 		}
-		return handledResponse;
+	}
+
+	/**
+	 * Tie the end of cancellation watching to the life time of an open response. The default implementation stops
+	 * watching right away.
+	 *
+	 * @param unwatch
+	 *            stops watching for cancellation, to be run once the response is closed
+	 */
+	protected T watchResponse(T response, Runnable unwatch) throws IOException {
+		unwatch.run();
+		return response;
 	}
 
 	protected abstract ClassicHttpRequest createRequest(URI uri);
@@ -0,0 +1,643 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.internal.mpc.core.util;
+
+import java.lang.ref.SoftReference;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The display forms of a marketplace description, computed in a single pass over its HTML markup:
+ * <ul>
+ * <li>the teaser, which is the markup before a <code>&lt;!--break--&gt;</code> comment</li>
+ * <li>the plain text of the whole description and of the teaser, with markup removed and whitespace collapsed</li>
+ * <li>sanitized HTML for display in a browser widget, with scripts, embedded objects and event handlers removed and
+ * informal paragraphs (blank lines) marked up</li>
+ * </ul>
+ * Results of {@link #of(String)} are memoized, so the forms can be computed in the background when entries are
+ * retrieved and looked up cheaply once the entries are shown. The memo only keeps the most recently used results, and
+ * only softly, so it gives way when memory gets short.
+ */
+public final class HtmlText {
+
+	private static final int MEMO_SIZE = 100;
+
+	private static final Map<String, SoftReference<HtmlText>> MEMO = new LinkedHashMap<String, SoftReference<HtmlText>>(
+			MEMO_SIZE, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, SoftReference<HtmlText>> eldest) {
+			return size() > MEMO_SIZE;
+		}
+	};
+
+	/**
+	 * Elements that are dropped from the sanitized HTML together with their content
+	 */
+	private static final Set<String> DROPPED_ELEMENTS = new HashSet<>(Arrays.asList("script", "style", "iframe", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			"frame", "frameset", "object", "embed", "applet", "noscript")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+
+	/**
+	 * Elements that separate words in the plain text
+	 */
+	private static final Set<String> BLOCK_ELEMENTS = new HashSet<>(Arrays.asList("br", "p", "div", "li", "ul", "ol", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+			"dl", "dt", "dd", "tr", "td", "th", "table", "h1", "h2", "h3", "h4", "h5", "h6", "hr", "pre", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$ //$NON-NLS-11$ //$NON-NLS-12$ //$NON-NLS-13$ //$NON-NLS-14$ //$NON-NLS-15$
+			"blockquote")); //$NON-NLS-1$
+
+	/**
+	 * Attributes that hold a URL which is loaded or opened by the browser
+	 */
+	private static final Set<String> URL_ATTRIBUTES = new HashSet<>(Arrays.asList("href", "src", "action", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			"formaction", "background", "cite", "data", "poster", "longdesc", "lowsrc", "dynsrc", "codebase", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$
+			"xlink:href")); //$NON-NLS-1$
+
+	/**
+	 * The only URL schemes kept in {@link #URL_ATTRIBUTES}. Relative URLs have no scheme and are kept, too.
+	 */
+	private static final Set<String> SAFE_SCHEMES = new HashSet<>(Arrays.asList("http", "https", "mailto")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+	private static final String BREAK = "break"; //$NON-NLS-1$
+
+	private static final String PARAGRAPH = "<p>"; //$NON-NLS-1$
+
+	private final String teaser;
+
+	private final String plainText;
+
+	private final String plainTeaser;
+
+	private final String html;
+
+	private HtmlText(String teaser, String plainText, String plainTeaser, String html) {
+		this.teaser = teaser;
+		this.plainText = plainText;
+		this.plainTeaser = plainTeaser;
+		this.html = html;
+	}
+
+	/**
+	 * @return the markup before the <code>&lt;!--break--&gt;</code> comment, or null if there is no such comment or
+	 *         nothing but whitespace before it
+	 */
+	public String getTeaser() {
+		return teaser;
+	}
+
+	/**
+	 * @return the text without markup, with every run of whitespace replaced by a single space and trimmed
+	 */
+	public String getPlainText() {
+		return plainText;
+	}
+
+	/**
+	 * @return the plain text of the {@link #getTeaser() teaser}, or null if there is no teaser
+	 */
+	public String getPlainTeaser() {
+		return plainTeaser;
+	}
+
+	/**
+	 * @return the sanitized HTML markup
+	 */
+	public String getHtml() {
+		return html;
+	}
+
+	/**
+	 * @return the display forms of the given text, memoized, or null if the text is null
+	 */
+	public static HtmlText of(String text) {
+		if (text == null) {
+			return null;
+		}
+		synchronized (MEMO) {
+			SoftReference<HtmlText> reference = MEMO.get(text);
+			HtmlText result = reference == null ? null : reference.get();
+			if (result != null) {
+				return result;
+			}
+		}
+		HtmlText result = parse(text);
+		synchronized (MEMO) {
+			MEMO.put(text, new SoftReference<>(result));
+		}
+		return result;
+	}
+
+	/**
+	 * @return the display forms of the given text, or null if the text is null
+	 */
+	public static HtmlText parse(String text) {
+		if (text == null) {
+			return null;
+		}
+		Scanner scanner = new Scanner(text, true, true);
+		scanner.scan();
+		String plainText = scanner.plain.toString();
+		String teaser = null;
+		String plainTeaser = null;
+		if (scanner.breakStart > 0) {
+			teaser = text.substring(0, scanner.breakStart).trim();
+			if (teaser.isEmpty()) {
+				teaser = null;
+			} else {
+				plainTeaser = plainText.substring(0, scanner.plainLengthAtBreak);
+			}
+		}
+		return new HtmlText(teaser, plainText, plainTeaser, scanner.html.toString());
+	}
+
+	/**
+	 * Remove all tags, keeping the text between them exactly as it is
+	 *
+	 * @see TextUtil#stripHtmlMarkup(String)
+	 */
+	static String stripMarkup(String text) {
+		Scanner scanner = new Scanner(text, false, false);
+		scanner.scan();
+		return scanner.plain.toString();
+	}
+
+	/**
+	 * Mark up blank lines that are not next to a tag as paragraphs, keeping everything else as it is
+	 *
+	 * @see TextUtil#cleanInformalHtmlMarkup(String)
+	 */
+	static String markParagraphs(String text) {
+		StringBuilder html = new StringBuilder(text.length() + 16);
+		appendWithParagraphs(html, text, 0, text.length());
+		return html.toString();
+	}
+
+	private static void appendWithParagraphs(StringBuilder html, String text, int start, int end) {
+		int segmentStart = start;
+		int i = start;
+		while (i < end) {
+			if (!Character.isWhitespace(text.charAt(i))) {
+				i++;
+				continue;
+			}
+			int runStart = i;
+			int lineBreaks = 0;
+			while (i < end && Character.isWhitespace(text.charAt(i))) {
+				char c = text.charAt(i);
+				if (c == '\n' || (c == '\r' && (i + 1 >= text.length() || text.charAt(i + 1) != '\n'))) {
+					lineBreaks++;
+				}
+				i++;
+			}
+			if (lineBreaks >= 2 && (runStart == 0 || text.charAt(runStart - 1) != '>')
+					&& (i == text.length() || text.charAt(i) != '<')) {
+				html.append(text, segmentStart, runStart).append(PARAGRAPH);
+				segmentStart = i;
+			}
+		}
+		html.append(text, segmentStart, end);
+	}
+
+	private static final class Scanner {
+
+		private static final int COMMENT = 0;
+
+		private static final int DECLARATION = 1;
+
+		private static final int TAG = 2;
+
+		private final String text;
+
+		private final int length;
+
+		private final boolean collapse;
+
+		private final StringBuilder plain;
+
+		private final StringBuilder html;
+
+		private int breakStart = -1;
+
+		private int plainLengthAtBreak;
+
+		private boolean pendingSpace;
+
+		// markup that can't be closed anymore is treated as text without looking for its end again
+		private boolean unclosedComment;
+
+		private boolean unclosedTag;
+
+		// the markup that was scanned last
+		private int markupKind;
+
+		private String tagName;
+
+		private boolean closingTag;
+
+		private boolean selfClosingTag;
+
+		private int[] unsafeAttributes = new int[8];
+
+		private int unsafeAttributeCount;
+
+		private char decodedReference;
+
+		Scanner(String text, boolean collapse, boolean sanitize) {
+			this.text = text;
+			this.length = text.length();
+			this.collapse = collapse;
+			this.plain = new StringBuilder(length);
+			this.html = sanitize ? new StringBuilder(length + 16) : null;
+		}
+
+		void scan() {
+			int textStart = 0;
+			int i = 0;
+			while (i < length) {
+				if (text.charAt(i) != '<') {
+					i++;
+					continue;
+				}
+				int end = scanMarkup(i);
+				if (end < 0) {
+					i++;
+					continue;
+				}
+				text(textStart, i);
+				i = markup(i, end);
+				textStart = i;
+			}
+			text(textStart, length);
+		}
+
+		/**
+		 * @return the end of the markup starting at the given position, or -1 if it isn't markup
+		 */
+		private int scanMarkup(int start) {
+			if (text.startsWith("<!--", start)) { //$NON-NLS-1$
+				markupKind = COMMENT;
+				return scanComment(start);
+			}
+			if (start + 1 >= length) {
+				return -1;
+			}
+			char next = text.charAt(start + 1);
+			if (next == '!' || next == '?') {
+				// declarations and processing instructions
+				if (unclosedTag) {
+					return -1;
+				}
+				int end = text.indexOf('>', start);
+				if (end < 0) {
+					unclosedTag = true;
+					return -1;
+				}
+				markupKind = DECLARATION;
+				return end + 1;
+			}
+			markupKind = TAG;
+			return scanTag(start);
+		}
+
+		/**
+		 * Process the markup that was just scanned
+		 *
+		 * @return the position to continue at
+		 */
+		private int markup(int start, int end) {
+			switch (markupKind) {
+			case COMMENT:
+				if (breakStart < 0 && BREAK.equals(text.substring(start + 4, end - 3).trim())) {
+					breakStart = start;
+					plainLengthAtBreak = plain.length();
+				}
+				if (html != null) {
+					html.append(text, start, end);
+				}
+				return end;
+			case DECLARATION:
+				separateWords();
+				return end;
+			default:
+				break;
+			}
+			if (!closingTag && !selfClosingTag && DROPPED_ELEMENTS.contains(tagName)) {
+				if (html == null) {
+					// stripping only removes the tags
+					return end;
+				}
+				separateWords();
+				return findEndTag(end, tagName);
+			}
+			if (BLOCK_ELEMENTS.contains(tagName)) {
+				separateWords();
+			}
+			if (html != null) {
+				if (closingTag && DROPPED_ELEMENTS.contains(tagName)) {
+					// stray end tag
+				} else if (unsafeAttributeCount == 0) {
+					html.append(text, start, end);
+				} else {
+					int copied = start;
+					for (int a = 0; a < unsafeAttributeCount; a += 2) {
+						html.append(text, copied, unsafeAttributes[a]);
+						copied = unsafeAttributes[a + 1];
+					}
+					html.append(text, copied, end);
+				}
+			}
+			return end;
+		}
+
+		private int scanComment(int start) {
+			if (unclosedComment) {
+				return -1;
+			}
+			int end = text.indexOf("-->", start + 4); //$NON-NLS-1$
+			if (end < 0) {
+				unclosedComment = true;
+				return -1;
+			}
+			return end + 3;
+		}
+
+		/**
+		 * Scan a start or end tag with its attributes.
+		 *
+		 * @return the end of the tag, or -1 if there is no tag at the given position
+		 */
+		private int scanTag(int start) {
+			if (unclosedTag) {
+				return -1;
+			}
+			int i = start + 1;
+			closingTag = i < length && text.charAt(i) == '/';
+			if (closingTag) {
+				i++;
+			}
+			if (i >= length || !isAsciiLetter(text.charAt(i))) {
+				return -1;
+			}
+			int nameStart = i;
+			while (i < length && Character.isLetterOrDigit(text.charAt(i))) {
+				i++;
+			}
+			int nameEnd = i;
+			selfClosingTag = false;
+			unsafeAttributeCount = 0;
+			while (true) {
+				int attributeStart = i;
+				while (i < length && Character.isWhitespace(text.charAt(i))) {
+					i++;
+				}
+				if (i >= length) {
+					unclosedTag = true;
+					return -1;
+				}
+				char c = text.charAt(i);
+				if (c == '>') {
+					break;
+				}
+				if (c == '/') {
+					i++;
+					if (i < length && text.charAt(i) == '>') {
+						selfClosingTag = true;
+						break;
+					}
+					continue;
+				}
+				if (i == attributeStart || c == '"' || c == '\'' || c == '=' || c == '<') {
+					// attributes need to be separated by whitespace
+					return -1;
+				}
+				int attributeNameStart = i;
+				while (i < length && !isAttributeNameEnd(text.charAt(i))) {
+					i++;
+				}
+				int attributeNameEnd = i;
+				boolean unsafe = text.regionMatches(true, attributeNameStart, "on", 0, 2); //$NON-NLS-1$
+				int valueEnd = i;
+				while (valueEnd < length && Character.isWhitespace(text.charAt(valueEnd))) {
+					valueEnd++;
+				}
+				if (valueEnd < length && text.charAt(valueEnd) == '=') {
+					valueEnd++;
+					while (valueEnd < length && Character.isWhitespace(text.charAt(valueEnd))) {
+						valueEnd++;
+					}
+					if (valueEnd >= length) {
+						unclosedTag = true;
+						return -1;
+					}
+					char quote = text.charAt(valueEnd);
+					int valueStart;
+					if (quote == '"' || quote == '\'') {
+						valueStart = valueEnd + 1;
+						valueEnd = text.indexOf(quote, valueStart);
+						if (valueEnd < 0) {
+							unclosedTag = true;
+							return -1;
+						}
+						i = valueEnd + 1;
+					} else {
+						valueStart = valueEnd;
+						while (valueEnd < length && !Character.isWhitespace(text.charAt(valueEnd))
+								&& text.charAt(valueEnd) != '>') {
+							valueEnd++;
+						}
+						i = valueEnd;
+					}
+					unsafe |= isUnsafeValue(attributeNameStart, attributeNameEnd, valueStart, valueEnd);
+				}
+				if (unsafe) {
+					addUnsafeAttribute(attributeStart, i);
+				}
+			}
+			tagName = text.substring(nameStart, nameEnd).toLowerCase(Locale.ENGLISH);
+			return i + 1;
+		}
+
+		private int findEndTag(int from, String name) {
+			int i = from;
+			while ((i = text.indexOf("</", i)) >= 0) { //$NON-NLS-1$
+				int nameEnd = i + 2 + name.length();
+				if (text.regionMatches(true, i + 2, name, 0, name.length())
+						&& (nameEnd >= length || !Character.isLetterOrDigit(text.charAt(nameEnd)))) {
+					int end = text.indexOf('>', nameEnd);
+					return end < 0 ? length : end + 1;
+				}
+				i += 2;
+			}
+			return length;
+		}
+
+		/**
+		 * URL attributes are only kept with one of the {@link #SAFE_SCHEMES}, other attributes are dropped if they hold
+		 * a script URL.
+		 */
+		private boolean isUnsafeValue(int nameStart, int nameEnd, int valueStart, int valueEnd) {
+			String scheme = scheme(valueStart, valueEnd);
+			if (scheme == null) {
+				return false;
+			}
+			if (URL_ATTRIBUTES.contains(text.substring(nameStart, nameEnd).toLowerCase(Locale.ENGLISH))) {
+				return !SAFE_SCHEMES.contains(scheme);
+			}
+			return "javascript".equals(scheme) || "vbscript".equals(scheme); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		/**
+		 * Find the scheme of the URL in the given attribute value the way a browser reads it, with character
+		 * references decoded and whitespace and control characters skipped.
+		 *
+		 * @return the lower-case scheme, or null if the value has none
+		 */
+		private String scheme(int start, int end) {
+			StringBuilder scheme = new StringBuilder();
+			int i = start;
+			while (i < end) {
+				char c = text.charAt(i++);
+				if (c == '&') {
+					int referenceEnd = scanReference(i, end);
+					if (referenceEnd > i) {
+						c = decodedReference;
+						i = referenceEnd;
+					}
+				}
+				if (c <= ' ') {
+					continue;
+				}
+				if (c == ':') {
+					return scheme.toString().toLowerCase(Locale.ENGLISH);
+				}
+				if (c == '/' || c == '?' || c == '#') {
+					return null;
+				}
+				scheme.append(c);
+			}
+			return null;
+		}
+
+		/**
+		 * Decode a numeric or one of the named character references that can hide a URL scheme into
+		 * {@link #decodedReference}.
+		 *
+		 * @return the end of the reference following an ampersand at the given position, or the position itself if
+		 *         there is no such reference
+		 */
+		private int scanReference(int start, int end) {
+			if (start < end && text.charAt(start) == '#') {
+				int i = start + 1;
+				int radix = 10;
+				if (i < end && (text.charAt(i) == 'x' || text.charAt(i) == 'X')) {
+					radix = 16;
+					i++;
+				}
+				int code = 0;
+				int digitsStart = i;
+				while (i < end && Character.digit(text.charAt(i), radix) >= 0) {
+					code = Math.min(code * radix + Character.digit(text.charAt(i), radix), Character.MAX_VALUE);
+					i++;
+				}
+				if (i == digitsStart) {
+					return start;
+				}
+				decodedReference = (char) code;
+				return i < end && text.charAt(i) == ';' ? i + 1 : i;
+			}
+			int i = start;
+			while (i < end && Character.isLetterOrDigit(text.charAt(i))) {
+				i++;
+			}
+			if (i >= end || text.charAt(i) != ';') {
+				return start;
+			}
+			switch (text.substring(start, i)) {
+			case "colon": //$NON-NLS-1$
+				decodedReference = ':';
+				break;
+			case "Tab": //$NON-NLS-1$
+				decodedReference = '\t';
+				break;
+			case "NewLine": //$NON-NLS-1$
+				decodedReference = '\n';
+				break;
+			case "sol": //$NON-NLS-1$
+				decodedReference = '/';
+				break;
+			case "quest": //$NON-NLS-1$
+				decodedReference = '?';
+				break;
+			case "num": //$NON-NLS-1$
+				decodedReference = '#';
+				break;
+			case "amp": //$NON-NLS-1$
+				decodedReference = '&';
+				break;
+			default:
+				return start;
+			}
+			return i + 1;
+		}
+
+		private void addUnsafeAttribute(int start, int end) {
+			if (unsafeAttributeCount == unsafeAttributes.length) {
+				unsafeAttributes = Arrays.copyOf(unsafeAttributes, unsafeAttributes.length * 2);
+			}
+			unsafeAttributes[unsafeAttributeCount++] = start;
+			unsafeAttributes[unsafeAttributeCount++] = end;
+		}
+
+		private void separateWords() {
+			if (collapse) {
+				pendingSpace = true;
+			}
+		}
+
+		private void text(int start, int end) {
+			if (start >= end) {
+				return;
+			}
+			if (html != null) {
+				appendWithParagraphs(html, text, start, end);
+			}
+			if (!collapse) {
+				plain.append(text, start, end);
+				return;
+			}
+			for (int i = start; i < end; i++) {
+				char c = text.charAt(i);
+				if (Character.isWhitespace(c)) {
+					pendingSpace = true;
+				} else {
+					if (pendingSpace && plain.length() > 0) {
+						plain.append(' ');
+					}
+					pendingSpace = false;
+					plain.append(c);
+				}
+			}
+		}
+
+		private static boolean isAsciiLetter(char c) {
+			return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+		}
+
+		private static boolean isAttributeNameEnd(char c) {
+			return Character.isWhitespace(c) || c == '>' || c == '/' || c == '=' || c == '"' || c == '\'';
+		}
+	}
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.internal.mpc.core.util;
+
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.epp.mpc.core.service.ITransport;
+import org.eclipse.epp.mpc.core.service.ServiceUnavailableException;
+
+/**
+ * A transport that can revalidate previously downloaded content using HTTP validators.
+ */
+public interface IConditionalTransport extends ITransport {
+
+	public static final class ConditionalResponse implements Closeable {
+
+		private final InputStream content;
+
+		private final String etag;
+
+		private final String lastModified;
+
+		public ConditionalResponse(InputStream content, String etag, String lastModified) {
+			this.content = content;
+			this.etag = etag;
+			this.lastModified = lastModified;
+		}
+
+		/**
+		 * @return true if the server confirmed that the previously retrieved content is still current
+		 */
+		public boolean isNotModified() {
+			return content == null;
+		}
+
+		/**
+		 * @return the new content, or null if {@link #isNotModified() not modified}
+		 */
+		public InputStream getContent() {
+			return content;
+		}
+
+		public String getEtag() {
+			return etag;
+		}
+
+		public String getLastModified() {
+			return lastModified;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (content != null) {
+				content.close();
+			}
+		}
+	}
+
+	/**
+	 * Retrieve the given location unless it still matches the given validators.
+	 *
+	 * @param etag
+	 *            the entity tag of the previously retrieved content, or null
+	 * @param lastModified
+	 *            the last modification date of the previously retrieved content as sent by the server, or null
+	 */
+	public ConditionalResponse stream(URI location, String etag, String lastModified, IProgressMonitor monitor)
+			throws FileNotFoundException, ServiceUnavailableException, CoreException;
+}
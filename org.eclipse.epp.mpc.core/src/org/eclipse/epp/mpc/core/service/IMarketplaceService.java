@@ -15,6 +15,7 @@ package org.eclipse.epp.mpc.core.service;
 
 import java.net.URI;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Set;
@@ -22,6 +23,7 @@ import java.util.Set;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.epp.internal.mpc.core.model.SearchResult;
 import org.eclipse.epp.internal.mpc.core.service.AbstractDataStorageService.NotAuthorizedException;
 import org.eclipse.epp.mpc.core.model.ICategory;
 import org.eclipse.epp.mpc.core.model.IFavoriteList;
@@ -110,6 +112,34 @@ public interface IMarketplaceService {
 	ISearchResult search(IMarket market, ICategory category, String queryText, IProgressMonitor monitor)
 			throws CoreException;
 
+	/**
+	 * Get one page of the results of a text query, and optionally specify the market/category. The match count of the
+	 * returned result is the total over all pages, so callers can tell if more pages are available.
+	 *
+	 * @param market
+	 *            the market to search in, or null if the search should span all markets
+	 * @param category
+	 *            the category to search in, or null if the search should span all categories
+	 * @param queryText
+	 *            the query text, must not be null
+	 * @param page
+	 *            the zero-based page to retrieve, where page 0 is the same as
+	 *            {@link #search(IMarket, ICategory, String, IProgressMonitor)}
+	 * @return the search result for the requested page. Implementations that don't support pages other than the first
+	 *         one return a result without nodes and without a match count for them, like for a page past the last
+	 *         one.
+	 * @since 1.11
+	 */
+	default ISearchResult search(IMarket market, ICategory category, String queryText, int page,
+			IProgressMonitor monitor) throws CoreException {
+		if (page != 0) {
+			SearchResult result = new SearchResult();
+			result.setNodes(new ArrayList<>());
+			return result;
+		}
+		return search(market, category, queryText, monitor);
+	}
+
 	/**
 	 * Find nodes in the marketplace tagged with the given tag. Only nodes having an exact (case-insensitie) match for
 	 * the given tag will be returned.
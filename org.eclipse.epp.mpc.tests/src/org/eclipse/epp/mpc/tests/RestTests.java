@@ -14,9 +14,14 @@ package org.eclipse.epp.mpc.tests;
 
 import org.eclipse.epp.mpc.tests.service.CatalogServiceTest;
 import org.eclipse.epp.mpc.tests.service.DefaultMarketplaceServiceTest;
+import org.eclipse.epp.mpc.tests.service.NodeIndexTest;
 import org.eclipse.epp.mpc.tests.service.SolutionCompatibilityFilterTest;
+import org.eclipse.epp.mpc.tests.service.UserFavoritesUpdateTest;
 import org.eclipse.epp.mpc.tests.service.xml.UnmarshallerTest;
+import org.eclipse.epp.mpc.tests.util.HtmlTextTest;
+import org.eclipse.epp.mpc.tests.util.HttpClientServiceTest;
 import org.eclipse.epp.mpc.tests.util.ProxyConfigurationTest;
+import org.eclipse.epp.mpc.tests.util.RequestCancellationTest;
 import org.eclipse.epp.mpc.tests.util.TextUtilTest;
 import org.eclipse.epp.mpc.tests.util.TransportFactoryTest;
 import org.junit.runner.RunWith;
@@ -30,10 +35,15 @@ import org.junit.runners.Suite.SuiteClasses;
 	ProxyConfigurationTest.class, //
 	UnmarshallerTest.class, //
 	TextUtilTest.class, //
+	HtmlTextTest.class, //
 	TransportFactoryTest.class, //
+	HttpClientServiceTest.class, //
+	RequestCancellationTest.class, //
 	CatalogServiceTest.class, //
 	DefaultMarketplaceServiceTest.class, //
-	SolutionCompatibilityFilterTest.class
+	NodeIndexTest.class, //
+	SolutionCompatibilityFilterTest.class, //
+	UserFavoritesUpdateTest.class
 })
 public class RestTests {
 }
@@ -12,11 +12,26 @@
  *******************************************************************************/
 package org.eclipse.epp.mpc.tests;
 
+import org.eclipse.epp.mpc.tests.ui.AbstractProvisioningOperationTest;
+import org.eclipse.epp.mpc.tests.ui.ImageCacheTest;
+import org.eclipse.epp.mpc.tests.ui.InstalledUnitsServiceTest;
 import org.eclipse.epp.mpc.tests.ui.catalog.CatalogDescriptorTest;
+import org.eclipse.epp.mpc.tests.ui.catalog.MarketplaceCatalogStrategiesTest;
 import org.eclipse.epp.mpc.tests.ui.catalog.MarketplaceInfoSerializationTest;
 import org.eclipse.epp.mpc.tests.ui.catalog.MarketplaceInfoTest;
+import org.eclipse.epp.mpc.tests.ui.catalog.RecentSearchResultsTest;
+import org.eclipse.epp.mpc.tests.ui.catalog.ResourceCacheTest;
+import org.eclipse.epp.mpc.tests.ui.catalog.ResourceDownloadSchedulerTest;
+import org.eclipse.epp.mpc.tests.ui.catalog.ResourceProviderTest;
+import org.eclipse.epp.mpc.tests.ui.catalog.SearchTermsTest;
+import org.eclipse.epp.mpc.tests.ui.catalog.UpdateAvailabilityServiceTest;
+import org.eclipse.epp.mpc.tests.ui.catalog.UpdateSiteProbeTest;
+import org.eclipse.epp.mpc.tests.ui.discovery.TagIndexTest;
+import org.eclipse.epp.mpc.tests.ui.discovery.TagLookupServiceTest;
+import org.eclipse.epp.mpc.tests.ui.wizard.BrowserPoolTest;
 import org.eclipse.epp.mpc.tests.ui.wizard.MarketplaceUrlHandlerTest;
 import org.eclipse.epp.mpc.tests.ui.wizard.SelectionModelStateSerializerTest;
+import org.eclipse.epp.mpc.tests.ui.wizard.VirtualControlListViewerTest;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite.SuiteClasses;
 
@@ -29,7 +44,22 @@ import org.junit.runners.Suite.SuiteClasses;
 	MarketplaceUrlHandlerTest.class, //
 	MarketplaceInfoTest.class, //
 	MarketplaceInfoSerializationTest.class, //
-	CatalogDescriptorTest.class //
+	CatalogDescriptorTest.class, //
+	ResourceCacheTest.class, //
+	ResourceProviderTest.class, //
+	ResourceDownloadSchedulerTest.class, //
+	SearchTermsTest.class, //
+	RecentSearchResultsTest.class, //
+	UpdateAvailabilityServiceTest.class, //
+	UpdateSiteProbeTest.class, //
+	TagLookupServiceTest.class, //
+	TagIndexTest.class, //
+	ImageCacheTest.class, //
+	InstalledUnitsServiceTest.class, //
+	MarketplaceCatalogStrategiesTest.class, //
+	AbstractProvisioningOperationTest.class, //
+	VirtualControlListViewerTest.class, //
+	BrowserPoolTest.class //
 
 })
 public class UITests {
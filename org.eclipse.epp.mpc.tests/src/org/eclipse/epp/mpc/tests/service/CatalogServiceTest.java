@@ -15,6 +15,8 @@ package org.eclipse.epp.mpc.tests.service;
 
 import static org.junit.Assert.*;
 
+import java.io.File;
+import java.net.URL;
 import java.util.Collections;
 import java.util.List;
 
@@ -24,6 +26,8 @@ import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.epp.internal.mpc.core.ServiceLocator;
 import org.eclipse.epp.internal.mpc.core.model.Catalog;
 import org.eclipse.epp.internal.mpc.core.service.CatalogService;
+import org.eclipse.epp.internal.mpc.core.service.DefaultCatalogService;
+import org.eclipse.epp.internal.mpc.core.service.RemoteMarketplaceService;
 import org.eclipse.epp.internal.mpc.core.util.ServiceUtil;
 import org.eclipse.epp.mpc.core.model.ICatalog;
 import org.eclipse.epp.mpc.core.service.ICatalogService;
@@ -31,8 +35,10 @@ import org.eclipse.epp.mpc.core.service.IMarketplaceServiceLocator;
 import org.eclipse.epp.mpc.tests.Categories.RemoteTests;
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.junit.runners.BlockJUnit4ClassRunner;
 import org.osgi.framework.BundleContext;
@@ -54,6 +60,9 @@ public class CatalogServiceTest {
 		}
 	}
 
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
 	private ICatalogService catalogService;
 
 	private IMarketplaceServiceLocator serviceLocator;
@@ -99,6 +108,43 @@ public class CatalogServiceTest {
 		}
 	}
 
+	@Test
+	public void cachedCatalogs() throws Exception {
+		String baseUrl = "https://marketplace.example.org";
+		File cacheDirectory = temporaryFolder.newFolder("catalogs");
+		MappedTransportFactory transportFactory = MappedTransportFactory.get();
+		try {
+			transportFactory.map(baseUrl + "/catalogs/" + RemoteMarketplaceService.API_URI_SUFFIX,
+					CatalogServiceTest.class.getResource("xml/resources/catalogs.xml").toExternalForm());
+			DefaultCatalogService service = new DefaultCatalogService(new URL(baseUrl));
+			service.setCacheDirectory(cacheDirectory);
+			assertNull(service.listCachedCatalogs(new NullProgressMonitor()));
+
+			List<? extends ICatalog> catalogs = service.listCatalogs(new NullProgressMonitor());
+			assertEquals(3, catalogs.size());
+			assertEquals(1, cacheDirectory.listFiles().length);
+
+			// a later session reads them without contacting the server
+			DefaultCatalogService cachedService = new DefaultCatalogService(new URL(baseUrl));
+			cachedService.setCacheDirectory(cacheDirectory);
+			List<? extends ICatalog> cachedCatalogs = cachedService.listCachedCatalogs(new NullProgressMonitor());
+			assertNotNull(cachedCatalogs);
+			assertEquals(catalogs.size(), cachedCatalogs.size());
+			for (int i = 0; i < catalogs.size(); i++) {
+				assertEquals(catalogs.get(i).getId(), cachedCatalogs.get(i).getId());
+				assertEquals(catalogs.get(i).getName(), cachedCatalogs.get(i).getName());
+				assertEquals(catalogs.get(i).getUrl(), cachedCatalogs.get(i).getUrl());
+			}
+
+			// each server has its own cache
+			DefaultCatalogService otherService = new DefaultCatalogService(new URL("https://other.example.org"));
+			otherService.setCacheDirectory(cacheDirectory);
+			assertNull(otherService.listCachedCatalogs(new NullProgressMonitor()));
+		} finally {
+			transportFactory.unregister();
+		}
+	}
+
 	@After
 	public void tearDown() {
 		serviceLocator = null;
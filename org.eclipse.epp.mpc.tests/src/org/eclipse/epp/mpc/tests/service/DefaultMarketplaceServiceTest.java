@@ -19,6 +19,7 @@ import static org.hamcrest.Matchers.greaterThan;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.net.MalformedURLException;
@@ -29,6 +30,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -203,6 +205,28 @@ public class DefaultMarketplaceServiceTest {
 		assertEquals(DefaultMarketplaceService.API_TAXONOMY_URI + categoryId + "," + marketId, searchUrl);
 	}
 
+	@Test
+	public void computeRelativeSearchUrlWithPage() {
+		DefaultMarketplaceService service = new DefaultMarketplaceService();
+
+		Market market = new Market();
+		market.setId("31");
+
+		String apiSearchPrefix = DefaultMarketplaceService.API_SEARCH_URI_FULL;
+
+		String searchUrl = service.computeRelativeSearchUrl(null, null, "some query", 0, true);
+		assertEquals(apiSearchPrefix + "some+query", searchUrl);
+
+		searchUrl = service.computeRelativeSearchUrl(null, null, "some query", 2, true);
+		assertEquals(apiSearchPrefix + "some+query?page=2", searchUrl);
+
+		searchUrl = service.computeRelativeSearchUrl(market, null, "some query", 1, true);
+		assertEquals(apiSearchPrefix + "some+query?filters=tid:31&page=1", searchUrl);
+
+		searchUrl = service.computeRelativeSearchUrl(null, null, null, 1, true);
+		assertNull(searchUrl);
+	}
+
 	@Test
 	@org.junit.experimental.categories.Category(RemoteTests.class)
 	public void search() throws CoreException {
@@ -389,4 +413,22 @@ public class DefaultMarketplaceServiceTest {
 			}
 		}
 	}
+
+	@Test
+	public void addMetaParameters() {
+		Map<String, String> metaParameters = new LinkedHashMap<>();
+		metaParameters.put("client", "org.eclipse.epp.mpc.core");
+		metaParameters.put("os", "win 32");
+		metaParameters.put(null, "ignored");
+		metaParameters.put("empty", null);
+		marketplaceService.setRequestMetaParameters(metaParameters);
+
+		assertEquals("http://example.org/api/p?client=org.eclipse.epp.mpc.core&os=win+32&empty=",
+				marketplaceService.addMetaParameters("http://example.org/api/p"));
+		assertEquals("http://example.org/api/p?a=b&client=org.eclipse.epp.mpc.core&os=win+32&empty=",
+				marketplaceService.addMetaParameters("http://example.org/api/p?a=b"));
+
+		marketplaceService.setRequestMetaParameters(null);
+		assertEquals("http://example.org/api/p", marketplaceService.addMetaParameters("http://example.org/api/p"));
+	}
 }
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.mpc.tests.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.epp.internal.mpc.core.model.Node;
+import org.eclipse.epp.internal.mpc.core.service.NodeIndex;
+import org.junit.Test;
+
+/**
+ * Measures indexing and searching a full {@link NodeIndex}. This is not part of any test suite, since timings depend
+ * on the machine. Run it manually to compare changes to the index.
+ */
+public class NodeIndexBenchmark {
+
+	private static final int WARMUP_RUNS = 3;
+
+	private static final int RUNS = 10;
+
+	@Test
+	public void indexAndSearchFullIndex() {
+		List<Node> nodes = NodeIndexTest.nodes(NodeIndex.DEFAULT_MAX_NODES * 2);
+		for (int i = 0; i < WARMUP_RUNS; i++) {
+			run(nodes);
+		}
+		long total = 0;
+		for (int i = 0; i < RUNS; i++) {
+			total += run(nodes);
+		}
+		System.out.println(String.format("%s: indexing %d nodes and running 200 searches took %dms on average",
+				NodeIndexBenchmark.class.getSimpleName(), nodes.size(), TimeUnit.NANOSECONDS.toMillis(total / RUNS)));
+	}
+
+	private static long run(List<Node> nodes) {
+		long start = System.nanoTime();
+		NodeIndex index = new NodeIndex();
+		index.addAll(nodes);
+		for (int i = 0; i < 100; i++) {
+			index.search(null, null, "edit comp", 50);
+			index.search(null, NodeIndexTest.category("category" + i % 20), "solution " + i, 50);
+		}
+		return System.nanoTime() - start;
+	}
+}
@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.mpc.tests.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.epp.internal.mpc.core.model.Categories;
+import org.eclipse.epp.internal.mpc.core.model.Category;
+import org.eclipse.epp.internal.mpc.core.model.Iu;
+import org.eclipse.epp.internal.mpc.core.model.Ius;
+import org.eclipse.epp.internal.mpc.core.model.Market;
+import org.eclipse.epp.internal.mpc.core.model.Node;
+import org.eclipse.epp.internal.mpc.core.model.Tag;
+import org.eclipse.epp.internal.mpc.core.model.Tags;
+import org.eclipse.epp.internal.mpc.core.service.NodeIndex;
+import org.eclipse.epp.mpc.core.model.INode;
+import org.junit.Test;
+
+/**
+ * Test {@link NodeIndex}
+ */
+public class NodeIndexTest {
+
+	@Test
+	public void searchByWordPrefixes() {
+		NodeIndex index = new NodeIndex();
+		index.add(node("1", "Mylyn WikiText", "Lightweight markup editor", "tasks", "org.eclipse.mylyn.wikitext"));
+		index.add(node("2", "Markdown Text Editor", "Edit markdown files", "markdown", "de.example.md"));
+
+		assertEquals(Arrays.asList("1"), ids(index.search(null, null, "wiki", 10)));
+		assertEquals(Arrays.asList("1"), ids(index.search(null, null, "MYLYN edit", 10)));
+		assertEquals(Arrays.asList("1"), ids(index.search(null, null, "wikitext", 10)));
+		assertEquals(Arrays.asList("2"), ids(index.search(null, null, "markd", 10)));
+		assertTrue(index.search(null, null, "ext", 10).isEmpty());
+		assertTrue(index.search(null, null, "mylyn markdown", 10).isEmpty());
+		assertTrue(index.search(null, null, " ", 10).isEmpty());
+	}
+
+	@Test
+	public void nameMatchesFirst() {
+		NodeIndex index = new NodeIndex();
+		index.add(node("1", "Mylyn WikiText", "Lightweight markup editor", "tasks"));
+		index.add(node("2", "Markdown Text Editor", "Edit markdown files", "tools"));
+
+		assertEquals(Arrays.asList("2", "1"), ids(index.search(null, null, "editor", 10)));
+		assertEquals(Arrays.asList("2"), ids(index.search(null, null, "editor", 1)));
+	}
+
+	@Test
+	public void updateReplacesNode() {
+		NodeIndex index = new NodeIndex();
+		index.add(node("1", "Mylyn WikiText", null, "tasks"));
+		index.add(node("1", "Mylyn Docs", null, "tasks"));
+
+		assertEquals(1, index.size());
+		assertTrue(index.search(null, null, "wikitext", 10).isEmpty());
+		assertEquals(Arrays.asList("1"), ids(index.search(null, null, "docs", 10)));
+	}
+
+	@Test
+	public void partialNodeKeepsIndexedDetails() {
+		NodeIndex index = new NodeIndex();
+		Node details = node("1", "Mylyn WikiText", "Lightweight markup editor", "tasks", "org.eclipse.mylyn.wikitext");
+		details.setBody("Supports <b>Textile</b> and Confluence");
+		index.add(details);
+		Node listed = node("1", "Mylyn WikiText", null, null);
+		listed.setCategories(null);
+		listed.setTags(null);
+		index.add(listed);
+
+		assertEquals(1, index.size());
+		assertEquals(Arrays.asList(details), index.search(null, null, "org.eclipse.mylyn", 10));
+		assertEquals(Arrays.asList(details), index.search(null, null, "textile", 10));
+		assertEquals(Arrays.asList(details), index.search(null, category("tasks"), "lightweight", 10));
+	}
+
+	@Test
+	public void searchInCategoryAndMarket() {
+		NodeIndex index = new NodeIndex();
+		index.add(node("1", "Mylyn WikiText", "Text markup", "tasks"));
+		index.add(node("2", "Markdown Text Editor", null, "tools"));
+
+		assertEquals(Arrays.asList("2", "1"), ids(index.search(null, null, "text", 10)));
+		assertEquals(Arrays.asList("1"), ids(index.search(null, category("tasks"), "text", 10)));
+
+		Market market = new Market();
+		market.getCategory().add(category("tools"));
+		assertEquals(Arrays.asList("2"), ids(index.search(market, null, "text", 10)));
+		assertTrue(index.search(market, category("tasks"), "text", 10).isEmpty());
+	}
+
+	@Test
+	public void evictsOldestNodes() {
+		NodeIndex index = new NodeIndex(2);
+		index.add(node("1", "First Plugin", null, "tools"));
+		index.add(node("2", "Second Plugin", null, "tools"));
+		index.add(node("3", "Third Plugin", null, "tools"));
+
+		assertEquals(2, index.size());
+		assertEquals(Arrays.asList("2", "3"), ids(index.search(null, null, "plugin", 10)));
+		assertTrue(index.search(null, null, "first", 10).isEmpty());
+	}
+
+	@Test
+	public void indexAndSearchFullIndex() {
+		NodeIndex index = new NodeIndex();
+		index.addAll(nodes(NodeIndex.DEFAULT_MAX_NODES * 2));
+
+		assertEquals(NodeIndex.DEFAULT_MAX_NODES, index.size());
+		assertEquals(Arrays.asList(String.valueOf(NodeIndex.DEFAULT_MAX_NODES * 2 - 1)),
+				ids(index.search(null, null, "solution" + (NodeIndex.DEFAULT_MAX_NODES * 2 - 1), 50)));
+		assertEquals(50, index.search(null, null, "edit comp", 50).size());
+		assertEquals(Arrays.asList(String.valueOf(NodeIndex.DEFAULT_MAX_NODES * 2 - 20)),
+				ids(index.search(null, category("category0"), "solution " + (NodeIndex.DEFAULT_MAX_NODES * 2 - 20),
+						50)));
+	}
+
+	static List<Node> nodes(int count) {
+		List<Node> nodes = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			nodes.add(node(String.valueOf(i), "Solution " + i + " for Editor Tooling",
+					"Provides language support number " + i + " with completion, validation and refactoring",
+					"category" + i % 20, "org.example.solution" + i + ".feature"));
+		}
+		return nodes;
+	}
+
+	static Node node(String id, String name, String description, String categoryId, String... iuIds) {
+		Node node = new Node();
+		node.setId(id);
+		node.setName(name);
+		node.setShortdescription(description);
+		Categories categories = new Categories();
+		categories.getCategory().add(category(categoryId));
+		node.setCategories(categories);
+		Tags tags = new Tags();
+		Tag tag = new Tag();
+		tag.setName(categoryId);
+		tags.getTags().add(tag);
+		node.setTags(tags);
+		Ius ius = new Ius();
+		for (String iuId : iuIds) {
+			ius.getIuElements().add(new Iu(iuId));
+		}
+		node.setIus(ius);
+		return node;
+	}
+
+	static Category category(String id) {
+		Category category = new Category();
+		category.setId(id);
+		category.setName(id);
+		return category;
+	}
+
+	private static List<String> ids(List<INode> nodes) {
+		List<String> ids = new ArrayList<>();
+		for (INode node : nodes) {
+			ids.add(node.getId());
+		}
+		return ids;
+	}
+}
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.mpc.tests.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.epp.internal.mpc.core.service.UserFavoritesService;
+import org.eclipse.epp.mpc.core.service.IMarketplaceStorageService;
+import org.eclipse.epp.mpc.core.service.IMarketplaceStorageService.LoginListener;
+import org.eclipse.epp.mpc.core.service.QueryHelper;
+import org.eclipse.userstorage.IBlob;
+import org.eclipse.userstorage.util.ConflictException;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+/**
+ * Test how {@link UserFavoritesService} caches the favorites and applies changes to the storage
+ */
+public class UserFavoritesUpdateTest {
+
+	private IBlob blob;
+
+	private UserFavoritesService service;
+
+	@Before
+	public void setUp() {
+		blob = mock(IBlob.class);
+		service = new UserFavoritesService() {
+			@Override
+			protected IBlob getFavoritesBlob() {
+				return blob;
+			}
+		};
+	}
+
+	@Test
+	public void changesAreWrittenWithoutDownload() throws Exception {
+		when(blob.getContentsUTF()).thenReturn("1,2");
+		when(blob.getETag()).thenReturn("v1", "v2");
+		service.getFavoriteIds(null);
+
+		service.setFavorite(QueryHelper.nodeById("3"), true, null);
+		service.setFavorite(QueryHelper.nodeById("1"), false, null);
+
+		verify(blob, times(1)).getContentsUTF();
+		InOrder order = inOrder(blob);
+		order.verify(blob).setETag("v1");
+		order.verify(blob).setContentsUTF("1,2,3");
+		order.verify(blob).setETag("v2");
+		order.verify(blob).setContentsUTF("2,3");
+		assertEquals(ids("2", "3"), service.getLastFavoriteIds());
+	}
+
+	@Test
+	public void favoritesAreReadBeforeFirstChange() throws Exception {
+		when(blob.getContentsUTF()).thenReturn("2");
+		when(blob.getETag()).thenReturn("v1");
+
+		service.setFavorite(QueryHelper.nodeById("1"), true, null);
+
+		verify(blob).setETag("v1");
+		verify(blob).setContentsUTF("1,2");
+		assertEquals(ids("1", "2"), service.getLastFavoriteIds());
+	}
+
+	@Test
+	public void unchangedFavoritesAreNotWritten() throws Exception {
+		when(blob.getContentsUTF()).thenReturn("1,2");
+		service.getFavoriteIds(null);
+
+		service.setFavorite(QueryHelper.nodeById("1"), true, null);
+		service.removeFavorites(Arrays.asList(QueryHelper.nodeById("3")), null);
+
+		// the cached favorites are checked against the current ones before a change is dropped
+		verify(blob, times(3)).getContentsUTF();
+		verify(blob, never()).setContentsUTF(anyString());
+		assertEquals(ids("1", "2"), service.getLastFavoriteIds());
+	}
+
+	@Test
+	public void outdatedCacheDoesNotDropChange() throws Exception {
+		when(blob.getContentsUTF()).thenReturn("1,2", "2");
+		when(blob.getETag()).thenReturn("v1", "v2");
+		service.getFavoriteIds(null);
+
+		// another client removed 1 in the meantime
+		service.setFavorite(QueryHelper.nodeById("1"), true, null);
+
+		InOrder order = inOrder(blob);
+		order.verify(blob).setETag("v2");
+		order.verify(blob).setContentsUTF("1,2");
+		assertEquals(ids("1", "2"), service.getLastFavoriteIds());
+	}
+
+	@Test
+	public void conflictingChangesAreMerged() throws Exception {
+		when(blob.getContentsUTF()).thenReturn("1", "1,5");
+		when(blob.getETag()).thenReturn("v1", "v2", "v3");
+		when(blob.setContentsUTF(anyString())).thenThrow(mock(ConflictException.class)).thenReturn(true);
+		service.getFavoriteIds(null);
+
+		service.setFavorite(QueryHelper.nodeById("3"), true, null);
+
+		InOrder order = inOrder(blob);
+		order.verify(blob).setETag("v1");
+		order.verify(blob).setContentsUTF("1,3");
+		order.verify(blob).setETag("v2");
+		order.verify(blob).setContentsUTF("1,3,5");
+		assertEquals(ids("1", "3", "5"), service.getLastFavoriteIds());
+	}
+
+	@Test
+	public void cachedFavoritesFollowReadsAndWrites() throws Exception {
+		assertNull(service.getCachedFavoriteIds());
+		assertTrue(service.isFavoritesCacheStale());
+
+		when(blob.getContentsUTF()).thenReturn("1,2");
+		service.getFavoriteIds(null);
+		assertEquals(ids("1", "2"), service.getCachedFavoriteIds());
+		assertFalse(service.isFavoritesCacheStale());
+
+		service.setFavorite(QueryHelper.nodeById("3"), true, null);
+		assertEquals(ids("1", "2", "3"), service.getCachedFavoriteIds());
+		verify(blob, times(1)).getContentsUTF();
+	}
+
+	@Test
+	public void loginChangeInvalidatesFavorites() throws Exception {
+		IMarketplaceStorageService storageService = mock(IMarketplaceStorageService.class);
+		ArgumentCaptor<LoginListener> loginListener = ArgumentCaptor.forClass(LoginListener.class);
+		service.setStorageService(storageService);
+		verify(storageService).addLoginListener(loginListener.capture());
+
+		when(blob.getContentsUTF()).thenReturn("1,2");
+		service.getFavoriteIds(null);
+		loginListener.getValue().loginChanged("user", "other");
+
+		assertNull(service.getCachedFavoriteIds());
+		assertTrue(service.isFavoritesCacheStale());
+	}
+
+	private static Set<String> ids(String... ids) {
+		return new HashSet<>(Arrays.asList(ids));
+	}
+}
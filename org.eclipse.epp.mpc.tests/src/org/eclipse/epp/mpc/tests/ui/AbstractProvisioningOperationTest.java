@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.mpc.tests.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.epp.internal.mpc.ui.operations.AbstractProvisioningOperation;
+import org.eclipse.equinox.p2.core.ProvisionException;
+import org.eclipse.equinox.p2.repository.metadata.IMetadataRepository;
+import org.eclipse.equinox.p2.repository.metadata.IMetadataRepositoryManager;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test {@link AbstractProvisioningOperation#loadRepositories(IMetadataRepositoryManager, List, IProgressMonitor)}
+ */
+public class AbstractProvisioningOperationTest {
+
+	private static final long TIMEOUT = 10;
+
+	private static final URI FIRST = URI.create("https://download.example.org/first/");
+
+	private static final URI SECOND = URI.create("https://download.example.org/second/");
+
+	private static final URI THIRD = URI.create("https://download.example.org/third/");
+
+	private IMetadataRepositoryManager manager;
+
+	@Before
+	public void before() {
+		manager = mock(IMetadataRepositoryManager.class);
+	}
+
+	@Test
+	public void repositoriesLoadConcurrently() throws Exception {
+		final CountDownLatch started = new CountDownLatch(2);
+		IMetadataRepository first = mock(IMetadataRepository.class);
+		IMetadataRepository second = mock(IMetadataRepository.class);
+		when(manager.loadRepository(eq(FIRST), any(IProgressMonitor.class))).thenAnswer(invocation -> {
+			started.countDown();
+			assertTrue("Repositories were not loaded concurrently", started.await(TIMEOUT, TimeUnit.SECONDS));
+			return first;
+		});
+		when(manager.loadRepository(eq(SECOND), any(IProgressMonitor.class))).thenAnswer(invocation -> {
+			started.countDown();
+			assertTrue("Repositories were not loaded concurrently", started.await(TIMEOUT, TimeUnit.SECONDS));
+			return second;
+		});
+
+		List<IMetadataRepository> repositories = AbstractProvisioningOperation.loadRepositories(manager,
+				Arrays.asList(FIRST, SECOND), new NullProgressMonitor());
+
+		assertEquals(Arrays.asList(first, second), repositories);
+	}
+
+	@Test
+	public void failuresAreAggregated() throws Exception {
+		ProvisionException firstFailure = new ProvisionException(
+				new Status(IStatus.ERROR, "org.eclipse.epp.mpc.tests", "first failed"));
+		ProvisionException thirdFailure = new ProvisionException(
+				new Status(IStatus.ERROR, "org.eclipse.epp.mpc.tests", "third failed"));
+		IMetadataRepository second = mock(IMetadataRepository.class);
+		when(manager.loadRepository(eq(FIRST), any(IProgressMonitor.class))).thenThrow(firstFailure);
+		when(manager.loadRepository(eq(SECOND), any(IProgressMonitor.class))).thenReturn(second);
+		when(manager.loadRepository(eq(THIRD), any(IProgressMonitor.class))).thenThrow(thirdFailure);
+
+		try {
+			AbstractProvisioningOperation.loadRepositories(manager, Arrays.asList(FIRST, SECOND, THIRD),
+					new NullProgressMonitor());
+			fail("Expected ProvisionException");
+		} catch (ProvisionException e) {
+			IStatus status = e.getStatus();
+			assertTrue(status.isMultiStatus());
+			IStatus[] children = status.getChildren();
+			assertEquals(2, children.length);
+			assertRepositoryFailure(children[0], FIRST, firstFailure);
+			assertRepositoryFailure(children[1], THIRD, thirdFailure);
+		}
+		verify(manager).loadRepository(eq(SECOND), any(IProgressMonitor.class));
+	}
+
+	@Test
+	public void singleFailureIsNotWrapped() throws Exception {
+		ProvisionException failure = new ProvisionException(
+				new Status(IStatus.ERROR, "org.eclipse.epp.mpc.tests", "second failed"));
+		IMetadataRepository first = mock(IMetadataRepository.class);
+		when(manager.loadRepository(eq(FIRST), any(IProgressMonitor.class))).thenReturn(first);
+		when(manager.loadRepository(eq(SECOND), any(IProgressMonitor.class))).thenThrow(failure);
+
+		try {
+			AbstractProvisioningOperation.loadRepositories(manager, Arrays.asList(FIRST, SECOND),
+					new NullProgressMonitor());
+			fail("Expected ProvisionException");
+		} catch (ProvisionException e) {
+			assertRepositoryFailure(e.getStatus(), SECOND, failure);
+		}
+	}
+
+	private static void assertRepositoryFailure(IStatus status, URI location, ProvisionException failure) {
+		assertEquals(IStatus.ERROR, status.getSeverity());
+		assertTrue(status.getMessage(), status.getMessage().contains(location.toString()));
+		IStatus[] children = status.getChildren();
+		assertEquals(1, children.length);
+		assertSame(failure.getStatus(), children[0]);
+	}
+}
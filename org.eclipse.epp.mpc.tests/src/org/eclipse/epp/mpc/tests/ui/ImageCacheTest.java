@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.mpc.tests.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URL;
+
+import org.eclipse.epp.internal.mpc.ui.util.ImageCache;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.ImageLoader;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.RGB;
+import org.eclipse.swt.widgets.Display;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test {@link ImageCache}
+ */
+public class ImageCacheTest {
+
+	@Rule
+	public TemporaryFolder testData = new TemporaryFolder();
+
+	private ImageCache cache;
+
+	private URL imageUrl;
+
+	@Before
+	public void before() throws Exception {
+		cache = ImageCache.getInstance(Display.getDefault());
+		ImageData data = new ImageData(128, 64, 24, new PaletteData(0xff0000, 0xff00, 0xff));
+		ImageLoader loader = new ImageLoader();
+		loader.data = new ImageData[] { data };
+		File file = testData.newFile("image.png");
+		loader.save(file.getAbsolutePath(), SWT.IMAGE_PNG);
+		imageUrl = file.toURI().toURL();
+	}
+
+	@Test
+	public void decodeOnce() throws Exception {
+		Image first = cache.acquire(imageUrl);
+		Image second = cache.acquire(imageUrl);
+		assertSame(first, second);
+		cache.release(first);
+		cache.release(second);
+
+		Image third = cache.acquire(imageUrl);
+		assertSame(first, third);
+		assertFalse(third.isDisposed());
+		cache.release(third);
+	}
+
+	@Test
+	public void shareScaledImages() throws Exception {
+		Image image = cache.acquire(imageUrl);
+		RGB white = new RGB(255, 255, 255);
+		Image scaled = cache.acquireScaled(image, 64, 64, white);
+		assertEquals(64, scaled.getBounds().width);
+		assertEquals(32, scaled.getBounds().height);
+		assertTrue(cache.contains(scaled));
+
+		assertSame(scaled, cache.acquireScaled(image, 64, 64, new RGB(255, 255, 255)));
+		Image otherBackground = cache.acquireScaled(image, 64, 64, new RGB(0, 0, 0));
+		assertNotSame(scaled, otherBackground);
+
+		cache.release(scaled);
+		cache.release(scaled);
+		cache.release(otherBackground);
+		cache.release(image);
+
+		// the scaled copy stays available for the next user of the same image
+		Image reacquired = cache.acquire(imageUrl);
+		assertSame(scaled, cache.acquireScaled(reacquired, 64, 64, white));
+		cache.release(scaled);
+		cache.release(reacquired);
+	}
+
+	@Test
+	public void ignoreForeignImages() {
+		Image foreign = new Image(Display.getDefault(), 16, 16);
+		try {
+			assertFalse(cache.contains(foreign));
+			cache.release(foreign);
+			assertFalse(foreign.isDisposed());
+		} finally {
+			foreign.dispose();
+		}
+	}
+}
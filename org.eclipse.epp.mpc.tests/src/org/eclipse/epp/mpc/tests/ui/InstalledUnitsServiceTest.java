@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.mpc.tests.ui;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.eclipse.epp.internal.mpc.ui.InstalledUnitsService;
+import org.eclipse.epp.internal.mpc.ui.InstalledUnitsService.Snapshot;
+import org.eclipse.equinox.internal.p2.engine.ProfileEvent;
+import org.eclipse.equinox.internal.provisional.p2.core.eventbus.IProvisioningEventBus;
+import org.eclipse.equinox.internal.provisional.p2.core.eventbus.ProvisioningListener;
+import org.eclipse.equinox.p2.engine.IProfile;
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.query.IQueryResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Test the snapshot cache of {@link InstalledUnitsService}
+ */
+public class InstalledUnitsServiceTest {
+
+	private static final String PROFILE_ID = "TestProfile";
+
+	private final List<IInstallableUnit> units = new ArrayList<>();
+
+	private IProfile profile;
+
+	private long timestamp = 1;
+
+	private ProvisioningListener listener;
+
+	private InstalledUnitsService service;
+
+	@Before
+	@SuppressWarnings("unchecked")
+	public void before() {
+		units.add(unit("org.example.one.feature.group"));
+		profile = mock(IProfile.class);
+		when(profile.getProfileId()).thenReturn(PROFILE_ID);
+		when(profile.getTimestamp()).thenAnswer(invocation -> timestamp);
+		when(profile.available(any(), any())).thenAnswer(invocation -> {
+			IQueryResult<IInstallableUnit> result = mock(IQueryResult.class);
+			List<IInstallableUnit> currentUnits = new ArrayList<>(units);
+			when(result.iterator()).thenAnswer(i -> currentUnits.iterator());
+			return result;
+		});
+
+		IProvisioningEventBus eventBus = mock(IProvisioningEventBus.class);
+		service = new InstalledUnitsService(eventBus, () -> PROFILE_ID, id -> PROFILE_ID.equals(id) ? profile : null);
+		ArgumentCaptor<ProvisioningListener> listenerCaptor = ArgumentCaptor.forClass(ProvisioningListener.class);
+		verify(eventBus).addListener(listenerCaptor.capture());
+		listener = listenerCaptor.getValue();
+	}
+
+	@After
+	public void after() {
+		service.dispose();
+	}
+
+	@Test
+	public void unchangedProfileIsScannedOnce() {
+		Snapshot first = service.getSnapshot(null);
+		Snapshot second = service.getSnapshot(null);
+
+		assertSame(first, second);
+		assertEquals(new HashSet<>(Arrays.asList("org.example.one.feature.group")), first.getFeatureIds());
+		verify(profile, times(1)).available(any(), any());
+	}
+
+	@Test
+	public void changedProfileIsScannedAgain() {
+		Snapshot first = service.getSnapshot(null);
+		units.add(unit("org.example.two.feature.group"));
+		timestamp++;
+
+		Snapshot second = service.getSnapshot(null);
+
+		assertEquals(1, first.getInstalledUnitsById().size());
+		assertEquals(2, second.getInstalledUnitsById().size());
+		assertTrue(second.getFeatureIds().contains("org.example.two.feature.group"));
+		verify(profile, times(2)).available(any(), any());
+	}
+
+	@Test
+	public void profileChangeEventUpdatesSnapshot() {
+		service.getSnapshot(null);
+		timestamp++;
+
+		// a change without group installs or uninstalls keeps the units, but moves to the new timestamp
+		listener.notify(new ProfileEvent(PROFILE_ID, ProfileEvent.CHANGED));
+		Snapshot snapshot = service.getSnapshot(null);
+
+		assertEquals(1, snapshot.getInstalledUnitsById().size());
+		verify(profile, times(1)).available(any(), any());
+	}
+
+	@Test
+	public void removedProfileDropsSnapshot() {
+		service.getSnapshot(null);
+
+		listener.notify(new ProfileEvent(PROFILE_ID, ProfileEvent.REMOVED));
+		service.getSnapshot(null);
+
+		verify(profile, times(2)).available(any(), any());
+	}
+
+	@Test
+	public void otherProfileEventsAreIgnored() {
+		service.getSnapshot(null);
+
+		listener.notify(new ProfileEvent("OtherProfile", ProfileEvent.REMOVED));
+		service.getSnapshot(null);
+
+		verify(profile, times(1)).available(any(), any());
+	}
+
+	private static IInstallableUnit unit(String id) {
+		IInstallableUnit unit = mock(IInstallableUnit.class);
+		when(unit.getId()).thenReturn(id);
+		return unit;
+	}
+}
@@ -16,12 +16,16 @@ package org.eclipse.epp.mpc.tests.ui.catalog;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
 
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.epp.internal.mpc.core.util.URLUtil;
 import org.eclipse.epp.internal.mpc.ui.CatalogRegistry;
@@ -198,4 +202,59 @@ public class CatalogDescriptorTest {
 		found = registry.findCatalogDescriptor(dedicatedHostingMarketplace);
 		assertThat(found, is(dedicatedHostingDescriptor));
 	}
+
+	@Test
+	public void testUpdateRegisteredCatalogInPlace() throws Exception {
+		CatalogRegistry registry = CatalogRegistry.getInstance();
+		AtomicInteger changes = new AtomicInteger();
+		Runnable listener = changes::incrementAndGet;
+		registry.addChangeListener(listener);
+		try {
+			URL url = new URL("https://marketplace.eclipse.org");
+			registry.register(new CatalogDescriptor(url, "old label"));
+			assertEquals(1, changes.get());
+			CatalogDescriptor registered = registry.findCatalogDescriptor(url.toExternalForm());
+
+			assertTrue(registry.update(new CatalogDescriptor(url, "new label")));
+			assertSame(registered, registry.findCatalogDescriptor(url.toExternalForm()));
+			assertEquals("new label", registered.getLabel());
+			assertEquals(2, changes.get());
+
+			// unchanged attributes don't notify
+			assertTrue(registry.update(new CatalogDescriptor(url, "new label")));
+			assertEquals(2, changes.get());
+
+			assertFalse(registry.update(new CatalogDescriptor(new URL("https://example.org"), "other")));
+			registry.unregister(registered);
+			assertEquals(3, changes.get());
+		} finally {
+			registry.removeChangeListener(listener);
+		}
+	}
+
+	@Test
+	public void testRestoreContributedCatalog() throws Exception {
+		CatalogRegistry registry = new CatalogRegistry();
+		List<CatalogDescriptor> contributed = new ArrayList<>(registry.getCatalogDescriptors());
+		assumeFalse("No catalogs contributed through the extension point", contributed.isEmpty());
+		CatalogDescriptor contributedDescriptor = contributed.get(0);
+		String url = contributedDescriptor.getUrl().toExternalForm();
+
+		// a cached catalog replaces the contributed one ...
+		CatalogDescriptor cachedDescriptor = new CatalogDescriptor(contributedDescriptor.getUrl(), "cached label");
+		registry.unregister(contributedDescriptor);
+		registry.register(cachedDescriptor);
+		assertEquals("cached label", registry.findCatalogDescriptor(url).getLabel());
+
+		// ... and the contributed one comes back when the server no longer lists it
+		registry.unregisterOverride(cachedDescriptor);
+		assertEquals(contributedDescriptor.getLabel(), registry.findCatalogDescriptor(url).getLabel());
+		assertEquals(contributed.size(), registry.getCatalogDescriptors().size());
+
+		CatalogDescriptor otherDescriptor = new CatalogDescriptor(new URL("https://example.org"), "other");
+		registry.register(otherDescriptor);
+		registry.unregisterOverride(otherDescriptor);
+		assertNull(registry.findCatalogDescriptor("https://example.org"));
+		assertEquals(contributed.size(), registry.getCatalogDescriptors().size());
+	}
 }
@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.mpc.tests.ui.catalog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.epp.internal.mpc.ui.catalog.MarketplaceCatalog;
+import org.eclipse.epp.internal.mpc.ui.catalog.MarketplaceDiscoveryStrategy;
+import org.eclipse.epp.mpc.core.model.ICategory;
+import org.eclipse.epp.mpc.core.model.IMarket;
+import org.eclipse.epp.mpc.ui.CatalogDescriptor;
+import org.eclipse.equinox.internal.p2.discovery.model.CatalogItem;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test how {@link MarketplaceCatalog} runs its discovery strategies
+ */
+public class MarketplaceCatalogStrategiesTest {
+
+	private static final long TIMEOUT = 10;
+
+	private interface Query {
+		void run(Consumer<String> addItem) throws CoreException, InterruptedException;
+	}
+
+	private MarketplaceCatalog catalog;
+
+	@Before
+	public void before() {
+		catalog = new MarketplaceCatalog();
+	}
+
+	@Test
+	public void strategiesRunConcurrently() throws Exception {
+		final CountDownLatch started = new CountDownLatch(2);
+		final CountDownLatch secondDone = new CountDownLatch(1);
+		addStrategy(addItem -> {
+			started.countDown();
+			assertTrue("Strategies did not run concurrently", started.await(TIMEOUT, TimeUnit.SECONDS));
+			// finish last, the results are still merged in strategy order
+			assertTrue(secondDone.await(TIMEOUT, TimeUnit.SECONDS));
+			addItem.accept("first");
+		});
+		addStrategy(addItem -> {
+			started.countDown();
+			assertTrue("Strategies did not run concurrently", started.await(TIMEOUT, TimeUnit.SECONDS));
+			addItem.accept("second");
+			secondDone.countDown();
+		});
+
+		IStatus status = catalog.performQuery(null, null, "query", new NullProgressMonitor());
+
+		assertTrue(status.toString(), status.isOK());
+		assertEquals(Arrays.asList("first", "second"), itemIds());
+	}
+
+	@Test
+	public void failedStrategyStatusIsReported() throws Exception {
+		final CoreException failure = new CoreException(
+				new Status(IStatus.ERROR, "org.eclipse.epp.mpc.tests", "failed"));
+		addStrategy(addItem -> {
+			throw failure;
+		});
+		addStrategy(addItem -> addItem.accept("second"));
+
+		IStatus status = catalog.performQuery(null, null, "query", new NullProgressMonitor());
+
+		assertEquals(IStatus.ERROR, status.getSeverity());
+		assertSame(failure, status.getException());
+		assertEquals(Arrays.asList("second"), itemIds());
+	}
+
+	@Test
+	public void cancelledStrategyIsAbandoned() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch interrupted = new CountDownLatch(1);
+		addStrategy(addItem -> {
+			started.countDown();
+			try {
+				Thread.sleep(TimeUnit.SECONDS.toMillis(TIMEOUT));
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+				throw e;
+			}
+			addItem.accept("first");
+		});
+		addStrategy(addItem -> addItem.accept("second"));
+
+		final NullProgressMonitor monitor = new NullProgressMonitor();
+		Thread canceller = new Thread(() -> {
+			try {
+				if (started.await(TIMEOUT, TimeUnit.SECONDS)) {
+					monitor.setCanceled(true);
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		canceller.start();
+		long start = System.nanoTime();
+		IStatus status = catalog.performQuery(null, null, "query", monitor);
+		canceller.join();
+
+		assertEquals(IStatus.CANCEL, status.getSeverity());
+		assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(TIMEOUT));
+		assertTrue("Abandoned strategy was not interrupted", interrupted.await(TIMEOUT, TimeUnit.SECONDS));
+		assertEquals(Arrays.asList("second"), itemIds());
+	}
+
+	private void addStrategy(final Query query) throws Exception {
+		CatalogDescriptor catalogDescriptor = new CatalogDescriptor();
+		catalogDescriptor.setUrl(new URL("https://marketplace.eclipse.org"));
+		catalog.getDiscoveryStrategies().add(new MarketplaceDiscoveryStrategy(catalogDescriptor) {
+			@Override
+			public void performQuery(IMarket market, ICategory category, String queryText,
+					IProgressMonitor monitor) throws CoreException {
+				try {
+					query.run(id -> {
+						CatalogItem item = new CatalogItem();
+						item.setId(id);
+						item.setName(id);
+						item.setSource(getCatalogSource());
+						getItems().add(item);
+					});
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+	}
+
+	private List<String> itemIds() {
+		List<String> ids = new ArrayList<>();
+		for (CatalogItem item : catalog.getItems()) {
+			ids.add(item.getId());
+		}
+		return ids;
+	}
+}
@@ -35,10 +35,16 @@ import java.net.URLConnection;
 import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.text.MessageFormat;
 
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.epp.internal.mpc.core.model.Iu;
+import org.eclipse.epp.internal.mpc.core.model.Ius;
+import org.eclipse.epp.internal.mpc.core.model.Node;
 import org.eclipse.epp.internal.mpc.ui.MarketplaceClientUi;
 import org.eclipse.epp.internal.mpc.ui.catalog.MarketplaceInfo;
 import org.eclipse.epp.internal.mpc.ui.catalog.MarketplaceNodeCatalogItem;
@@ -220,6 +226,9 @@ public class MarketplaceInfoSerializationTest {
 		File dataFile = Platform.getBundle(MarketplaceClientUi.BUNDLE_ID).getBundleContext().getDataFile(
 				"MarketplaceInfo.xml");
 		assertTrue(dataFile == null || !dataFile.isFile() || dataFile.delete());
+		File journalFile = Platform.getBundle(MarketplaceClientUi.BUNDLE_ID).getBundleContext().getDataFile(
+				"MarketplaceInfo.journal");
+		assertTrue(journalFile == null || !journalFile.isFile() || journalFile.delete());
 	}
 
 	@Test
@@ -403,6 +412,81 @@ public class MarketplaceInfoSerializationTest {
 		assertEquals(catalogRegistry.getNodeKeyToIU(), loaded.getNodeKeyToIU());
 	}
 
+	@Test
+	public void saveAppendsToJournal() throws Exception {
+		MarketplaceNodeCatalogItem item = MarketplaceInfoTest.createTestItem();
+		catalogRegistry.map(item.getMarketplaceUrl(), item.getData());
+		assertTrue(catalogRegistry.hasUnsavedChanges());
+		catalogRegistry.save();
+		assertFalse(catalogRegistry.hasUnsavedChanges());
+
+		File journalFile = getConfigurationAreaJournalFile();
+		assertTrue(MessageFormat.format("Journal file ''{0}'' does not exist", journalFile.getAbsolutePath()),
+				journalFile.isFile());
+		long length = journalFile.length();
+
+		catalogRegistry.map(item.getMarketplaceUrl(), item.getData());
+		assertFalse(catalogRegistry.hasUnsavedChanges());
+
+		Node otherNode = new Node();
+		otherNode.setId("456");
+		otherNode.setIus(new Ius());
+		otherNode.getIus().getIuElements().add(new Iu("com.example.test.b1"));
+		catalogRegistry.map(item.getMarketplaceUrl(), otherNode);
+		catalogRegistry.save();
+		assertTrue(journalFile.length() > length);
+
+		MarketplaceInfo loaded = loadMarketplaceInfo();
+		assertNotNull(loaded);
+		assertEquals(journalFile, ((TestMarketplaceInfo) loaded).loadedFrom);
+		assertEquals(catalogRegistry.getNodeKeyToIU(), loaded.getNodeKeyToIU());
+		assertEquals(catalogRegistry.getIuToNodeKey(), loaded.getIuToNodeKey());
+	}
+
+	@Test
+	public void appendAfterIncompleteRecord() throws Exception {
+		MarketplaceNodeCatalogItem item = MarketplaceInfoTest.createTestItem();
+		catalogRegistry.map(item.getMarketplaceUrl(), item.getData());
+		catalogRegistry.save();
+
+		File journalFile = getConfigurationAreaJournalFile();
+		Files.write(journalFile.toPath(), "+\tpartial\tcom.example.partial".getBytes(StandardCharsets.UTF_8),
+				StandardOpenOption.APPEND);
+
+		Node otherNode = new Node();
+		otherNode.setId("456");
+		otherNode.setIus(new Ius());
+		otherNode.getIus().getIuElements().add(new Iu("com.example.test.b1"));
+		catalogRegistry.map(item.getMarketplaceUrl(), otherNode);
+		catalogRegistry.save();
+
+		MarketplaceInfo loaded = loadMarketplaceInfo();
+		assertNotNull(loaded);
+		assertEquals(journalFile, ((TestMarketplaceInfo) loaded).loadedFrom);
+		assertEquals(catalogRegistry.getNodeKeyToIU(), loaded.getNodeKeyToIU());
+		assertEquals(catalogRegistry.getIuToNodeKey(), loaded.getIuToNodeKey());
+	}
+
+	@Test
+	public void migrateToJournal() throws Exception {
+		File registryFile = getUserHomeRegistryFile();
+		copyRegistryFile(registryFile, 100);
+		MarketplaceInfo legacy = loadMarketplaceInfo();
+		assertNotNull(legacy);
+
+		catalogRegistry.setNodeKeyToIU(legacy.getNodeKeyToIU());
+		catalogRegistry.setIuToNodeKey(legacy.getIuToNodeKey());
+		catalogRegistry.save();
+		assertTrue(getConfigurationAreaJournalFile().isFile());
+		assertTrue(MessageFormat.format("Migrated registry file ''{0}'' was removed", registryFile.getAbsolutePath()),
+				registryFile.exists());
+
+		MarketplaceInfo loaded = loadMarketplaceInfo();
+		assertNotNull(loaded);
+		assertEquals(getConfigurationAreaJournalFile(), ((TestMarketplaceInfo) loaded).loadedFrom);
+		assertEquals(legacy.getNodeKeyToIU(), loaded.getNodeKeyToIU());
+	}
+
 	@Test
 	public void loadNonExisting() {
 		MarketplaceInfo loaded = loadMarketplaceInfo();
@@ -509,6 +593,10 @@ public class MarketplaceInfoSerializationTest {
 		return new File(userHome, ".eclipse/mpc/MarketplaceInfo.xml");
 	}
 
+	private File getConfigurationAreaJournalFile() {
+		return new File(configurationDirectory, "org.eclipse.epp.mpc.ui/MarketplaceInfo.journal");
+	}
+
 	private File getLegacyUserHomeRegistryFile() {
 		return new File(userHome, ".eclipse_mpc/MarketplaceInfo.xml");
 	}
@@ -153,6 +153,32 @@ public class MarketplaceInfoTest {
 		assertEquals(item.getData().getUrl(), installedCatalogNodeIds.iterator().next().getUrl());
 	}
 
+	@Test
+	public void computeInstalledCatalogNodeIdsAfterRemap() throws Exception {
+		catalogRegistry.map(item.getMarketplaceUrl(), item.getData());
+		catalogRegistry.map(new URL("https://marketplace.example.org"), item.getData());
+
+		Map<String, IInstallableUnit> installedIus = new HashMap<>();
+		addIU(installedIus, item.getInstallableUnits().get(0) + ".feature.group");
+		Set<? extends INode> installedCatalogNodeIds = catalogRegistry.computeInstalledNodes(item.getMarketplaceUrl(),
+				installedIus);
+		assertEquals(1, installedCatalogNodeIds.size());
+
+		Node node = (Node) item.getData();
+		node.getIus().getIuElements().remove(0);
+		catalogRegistry.map(item.getMarketplaceUrl(), node);
+		installedCatalogNodeIds = catalogRegistry.computeInstalledNodes(item.getMarketplaceUrl(), installedIus);
+		assertEquals(0, installedCatalogNodeIds.size());
+		assertEquals(Collections.singletonList("https://marketplace.example.org#" + item.getId()),
+				catalogRegistry.getIuToNodeKey().get(item.getInstallableUnits().get(0)));
+
+		InstallableUnit mainIu = addIU(installedIus, "com.example.other");
+		mainIu.setProperty(MarketplaceInfo.MPC_NODE_IU_PROPERTY,
+				"https://marketplace.eclipse.org/node/1, https://marketplace.example.org/node/2 https://marketplace.eclipse.org/node/3");
+		installedCatalogNodeIds = catalogRegistry.computeInstalledNodes(item.getMarketplaceUrl(), installedIus);
+		assertEquals(2, installedCatalogNodeIds.size());
+	}
+
 	private static InstallableUnit addIU(Map<String, IInstallableUnit> installedIus, String id) {
 		InstallableUnit installableUnit = (InstallableUnit) installedIus.get(id);
 		if (installableUnit == null) {
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.mpc.tests.ui.catalog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+
+import org.eclipse.epp.internal.mpc.core.model.Market;
+import org.eclipse.epp.internal.mpc.core.model.Node;
+import org.eclipse.epp.internal.mpc.core.model.SearchResult;
+import org.eclipse.epp.internal.mpc.ui.catalog.RecentSearchResults;
+import org.eclipse.epp.mpc.core.model.ISearchResult;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test {@link RecentSearchResults}
+ */
+public class RecentSearchResultsTest {
+
+	private RecentSearchResults results;
+
+	private Market market;
+
+	@Before
+	public void before() {
+		results = new RecentSearchResults();
+		market = new Market();
+		market.setId("1");
+	}
+
+	@Test
+	public void refineCompleteResult() {
+		results.put(market, null, "wiki", result(2, node("1", "Mylyn WikiText", "Markup editor"),
+				node("2", "Wiki Tools", "Page templates")));
+
+		ISearchResult refined = results.findRefinement(market, null, "wiki edit");
+
+		assertNotNull(refined);
+		assertEquals(Integer.valueOf(1), refined.getMatchCount());
+		assertEquals("1", refined.getNodes().get(0).getId());
+	}
+
+	@Test
+	public void incompleteResultIsNotRefined() {
+		results.put(market, null, "wiki", result(5, node("1", "Mylyn WikiText", "Markup editor")));
+
+		assertNull(results.findRefinement(market, null, "wiki edit"));
+	}
+
+	@Test
+	public void sameQueryIsNotAnswered() {
+		results.put(market, null, "wiki", result(1, node("1", "Mylyn WikiText", "Markup editor")));
+
+		assertNull(results.findRefinement(market, null, "wiki"));
+		assertNull(results.findRefinement(market, null, "  Wiki "));
+	}
+
+	@Test
+	public void otherMarketIsNotRefined() {
+		results.put(market, null, "wiki", result(1, node("1", "Mylyn WikiText", "Markup editor")));
+		Market otherMarket = new Market();
+		otherMarket.setId("2");
+
+		assertNull(results.findRefinement(otherMarket, null, "wiki edit"));
+		assertNull(results.findRefinement(null, null, "wiki edit"));
+	}
+
+	@Test
+	public void unrelatedQueryIsNotRefined() {
+		results.put(market, null, "wiki", result(1, node("1", "Mylyn WikiText", "Markup editor")));
+
+		assertNull(results.findRefinement(market, null, "markup"));
+	}
+
+	private static Node node(String id, String name, String description) {
+		Node node = new Node();
+		node.setId(id);
+		node.setName(name);
+		node.setShortdescription(description);
+		return node;
+	}
+
+	private static SearchResult result(int matchCount, Node... nodes) {
+		SearchResult result = new SearchResult();
+		result.setMatchCount(matchCount);
+		result.setNodes(Arrays.asList(nodes));
+		return result;
+	}
+}
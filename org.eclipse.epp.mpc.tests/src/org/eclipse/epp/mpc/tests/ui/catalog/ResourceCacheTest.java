@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.mpc.tests.ui.catalog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.eclipse.epp.internal.mpc.ui.catalog.ResourceCache;
+import org.eclipse.epp.internal.mpc.ui.catalog.ResourceCache.Entry;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test {@link ResourceCache}
+ */
+public class ResourceCacheTest {
+
+	private static final long DAY = 24 * 60 * 60 * 1000L;
+
+	@Rule
+	public TemporaryFolder testData = new TemporaryFolder();
+
+	private File cacheDir;
+
+	@Before
+	public void before() throws Exception {
+		cacheDir = testData.newFolder("resources");
+	}
+
+	@Test
+	public void putAndGet() throws Exception {
+		ResourceCache cache = new ResourceCache(cacheDir);
+		Entry entry = cache.put("https://example.org/a.png", content("a"), "\"etag-a\"", "Mon, 01 Jan 2024 00:00:00 GMT");
+		assertEquals("https://example.org/a.png", entry.getKey());
+		assertTrue(cache.isFresh(entry));
+
+		Entry cached = cache.get("https://example.org/a.png");
+		assertNotNull(cached);
+		assertEquals("\"etag-a\"", cached.getEtag());
+		assertEquals("Mon, 01 Jan 2024 00:00:00 GMT", cached.getLastModified());
+		assertEquals("a", read(cache.getContentFile(cached)));
+		assertNull(cache.get("https://example.org/b.png"));
+	}
+
+	@Test
+	public void identicalContentIsStoredOnce() throws Exception {
+		ResourceCache cache = new ResourceCache(cacheDir, ResourceCache.DEFAULT_MAX_SIZE, DAY, 0);
+		Entry a = cache.put("https://example.org/a.png", content("same"), null, null);
+		Entry b = cache.put("https://mirror.example.org/a.png", content("same"), null, null);
+		assertEquals(a.getHash(), b.getHash());
+		assertEquals(4, cache.getTotalSize());
+
+		cache.remove(a.getKey());
+		assertTrue(cache.getContentFile(b).isFile());
+		cache.remove(b.getKey());
+		assertFalse(cache.getContentFile(b).isFile());
+		assertEquals(0, cache.getTotalSize());
+	}
+
+	@Test
+	public void replaceWithIdenticalContent() throws Exception {
+		ResourceCache cache = new ResourceCache(cacheDir, ResourceCache.DEFAULT_MAX_SIZE, DAY, 0);
+		cache.put("https://example.org/a.png", content("same"), "\"1\"", null);
+		Entry entry = cache.put("https://example.org/a.png", content("same"), "\"2\"", null);
+
+		assertTrue(cache.getContentFile(entry).isFile());
+		Entry cached = cache.get("https://example.org/a.png");
+		assertNotNull(cached);
+		assertEquals("\"2\"", cached.getEtag());
+		assertEquals("same", read(cache.getContentFile(cached)));
+		assertEquals(4, cache.getTotalSize());
+
+		cache.remove(entry.getKey());
+		assertFalse(cache.getContentFile(entry).isFile());
+		assertEquals(0, cache.getTotalSize());
+	}
+
+	@Test
+	public void evictLeastRecentlyUsed() throws Exception {
+		ResourceCache cache = new ResourceCache(cacheDir, 10, DAY);
+		cache.put("a", content("aaaa"), null, null);
+		Thread.sleep(5);
+		cache.put("b", content("bbbb"), null, null);
+		Thread.sleep(5);
+		assertNotNull(cache.get("a"));
+		Thread.sleep(5);
+		cache.put("c", content("cccc"), null, null);
+
+		assertNotNull(cache.get("a"));
+		assertNull(cache.get("b"));
+		assertNotNull(cache.get("c"));
+		assertEquals(8, cache.getTotalSize());
+	}
+
+	@Test
+	public void evictionKeepsContentInUse() throws Exception {
+		ResourceCache cache = new ResourceCache(cacheDir, 10, DAY, DAY);
+		Entry reading = cache.put("a", content("aaaa"), null, null);
+		Thread.sleep(5);
+		cache.put("b", content("bbbb"), null, null);
+		Thread.sleep(5);
+		cache.put("c", content("cccc"), null, null);
+		cache.save();
+
+		// evicted, but a reader that got the entry before can still use its content
+		assertNull(cache.get("a"));
+		assertEquals(8, cache.getTotalSize());
+		assertEquals("aaaa", read(cache.getContentFile(reading)));
+
+		// once the grace period is over, unreferenced content is deleted on save
+		ResourceCache other = new ResourceCache(cacheDir, 10, DAY, 0);
+		assertNotNull(other.get("b"));
+		other.save();
+		assertFalse(cache.getContentFile(reading).isFile());
+		assertNotNull(other.get("b"));
+		assertNotNull(other.get("c"));
+	}
+
+	@Test
+	public void staleEntries() throws Exception {
+		ResourceCache cache = new ResourceCache(cacheDir, ResourceCache.DEFAULT_MAX_SIZE, -1);
+		Entry entry = cache.put("a", content("a"), "\"1\"", null);
+		assertFalse(cache.isFresh(entry));
+		cache.validated(entry);
+		assertFalse(cache.isFresh(entry));
+		cache.save();
+
+		ResourceCache freshCache = new ResourceCache(cacheDir, ResourceCache.DEFAULT_MAX_SIZE, DAY);
+		assertTrue(freshCache.isFresh(freshCache.get("a")));
+	}
+
+	@Test
+	public void persistIndex() throws Exception {
+		ResourceCache cache = new ResourceCache(cacheDir);
+		cache.put("https://example.org/a.png", content("a"), "\"tab\tand\\backslash\"", null);
+		cache.save();
+
+		ResourceCache reloaded = new ResourceCache(cacheDir);
+		Entry entry = reloaded.get("https://example.org/a.png");
+		assertNotNull(entry);
+		assertEquals("\"tab\tand\\backslash\"", entry.getEtag());
+		assertNull(entry.getLastModified());
+		assertEquals("a", read(reloaded.getContentFile(entry)));
+	}
+
+	@Test
+	public void mergeConcurrentInstances() throws Exception {
+		ResourceCache first = new ResourceCache(cacheDir);
+		ResourceCache second = new ResourceCache(cacheDir);
+		first.put("a", content("a"), null, null);
+		second.put("b", content("b"), null, null);
+		first.save();
+		second.save();
+
+		ResourceCache reloaded = new ResourceCache(cacheDir);
+		assertNotNull(reloaded.get("a"));
+		assertNotNull(reloaded.get("b"));
+	}
+
+	@Test
+	public void missingContentIsDropped() throws Exception {
+		ResourceCache cache = new ResourceCache(cacheDir);
+		Entry entry = cache.put("a", content("a"), null, null);
+		assertTrue(cache.getContentFile(entry).delete());
+		assertNull(cache.get("a"));
+	}
+
+	private static ByteArrayInputStream content(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String read(File file) throws IOException {
+		return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+	}
+}
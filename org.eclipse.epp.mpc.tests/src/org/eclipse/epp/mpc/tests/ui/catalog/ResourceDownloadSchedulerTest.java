@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.mpc.tests.ui.catalog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.epp.internal.mpc.ui.catalog.ResourceDownloadScheduler;
+import org.eclipse.epp.internal.mpc.ui.catalog.ResourceDownloadScheduler.DownloadRequest;
+import org.eclipse.epp.internal.mpc.ui.catalog.ResourceProvider.Priority;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test {@link ResourceDownloadScheduler}
+ */
+public class ResourceDownloadSchedulerTest {
+
+	private static final long TIMEOUT = 10;
+
+	private final Object owner = new Object();
+
+	private final List<String> executed = Collections.synchronizedList(new ArrayList<>());
+
+	private final CountDownLatch started = new CountDownLatch(1);
+
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	private ResourceDownloadScheduler scheduler;
+
+	@Before
+	public void before() {
+		scheduler = new ResourceDownloadScheduler(1);
+	}
+
+	@After
+	public void after() {
+		release.countDown();
+		scheduler.dispose();
+	}
+
+	@Test
+	public void downloadsRunByPriority() throws Exception {
+		blockWorker();
+		CountDownLatch done = new CountDownLatch(5);
+		scheduler.schedule(request("prefetch", Priority.PREFETCH, owner, done));
+		scheduler.schedule(request("screenshot", Priority.SCREENSHOT, owner, done));
+		scheduler.schedule(request("icon1", Priority.ICON, owner, done));
+		scheduler.schedule(request("visible", Priority.VISIBLE_ICON, owner, done));
+		scheduler.schedule(request("icon2", Priority.ICON, owner, done));
+		assertTrue(scheduler.prioritize("prefetch", Priority.VISIBLE_ICON));
+
+		release.countDown();
+		assertTrue(done.await(TIMEOUT, TimeUnit.SECONDS));
+		assertEquals(Arrays.asList("visible", "prefetch", "icon1", "icon2", "screenshot"), executed);
+	}
+
+	@Test
+	public void cancelKeepsDownloadsRequestedAgain() throws Exception {
+		blockWorker();
+		Object otherOwner = new Object();
+		CountDownLatch done = new CountDownLatch(2);
+		scheduler.schedule(request("old", Priority.ICON, owner, done));
+		scheduler.schedule(request("shared", Priority.ICON, owner, done));
+		scheduler.schedule(request("other", Priority.ICON, otherOwner, done));
+		long mark = ResourceDownloadScheduler.mark();
+		// the new listing requests the same resource again
+		scheduler.schedule(request("shared", Priority.VISIBLE_ICON, owner, done));
+
+		List<DownloadRequest> cancelled = scheduler.cancel(owner, mark);
+
+		assertEquals(1, cancelled.size());
+		assertEquals("old", cancelled.get(0).getResourceName());
+		release.countDown();
+		assertTrue(done.await(TIMEOUT, TimeUnit.SECONDS));
+		assertEquals(Arrays.asList("shared", "other"), executed);
+	}
+
+	@Test
+	public void cancelledWorkerIsReplaced() throws Exception {
+		blockWorker();
+		CountDownLatch done = new CountDownLatch(1);
+		scheduler.schedule(request("queued", Priority.ICON, owner, done));
+
+		Job.getJobManager().cancel(scheduler);
+		release.countDown();
+
+		assertTrue("Queued download was not run after its worker was cancelled", done.await(TIMEOUT, TimeUnit.SECONDS));
+		assertEquals(Arrays.asList("queued"), executed);
+	}
+
+	private void blockWorker() throws InterruptedException {
+		scheduler.schedule(new DownloadRequest("blocking", Priority.VISIBLE_ICON, owner, monitor -> {
+			started.countDown();
+			try {
+				release.await(TIMEOUT, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}));
+		assertTrue(started.await(TIMEOUT, TimeUnit.SECONDS));
+	}
+
+	private DownloadRequest request(String resourceName, Priority priority, Object requestOwner,
+			CountDownLatch done) {
+		return new DownloadRequest(resourceName, priority, requestOwner, monitor -> {
+			executed.add(resourceName);
+			done.countDown();
+		});
+	}
+}
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.mpc.tests.ui.catalog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.epp.internal.mpc.ui.catalog.ResourceProvider;
+import org.eclipse.epp.internal.mpc.ui.catalog.ResourceProvider.ResourceFuture;
+import org.eclipse.epp.internal.mpc.ui.catalog.ResourceProvider.ResourceReceiver;
+import org.eclipse.swt.widgets.Display;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test {@link ResourceProvider}
+ */
+public class ResourceProviderTest {
+
+	private static final String RESOURCE = "https://example.org/icons/test.png";
+
+	private ResourceProvider resourceProvider;
+
+	private final List<String> received = new ArrayList<>();
+
+	private final ResourceReceiver<String> receiver = new ResourceReceiver<String>() {
+
+		@Override
+		public String processResource(URL resource) {
+			try {
+				return new String(Files.readAllBytes(Paths.get(resource.toURI())), StandardCharsets.UTF_8);
+			} catch (Exception e) {
+				throw new AssertionError(e);
+			}
+		}
+
+		@Override
+		public void setResource(String resource) {
+			received.add(resource);
+		}
+	};
+
+	@Before
+	public void before() throws Exception {
+		resourceProvider = new ResourceProvider();
+	}
+
+	@After
+	public void after() throws Exception {
+		resourceProvider.dispose();
+	}
+
+	@Test
+	public void provideAfterDownload() throws Exception {
+		ResourceFuture resource = resourceProvider.registerResource(RESOURCE);
+		resourceProvider.provideResource(receiver, RESOURCE, "fallback");
+		assertEquals(1, received.size());
+		assertEquals("fallback", received.get(0));
+		assertFalse(resource.isDone());
+
+		URL url = resource.retrieve(content("icon"));
+		assertNotNull(url);
+		assertTrue(resource.isDone());
+		// delivered through the display
+		assertEquals(1, received.size());
+		dispatchDisplayEvents();
+		assertEquals(2, received.size());
+		assertEquals("icon", received.get(1));
+	}
+
+	@Test
+	public void completedReceiversAreDeliveredTogether() throws Exception {
+		ResourceFuture resource = resourceProvider.registerResource(RESOURCE);
+		resourceProvider.provideResource(receiver, RESOURCE, null);
+		resourceProvider.provideResource(receiver, RESOURCE, null);
+		resource.retrieve(content("icon"));
+		assertTrue(received.isEmpty());
+
+		List<Integer> receivedPerTurn = new ArrayList<>();
+		Display display = Display.getCurrent();
+		while (display.readAndDispatch()) {
+			receivedPerTurn.add(received.size());
+		}
+		assertEquals(2, received.size());
+		assertFalse(receivedPerTurn.contains(1));
+	}
+
+	@Test
+	public void provideDownloaded() throws Exception {
+		ResourceFuture resource = resourceProvider.registerResource(RESOURCE);
+		resource.retrieve(content("icon"));
+		resourceProvider.provideResource(receiver, RESOURCE, "fallback");
+		assertEquals(1, received.size());
+		assertEquals("icon", received.get(0));
+	}
+
+	@Test
+	public void cancelledDownload() throws Exception {
+		ResourceFuture resource = resourceProvider.registerResource(RESOURCE);
+		resourceProvider.provideResource(receiver, RESOURCE, "fallback");
+		resource.cancel(false);
+		assertEquals(1, received.size());
+		assertNull(resource.getLocalURL());
+		assertNull(resource.getURL());
+	}
+
+	@Test
+	public void unknownResource() {
+		resourceProvider.provideResource(receiver, RESOURCE, "fallback");
+		assertEquals(1, received.size());
+		assertEquals("fallback", received.get(0));
+		assertNull(resourceProvider.getResource(RESOURCE));
+	}
+
+	private static void dispatchDisplayEvents() {
+		Display display = Display.getCurrent();
+		while (display.readAndDispatch()) {
+			// run pending asyncExecs
+		}
+	}
+
+	private static ByteArrayInputStream content(String content) {
+		return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+}
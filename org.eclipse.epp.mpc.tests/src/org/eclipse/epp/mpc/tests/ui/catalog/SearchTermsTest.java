@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.mpc.tests.ui.catalog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.eclipse.epp.internal.mpc.core.model.Iu;
+import org.eclipse.epp.internal.mpc.core.model.Ius;
+import org.eclipse.epp.internal.mpc.core.model.Node;
+import org.eclipse.epp.internal.mpc.core.service.NodeIndex;
+import org.eclipse.epp.internal.mpc.ui.catalog.SearchTerms;
+import org.junit.Test;
+
+/**
+ * Test {@link SearchTerms}
+ */
+public class SearchTermsTest {
+
+	@Test
+	public void parse() {
+		assertTrue(SearchTerms.parse(null).isEmpty());
+		assertTrue(SearchTerms.parse("  ").isEmpty());
+		assertEquals(Arrays.asList("wikitext", "editor"), SearchTerms.parse(" WikiText  editor wikitext").getTerms());
+	}
+
+	@Test
+	public void refines() {
+		SearchTerms broad = SearchTerms.parse("wikitext");
+		SearchTerms narrow = SearchTerms.parse("editor wikitext");
+		assertTrue(narrow.refines(broad));
+		assertTrue(broad.refines(broad));
+		assertFalse(broad.refines(narrow));
+		assertFalse(SearchTerms.parse("wikitexts").refines(broad));
+	}
+
+	@Test
+	public void matchesWordPrefixes() {
+		Node node = new Node();
+		node.setName("Mylyn WikiText");
+		node.setShortdescription("Lightweight markup editor");
+
+		assertTrue(SearchTerms.parse("wiki").matches(node));
+		assertTrue(SearchTerms.parse("mylyn edit").matches(node));
+		assertTrue(SearchTerms.parse("").matches(node));
+		assertFalse(SearchTerms.parse("text").matches(node));
+		assertFalse(SearchTerms.parse("mylyn builder").matches(node));
+	}
+
+	@Test
+	public void matchesLikeNodeIndex() {
+		Node node = new Node();
+		node.setId("1");
+		node.setName("Mylyn WikiText");
+		node.setOwner("Mylyn Project");
+		node.setBody("Supports <b>Textile</b> &amp; Confluence");
+		Ius ius = new Ius();
+		ius.getIuElements().add(new Iu("org.eclipse.mylyn.wikitext"));
+		node.setIus(ius);
+		NodeIndex index = new NodeIndex();
+		index.add(node);
+
+		for (String query : new String[] { "project", "textile conf", "org.eclipse.mylyn", "amp", "wiki, text",
+				"b", "mylyn c++" }) {
+			assertEquals(query, !index.search(null, null, query, 10).isEmpty(), SearchTerms.parse(query).matches(node));
+		}
+	}
+}
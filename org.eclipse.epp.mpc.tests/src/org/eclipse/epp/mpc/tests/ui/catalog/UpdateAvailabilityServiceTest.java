@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.mpc.tests.ui.catalog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.epp.internal.mpc.ui.catalog.UpdateAvailabilityService;
+import org.eclipse.epp.internal.mpc.ui.catalog.UpdateAvailabilityService.SiteIndex;
+import org.eclipse.equinox.p2.metadata.Version;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test {@link UpdateAvailabilityService}
+ */
+public class UpdateAvailabilityServiceTest {
+
+	private static final String SITE = "https://download.example.org/releases/";
+
+	private static final long HOUR = 60 * 60 * 1000L;
+
+	@Rule
+	public TemporaryFolder testData = new TemporaryFolder();
+
+	private File stateFile;
+
+	@Before
+	public void before() throws Exception {
+		stateFile = new File(testData.newFolder("updates"), "sites.properties");
+	}
+
+	@Test
+	public void unknownSite() {
+		UpdateAvailabilityService service = new UpdateAvailabilityService(stateFile, HOUR);
+		assertNull(service.getSiteIndex(SITE));
+		assertNull(service.getSiteIndex(null));
+	}
+
+	@Test
+	public void persistSiteContents() {
+		UpdateAvailabilityService service = new UpdateAvailabilityService(stateFile, HOUR);
+		service.putSiteIndex(SITE, versions("org.example.feature.group", "1.2.0.v2024"));
+		service.save();
+
+		SiteIndex index = new UpdateAvailabilityService(stateFile, HOUR).getSiteIndex(SITE);
+		assertNotNull(index);
+		assertFalse(index.isFailed());
+		assertEquals(Version.create("1.2.0.v2024"), index.getVersion("org.example.feature.group"));
+		assertNull(index.getVersion("org.example.other.feature.group"));
+	}
+
+	@Test
+	public void expiredSiteContents() {
+		UpdateAvailabilityService service = new UpdateAvailabilityService(stateFile, 0);
+		service.putSiteIndex(SITE, versions("org.example.feature.group", "1.0.0"));
+		assertNull(service.getSiteIndex(SITE));
+	}
+
+	@Test
+	public void invalidate() {
+		UpdateAvailabilityService service = new UpdateAvailabilityService(stateFile, HOUR);
+		AtomicInteger changes = new AtomicInteger();
+		service.addChangeListener(changes::incrementAndGet);
+		service.putSiteIndex(SITE, versions("org.example.feature.group", "1.0.0"));
+		assertNotNull(service.getSiteIndex(SITE));
+
+		service.invalidate();
+		assertNull(service.getSiteIndex(SITE));
+		assertEquals(1, changes.get());
+
+		service.save();
+		assertNull(new UpdateAvailabilityService(stateFile, HOUR).getSiteIndex(SITE));
+	}
+
+	@Test
+	public void installationChangeKeepsSiteContents() {
+		UpdateAvailabilityService service = new UpdateAvailabilityService(stateFile, HOUR);
+		AtomicInteger changes = new AtomicInteger();
+		service.addChangeListener(changes::incrementAndGet);
+		service.putSiteIndex(SITE, versions("org.example.feature.group", "1.0.0"));
+		long stamp = service.getInstallationStamp();
+
+		service.installationChanged();
+		assertNotNull(service.getSiteIndex(SITE));
+		assertNotEquals(stamp, service.getInstallationStamp());
+		assertEquals(1, changes.get());
+	}
+
+	@Test
+	public void refreshNothing() {
+		UpdateAvailabilityService service = new UpdateAvailabilityService(stateFile, HOUR);
+		assertEquals(0, service.refresh(Collections.emptyList(), null).getSeverity());
+	}
+
+	private static Map<String, Version> versions(String id, String version) {
+		Map<String, Version> versions = new HashMap<>();
+		versions.put(id, Version.create(version));
+		return versions;
+	}
+}
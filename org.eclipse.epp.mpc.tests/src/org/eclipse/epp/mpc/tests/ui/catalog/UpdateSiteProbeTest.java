@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.mpc.tests.ui.catalog;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.epp.internal.mpc.core.util.IConditionalTransport;
+import org.eclipse.epp.internal.mpc.ui.catalog.UpdateSiteProbe;
+import org.eclipse.epp.internal.mpc.ui.catalog.UpdateSiteProbe.ProbeResult;
+import org.eclipse.equinox.p2.metadata.Version;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test {@link UpdateSiteProbe}
+ */
+public class UpdateSiteProbeTest {
+
+	private static final String SITE = "https://download.example.org/releases/latest/";
+
+	private final Map<String, byte[]> files = new HashMap<>();
+
+	private final List<String> requests = new ArrayList<>();
+
+	private boolean sendValidators = true;
+
+	private UpdateSiteProbe probe;
+
+	@Before
+	public void before() {
+		probe = new UpdateSiteProbe(new IConditionalTransport() {
+
+			@Override
+			public InputStream stream(URI location, IProgressMonitor monitor) throws FileNotFoundException {
+				return stream(location, null, null, monitor).getContent();
+			}
+
+			@Override
+			public ConditionalResponse stream(URI location, String etag, String lastModified,
+					IProgressMonitor monitor) throws FileNotFoundException {
+				String key = location.toString();
+				requests.add(key);
+				byte[] content = files.get(key);
+				if (content == null) {
+					throw new FileNotFoundException(key);
+				}
+				String currentEtag = sendValidators ? "\"" + content.length + "\"" : null;
+				if (currentEtag != null && currentEtag.equals(etag)) {
+					return new ConditionalResponse(null, currentEtag, null);
+				}
+				return new ConditionalResponse(new ByteArrayInputStream(content), currentEtag, null);
+			}
+		});
+	}
+
+	@Test
+	public void simpleRepository() throws Exception {
+		files.put(SITE + "content.xml", content(unit("org.example.feature.group", "1.0.0", true),
+				unit("org.example.feature.group", "1.1.0", true), unit("org.example.bundle", "2.0.0", false),
+				unit("org.example.nongroup.feature.group", "3.0.0", false)).getBytes(StandardCharsets.UTF_8));
+
+		ProbeResult result = probe.probe(URI.create(SITE), null, new NullProgressMonitor());
+		assertNotNull(result);
+		assertFalse(result.isNotModified());
+		assertEquals(1, result.getVersions().size());
+		assertEquals(Version.create("1.1.0"), result.getVersions().get("org.example.feature.group"));
+		assertFalse(requests.contains(SITE + "artifacts.jar"));
+		assertFalse(requests.contains(SITE + "artifacts.xml"));
+	}
+
+	@Test
+	public void compressedCompositeRepository() throws Exception {
+		files.put(SITE + "compositeContent.jar", jar("compositeContent.xml",
+				"<?compositeMetadataRepository version='1.0.0'?><repository name='latest'>"
+						+ "<children size='2'><child location='a'/><child location='https://mirror.example.org/b/'/></children>"
+						+ "</repository>"));
+		files.put(SITE + "a/content.jar",
+				jar("content.xml", content(unit("org.example.feature.group", "1.0.0", true))));
+		files.put("https://mirror.example.org/b/content.xml",
+				content(unit("org.example.feature.group", "1.2.0", true), unit("org.other.feature.group", "4.0.0", true))
+				.getBytes(StandardCharsets.UTF_8));
+
+		ProbeResult result = probe.probe(URI.create(SITE), null, new NullProgressMonitor());
+		assertNotNull(result);
+		assertEquals(Version.create("1.2.0"), result.getVersions().get("org.example.feature.group"));
+		assertEquals(Version.create("4.0.0"), result.getVersions().get("org.other.feature.group"));
+		assertEquals(3, result.getValidators().size());
+	}
+
+	@Test
+	public void revalidateUnchangedSite() throws Exception {
+		files.put(SITE + "content.xml",
+				content(unit("org.example.feature.group", "1.0.0", true)).getBytes(StandardCharsets.UTF_8));
+		ProbeResult first = probe.probe(URI.create(SITE), null, new NullProgressMonitor());
+
+		requests.clear();
+		ProbeResult second = probe.probe(URI.create(SITE), first.getValidators(), new NullProgressMonitor());
+		assertTrue(second.isNotModified());
+		assertEquals(1, requests.size());
+
+		files.put(SITE + "content.xml",
+				timestampedContent("1700000001000", unit("org.example.feature.group", "1.0.10", true))
+				.getBytes(StandardCharsets.UTF_8));
+		ProbeResult third = probe.probe(URI.create(SITE), first.getValidators(), new NullProgressMonitor());
+		assertFalse(third.isNotModified());
+		assertEquals(Version.create("1.0.10"), third.getVersions().get("org.example.feature.group"));
+	}
+
+	@Test
+	public void revalidateByRepositoryTimestamp() throws Exception {
+		sendValidators = false;
+		files.put(SITE + "content.xml",
+				timestampedContent("1700000000000", unit("org.example.feature.group", "1.0.0", true))
+				.getBytes(StandardCharsets.UTF_8));
+		ProbeResult first = probe.probe(URI.create(SITE), null, new NullProgressMonitor());
+		assertEquals("1700000000000", first.getValidators().get(0).getTimestamp());
+
+		ProbeResult second = probe.probe(URI.create(SITE), first.getValidators(), new NullProgressMonitor());
+		assertTrue(second.isNotModified());
+
+		files.put(SITE + "content.xml",
+				timestampedContent("1700000001000", unit("org.example.feature.group", "1.0.10", true))
+				.getBytes(StandardCharsets.UTF_8));
+		ProbeResult third = probe.probe(URI.create(SITE), first.getValidators(), new NullProgressMonitor());
+		assertFalse(third.isNotModified());
+		assertEquals(Version.create("1.0.10"), third.getVersions().get("org.example.feature.group"));
+		assertEquals("1700000001000", third.getValidators().get(0).getTimestamp());
+	}
+
+	@Test
+	public void unsupportedRepository() throws Exception {
+		files.put(SITE + "p2.index", "version=1\nmetadata.repository.factory.order=content.xml.xz,!\n"
+				.getBytes(StandardCharsets.UTF_8));
+		files.put(SITE + "content.xml",
+				content(unit("org.example.feature.group", "1.0.0", true)).getBytes(StandardCharsets.UTF_8));
+		assertNull(probe.probe(URI.create(SITE), null, new NullProgressMonitor()));
+		assertNull(probe.probe(URI.create("file:/tmp/site/"), null, new NullProgressMonitor()));
+	}
+
+	@Test(expected = IOException.class)
+	public void malformedRepository() throws Exception {
+		files.put(SITE + "content.xml", "<repository><units>".getBytes(StandardCharsets.UTF_8));
+		probe.probe(URI.create(SITE), null, new NullProgressMonitor());
+	}
+
+	private static String unit(String id, String version, boolean group) {
+		return "<unit id='" + id + "' version='" + version + "'><properties size='1'>"
+				+ "<property name='org.eclipse.equinox.p2.type.group' value='" + group + "'/>"
+				+ "</properties><provides size='0'/></unit>";
+	}
+
+	private static String content(String... units) {
+		return timestampedContent("1700000000000", units);
+	}
+
+	private static String timestampedContent(String timestamp, String... units) {
+		StringBuilder content = new StringBuilder(
+				"<?xml version='1.0' encoding='UTF-8'?><?metadataRepository version='1.2.0'?>"
+						+ "<repository name='test' type='org.eclipse.equinox.internal.p2.metadata.repository.LocalMetadataRepository' version='1'>"
+						+ "<properties size='1'><property name='p2.timestamp' value='" + timestamp + "'/></properties>"
+						+ "<units size='" + units.length + "'>");
+		for (String unit : units) {
+			content.append(unit);
+		}
+		return content.append("</units></repository>").toString();
+	}
+
+	private static byte[] jar(String entry, String content) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+			zip.putNextEntry(new ZipEntry(entry));
+			zip.write(content.getBytes(StandardCharsets.UTF_8));
+			zip.closeEntry();
+		}
+		return bytes.toByteArray();
+	}
+}
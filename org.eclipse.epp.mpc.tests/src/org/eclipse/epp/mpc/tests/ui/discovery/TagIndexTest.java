@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.mpc.tests.ui.discovery;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.epp.internal.mpc.ui.discovery.TagIndex;
+import org.eclipse.epp.internal.mpc.ui.discovery.TagLookupService;
+import org.eclipse.epp.mpc.core.model.INode;
+import org.eclipse.epp.mpc.core.model.ISearchResult;
+import org.eclipse.epp.mpc.core.service.IMarketplaceService;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test {@link TagIndex}
+ */
+public class TagIndexTest {
+
+	private static final long HOUR = 60 * 60 * 1000L;
+
+	private static final String INDEX = "<?xml version='1.0' encoding='UTF-8'?><marketplace>\n" //
+			+ "<search count='2'>\n" //
+			+ "<node id='1' name='Markdown Editor' url='https://marketplace.example.org/content/markdown'>\n" //
+			+ "<tags><tag id='1' name='fileExtension_md' url=''/><tag id='2' name='fileExtension_markdown' url=''/>" //
+			+ "<tag id='3' name='editor' url=''/></tags>\n" //
+			+ "</node>\n" //
+			+ "<node id='2' name='Gradle Tooling' url='https://marketplace.example.org/content/gradle'>\n" //
+			+ "<tags><tag id='4' name='nature_org.eclipse.buildship.core.gradleprojectnature' url=''/>" //
+			+ "<tag id='5' name='fileExtension_gradle' url=''/></tags>\n" //
+			+ "</node>\n" //
+			+ "</search></marketplace>";
+
+	@Rule
+	public TemporaryFolder testData = new TemporaryFolder();
+
+	private File indexDirectory;
+
+	@Before
+	public void before() throws Exception {
+		indexDirectory = testData.newFolder("taglookup");
+	}
+
+	@Test
+	public void noIndex() {
+		TagIndex index = new TagIndex(indexDirectory, null, HOUR);
+		assertFalse(index.covers("fileExtension_md"));
+		assertTrue(index.getNodes("fileExtension_md").isEmpty());
+	}
+
+	@Test
+	public void localIndex() throws Exception {
+		Files.write(new File(indexDirectory, "tagindex.xml").toPath(), INDEX.getBytes(StandardCharsets.UTF_8));
+		TagIndex index = new TagIndex(indexDirectory, null, HOUR);
+
+		assertTrue(index.covers("fileExtension_md"));
+		assertTrue(index.covers("fileExtension_txt"));
+		assertTrue(index.covers("nature_org.eclipse.buildship.core.gradleprojectnature"));
+		assertFalse(index.covers("editor"));
+		assertEquals("1", index.getNodes("fileExtension_markdown").get(0).getId());
+		assertEquals("Gradle Tooling", index.getNodes("fileExtension_gradle").get(0).getName());
+		assertTrue(index.getNodes("fileExtension_txt").isEmpty());
+	}
+
+	@Test
+	public void refreshFromSource() throws Exception {
+		File source = testData.newFile("published-index.xml");
+		Files.write(source.toPath(), INDEX.getBytes(StandardCharsets.UTF_8));
+		TagIndex index = new TagIndex(indexDirectory, source.toURI(), HOUR);
+		assertFalse(index.covers("fileExtension_md"));
+
+		assertTrue(index.refresh(null).isOK());
+		assertEquals("1", index.getNodes("fileExtension_md").get(0).getId());
+
+		// the downloaded copy is used in the next session
+		TagIndex nextSession = new TagIndex(indexDirectory, source.toURI(), HOUR);
+		assertEquals("1", nextSession.getNodes("fileExtension_md").get(0).getId());
+	}
+
+	@Test
+	public void localCopyIsReadAgain() throws Exception {
+		TagIndex index = new TagIndex(indexDirectory, null, HOUR);
+		assertFalse(index.covers("fileExtension_md"));
+
+		File indexFile = new File(indexDirectory, "tagindex.xml");
+		Files.write(indexFile.toPath(), INDEX.getBytes(StandardCharsets.UTF_8));
+		assertTrue(index.refresh(null).isOK());
+		assertEquals("1", index.getNodes("fileExtension_md").get(0).getId());
+
+		assertTrue(indexFile.delete());
+		assertTrue(index.refresh(null).isOK());
+		assertFalse(index.covers("fileExtension_md"));
+	}
+
+	@Test
+	public void failedRefreshKeepsIndex() throws Exception {
+		Files.write(new File(indexDirectory, "tagindex.xml").toPath(), INDEX.getBytes(StandardCharsets.UTF_8));
+		TagIndex index = new TagIndex(indexDirectory, new File(testData.getRoot(), "missing.xml").toURI(), HOUR);
+
+		assertFalse(index.refresh(null).isOK());
+		assertEquals("1", index.getNodes("fileExtension_md").get(0).getId());
+	}
+
+	@Test
+	public void lookupFromIndexWithoutServer() throws Exception {
+		Files.write(new File(indexDirectory, "tagindex.xml").toPath(), INDEX.getBytes(StandardCharsets.UTF_8));
+		TagIndex index = new TagIndex(indexDirectory, null, HOUR);
+		IMarketplaceService marketplaceService = mock(IMarketplaceService.class);
+		when(marketplaceService.getBaseUrl()).thenReturn(new URL("https://marketplace.example.org"));
+		TagLookupService service = new TagLookupService(new File(indexDirectory, "tags.properties"), HOUR, index);
+
+		Map<String, List<INode>> result = service.lookup(marketplaceService,
+				Arrays.asList("fileExtension_md", "fileExtension_txt", "nature_org.example.nature"), null);
+
+		assertEquals(Arrays.asList("fileExtension_md"), Arrays.asList(result.keySet().toArray()));
+		verify(marketplaceService, never()).tagged(anyList(), any());
+		verify(marketplaceService, never()).getNodes(anyCollection(), any());
+	}
+
+	@Test
+	public void otherMarketplaceIsQueried() throws Exception {
+		Files.write(new File(indexDirectory, "tagindex.xml").toPath(), INDEX.getBytes(StandardCharsets.UTF_8));
+		TagIndex index = new TagIndex(indexDirectory, null, HOUR);
+		assertTrue(index.isFor("https://marketplace.example.org"));
+		assertFalse(index.isFor("https://hub.example.org"));
+
+		IMarketplaceService marketplaceService = mock(IMarketplaceService.class);
+		when(marketplaceService.getBaseUrl()).thenReturn(new URL("https://hub.example.org"));
+		ISearchResult searchResult = mock(ISearchResult.class);
+		when(searchResult.getNodes()).thenReturn(Collections.emptyList());
+		when(marketplaceService.tagged(anyList(), any())).thenReturn(searchResult);
+		TagLookupService service = new TagLookupService(new File(indexDirectory, "tags.properties"), HOUR, index);
+
+		Map<String, List<INode>> result = service.lookup(marketplaceService, Arrays.asList("fileExtension_md"), null);
+
+		assertTrue(result.isEmpty());
+		verify(marketplaceService, times(1)).tagged(anyList(), any());
+	}
+}
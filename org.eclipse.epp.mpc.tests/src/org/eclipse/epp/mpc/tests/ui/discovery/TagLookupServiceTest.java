@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.mpc.tests.ui.discovery;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.epp.internal.mpc.core.model.Node;
+import org.eclipse.epp.internal.mpc.core.model.SearchResult;
+import org.eclipse.epp.internal.mpc.core.model.Tag;
+import org.eclipse.epp.internal.mpc.core.model.Tags;
+import org.eclipse.epp.internal.mpc.ui.discovery.TagLookupService;
+import org.eclipse.epp.mpc.core.model.INode;
+import org.eclipse.epp.mpc.core.service.IMarketplaceService;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test {@link TagLookupService}
+ */
+public class TagLookupServiceTest {
+
+	private static final String MARKETPLACE = "https://marketplace.example.org";
+
+	private static final long HOUR = 60 * 60 * 1000L;
+
+	@Rule
+	public TemporaryFolder testData = new TemporaryFolder();
+
+	private File stateFile;
+
+	private IMarketplaceService marketplaceService;
+
+	@Before
+	public void before() throws Exception {
+		stateFile = new File(testData.newFolder("taglookup"), "tags.properties");
+		marketplaceService = mock(IMarketplaceService.class);
+		when(marketplaceService.getBaseUrl()).thenReturn(new URL(MARKETPLACE));
+		// every tag ending in 0 has a matching entry
+		when(marketplaceService.tagged(anyList(), any())).thenAnswer(invocation -> {
+			List<Node> nodes = new ArrayList<>();
+			for (Object tag : (List<?>) invocation.getArgument(0)) {
+				if (tag.toString().endsWith("0")) {
+					nodes.add(node("node_" + tag, tag.toString()));
+				}
+			}
+			return searchResult(nodes, nodes.size());
+		});
+		when(marketplaceService.getNodes(anyCollection(), any())).thenAnswer(invocation -> {
+			List<INode> nodes = new ArrayList<>();
+			for (Object node : (Collection<?>) invocation.getArgument(0)) {
+				String id = ((INode) node).getId();
+				nodes.add(node(id, id.substring("node_".length())));
+			}
+			return nodes;
+		});
+	}
+
+	@Test
+	public void lookupInBatches() throws Exception {
+		TagLookupService service = new TagLookupService(stateFile, HOUR);
+		Map<String, List<INode>> result = service.lookup(marketplaceService, tags(45), null);
+
+		verify(marketplaceService, times(3)).tagged(anyList(), any());
+		assertEquals(Arrays.asList("nature_0", "nature_10", "nature_20", "nature_30", "nature_40"),
+				new ArrayList<>(result.keySet()));
+		assertEquals("node_nature_20", result.get("nature_20").get(0).getId());
+		assertEquals(Collections.emptyList(), service.getKnownNodeIds(MARKETPLACE, "nature_21"));
+		assertEquals(Arrays.asList("node_nature_30"), service.getKnownNodeIds(MARKETPLACE, "nature_30"));
+	}
+
+	@Test
+	public void rememberLookupsAcrossSessions() throws Exception {
+		TagLookupService service = new TagLookupService(stateFile, HOUR);
+		service.lookup(marketplaceService, tags(45), null);
+		service.save();
+
+		IMarketplaceService nextSessionService = mock(IMarketplaceService.class);
+		when(nextSessionService.getBaseUrl()).thenReturn(new URL(MARKETPLACE));
+		TagLookupService nextSession = new TagLookupService(stateFile, HOUR);
+		Map<String, List<INode>> result = nextSession.lookup(nextSessionService,
+				Arrays.asList("nature_1", "nature_2", "nature_3"), null);
+
+		assertTrue(result.isEmpty());
+		verify(nextSessionService, never()).tagged(anyList(), any());
+		verify(nextSessionService, never()).getNodes(anyCollection(), any());
+	}
+
+	@Test
+	public void resolveRememberedEntries() throws Exception {
+		TagLookupService service = new TagLookupService(stateFile, HOUR);
+		service.lookup(marketplaceService, tags(45), null);
+		Map<String, List<INode>> result = service.lookup(marketplaceService, tags(45), null);
+
+		verify(marketplaceService, times(3)).tagged(anyList(), any());
+		verify(marketplaceService, times(1)).getNodes(anyCollection(), any());
+		assertEquals(5, result.size());
+		assertEquals("node_nature_40", result.get("nature_40").get(0).getId());
+	}
+
+	@Test
+	public void expiredLookups() throws Exception {
+		TagLookupService service = new TagLookupService(stateFile, 0);
+		service.lookup(marketplaceService, Arrays.asList("nature_1"), null);
+		service.lookup(marketplaceService, Arrays.asList("nature_1"), null);
+
+		verify(marketplaceService, times(2)).tagged(anyList(), any());
+		assertNull(service.getKnownNodeIds(MARKETPLACE, "nature_1"));
+	}
+
+	@Test
+	public void incompleteResultIsNotRememberedAsEmpty() throws Exception {
+		when(marketplaceService.tagged(anyList(), any()))
+		.thenReturn(searchResult(Arrays.asList(node("node_nature_0", "nature_0")), 100));
+		TagLookupService service = new TagLookupService(stateFile, HOUR);
+		service.lookup(marketplaceService, Arrays.asList("nature_0", "nature_1"), null);
+
+		assertEquals(Arrays.asList("node_nature_0"), service.getKnownNodeIds(MARKETPLACE, "nature_0"));
+		assertNull(service.getKnownNodeIds(MARKETPLACE, "nature_1"));
+	}
+
+	private static List<String> tags(int count) {
+		List<String> tags = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			tags.add("nature_" + i);
+		}
+		return tags;
+	}
+
+	private static Node node(String id, String tagName) {
+		Node node = new Node();
+		node.setId(id);
+		Tags tags = new Tags();
+		Tag tag = new Tag();
+		tag.setName(tagName);
+		tags.getTags().add(tag);
+		node.setTags(tags);
+		return node;
+	}
+
+	private static SearchResult searchResult(List<Node> nodes, int matchCount) {
+		SearchResult result = new SearchResult();
+		result.setNodes(nodes);
+		result.setMatchCount(matchCount);
+		return result;
+	}
+}
@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.mpc.tests.ui.wizard;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeNoException;
+import static org.junit.Assume.assumeTrue;
+
+import org.eclipse.epp.internal.mpc.ui.wizards.BrowserPool;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.SWTError;
+import org.eclipse.swt.browser.Browser;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test {@link BrowserPool}
+ */
+public class BrowserPoolTest {
+
+	private Shell shell;
+
+	@Before
+	public void before() {
+		shell = new Shell(Display.getDefault());
+		try {
+			new Browser(shell, SWT.NULL).dispose();
+		} catch (SWTError e) {
+			assumeNoException("No browser available", e);
+		}
+	}
+
+	@After
+	public void after() {
+		shell.dispose();
+	}
+
+	@Test
+	public void releasedBrowserIsReused() {
+		BrowserPool pool = BrowserPool.getPool(shell);
+		assertSame(pool, BrowserPool.getPool(shell));
+
+		Shell tooltip = new Shell(shell);
+		Browser browser = pool.acquire(tooltip);
+		assumeTrue("Browser can't be reparented on this platform", browser.isReparentable());
+		pool.releaseOnDispose(browser);
+		tooltip.dispose();
+		assertFalse(browser.isDisposed());
+
+		Shell nextTooltip = new Shell(shell);
+		assertSame(browser, pool.acquire(nextTooltip));
+		assertSame(nextTooltip, browser.getParent());
+	}
+
+	@Test
+	public void warmedUpBrowserIsUsed() {
+		BrowserPool pool = BrowserPool.getPool(shell);
+		pool.warmUp();
+
+		Shell tooltip = new Shell(shell);
+		Browser browser = pool.acquire(tooltip);
+		assumeTrue("Browser can't be reparented on this platform", browser.isReparentable());
+		assertSame(tooltip, browser.getParent());
+	}
+
+	@Test
+	public void browsersAreRecreatedWithoutReparenting() {
+		BrowserPool pool = new BrowserPool(shell) {
+			@Override
+			protected boolean reparent(Browser browser, Composite parent) {
+				return false;
+			}
+		};
+		pool.warmUp();
+
+		Shell tooltip = new Shell(shell);
+		Browser browser = pool.acquire(tooltip);
+		assertSame(tooltip, browser.getParent());
+		pool.releaseOnDispose(browser);
+		tooltip.dispose();
+		assertTrue(browser.isDisposed());
+
+		Shell nextTooltip = new Shell(shell);
+		Browser nextBrowser = pool.acquire(nextTooltip);
+		assertNotSame(browser, nextBrowser);
+		assertSame(nextTooltip, nextBrowser.getParent());
+	}
+
+	@Test
+	public void idleBrowsersAreDisposedWithShell() {
+		BrowserPool.getPool(shell).warmUp();
+		Browser idle = null;
+		for (Shell child : shell.getShells()) {
+			for (Control control : child.getChildren()) {
+				if (control instanceof Browser) {
+					idle = (Browser) control;
+				}
+			}
+		}
+		assertNotNull(idle);
+
+		shell.dispose();
+		assertTrue(idle.isDisposed());
+	}
+}
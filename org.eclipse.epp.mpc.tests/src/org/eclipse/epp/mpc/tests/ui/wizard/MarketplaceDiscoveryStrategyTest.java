@@ -13,9 +13,16 @@
  *******************************************************************************/
 package org.eclipse.epp.mpc.tests.ui.wizard;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -25,12 +32,16 @@ import org.eclipse.epp.internal.mpc.core.model.SearchResult;
 import org.eclipse.epp.internal.mpc.core.service.DefaultMarketplaceService;
 import org.eclipse.epp.internal.mpc.ui.CatalogRegistry;
 import org.eclipse.epp.internal.mpc.ui.catalog.MarketplaceCatalog;
+import org.eclipse.epp.internal.mpc.ui.catalog.MarketplaceCategory.Contents;
 import org.eclipse.epp.internal.mpc.ui.catalog.MarketplaceDiscoveryStrategy;
+import org.eclipse.epp.internal.mpc.ui.catalog.MarketplaceNodeCatalogItem;
+import org.eclipse.epp.internal.mpc.ui.catalog.ResourceProvider.ResourceFuture;
 import org.eclipse.epp.mpc.core.model.ICategory;
 import org.eclipse.epp.mpc.core.model.IMarket;
 import org.eclipse.epp.mpc.core.model.INode;
 import org.eclipse.epp.mpc.core.service.IMarketplaceService;
 import org.eclipse.epp.mpc.ui.CatalogDescriptor;
+import org.eclipse.equinox.internal.p2.discovery.model.CatalogItem;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -104,4 +115,75 @@ public class MarketplaceDiscoveryStrategyTest {
 		assertNotNull(testNode[0]);
 		assertNotNull(testNode[0].getId());
 	}
+
+	@Test
+	public void testPrefetchKeepsCatalog() throws Exception {
+		// unique icons, so the shared resource provider doesn't know them from earlier runs
+		final String iconBase = "https://marketplace.example.org/" + UUID.randomUUID() + "/icon";
+		final int[] popularQueries = new int[1];
+		final IMarketplaceService marketplaceService = new DefaultMarketplaceService(catalogUrl) {
+			@Override
+			public SearchResult featured(IMarket market, ICategory category, IProgressMonitor monitor)
+					throws CoreException {
+				return searchResult(createNode("1", "Featured Solution", iconBase + "1.png"));
+			}
+
+			@Override
+			public SearchResult popular(IProgressMonitor monitor) throws CoreException {
+				popularQueries[0]++;
+				return searchResult(createNode("2", "Popular Solution", iconBase + "2.png"),
+						createNode("3", "Other Popular Solution", iconBase + "3.png"),
+						createNode("4", "Popular Solution Without Icon", null),
+						createNode("5", "Third Popular Solution", iconBase + "5.png"));
+			}
+		};
+		setupCatalog(marketplaceService);
+
+		catalog.featured(new NullProgressMonitor(), null, null);
+		List<CatalogItem> items = new ArrayList<>(catalog.getItems());
+		assertEquals(Collections.singletonList("1"), nodeIds(items));
+
+		try {
+			List<ResourceFuture> downloads = catalog.prefetch(Contents.POPULAR, 2, new NullProgressMonitor());
+			assertEquals(1, popularQueries[0]);
+			assertEquals(2, downloads.size());
+			assertEquals(items, catalog.getItems());
+
+			// icons that are already known are not downloaded again
+			downloads = catalog.prefetch(Contents.POPULAR, 10, new NullProgressMonitor());
+			assertEquals(2, popularQueries[0]);
+			assertEquals(1, downloads.size());
+			assertEquals(items, catalog.getItems());
+
+			assertTrue(catalog.prefetch(Contents.FAVORITE_LISTS, 10, new NullProgressMonitor()).isEmpty());
+			assertEquals(2, popularQueries[0]);
+		} finally {
+			catalog.cancelPendingResources();
+		}
+	}
+
+	private static Node createNode(String id, String name, String image) {
+		Node node = new Node();
+		node.setId(id);
+		node.setName(name);
+		node.setImage(image);
+		return node;
+	}
+
+	private static SearchResult searchResult(Node... nodes) {
+		SearchResult result = new SearchResult();
+		result.setNodes(Arrays.asList(nodes));
+		result.setMatchCount(nodes.length);
+		return result;
+	}
+
+	private static List<String> nodeIds(List<CatalogItem> items) {
+		List<String> ids = new ArrayList<>();
+		for (CatalogItem item : items) {
+			if (item instanceof MarketplaceNodeCatalogItem) {
+				ids.add(((MarketplaceNodeCatalogItem) item).getData().getId());
+			}
+		}
+		return ids;
+	}
 }
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.mpc.tests.ui.wizard;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.epp.internal.mpc.ui.wizards.VirtualControlListViewer;
+import org.eclipse.equinox.internal.p2.ui.discovery.util.ControlListItem;
+import org.eclipse.jface.viewers.ArrayContentProvider;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.layout.FillLayout;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test {@link VirtualControlListViewer}
+ */
+public class VirtualControlListViewerTest {
+
+	private static final int ITEM_HEIGHT = 20;
+
+	private static final int VIEWPORT_HEIGHT = 200;
+
+	private final Map<Object, ControlListItem<?>> createdItems = new HashMap<>();
+
+	private int createCount;
+
+	private Shell shell;
+
+	private VirtualControlListViewer viewer;
+
+	@Before
+	public void before() {
+		shell = new Shell(Display.getDefault());
+		shell.setLayout(new FillLayout());
+		viewer = new VirtualControlListViewer(shell, SWT.NONE) {
+			@Override
+			protected ControlListItem<?> doCreateItem(Composite parent, Object element) {
+				createCount++;
+				ControlListItem<?> item = new TestItem(parent, element);
+				createdItems.put(element, item);
+				return item;
+			}
+
+			@Override
+			protected boolean doRefreshItem(ControlListItem<?> item, Object element) {
+				return true;
+			}
+		};
+		viewer.setContentProvider(ArrayContentProvider.getInstance());
+		shell.setSize(300, VIEWPORT_HEIGHT);
+		shell.layout(true);
+	}
+
+	@After
+	public void after() {
+		shell.dispose();
+	}
+
+	@Test
+	public void onlyRowsNearViewportAreCreated() {
+		viewer.setInput(elements(1000));
+
+		assertTrue(createCount > 0);
+		assertTrue("Created " + createCount + " items", createCount < 3 * VIEWPORT_HEIGHT / ITEM_HEIGHT);
+		// rows that weren't rendered are estimated from the rendered ones
+		assertEquals(1000 * (ITEM_HEIGHT + 1), contentHeight());
+	}
+
+	@Test
+	public void refreshKeepsItemsOfRemainingElements() {
+		List<String> input = new ArrayList<>(Arrays.asList("a", "b", "c"));
+		viewer.setInput(input);
+		ControlListItem<?> a = createdItems.get("a");
+		ControlListItem<?> b = createdItems.get("b");
+		ControlListItem<?> c = createdItems.get("c");
+		int created = createCount;
+
+		input.remove("b");
+		input.add(0, "d");
+		viewer.refresh();
+
+		assertTrue(b.isDisposed());
+		assertFalse(a.isDisposed());
+		assertFalse(c.isDisposed());
+		assertEquals(created + 1, createCount);
+		assertNotSame(a, createdItems.get("d"));
+		assertSame(a, viewer.testFindItem("a"));
+		assertTrue(createdItems.get("d").getBounds().y < a.getBounds().y);
+	}
+
+	@Test
+	public void neighborsInDisplayOrder() {
+		viewer.setInput(elements(5));
+
+		assertEquals(Arrays.asList("element1", "element3"), viewer.getNeighbors("element2", 1));
+		assertEquals(Arrays.asList("element1", "element2"), viewer.getNeighbors("element0", 2));
+		assertEquals(Arrays.asList(), viewer.getNeighbors("unknown", 2));
+	}
+
+	private int contentHeight() {
+		return ((Composite) viewer.getControl()).getChildren()[0].getSize().y;
+	}
+
+	private static List<String> elements(int count) {
+		List<String> elements = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			elements.add("element" + i);
+		}
+		return elements;
+	}
+
+	private static class TestItem extends ControlListItem<Object> {
+
+		TestItem(Composite parent, Object element) {
+			super(parent, SWT.NONE, element);
+		}
+
+		@Override
+		public Point computeSize(int wHint, int hHint, boolean changed) {
+			return new Point(wHint == SWT.DEFAULT ? 100 : wHint, ITEM_HEIGHT);
+		}
+
+		@Override
+		protected void refresh() {
+		}
+	}
+}
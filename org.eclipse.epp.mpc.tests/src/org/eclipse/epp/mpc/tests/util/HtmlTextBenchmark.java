@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.mpc.tests.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.epp.internal.mpc.core.util.HtmlText;
+import org.eclipse.epp.internal.mpc.core.util.TextUtil;
+import org.junit.Test;
+
+/**
+ * Measures parsing description bodies of growing size with {@link HtmlText} and {@link TextUtil}. This is not part of
+ * any test suite, since timings depend on the machine. Run it manually to check that parsing time grows linearly with
+ * the body length.
+ */
+public class HtmlTextBenchmark {
+
+	private static final int WARMUP_RUNS = 20;
+
+	private static final int RUNS = 100;
+
+	@Test
+	public void parseGrowingBodies() {
+		for (int i = 0; i < WARMUP_RUNS; i++) {
+			parse(HtmlTextTest.description(200));
+		}
+		for (int sections = 200; sections <= 1600; sections *= 2) {
+			String body = HtmlTextTest.description(sections);
+			long start = System.nanoTime();
+			for (int i = 0; i < RUNS; i++) {
+				parse(body);
+			}
+			long elapsed = System.nanoTime() - start;
+			System.out.println(String.format("%s: parsing %d characters took %.2fms on average",
+					HtmlTextBenchmark.class.getSimpleName(), body.length(),
+					(double) elapsed / RUNS / TimeUnit.MILLISECONDS.toNanos(1)));
+		}
+	}
+
+	private static void parse(String body) {
+		HtmlText.parse(body).getPlainText();
+		TextUtil.stripHtmlMarkup(body);
+		TextUtil.cleanInformalHtmlMarkup(body);
+	}
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.mpc.tests.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.epp.internal.mpc.core.util.HtmlText;
+import org.eclipse.epp.internal.mpc.core.util.TextUtil;
+import org.junit.Test;
+
+/**
+ * Test {@link HtmlText}
+ */
+public class HtmlTextTest {
+
+	@Test
+	public void plainText() {
+		HtmlText text = HtmlText.parse("<p>An <b>editor</b>\n\tfor  <a href='x'>markdown</a> files.</p><p>Second</p>");
+		assertEquals("An editor for markdown files. Second", text.getPlainText());
+		assertEquals("one two", HtmlText.parse("one<br>two").getPlainText());
+		assertEquals("a < b and c", HtmlText.parse(" a < b and c ").getPlainText());
+		assertEquals("", HtmlText.parse("<!-- comment --><br/>").getPlainText());
+	}
+
+	@Test
+	public void teaser() {
+		HtmlText text = HtmlText.parse("<p>Short <i>teaser</i></p> <!-- break --> <p>More details</p>");
+		assertEquals("<p>Short <i>teaser</i></p>", text.getTeaser());
+		assertEquals("Short teaser", text.getPlainTeaser());
+		assertEquals("Short teaser More details", text.getPlainText());
+
+		assertNull(HtmlText.parse(" <!--break--> <p>More details</p>").getTeaser());
+		assertNull(HtmlText.parse("<p>No teaser</p>").getTeaser());
+		assertNull(HtmlText.parse("<p>No teaser</p>").getPlainTeaser());
+	}
+
+	@Test
+	public void sanitizedHtml() {
+		assertEquals("<p>Text</p><img src='icon.png'>", HtmlText
+				.parse("<p>Text</p><script type='text/javascript'>alert('<p>');</script><img src='icon.png' onerror='alert(1)'>")
+				.getHtml());
+		assertEquals("<a>link</a>", HtmlText.parse("<a href=\"javascript:alert(1)\">link</a>").getHtml());
+		assertEquals("<A HREF=\"https://example.org\">link</A>",
+				HtmlText.parse("<A HREF=\"https://example.org\" ONCLICK=alert(1)>link</A>").getHtml());
+		assertEquals("before", HtmlText.parse("before<iframe src='https://example.org'>").getHtml());
+		assertEquals("<a>link</a>", HtmlText.parse("<a href=\"&#106;ava&#x73;cript&colon;alert(1)\">link</a>").getHtml());
+		assertEquals("<a>link</a>", HtmlText.parse("<a href=\"java&Tab;script:alert(1)\">link</a>").getHtml());
+		assertEquals("<a>link</a>", HtmlText.parse("<a href=' jav\nascript:alert(1)'>link</a>").getHtml());
+		assertEquals("<a>link</a>", HtmlText.parse("<a href=\"data:text/html,<b>\">link</a>").getHtml());
+		assertEquals("<a href=\"mailto:info@example.org\" title=\"Note: mail\">link</a>",
+				HtmlText.parse("<a href=\"mailto:info@example.org\" title=\"Note: mail\">link</a>").getHtml());
+		assertEquals("<img src=\"images/icon.png?v=1:2\">", HtmlText.parse("<img src=\"images/icon.png?v=1:2\">").getHtml());
+		assertEquals("one<p>two", HtmlText.parse("one\n\ntwo").getHtml());
+		assertEquals("<ul>\n\n<li>one</li>\n\n<li>two</li></ul>",
+				HtmlText.parse("<ul>\n\n<li>one</li>\n\n<li>two</li></ul>").getHtml());
+	}
+
+	@Test
+	public void unclosedMarkup() {
+		assertEquals("one <b two", HtmlText.parse("one <b two").getPlainText());
+		assertEquals("one <!-- two", HtmlText.parse("one <!-- two").getPlainText());
+		assertEquals("one <a title=\"two", HtmlText.parse("one <a title=\"two").getPlainText());
+	}
+
+	@Test
+	public void memoized() {
+		String body = "<p>Memoized</p>";
+		assertSame(HtmlText.of(body), HtmlText.of(body));
+		assertNull(HtmlText.of(null));
+	}
+
+	@Test
+	public void longBodies() {
+		String body = description(1600);
+		HtmlText text = HtmlText.parse(body);
+		assertEquals("<p>Tooling for <b>Markdown</b> and <i>AsciiDoc</i> documents.</p>", text.getTeaser());
+		assertTrue(text.getPlainText().startsWith("Tooling for Markdown and AsciiDoc documents. Feature 0 Edit"));
+		assertTrue(text.getPlainText().endsWith("Feature 1599 Edit documents with syntax highlighting, outline and "
+				+ "preview. Details Version 1.1599"));
+		String stripped = TextUtil.stripHtmlMarkup(body);
+		assertFalse(stripped.contains("<"));
+		assertTrue(stripped.contains("Feature 1599"));
+	}
+
+	/**
+	 * @return a description shaped like a real marketplace entry body, repeated the given number of times
+	 */
+	static String description(int sections) {
+		StringBuilder body = new StringBuilder();
+		body.append("<p>Tooling for <b>Markdown</b> and <i>AsciiDoc</i> documents.</p>\n<!--break-->\n");
+		for (int i = 0; i < sections; i++) {
+			body.append("<h3>Feature ").append(i).append("</h3>\n");
+			body.append("Edit documents with syntax highlighting, outline and preview.\n\n");
+			body.append("<ul>\n<li><a href=\"https://marketplace.example.org/content/feature-").append(i)
+			.append("\" target=\"_blank\">Details</a></li>\n");
+			body.append("<li><img src=\"https://marketplace.example.org/screenshot-").append(i)
+			.append(".png\" width=\"320\" height=\"200\" alt=\"Screenshot\"/></li>\n</ul>\n");
+			body.append("<table border=0><tr><td>Version</td><td>1.").append(i).append("</td></tr></table>\n\n");
+		}
+		return body.toString();
+	}
+}
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.mpc.tests.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+
+import org.eclipse.core.net.proxy.IProxyChangeListener;
+import org.eclipse.core.net.proxy.IProxyData;
+import org.eclipse.core.net.proxy.IProxyService;
+import org.eclipse.epp.internal.mpc.core.transport.httpclient.HttpClientService;
+import org.eclipse.epp.internal.mpc.core.transport.httpclient.HttpClientService.ResolvedRequestContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Test the per-host cache of proxy settings in {@link HttpClientService}
+ */
+public class HttpClientServiceTest {
+
+	private IProxyService proxyService;
+
+	private IProxyChangeListener proxyChangeListener;
+
+	private HttpClientService service;
+
+	@Before
+	public void before() {
+		proxyService = mock(IProxyService.class);
+		IProxyData proxy = proxy("proxy.example.org");
+		when(proxyService.select(any())).thenReturn(new IProxyData[] { proxy });
+
+		service = new HttpClientService();
+		service.bindProxyService(proxyService);
+		ArgumentCaptor<IProxyChangeListener> listener = ArgumentCaptor.forClass(IProxyChangeListener.class);
+		verify(proxyService).addProxyChangeListener(listener.capture());
+		proxyChangeListener = listener.getValue();
+	}
+
+	@Test
+	public void proxyIsResolvedOncePerHost() throws Exception {
+		ResolvedRequestContext first = service.getRequestContext(URI.create("https://marketplace.eclipse.org/api/p"));
+		ResolvedRequestContext second = service
+				.getRequestContext(URI.create("https://MARKETPLACE.eclipse.org/node/1/api/p"));
+		ResolvedRequestContext otherHost = service.getRequestContext(URI.create("https://download.eclipse.org/"));
+		ResolvedRequestContext otherScheme = service.getRequestContext(URI.create("http://marketplace.eclipse.org/"));
+
+		assertSame(first, second);
+		assertEquals("proxy.example.org", first.getProxyHost().getHostName());
+		assertEquals(8080, first.getProxyHost().getPort());
+		assertNull(first.getProxyCredentials());
+		verify(proxyService, times(3)).select(any());
+		assertEquals(first.getProxyHost(), otherHost.getProxyHost());
+		assertEquals(first.getProxyHost(), otherScheme.getProxyHost());
+	}
+
+	@Test
+	public void proxyChangeIsPickedUp() throws Exception {
+		URI uri = URI.create("https://marketplace.eclipse.org/api/p");
+		ResolvedRequestContext before = service.getRequestContext(uri);
+
+		IProxyData proxy = proxy("other-proxy.example.org");
+		when(proxyService.select(any())).thenReturn(new IProxyData[] { proxy });
+		proxyChangeListener.proxyInfoChanged(null);
+		ResolvedRequestContext after = service.getRequestContext(uri);
+
+		assertEquals("proxy.example.org", before.getProxyHost().getHostName());
+		assertEquals("other-proxy.example.org", after.getProxyHost().getHostName());
+	}
+
+	@Test
+	public void unboundProxyServiceIsNotUsed() throws Exception {
+		URI uri = URI.create("https://marketplace.eclipse.org/api/p");
+		service.getRequestContext(uri);
+
+		service.unbindProxyService(proxyService);
+
+		assertNull(service.getRequestContext(uri).getProxyHost());
+		verify(proxyService).removeProxyChangeListener(proxyChangeListener);
+	}
+
+	private static IProxyData proxy(String host) {
+		IProxyData proxy = mock(IProxyData.class);
+		when(proxy.getType()).thenReturn(IProxyData.HTTPS_PROXY_TYPE);
+		when(proxy.getHost()).thenReturn(host);
+		when(proxy.getPort()).thenReturn(8080);
+		return proxy;
+	}
+}
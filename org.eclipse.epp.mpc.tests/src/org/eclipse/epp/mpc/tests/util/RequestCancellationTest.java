@@ -0,0 +1,77 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.mpc.tests.util;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.epp.internal.mpc.core.transport.httpclient.RequestCancellation;
+import org.eclipse.epp.internal.mpc.core.transport.httpclient.RequestCancellation.Watch;
+import org.junit.Test;
+
+/**
+ * Test {@link RequestCancellation}
+ */
+public class RequestCancellationTest {
+
+	private static final long TIMEOUT = 5000;
+
+	@Test
+	public void cancelAbortsRequest() throws Exception {
+		HttpGet request = new HttpGet("https://example.org/");
+		NullProgressMonitor monitor = new NullProgressMonitor();
+		try (Watch watch = RequestCancellation.watch(request, monitor)) {
+			assertFalse(request.isAborted());
+			monitor.setCanceled(true);
+			assertTrue("Request was not aborted after cancellation", waitForAbort(request));
+		}
+	}
+
+	@Test
+	public void canceledMonitorAbortsRightAway() throws Exception {
+		HttpGet request = new HttpGet("https://example.org/");
+		NullProgressMonitor monitor = new NullProgressMonitor();
+		monitor.setCanceled(true);
+		try (Watch watch = RequestCancellation.watch(request, monitor)) {
+			assertTrue(request.isAborted());
+		}
+	}
+
+	@Test
+	public void closedWatchDoesNotAbort() throws Exception {
+		HttpGet request = new HttpGet("https://example.org/");
+		NullProgressMonitor monitor = new NullProgressMonitor();
+		RequestCancellation.watch(request, monitor).close();
+		monitor.setCanceled(true);
+		Thread.sleep(500);
+		assertFalse(request.isAborted());
+	}
+
+	@Test
+	public void requestWithoutMonitor() throws Exception {
+		HttpGet request = new HttpGet("https://example.org/");
+		try (Watch watch = RequestCancellation.watch(request, null)) {
+			assertFalse(request.isAborted());
+		}
+	}
+
+	private static boolean waitForAbort(HttpGet request) throws InterruptedException {
+		long end = System.currentTimeMillis() + TIMEOUT;
+		while (!request.isAborted() && System.currentTimeMillis() < end) {
+			Thread.sleep(20);
+		}
+		return request.isAborted();
+	}
+}
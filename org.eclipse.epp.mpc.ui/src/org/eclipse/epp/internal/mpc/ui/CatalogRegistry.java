@@ -13,17 +13,22 @@
  *******************************************************************************/
 package org.eclipse.epp.internal.mpc.ui;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+import org.eclipse.core.runtime.ListenerList;
 import org.eclipse.epp.internal.mpc.core.util.URLUtil;
+import org.eclipse.epp.internal.mpc.ui.catalog.ResourceProviderImageDescriptor;
 import org.eclipse.epp.mpc.core.model.ICatalogBranding;
 import org.eclipse.epp.mpc.core.model.INews;
 import org.eclipse.epp.mpc.core.service.ICatalogService;
 import org.eclipse.epp.mpc.ui.CatalogDescriptor;
+import org.eclipse.jface.resource.ImageDescriptor;
 
 /**
  * @author David Green
@@ -42,19 +47,103 @@ public class CatalogRegistry {
 
 	private final List<CatalogDescriptor> catalogDescriptors = new CopyOnWriteArrayList<>();
 
+	/**
+	 * The catalogs contributed through the extension point, as they were read
+	 */
+	private final List<CatalogDescriptor> contributedDescriptors = new ArrayList<>();
+
 	private final Map<String, INews> catalogNews = new HashMap<>();
 
+	private final ListenerList<Runnable> listeners = new ListenerList<>();
+
 	public CatalogRegistry() {
-		catalogDescriptors.addAll(new CatalogExtensionPointReader().getCatalogDescriptors());
+		List<CatalogDescriptor> descriptors = new CatalogExtensionPointReader().getCatalogDescriptors();
+		catalogDescriptors.addAll(descriptors);
+		for (CatalogDescriptor descriptor : descriptors) {
+			contributedDescriptors.add(new CatalogDescriptor(descriptor));
+		}
 	}
 
 	public void register(CatalogDescriptor catalogDescriptor) {
 		catalogDescriptors.add(new CatalogDescriptor(catalogDescriptor));
+		fireChanged();
 	}
 
 	public void unregister(CatalogDescriptor catalogDescriptor) {
-		catalogDescriptors.remove(catalogDescriptor);
+		boolean removed = catalogDescriptors.remove(catalogDescriptor);
 		removeCatalogNews(catalogDescriptor);
+		if (removed) {
+			fireChanged();
+		}
+	}
+
+	/**
+	 * Unregister a catalog that might have replaced a catalog contributed through the extension point. In that case,
+	 * the contributed catalog is registered again.
+	 */
+	public void unregisterOverride(CatalogDescriptor catalogDescriptor) {
+		unregister(catalogDescriptor);
+		int index = contributedDescriptors.indexOf(catalogDescriptor);
+		if (index != -1 && !catalogDescriptors.contains(catalogDescriptor)) {
+			register(contributedDescriptors.get(index));
+		}
+	}
+
+	/**
+	 * Apply the attributes of the given descriptor to the registered descriptor with the same url. The registered
+	 * descriptor is updated in place, so wizards already showing it pick up the changes.
+	 *
+	 * @return true if a descriptor with the same url is registered, false otherwise
+	 */
+	public boolean update(CatalogDescriptor catalogDescriptor) {
+		int index = catalogDescriptors.indexOf(catalogDescriptor);
+		if (index == -1) {
+			return false;
+		}
+		CatalogDescriptor registered = catalogDescriptors.get(index);
+		boolean changed = !Objects.equals(registered.getLabel(), catalogDescriptor.getLabel())
+				|| !Objects.equals(registered.getDescription(), catalogDescriptor.getDescription())
+				|| !isSameIcon(registered.getIcon(), catalogDescriptor.getIcon());
+		registered.setLabel(catalogDescriptor.getLabel());
+		registered.setDescription(catalogDescriptor.getDescription());
+		registered.setIcon(catalogDescriptor.getIcon());
+		registered.setCatalogBranding(catalogDescriptor.getCatalogBranding());
+		registered.setInstallFromAllRepositories(catalogDescriptor.isInstallFromAllRepositories());
+		registered.setDependenciesRepository(catalogDescriptor.getDependenciesRepository());
+		if (changed) {
+			fireChanged();
+		}
+		return true;
+	}
+
+	private static boolean isSameIcon(ImageDescriptor icon, ImageDescriptor otherIcon) {
+		if (icon instanceof ResourceProviderImageDescriptor && otherIcon instanceof ResourceProviderImageDescriptor) {
+			return Objects.equals(((ResourceProviderImageDescriptor) icon).getResourceName(),
+					((ResourceProviderImageDescriptor) otherIcon).getResourceName());
+		}
+		return Objects.equals(icon, otherIcon);
+	}
+
+	/**
+	 * Add a listener that is notified whenever catalogs are registered, unregistered or their presentation changes.
+	 * Listeners are called on the thread that changed the registry.
+	 */
+	public void addChangeListener(Runnable listener) {
+		listeners.add(listener);
+	}
+
+	public void removeChangeListener(Runnable listener) {
+		listeners.remove(listener);
+	}
+
+	private void fireChanged() {
+		for (Runnable listener : listeners) {
+			try {
+				listener.run();
+			} catch (RuntimeException e) {
+				MarketplaceClientUi.error(e);
+			}
+		}
 	}
 
 	public List<CatalogDescriptor> getCatalogDescriptors() {
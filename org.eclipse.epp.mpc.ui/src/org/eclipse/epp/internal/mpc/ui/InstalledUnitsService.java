@@ -0,0 +1,303 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.internal.mpc.ui;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EventObject;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.eclipse.core.runtime.IBundleGroup;
+import org.eclipse.core.runtime.IBundleGroupProvider;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.equinox.internal.p2.engine.InstallableUnitEvent;
+import org.eclipse.equinox.internal.p2.engine.ProfileEvent;
+import org.eclipse.equinox.internal.p2.engine.RollbackOperationEvent;
+import org.eclipse.equinox.internal.provisional.p2.core.eventbus.IProvisioningEventBus;
+import org.eclipse.equinox.internal.provisional.p2.core.eventbus.ProvisioningListener;
+import org.eclipse.equinox.p2.core.IProvisioningAgent;
+import org.eclipse.equinox.p2.engine.IProfile;
+import org.eclipse.equinox.p2.engine.IProfileRegistry;
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.query.IQueryResult;
+import org.eclipse.equinox.p2.query.QueryUtil;
+import org.eclipse.equinox.p2.ui.ProvisioningUI;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.ServiceReference;
+
+/**
+ * Shared, immutable view of the installed feature groups of the running profile. The profile is only scanned when
+ * it changed since the last snapshot. Changes made through p2 in this process are applied to the current snapshot
+ * from the engine's install and uninstall events, so even those don't require a new scan.
+ * <p>
+ * The provisioning agent service is only acquired while the profile is looked up, and released right after.
+ */
+public final class InstalledUnitsService {
+
+	private static final String DOT_FEATURE_DOT_GROUP = ".feature.group"; //$NON-NLS-1$
+
+	private static InstalledUnitsService instance;
+
+	/**
+	 * Installed feature groups at one point in time
+	 */
+	public static final class Snapshot {
+
+		private static final Snapshot EMPTY = new Snapshot(-1, Collections.emptyMap());
+
+		private final long profileTimestamp;
+
+		private final Map<String, IInstallableUnit> unitsById;
+
+		private Set<String> featureIds;
+
+		Snapshot(long profileTimestamp, Map<String, IInstallableUnit> unitsById) {
+			this.profileTimestamp = profileTimestamp;
+			this.unitsById = Collections.unmodifiableMap(unitsById);
+		}
+
+		/**
+		 * @return the installed group units by id. The map is immutable.
+		 */
+		public Map<String, IInstallableUnit> getInstalledUnitsById() {
+			return unitsById;
+		}
+
+		/**
+		 * @return the ids of all installed feature groups. For self-hosted environments without a p2 profile, the
+		 *         running bundle groups are reported instead. The set is immutable.
+		 */
+		public Set<String> getFeatureIds() {
+			return getFeatureIds(null);
+		}
+
+		/**
+		 * @param monitor
+		 *            to cancel looking up the running bundle groups, may be null. A cancelled lookup returns the
+		 *            groups found so far, which are not kept for later calls.
+		 * @see #getFeatureIds()
+		 */
+		public synchronized Set<String> getFeatureIds(IProgressMonitor monitor) {
+			if (featureIds != null) {
+				return featureIds;
+			}
+			Set<String> result = Collections.unmodifiableSet(computeFeatureIds(unitsById, monitor));
+			if (monitor == null || !monitor.isCanceled()) {
+				featureIds = result;
+			}
+			return result;
+		}
+
+		Snapshot apply(long newProfileTimestamp, List<InstallableUnitEvent> changes) {
+			Map<String, IInstallableUnit> newUnitsById = new HashMap<>(unitsById);
+			for (InstallableUnitEvent change : changes) {
+				IInstallableUnit unit = change.getInstallableUnit();
+				if (change.isInstall()) {
+					newUnitsById.put(unit.getId(), unit);
+				} else if (unit.equals(newUnitsById.get(unit.getId()))) {
+					newUnitsById.remove(unit.getId());
+				}
+			}
+			return new Snapshot(newProfileTimestamp, newUnitsById);
+		}
+	}
+
+	private final Function<String, IProfile> profiles;
+
+	private final Supplier<String> profileIds;
+
+	private final IProvisioningEventBus eventBus;
+
+	private final ProvisioningListener profileListener = this::notify;
+
+	private final List<InstallableUnitEvent> pendingChanges = new ArrayList<>();
+
+	private volatile Snapshot snapshot;
+
+	private InstalledUnitsService() {
+		this(withAgent(agent -> (IProvisioningEventBus) agent.getService(IProvisioningEventBus.SERVICE_NAME)),
+				() -> ProvisioningUI.getDefaultUI().getProfileId(), InstalledUnitsService::lookupProfile);
+	}
+
+	/**
+	 * @param eventBus
+	 *            the bus to listen to for profile changes, or null
+	 * @param profileIds
+	 *            supplies the id of the profile whose units are reported
+	 * @param profiles
+	 *            looks up the profile with the given id
+	 */
+	public InstalledUnitsService(IProvisioningEventBus eventBus, Supplier<String> profileIds,
+			Function<String, IProfile> profiles) {
+		this.eventBus = eventBus;
+		this.profileIds = profileIds;
+		this.profiles = profiles;
+		if (eventBus != null) {
+			eventBus.addListener(profileListener);
+		}
+	}
+
+	public static synchronized InstalledUnitsService getInstance() {
+		if (instance == null) {
+			instance = new InstalledUnitsService();
+		}
+		return instance;
+	}
+
+	public static synchronized void disposeInstance() {
+		if (instance != null) {
+			instance.dispose();
+			instance = null;
+		}
+	}
+
+	/**
+	 * @return the installed units of the current profile, scanning the profile only if it changed since the last
+	 *         call
+	 */
+	public Snapshot getSnapshot(IProgressMonitor monitor) {
+		IProfile profile = getProfile();
+		if (profile == null) {
+			return Snapshot.EMPTY;
+		}
+		Snapshot current = snapshot;
+		if (current != null && current.profileTimestamp == profile.getTimestamp()) {
+			return current;
+		}
+		Map<String, IInstallableUnit> unitsById = new HashMap<>();
+		IQueryResult<IInstallableUnit> result = profile.available(QueryUtil.createIUGroupQuery(), monitor);
+		for (IInstallableUnit unit : result) {
+			unitsById.put(unit.getId(), unit);
+		}
+		current = new Snapshot(profile.getTimestamp(), unitsById);
+		if (monitor == null || !monitor.isCanceled()) {
+			// don't keep partial results
+			snapshot = current;
+		}
+		return current;
+	}
+
+	private IProfile getProfile() {
+		return profiles.apply(getProfileId());
+	}
+
+	private String getProfileId() {
+		return profileIds.get();
+	}
+
+	private static IProfile lookupProfile(String profileId) {
+		return withAgent(agent -> {
+			IProfileRegistry profileRegistry = (IProfileRegistry) agent.getService(IProfileRegistry.SERVICE_NAME);
+			return profileRegistry == null ? null : profileRegistry.getProfile(profileId);
+		});
+	}
+
+	/**
+	 * Apply the given function to the provisioning agent service, releasing the service afterwards
+	 *
+	 * @return the function's result, or null if there is no agent
+	 */
+	private static <T> T withAgent(Function<IProvisioningAgent, T> function) {
+		BundleContext bundleContext = MarketplaceClientUi.getBundleContext();
+		ServiceReference<IProvisioningAgent> agentReference = bundleContext == null ? null
+				: bundleContext.getServiceReference(IProvisioningAgent.class);
+		if (agentReference == null) {
+			return null;
+		}
+		IProvisioningAgent agent = bundleContext.getService(agentReference);
+		if (agent == null) {
+			return null;
+		}
+		try {
+			return function.apply(agent);
+		} finally {
+			bundleContext.ungetService(agentReference);
+		}
+	}
+
+	private void notify(EventObject event) {
+		if (event instanceof InstallableUnitEvent) {
+			InstallableUnitEvent unitEvent = (InstallableUnitEvent) event;
+			if (unitEvent.isPost() && (unitEvent.isInstall() || unitEvent.isUninstall())
+					&& (unitEvent.getResult() == null || unitEvent.getResult().isOK())
+					&& isCurrentProfile(unitEvent.getProfile())
+					&& QueryUtil.isGroup(unitEvent.getInstallableUnit())) {
+				synchronized (pendingChanges) {
+					pendingChanges.add(unitEvent);
+				}
+			}
+		} else if (event instanceof RollbackOperationEvent) {
+			synchronized (pendingChanges) {
+				pendingChanges.clear();
+			}
+			snapshot = null;
+		} else if (event instanceof ProfileEvent) {
+			ProfileEvent profileEvent = (ProfileEvent) event;
+			if (!getProfileId().equals(profileEvent.getProfileId())) {
+				return;
+			}
+			List<InstallableUnitEvent> changes;
+			synchronized (pendingChanges) {
+				changes = new ArrayList<>(pendingChanges);
+				pendingChanges.clear();
+			}
+			Snapshot current = snapshot;
+			IProfile profile = profileEvent.getReason() == ProfileEvent.CHANGED ? getProfile() : null;
+			if (current == null || profile == null) {
+				snapshot = null;
+			} else {
+				snapshot = current.apply(profile.getTimestamp(), changes);
+			}
+		}
+	}
+
+	private boolean isCurrentProfile(IProfile profile) {
+		return profile != null && getProfileId().equals(profile.getProfileId());
+	}
+
+	private static Set<String> computeFeatureIds(Map<String, IInstallableUnit> unitsById, IProgressMonitor monitor) {
+		Set<String> features = new HashSet<>(unitsById.keySet());
+		if (features.isEmpty()) {
+			// probably a self-hosted environment
+			IBundleGroupProvider[] bundleGroupProviders = Platform.getBundleGroupProviders();
+			for (IBundleGroupProvider provider : bundleGroupProviders) {
+				if (monitor != null && monitor.isCanceled()) {
+					break;
+				}
+				IBundleGroup[] bundleGroups = provider.getBundleGroups();
+				for (IBundleGroup group : bundleGroups) {
+					String identifier = group.getIdentifier();
+					if (!identifier.endsWith(DOT_FEATURE_DOT_GROUP)) {
+						identifier += DOT_FEATURE_DOT_GROUP;
+					}
+					features.add(identifier);
+				}
+			}
+		}
+		return features;
+	}
+
+	public void dispose() {
+		if (eventBus != null) {
+			eventBus.removeListener(profileListener);
+		}
+		snapshot = null;
+	}
+}
@@ -13,13 +13,11 @@
  *******************************************************************************/
 package org.eclipse.epp.internal.mpc.ui;
 
-import java.util.HashMap;
-import java.util.HashSet;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.util.Map;
 import java.util.Set;
 
-import org.eclipse.core.runtime.IBundleGroup;
-import org.eclipse.core.runtime.IBundleGroupProvider;
 import org.eclipse.core.runtime.ILog;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -29,13 +27,7 @@ import org.eclipse.core.runtime.preferences.IPreferencesService;
 import org.eclipse.core.runtime.preferences.IScopeContext;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.epp.internal.mpc.core.MarketplaceClientCore;
-import org.eclipse.equinox.p2.core.IProvisioningAgent;
-import org.eclipse.equinox.p2.engine.IProfile;
-import org.eclipse.equinox.p2.engine.IProfileRegistry;
 import org.eclipse.equinox.p2.metadata.IInstallableUnit;
-import org.eclipse.equinox.p2.query.IQueryResult;
-import org.eclipse.equinox.p2.query.QueryUtil;
-import org.eclipse.equinox.p2.ui.ProvisioningUI;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.SWTException;
@@ -46,7 +38,6 @@ import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.statushandlers.StatusManager;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.FrameworkUtil;
-import org.osgi.framework.ServiceReference;
 
 /**
  * @author Steffen Pingel
@@ -55,8 +46,6 @@ import org.osgi.framework.ServiceReference;
  */
 public class MarketplaceClientUi {
 
-	private static final String DOT_FEATURE_DOT_GROUP = ".feature.group"; //$NON-NLS-1$
-
 	public static final String BUNDLE_ID = "org.eclipse.epp.mpc.ui"; //$NON-NLS-1$
 
 	public static ILog getLog() {
@@ -139,53 +128,20 @@ public class MarketplaceClientUi {
 		return FrameworkUtil.getBundle(MarketplaceClientDebug.class).getBundleContext();
 	}
 
+	/**
+	 * @return the installed group units by id. The returned map is a shared snapshot and must not be modified.
+	 * @see InstalledUnitsService
+	 */
 	public static Map<String, IInstallableUnit> computeInstalledIUsById(IProgressMonitor monitor) {
-		Map<String, IInstallableUnit> iUs = new HashMap<>();
-		BundleContext bundleContext = MarketplaceClientUi.getBundleContext();
-		ServiceReference<IProvisioningAgent> serviceReference = bundleContext.getServiceReference(IProvisioningAgent.class);
-		if (serviceReference != null) {
-			IProvisioningAgent agent = bundleContext.getService(serviceReference);
-			try {
-				IProfileRegistry profileRegistry = (IProfileRegistry) agent.getService(IProfileRegistry.SERVICE_NAME);
-				if (profileRegistry != null) {
-					IProfile profile = profileRegistry.getProfile(ProvisioningUI.getDefaultUI().getProfileId());
-					if (profile != null) {
-						IQueryResult<IInstallableUnit> result = profile.available(QueryUtil.createIUGroupQuery(),
-								monitor);
-						for (IInstallableUnit unit : result) {
-							iUs.put(unit.getId(), unit);
-						}
-					}
-				}
-			} finally {
-				bundleContext.ungetService(serviceReference);
-			}
-		}
-		return iUs;
+		return InstalledUnitsService.getInstance().getSnapshot(monitor).getInstalledUnitsById();
 	}
 
+	/**
+	 * @return the installed feature group ids. The returned set is a shared snapshot and must not be modified.
+	 * @see InstalledUnitsService
+	 */
 	public static Set<String> computeInstalledFeatures(IProgressMonitor monitor) {
-		Map<String, IInstallableUnit> iusById = computeInstalledIUsById(monitor);
-		Set<String> features = new HashSet<>(iusById.keySet());
-
-		if (features.isEmpty()) {
-			// probably a self-hosted environment
-			IBundleGroupProvider[] bundleGroupProviders = Platform.getBundleGroupProviders();
-			for (IBundleGroupProvider provider : bundleGroupProviders) {
-				if (monitor.isCanceled()) {
-					break;
-				}
-				IBundleGroup[] bundleGroups = provider.getBundleGroups();
-				for (IBundleGroup group : bundleGroups) {
-					String identifier = group.getIdentifier();
-					if (!identifier.endsWith(DOT_FEATURE_DOT_GROUP)) {
-						identifier += DOT_FEATURE_DOT_GROUP;
-					}
-					features.add(identifier);
-				}
-			}
-		}
-		return features;
+		return InstalledUnitsService.getInstance().getSnapshot(monitor).getFeatureIds(monitor);
 	}
 
 	public static void setDefaultHelp(Control control) {
@@ -264,4 +220,53 @@ public class MarketplaceClientUi {
 		return service.getBoolean(BUNDLE_ID, "native-borders", true,
 				new IScopeContext[] { InstanceScope.INSTANCE });
 	}
+
+	/**
+	 * @return true if result lists should only render the items in or near the viewport
+	 */
+	public static boolean useVirtualList() {
+		IPreferencesService service = Platform.getPreferencesService();
+		return service.getBoolean(BUNDLE_ID, "virtual-list", true, //$NON-NLS-1$
+				new IScopeContext[] { InstanceScope.INSTANCE });
+	}
+
+	/**
+	 * @return true if typing in the search field should instantly filter the entries retrieved so far instead of
+	 *         querying the server
+	 */
+	public static boolean useLocalFilter() {
+		IPreferencesService service = Platform.getPreferencesService();
+		return service.getBoolean(BUNDLE_ID, "local-filter", false, //$NON-NLS-1$
+				new IScopeContext[] { InstanceScope.INSTANCE });
+	}
+
+	/**
+	 * @return the number of kilobytes that may be spent on retrieving tabs that have not been opened yet in the
+	 *         background, or 0 to not prefetch any tabs
+	 */
+	public static int getPrefetchBudget() {
+		IPreferencesService service = Platform.getPreferencesService();
+		return Math.max(0, service.getInt(BUNDLE_ID, "prefetch-budget", 1024, //$NON-NLS-1$
+				new IScopeContext[] { InstanceScope.INSTANCE }));
+	}
+
+	/**
+	 * @return the location to download the index of file extension and nature tags from, or null if only a local copy
+	 *         of the index should be used
+	 * @see org.eclipse.epp.internal.mpc.ui.discovery.TagIndex
+	 */
+	public static URI getTagIndexUrl() {
+		IPreferencesService service = Platform.getPreferencesService();
+		String url = service.getString(BUNDLE_ID, "tag-index-url", null, //$NON-NLS-1$
+				new IScopeContext[] { InstanceScope.INSTANCE });
+		if (url == null || url.trim().isEmpty()) {
+			return null;
+		}
+		try {
+			return new URI(url.trim());
+		} catch (URISyntaxException e) {
+			log(IStatus.WARNING, Messages.MarketplaceClientUi_invalidTagIndexUrl, url, e);
+			return null;
+		}
+	}
 }
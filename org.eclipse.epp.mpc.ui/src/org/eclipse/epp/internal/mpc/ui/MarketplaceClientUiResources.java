@@ -14,7 +14,10 @@ package org.eclipse.epp.internal.mpc.ui;
 
 import static org.eclipse.jface.resource.ResourceLocator.imageDescriptorFromBundle;
 
+import org.eclipse.epp.internal.mpc.ui.catalog.ResourceCache;
 import org.eclipse.epp.internal.mpc.ui.catalog.ResourceProvider;
+import org.eclipse.epp.internal.mpc.ui.catalog.UpdateAvailabilityService;
+import org.eclipse.epp.internal.mpc.ui.discovery.TagLookupService;
 import org.eclipse.jface.dialogs.IDialogSettings;
 import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.jface.resource.ImageDescriptor;
@@ -111,7 +114,7 @@ public class MarketplaceClientUiResources {
 			}
 		};
 		delegate.start(context.getBundleContext());
-		resourceProvider = new ResourceProvider();
+		resourceProvider = new ResourceProvider(ResourceCache.createDefault());
 		synchronized (MarketplaceClientUiResources.class) {
 			if (instance == null) {
 				instance = this;
@@ -130,6 +133,9 @@ public class MarketplaceClientUiResources {
 			resourceProvider.dispose();
 			resourceProvider = null;
 		}
+		UpdateAvailabilityService.disposeInstance();
+		InstalledUnitsService.disposeInstance();
+		TagLookupService.disposeInstance();
 		if (delegate != null) {
 			delegate.stop(context.getBundleContext());
 		}
@@ -73,6 +73,8 @@ public class Messages extends NLS {
 	@Deprecated
 	public static String MarketplaceClientUi_connectionProblem;
 
+	public static String MarketplaceClientUi_invalidTagIndexUrl;
+
 	public static String MarketplaceOrAssociateDialog_title;
 
 	public static String MarketplaceOrAssociateDialog_linkToPreferences;
@@ -97,6 +99,20 @@ public class Messages extends NLS {
 	public static String MissingNatureDetector_enable;
 	public static String MissingNatureDetector_linkToPreferences;
 
+	public static String TagIndex_downloadError;
+
+	public static String TagIndex_loadError;
+
+	public static String TagIndex_refreshing;
+
+	public static String TagIndex_saveError;
+
+	public static String TagLookupService_loadError;
+
+	public static String TagLookupService_saveError;
+
+	public static String TagLookupService_saving;
+
 	static {
 		// initialize resource bundle
 		NLS.initializeMessages(BUNDLE_NAME, Messages.class);
@@ -27,4 +27,9 @@ public class FavoritesCatalog extends MarketplaceCatalog {
 	public IStatus checkForUpdates(IProgressMonitor monitor) {
 		return Status.OK_STATUS;
 	}
+
+	@Override
+	public IStatus applyKnownUpdates(IProgressMonitor monitor) {
+		return Status.OK_STATUS;
+	}
 }
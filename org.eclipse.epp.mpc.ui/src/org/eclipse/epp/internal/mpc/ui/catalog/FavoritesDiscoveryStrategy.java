@@ -26,6 +26,7 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.epp.internal.mpc.core.util.URLUtil;
 import org.eclipse.epp.internal.mpc.ui.MarketplaceClientUi;
 import org.eclipse.epp.internal.mpc.ui.catalog.MarketplaceCategory.Contents;
+import org.eclipse.epp.internal.mpc.ui.catalog.ResourceProvider.Priority;
 import org.eclipse.epp.internal.mpc.ui.catalog.UserActionCatalogItem.UserAction;
 import org.eclipse.epp.mpc.core.model.IFavoriteList;
 import org.eclipse.epp.mpc.core.model.ISearchResult;
@@ -161,7 +162,7 @@ public class FavoritesDiscoveryStrategy extends MarketplaceDiscoveryStrategy {
 			String iconUrl = favoriteList.getIcon();
 			if (iconUrl != null) {
 				if (!source.getResourceProvider().containsResource(iconUrl)) {
-					cacheResource(source.getResourceProvider(), item, iconUrl);
+					cacheResource(source.getResourceProvider(), item, iconUrl, Priority.ICON);
 				}
 				createIcon(item, favoriteList);
 			}
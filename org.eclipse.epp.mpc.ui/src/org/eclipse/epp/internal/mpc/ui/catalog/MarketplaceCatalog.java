@@ -17,23 +17,30 @@ package org.eclipse.epp.internal.mpc.ui.catalog;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
-import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.epp.internal.mpc.core.MarketplaceClientCore;
 import org.eclipse.epp.internal.mpc.ui.MarketplaceClientUi;
 import org.eclipse.epp.internal.mpc.ui.catalog.MarketplaceCategory.Contents;
-import org.eclipse.epp.internal.mpc.ui.operations.RepositoryTransactionHelper;
+import org.eclipse.epp.internal.mpc.ui.catalog.ResourceProvider.ResourceFuture;
+import org.eclipse.epp.internal.mpc.ui.catalog.UpdateAvailabilityService.SiteIndex;
 import org.eclipse.epp.internal.mpc.ui.util.ConcurrentTaskManager;
 import org.eclipse.epp.mpc.core.model.ICategory;
 import org.eclipse.epp.mpc.core.model.IMarket;
@@ -47,17 +54,8 @@ import org.eclipse.equinox.internal.p2.discovery.model.CatalogCategory;
 import org.eclipse.equinox.internal.p2.discovery.model.CatalogItem;
 import org.eclipse.equinox.internal.p2.discovery.model.Certification;
 import org.eclipse.equinox.internal.p2.discovery.model.Tag;
-import org.eclipse.equinox.p2.core.ProvisionException;
 import org.eclipse.equinox.p2.metadata.IInstallableUnit;
 import org.eclipse.equinox.p2.metadata.Version;
-import org.eclipse.equinox.p2.operations.ProvisioningSession;
-import org.eclipse.equinox.p2.query.IQuery;
-import org.eclipse.equinox.p2.query.IQueryResult;
-import org.eclipse.equinox.p2.query.QueryUtil;
-import org.eclipse.equinox.p2.repository.artifact.IArtifactRepositoryManager;
-import org.eclipse.equinox.p2.repository.metadata.IMetadataRepository;
-import org.eclipse.equinox.p2.repository.metadata.IMetadataRepositoryManager;
-import org.eclipse.equinox.p2.ui.ProvisioningUI;
 import org.eclipse.osgi.util.NLS;
 
 /**
@@ -66,7 +64,18 @@ import org.eclipse.osgi.util.NLS;
  */
 public class MarketplaceCatalog extends Catalog {
 
-	private final Map<String, Version> repositoryIuVersionById = new HashMap<>();
+	/**
+	 * Time after which a discovery strategy that is still running is cancelled and its results are dropped
+	 */
+	private static final long STRATEGY_TIMEOUT = TimeUnit.MINUTES.toMillis(2);
+
+	private final UpdateAvailabilityService updateService = UpdateAvailabilityService.getInstance();
+
+	private List<MarketplaceNodeCatalogItem> lastInstalledItems = Collections.emptyList();
+
+	private Map<String, IInstallableUnit> lastInstalledIUs = Collections.emptyMap();
+
+	private long lastInstallationStamp;
 
 	private INews news;
 
@@ -82,6 +91,18 @@ public class MarketplaceCatalog extends Catalog {
 				false, monitor);
 	}
 
+	/**
+	 * Search the entries that have already been retrieved during this session, without contacting the server.
+	 *
+	 * @see MarketplaceDiscoveryStrategy#performLocalQuery(IMarket, ICategory, String, IProgressMonitor)
+	 */
+	public IStatus performLocalQuery(final IMarket market, final ICategory category, final String queryText,
+			IProgressMonitor monitor) {
+		return performDiscovery(
+				(strategy, monitor1) -> strategy.performLocalQuery(market, category, queryText, monitor1), false,
+				monitor);
+	}
+
 	public IStatus tagged(final String tag, IProgressMonitor monitor) {
 		return performDiscovery((strategy, monitor1) -> strategy.tagged(tag, monitor1), false, monitor);
 	}
@@ -110,6 +131,49 @@ public class MarketplaceCatalog extends Catalog {
 		return performDiscovery((strategy, monitor1) -> strategy.userFavorites(login, monitor1), false, monitor);
 	}
 
+	/**
+	 * Append the next page of results of the last text query to the current items
+	 *
+	 * @see #hasNextPage()
+	 */
+	public IStatus loadNextPage(IProgressMonitor monitor) {
+		SubMonitor progress = SubMonitor.convert(monitor, Messages.MarketplaceCatalog_queryingMarketplace, 100);
+
+		// keep the current items, the strategies append to them
+		List<CatalogItem> items = new ArrayList<>(getItems());
+		List<CatalogCategory> categories = new ArrayList<>(getCategories());
+		List<Certification> certifications = new ArrayList<>(getCertifications());
+		List<Tag> tags = new ArrayList<>(getTags());
+		// items are connected to their categories again on update
+		for (CatalogCategory catalogCategory : categories) {
+			catalogCategory.getItems().clear();
+		}
+		progress.worked(1);
+
+		try {
+			IStatus status = runDiscoveryOperation((strategy, monitor1) -> strategy.loadNextPage(monitor1), items,
+					categories, certifications, tags, progress.newChild(98));
+			update(categories, items, certifications, tags);
+			progress.worked(1);
+			return status;
+		} finally {
+			progress.done();
+		}
+	}
+
+	/**
+	 * @return true if the last text query has more results than are currently shown
+	 */
+	public boolean hasNextPage() {
+		for (AbstractDiscoveryStrategy discoveryStrategy : getDiscoveryStrategies()) {
+			if (discoveryStrategy instanceof MarketplaceDiscoveryStrategy
+					&& ((MarketplaceDiscoveryStrategy) discoveryStrategy).hasNextPage()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	public IStatus refreshUserFavorites(IProgressMonitor monitor) {
 		return performDiscovery((strategy, monitor1) -> strategy.refreshUserFavorites(monitor1), true, monitor);
 	}
@@ -140,10 +204,67 @@ public class MarketplaceCatalog extends Catalog {
 		return performDiscovery((strategy, monitor1) -> strategy.performNodeQuery(monitor1, nodes), false, monitor);
 	}
 
+	/**
+	 * Determine which installed items have updates available, retrieving the contents of update sites whose contents
+	 * are not known yet.
+	 */
 	public IStatus checkForUpdates(final IProgressMonitor monitor) {
+		return checkForUpdates(true, monitor);
+	}
+
+	/**
+	 * Determine which installed items have updates available based on the already known contents of their update
+	 * sites. Unknown sites are retrieved in the background, and {@link UpdateAvailabilityService#addChangeListener
+	 * listeners} are notified once they are known.
+	 */
+	public IStatus applyKnownUpdates(final IProgressMonitor monitor) {
+		return checkForUpdates(false, monitor);
+	}
+
+	/**
+	 * Re-apply the known update site contents to the items of the last update check, e.g. after the
+	 * {@link UpdateAvailabilityService} was notified of new contents. This does not access the network, sites that are
+	 * still unknown are retrieved in the background. If the installation changed in the meantime, the known site
+	 * contents are compared against the currently installed units.
+	 */
+	public void refreshAvailableUpdates() {
+		List<MarketplaceNodeCatalogItem> installedItems;
+		Map<String, IInstallableUnit> installedIUs;
+		long installationStamp = updateService.getInstallationStamp();
+		boolean installationChanged;
+		synchronized (this) {
+			installedItems = lastInstalledItems;
+			installedIUs = lastInstalledIUs;
+			installationChanged = installationStamp != lastInstallationStamp;
+		}
+		if (installationChanged) {
+			installedIUs = calculateInstalledIUs(new NullProgressMonitor());
+			synchronized (this) {
+				lastInstalledIUs = installedIUs;
+				lastInstallationStamp = installationStamp;
+			}
+		}
+		List<MarketplaceNodeCatalogItem> updateCheckNeeded = new ArrayList<>();
+		List<MarketplaceNodeCatalogItem> updateableItems = new ArrayList<>();
+		for (MarketplaceNodeCatalogItem catalogItem : installedItems) {
+			if (setUpdatesAvailable(installedIUs, catalogItem)) {
+				updateCheckNeeded.add(catalogItem);
+			} else if (Boolean.TRUE.equals(catalogItem.getUpdateAvailable())) {
+				updateableItems.add(catalogItem);
+			}
+		}
+		availableUpdates = updateableItems;
+		if (!updateCheckNeeded.isEmpty()) {
+			updateService.scheduleRefresh(computeUpdateSites(updateCheckNeeded));
+		}
+	}
+
+	private IStatus checkForUpdates(boolean online, final IProgressMonitor monitor) {
 		SubMonitor progress = SubMonitor.convert(monitor, Messages.MarketplaceCatalog_checkingForUpdates, 10000000);
 		try {
+			long installationStamp = updateService.getInstallationStamp();
 			Map<String, IInstallableUnit> installedIUs = calculateInstalledIUs(progress.newChild(100000));
+			List<MarketplaceNodeCatalogItem> installedItems = new ArrayList<>();
 			List<MarketplaceNodeCatalogItem> updateCheckNeeded = new ArrayList<>();
 			List<CatalogItem> updateCheckItems = getUpdateCheckItems(progress.newChild(100000));
 			List<MarketplaceNodeCatalogItem> updateableItems = new ArrayList<>();
@@ -156,6 +277,7 @@ public class MarketplaceCatalog extends Catalog {
 				}
 				MarketplaceNodeCatalogItem catalogItem = (MarketplaceNodeCatalogItem) item;
 				if (catalogItem.isInstalled()) {
+					installedItems.add(catalogItem);
 					if (setUpdatesAvailable(installedIUs, catalogItem)) {
 						updateCheckNeeded.add(catalogItem);
 					} else if (Boolean.TRUE.equals(catalogItem.getUpdateAvailable())) {
@@ -163,12 +285,21 @@ public class MarketplaceCatalog extends Catalog {
 					}
 				}
 			}
+			synchronized (this) {
+				lastInstalledItems = installedItems;
+				lastInstalledIUs = installedIUs;
+				lastInstallationStamp = installationStamp;
+			}
 			if (!updateCheckNeeded.isEmpty()) {
-				checkForUpdates(updateCheckNeeded, installedIUs, progress.newChild(10000000 - 200000));
-				for (MarketplaceNodeCatalogItem catalogItem : updateCheckNeeded) {
-					if (Boolean.TRUE.equals(catalogItem.getUpdateAvailable())) {
-						updateableItems.add(catalogItem);
+				if (online) {
+					checkForUpdates(updateCheckNeeded, installedIUs, progress.newChild(10000000 - 200000));
+					for (MarketplaceNodeCatalogItem catalogItem : updateCheckNeeded) {
+						if (Boolean.TRUE.equals(catalogItem.getUpdateAvailable())) {
+							updateableItems.add(catalogItem);
+						}
 					}
+				} else {
+					updateService.scheduleRefresh(computeUpdateSites(updateCheckNeeded));
 				}
 			}
 
@@ -271,9 +402,20 @@ public class MarketplaceCatalog extends Catalog {
 
 	protected IStatus checkForUpdates(List<MarketplaceNodeCatalogItem> updateCheckNeeded,
 			final Map<String, IInstallableUnit> installedIUs, final IProgressMonitor monitor) {
-		Map<URI, List<MarketplaceNodeCatalogItem>> installedCatalogItemsByUpdateUri = new HashMap<>();
-
+		Set<URI> updateSites = computeUpdateSites(updateCheckNeeded);
+		if (updateSites.isEmpty()) {
+			return Status.OK_STATUS;
+		}
+		IStatus status = updateService.refresh(updateSites, monitor);
 		for (MarketplaceNodeCatalogItem catalogItem : updateCheckNeeded) {
+			setUpdatesAvailable(installedIUs, catalogItem);
+		}
+		return status;
+	}
+
+	private Set<URI> computeUpdateSites(List<MarketplaceNodeCatalogItem> catalogItems) {
+		Set<URI> updateSites = new LinkedHashSet<>();
+		for (MarketplaceNodeCatalogItem catalogItem : catalogItems) {
 			INode node = catalogItem.getData();
 			String updateurl = node.getUpdateurl();
 			try {
@@ -281,149 +423,48 @@ public class MarketplaceCatalog extends Catalog {
 					catalogItem.setAvailable(false);
 					continue;
 				}
-				URI uri = new URI(updateurl);
-				List<MarketplaceNodeCatalogItem> catalogItemsThisSite = installedCatalogItemsByUpdateUri.get(uri);
-				if (catalogItemsThisSite == null) {
-					catalogItemsThisSite = new ArrayList<>();
-					installedCatalogItemsByUpdateUri.put(uri, catalogItemsThisSite);
-				}
-				catalogItemsThisSite.add(catalogItem);
+				updateSites.add(new URI(updateurl));
 			} catch (URISyntaxException e) {
 				MarketplaceClientUi.log(IStatus.WARNING,
 						Messages.MarketplaceCatalog_InvalidRepositoryUrl, node.getName(), updateurl);
 				catalogItem.setAvailable(false);
 			}
 		}
-		if (installedCatalogItemsByUpdateUri.isEmpty()) {
-			return Status.OK_STATUS;
-		}
-
-		ConcurrentTaskManager executor = new ConcurrentTaskManager(installedCatalogItemsByUpdateUri.size(),
-				Messages.MarketplaceCatalog_checkingForUpdates);
-
-		ProvisioningSession session = ProvisioningUI.getDefaultUI().getSession();
-		IMetadataRepositoryManager metadataRepositoryManager = (IMetadataRepositoryManager) session
-				.getProvisioningAgent()
-				.getService(IMetadataRepositoryManager.SERVICE_NAME);
-		IArtifactRepositoryManager artifactRepositoryManager = (IArtifactRepositoryManager) session
-				.getProvisioningAgent()
-				.getService(IArtifactRepositoryManager.SERVICE_NAME);
-
-		try (RepositoryTransactionHelper repositories = new RepositoryTransactionHelper(metadataRepositoryManager,
-				artifactRepositoryManager)) {
-			final IProgressMonitor pm = new NullProgressMonitor() {
-				@Override
-				public boolean isCanceled() {
-					return super.isCanceled() || monitor.isCanceled();
-				}
-			};
-			for (Map.Entry<URI, List<MarketplaceNodeCatalogItem>> entry : installedCatalogItemsByUpdateUri.entrySet()) {
-				final URI uri = entry.getKey();
-				final List<MarketplaceNodeCatalogItem> catalogItemsThisSite = entry.getValue();
-
-				//bug 560062 - add both artifact and metadata repo in case something breaks before we can clean up
-				repositories.addRepository(uri);
-
-				executor.submit(() -> {
-					try {
-						for (MarketplaceNodeCatalogItem item1 : catalogItemsThisSite) {
-							if (Boolean.TRUE.equals(item1.getAvailable())) {
-								item1.setAvailable(null);
-							}
-						}
-						//bug 560062 - to be safe load the artifact repo as well, even though we don't need it here - and do it first because
-						//it's better to have artifact without meta than the other way around.
-						//see comments in RepositoryTransactionHelper.RepositoryTracker.init() for why we fully load artifact repos as well.
-						//TODO this needs a closer look - can we do without this without retriggering bug 560062? It's a serious performance killer...
-						artifactRepositoryManager.loadRepository(uri, pm);
-						if (pm.isCanceled()) {
-							return;
-						}
-						IMetadataRepository repository = metadataRepositoryManager.loadRepository(uri, pm);
-						if (pm.isCanceled()) {
-							return;
-						}
-
-						IQuery<IInstallableUnit> query = QueryUtil.createMatchQuery( //
-								"id ~= /*.feature.group/ && " + //$NON-NLS-1$
-								"properties['org.eclipse.equinox.p2.type.group'] == true ");//$NON-NLS-1$
-						IQueryResult<IInstallableUnit> result = repository.query(query, pm);
-
-						// compute highest version for all available IUs.
-						Map<String, Version> repositoryIuVersionById = new HashMap<>();
-						for (IInstallableUnit iu : result) {
-							String key1 = createRepositoryIuKey(uri.toString(), iu.getId());
-							Version version = iu.getVersion();
-							Version priorVersion = repositoryIuVersionById.put(key1, version);
-							if (priorVersion != null && priorVersion.compareTo(version) > 0) {
-								repositoryIuVersionById.put(key1, priorVersion);
-							}
-						}
-
-						for (MarketplaceNodeCatalogItem item2 : catalogItemsThisSite) {
-							List<MarketplaceNodeInstallableUnitItem> installableUnitItems = item2
-									.getInstallableUnitItems();
-							for (MarketplaceNodeInstallableUnitItem iuItem : installableUnitItems) {
-								String key2 = createRepositoryIuKey(uri.toString(), iuItem.getId());
-								Version availableVersion = repositoryIuVersionById.get(key2);
-								MarketplaceCatalog.this.repositoryIuVersionById.put(key2, availableVersion);
-								if (availableVersion != null) {
-									item2.setAvailable(true);
-								}
-							}
-						}
-						for (MarketplaceNodeCatalogItem item3 : catalogItemsThisSite) {
-							setUpdatesAvailable(installedIUs, item3);
-						}
-
-					} catch (ProvisionException e1) {
-						MultiStatus errorStatus = new MultiStatus(MarketplaceClientUi.BUNDLE_ID, IStatus.WARNING,
-								NLS.bind(Messages.MarketplaceCatalog_ErrorReadingRepository, uri), e1);
-						for (MarketplaceNodeCatalogItem item4 : catalogItemsThisSite) {
-							item4.setAvailable(false);
-							errorStatus.add(MarketplaceClientUi.newStatus(IStatus.INFO, item4.getName()));
-						}
-						MarketplaceClientUi.getLog().log(errorStatus);
-					} catch (OperationCanceledException e2) {
-						// nothing to do
-					}
-				});
-			}
-			try {
-				executor.waitUntilFinished(monitor);
-			} catch (CoreException e) {
-				MarketplaceClientUi.error(e);
-				return e.getStatus();
-			}
-			return Status.OK_STATUS;
-		} finally {
-			executor.shutdownNow();
-		}
-	}
-
-	private String createRepositoryIuKey(String uri, String id) {
-		return uri + "!" + id; //$NON-NLS-1$
+		return updateSites;
 	}
 
+	/**
+	 * @return true if the contents of the item's update site are not known yet. Update availability is left
+	 *         undecided in that case.
+	 */
 	private boolean setUpdatesAvailable(Map<String, IInstallableUnit> installedIUs, MarketplaceNodeCatalogItem item) {
-		boolean needOnlineCheck = false;
+		SiteIndex siteIndex = updateService.getSiteIndex(item.getSiteUrl());
+		if (siteIndex == null) {
+			return true;
+		}
+		boolean available = false;
 		List<MarketplaceNodeInstallableUnitItem> installableUnitItems = item.getInstallableUnitItems();
 		for (MarketplaceNodeInstallableUnitItem iuItem : installableUnitItems) {
-			String key = createRepositoryIuKey(item.getSiteUrl(), iuItem.getId());
-			Version availableVersion = repositoryIuVersionById.get(key);
+			Version availableVersion = siteIndex.getVersion(iuItem.getId());
 			iuItem.setUpdateAvailable(false);
 			iuItem.setAvailable(false);
 			if (availableVersion != null) {
+				available = true;
 				iuItem.setAvailable(true);
 				IInstallableUnit installedIu = installedIUs.get(iuItem.getId());
 				if (installedIu != null && installedIu.getVersion().compareTo(availableVersion) < 0) {
 					iuItem.setUpdateAvailable(true);
 				}
-			} else if (!repositoryIuVersionById.containsKey(key)) {
-				needOnlineCheck = true;
 			}
 		}
-		return needOnlineCheck;
+		if (siteIndex.isFailed()) {
+			item.setAvailable(false);
+		} else if (available) {
+			item.setAvailable(true);
+		} else if (Boolean.TRUE.equals(item.getAvailable())) {
+			item.setAvailable(null);
+		}
+		return false;
 	}
 
 	@Override
@@ -504,60 +545,294 @@ public class MarketplaceCatalog extends Catalog {
 			throw new IllegalStateException();
 		}
 
-		final int strategyCount = getDiscoveryStrategies().size();
+		List<StrategyRun> runs = new ArrayList<>();
+		Set<Object> strategySources = new HashSet<>();
+		for (AbstractDiscoveryStrategy discoveryStrategy : getDiscoveryStrategies()) {
+			if (discoveryStrategy instanceof MarketplaceDiscoveryStrategy) {
+				MarketplaceDiscoveryStrategy marketplaceStrategy = (MarketplaceDiscoveryStrategy) discoveryStrategy;
+				runs.add(new StrategyRun(marketplaceStrategy, items, categories, certifications, tags));
+				strategySources.add(marketplaceStrategy.getCatalogSource());
+			}
+		}
+
 		final int strategyTicks = 100;
 		SubMonitor progress = SubMonitor.convert(monitor, Messages.MarketplaceCatalog_queryingMarketplace,
-				strategyTicks * strategyCount);
+				strategyTicks * Math.max(1, runs.size()));
 		try {
-			for (AbstractDiscoveryStrategy discoveryStrategy : getDiscoveryStrategies()) {
-				if (progress.isCanceled()) {
-					status.add(Status.CANCEL_STATUS);
-					break;
+			if (runs.size() == 1) {
+				// nothing to parallelize
+				runs.get(0).run(operation, progress.newChild(strategyTicks));
+			} else if (!runs.isEmpty()) {
+				runConcurrently(operation, runs, progress, strategyTicks);
+			}
+		} finally {
+			monitor.done();
+		}
+
+		// merge results in strategy order, so the outcome does not depend on which strategy finished first
+		List<CatalogItem> mergedItems = new ArrayList<>();
+		for (CatalogItem item : items) {
+			if (!strategySources.contains(item.getSource())) {
+				mergedItems.add(item);
+			}
+		}
+		for (StrategyRun run : runs) {
+			mergedItems.addAll(run.getItems());
+			if (!run.abandoned) {
+				addMissing(categories, run.categories);
+				addMissing(certifications, run.certifications);
+				addMissing(tags, run.tags);
+			}
+			synchronized (run.statuses) {
+				for (IStatus runStatus : run.statuses) {
+					status.add(runStatus);
 				}
-				if (discoveryStrategy instanceof MarketplaceDiscoveryStrategy) {
-					List<CatalogCategory> oldCategories = discoveryStrategy.getCategories();
-					List<CatalogItem> oldItems = discoveryStrategy.getItems();
-					List<Certification> oldCertifications = discoveryStrategy.getCertifications();
-					List<Tag> oldTags = discoveryStrategy.getTags();
-
-					discoveryStrategy.setCategories(categories);
-					discoveryStrategy.setItems(items);
-					discoveryStrategy.setCertifications(certifications);
-					discoveryStrategy.setTags(tags);
+			}
+		}
+		items.clear();
+		items.addAll(mergedItems);
+		if (progress.isCanceled()) {
+			status.add(Status.CANCEL_STATUS);
+		}
+		return computeStatus(status);
+	}
+
+	private static void runConcurrently(final DiscoveryOperation operation, List<StrategyRun> runs,
+			SubMonitor progress, int strategyTicks) {
+		ConcurrentTaskManager executor = new ConcurrentTaskManager(runs.size(),
+				Messages.MarketplaceCatalog_queryingMarketplace);
+		try {
+			for (final StrategyRun run : runs) {
+				run.monitor = new StrategyProgressMonitor(progress, strategyTicks);
+				executor.submit(() -> run.run(operation, run.monitor));
+			}
+			List<Future<?>> futures = new ArrayList<>(executor.getFutures());
+			long deadline = System.currentTimeMillis() + STRATEGY_TIMEOUT;
+			for (int i = 0; i < runs.size(); i++) {
+				StrategyRun run = runs.get(i);
+				Future<?> future = futures.get(i);
+				while (!future.isDone()) {
+					if (progress.isCanceled()) {
+						run.abandon(future);
+						break;
+					}
+					long remaining = deadline - System.currentTimeMillis();
+					if (remaining <= 0) {
+						run.timedOut(future);
+						break;
+					}
 					try {
-						MarketplaceDiscoveryStrategy marketplaceStrategy = (MarketplaceDiscoveryStrategy) discoveryStrategy;
-						operation.run(marketplaceStrategy, progress.newChild(strategyTicks));
+						future.get(Math.min(remaining, 250L), TimeUnit.MILLISECONDS);
+					} catch (TimeoutException e) {
+						// check for cancellation and try again
+					} catch (InterruptedException e) {
+						run.abandon(future);
+						Thread.currentThread().interrupt();
+						break;
+					} catch (ExecutionException e) {
+						run.failed(e.getCause());
+					}
+				}
+				// account for the rest of the strategy's ticks, whether it reported them or not
+				run.monitor.done();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
 
-					} catch (CoreException e) {
-						IStatus error = MarketplaceClientCore.computeWellknownProblemStatus(e);
-						if (error == null) {
-							error = new Status(e.getStatus().getSeverity(), DiscoveryCore.ID_PLUGIN, NLS.bind(
-									Messages.MarketplaceCatalog_failedWithError, discoveryStrategy.getClass()
-									.getSimpleName()), e);
-						}
-						status.add(error);
-					} finally {
+	private static <T> void addMissing(List<T> target, List<T> additions) {
+		for (T element : additions) {
+			if (!target.contains(element)) {
+				target.add(element);
+			}
+		}
+	}
+
+	/**
+	 * Runs a {@link DiscoveryOperation} for a single strategy on private copies of the catalog lists, so strategies
+	 * can run concurrently without seeing each other's intermediate results.
+	 */
+	private static final class StrategyRun {
+
+		private final MarketplaceDiscoveryStrategy strategy;
+
+		private final List<CatalogItem> initialItems;
+
+		private final List<CatalogItem> items;
+
+		private final List<CatalogCategory> categories;
+
+		private final List<Certification> certifications;
+
+		private final List<Tag> tags;
+
+		private final List<IStatus> statuses = Collections.synchronizedList(new ArrayList<>());
+
+		private volatile IProgressMonitor monitor = new NullProgressMonitor();
+
+		private volatile boolean abandoned;
+
+		StrategyRun(MarketplaceDiscoveryStrategy strategy, List<CatalogItem> items, List<CatalogCategory> categories,
+				List<Certification> certifications, List<Tag> tags) {
+			this.strategy = strategy;
+			this.items = new ArrayList<>();
+			for (CatalogItem item : items) {
+				if (item.getSource() == strategy.getCatalogSource()) {
+					this.items.add(item);
+				}
+			}
+			this.initialItems = new ArrayList<>(this.items);
+			this.categories = new ArrayList<>(categories);
+			this.certifications = new ArrayList<>(certifications);
+			this.tags = new ArrayList<>(tags);
+		}
+
+		List<CatalogItem> getItems() {
+			// a strategy that did not finish in time might still be modifying its list
+			return abandoned ? initialItems : items;
+		}
+
+		void run(DiscoveryOperation operation, IProgressMonitor monitor) {
+			List<CatalogCategory> oldCategories;
+			List<CatalogItem> oldItems;
+			List<Certification> oldCertifications;
+			List<Tag> oldTags;
+			synchronized (strategy) {
+				oldCategories = strategy.getCategories();
+				oldItems = strategy.getItems();
+				oldCertifications = strategy.getCertifications();
+				oldTags = strategy.getTags();
+
+				strategy.setCategories(categories);
+				strategy.setItems(items);
+				strategy.setCertifications(certifications);
+				strategy.setTags(tags);
+			}
+			try {
+				operation.run(strategy, monitor);
+			} catch (CoreException e) {
+				failed(e);
+			} finally {
+				synchronized (strategy) {
+					// an abandoned run might only finish after the query that replaced it started on the same
+					// strategy - leave the strategy to that query then, instead of restoring stale lists
+					if (!abandoned && strategy.getItems() == items) {
 						// remove everything from strategy again, so it can't accidentally mess with the results later
-						discoveryStrategy.setCategories(oldCategories);
-						discoveryStrategy.setItems(oldItems);
-						discoveryStrategy.setCertifications(oldCertifications);
-						discoveryStrategy.setTags(oldTags);
-
-						// make sure strategy didn't misbehave
-						if (items.contains(null)) {
-							while (items.remove(null)) {
-							}
-							IStatus error = new Status(IStatus.WARNING, DiscoveryCore.ID_PLUGIN,
-									NLS.bind(Messages.MarketplaceCatalog_addedNullEntry, discoveryStrategy.getClass().getSimpleName()));
-							status.add(error);
-						}
+						strategy.setCategories(oldCategories);
+						strategy.setItems(oldItems);
+						strategy.setCertifications(oldCertifications);
+						strategy.setTags(oldTags);
+					}
+				}
+
+				// make sure strategy didn't misbehave
+				if (items.contains(null)) {
+					while (items.remove(null)) {
 					}
+					IStatus error = new Status(IStatus.WARNING, DiscoveryCore.ID_PLUGIN, NLS
+							.bind(Messages.MarketplaceCatalog_addedNullEntry, strategy.getClass().getSimpleName()));
+					statuses.add(error);
 				}
 			}
-		} finally {
-			monitor.done();
 		}
-		return computeStatus(status);
+
+		void failed(Throwable exception) {
+			IStatus error = MarketplaceClientCore.computeWellknownProblemStatus(exception);
+			if (error == null) {
+				int severity = exception instanceof CoreException
+						? ((CoreException) exception).getStatus().getSeverity()
+								: IStatus.ERROR;
+				error = new Status(severity, DiscoveryCore.ID_PLUGIN,
+						NLS.bind(Messages.MarketplaceCatalog_failedWithError, strategy.getClass().getSimpleName()),
+						exception);
+			}
+			statuses.add(error);
+		}
+
+		void abandon(Future<?> future) {
+			abandoned = true;
+			monitor.setCanceled(true);
+			future.cancel(true);
+		}
+
+		void timedOut(Future<?> future) {
+			abandon(future);
+			statuses.add(new Status(IStatus.WARNING, DiscoveryCore.ID_PLUGIN,
+					NLS.bind(Messages.MarketplaceCatalog_strategyTimedOut, strategy.getClass().getSimpleName(),
+							TimeUnit.MILLISECONDS.toSeconds(STRATEGY_TIMEOUT))));
+		}
+	}
+
+	/**
+	 * Reports the progress of one concurrently running strategy to the shared parent monitor. The parent monitor is
+	 * not thread-safe, so all progress is forwarded while holding its lock.
+	 */
+	private static final class StrategyProgressMonitor extends NullProgressMonitor {
+
+		private final IProgressMonitor parent;
+
+		private final int ticks;
+
+		private double scale;
+
+		private double work;
+
+		private int reportedTicks;
+
+		StrategyProgressMonitor(IProgressMonitor parent, int ticks) {
+			this.parent = parent;
+			this.ticks = ticks;
+		}
+
+		@Override
+		public void beginTask(String name, int totalWork) {
+			synchronized (parent) {
+				scale = totalWork <= 0 ? 0 : (double) ticks / totalWork;
+			}
+		}
+
+		@Override
+		public void internalWorked(double worked) {
+			synchronized (parent) {
+				work += worked * scale;
+				report(Math.min(ticks, (int) work));
+			}
+		}
+
+		@Override
+		public void worked(int worked) {
+			internalWorked(worked);
+		}
+
+		@Override
+		public void subTask(String name) {
+			synchronized (parent) {
+				// an abandoned strategy might still be running after the query is done
+				if (reportedTicks < ticks) {
+					parent.subTask(name);
+				}
+			}
+		}
+
+		@Override
+		public void done() {
+			synchronized (parent) {
+				report(ticks);
+			}
+		}
+
+		private void report(int totalTicks) {
+			if (totalTicks > reportedTicks) {
+				parent.worked(totalTicks - reportedTicks);
+				reportedTicks = totalTicks;
+			}
+		}
+
+		@Override
+		public boolean isCanceled() {
+			return super.isCanceled() || parent.isCanceled();
+		}
 	}
 
 	public IStatus performNewsDiscovery(IProgressMonitor monitor) {
@@ -628,6 +903,55 @@ public class MarketplaceCatalog extends Catalog {
 		}
 	}
 
+	/**
+	 * Retrieve the given contents ahead of time, without changing the catalog, so a later query for them is answered
+	 * from memory.
+	 *
+	 * @param maxIcons
+	 *            the maximum number of icon downloads to start
+	 * @return the started icon downloads
+	 * @see MarketplaceDiscoveryStrategy#prefetch(Contents, int, IProgressMonitor)
+	 */
+	public List<ResourceFuture> prefetch(Contents contents, int maxIcons, IProgressMonitor monitor)
+			throws CoreException {
+		List<MarketplaceDiscoveryStrategy> strategies = new ArrayList<>();
+		for (AbstractDiscoveryStrategy discoveryStrategy : getDiscoveryStrategies()) {
+			if (discoveryStrategy instanceof MarketplaceDiscoveryStrategy) {
+				strategies.add((MarketplaceDiscoveryStrategy) discoveryStrategy);
+			}
+		}
+		SubMonitor progress = SubMonitor.convert(monitor, Messages.MarketplaceCatalog_queryingMarketplace,
+				Math.max(1, strategies.size()));
+		List<ResourceFuture> downloads = new ArrayList<>();
+		for (MarketplaceDiscoveryStrategy strategy : strategies) {
+			if (progress.isCanceled()) {
+				break;
+			}
+			downloads.addAll(strategy.prefetch(contents, maxIcons - downloads.size(), progress.newChild(1)));
+		}
+		return downloads;
+	}
+
+	/**
+	 * Cancel all resource downloads for the current items that have not started yet.
+	 */
+	public void cancelPendingResources() {
+		cancelPendingResources(Long.MAX_VALUE);
+	}
+
+	/**
+	 * Cancel the resource downloads that have not started yet and were not requested again since the given
+	 * {@link ResourceProvider#markDownloads() mark}, e.g. because the items that requested them were replaced by the
+	 * results of a new query.
+	 */
+	public void cancelPendingResources(long mark) {
+		for (AbstractDiscoveryStrategy discoveryStrategy : getDiscoveryStrategies()) {
+			if (discoveryStrategy instanceof MarketplaceDiscoveryStrategy) {
+				((MarketplaceDiscoveryStrategy) discoveryStrategy).cancelPendingResources(mark);
+			}
+		}
+	}
+
 	public INews getNews() {
 		return news;
 	}
@@ -27,8 +27,6 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.eclipse.core.runtime.CoreException;
@@ -43,10 +41,16 @@ import org.eclipse.epp.internal.mpc.core.model.Identifiable;
 import org.eclipse.epp.internal.mpc.core.model.Node;
 import org.eclipse.epp.internal.mpc.core.model.SearchResult;
 import org.eclipse.epp.internal.mpc.core.service.AbstractDataStorageService.NotAuthorizedException;
+import org.eclipse.epp.internal.mpc.core.service.CachingMarketplaceService;
 import org.eclipse.epp.internal.mpc.core.service.DefaultMarketplaceService;
+import org.eclipse.epp.internal.mpc.core.service.NodeIndex;
+import org.eclipse.epp.internal.mpc.core.service.UserFavoritesService;
+import org.eclipse.epp.internal.mpc.core.util.HtmlText;
 import org.eclipse.epp.internal.mpc.core.util.URLUtil;
 import org.eclipse.epp.internal.mpc.ui.MarketplaceClientUi;
 import org.eclipse.epp.internal.mpc.ui.catalog.MarketplaceCategory.Contents;
+import org.eclipse.epp.internal.mpc.ui.catalog.ResourceProvider.Priority;
+import org.eclipse.epp.internal.mpc.ui.catalog.ResourceProvider.ResourceFuture;
 import org.eclipse.epp.internal.mpc.ui.catalog.UserActionCatalogItem.UserAction;
 import org.eclipse.epp.mpc.core.model.ICategories;
 import org.eclipse.epp.mpc.core.model.ICategory;
@@ -84,7 +88,7 @@ import org.eclipse.userstorage.spi.ICredentialsProvider;
  */
 public class MarketplaceDiscoveryStrategy extends AbstractDiscoveryStrategy {
 
-	private static final Pattern BREAK_PATTERN = Pattern.compile("<!--\\s*break\\s*-->"); //$NON-NLS-1$
+	private static final int LOCAL_SEARCH_LIMIT = 100;
 
 	protected final CatalogDescriptor catalogDescriptor;
 
@@ -94,14 +98,59 @@ public class MarketplaceDiscoveryStrategy extends AbstractDiscoveryStrategy {
 
 	private MarketplaceInfo marketplaceInfo;
 
-	private Map<String, IInstallableUnit> featureIUById;
-
 	private List<LoginListener> loginListeners;
 
 	private IShellProvider shellProvider;
 
 	private final String nodeContentUrlPrefix;
 
+	/**
+	 * Remaining pages of the last text query, or null if there is nothing left to load
+	 */
+	private volatile PagedQuery pagedQuery;
+
+	private final RecentSearchResults recentSearchResults = new RecentSearchResults();
+
+	/**
+	 * Listed items whose favorite state is updated by the running {@link #favoritesRefreshJob}
+	 */
+	private final List<MarketplaceNodeCatalogItem> itemsAwaitingFavorites = new ArrayList<>();
+
+	private Job favoritesRefreshJob;
+
+	/**
+	 * Tracks a text query whose results are loaded one page at a time
+	 */
+	private static final class PagedQuery {
+
+		private final IMarket market;
+
+		private final ICategory category;
+
+		private final String queryText;
+
+		private final MarketplaceCategory catalogCategory;
+
+		/**
+		 * The trailing item pointing to the remaining results. It only stays in the catalog as long as the results of
+		 * this query are shown.
+		 */
+		private final CatalogItem moreResultsItem;
+
+		private final Set<String> nodeIds = new HashSet<>();
+
+		private int nextPage = 1;
+
+		PagedQuery(IMarket market, ICategory category, String queryText, MarketplaceCategory catalogCategory,
+				CatalogItem moreResultsItem) {
+			this.market = market;
+			this.category = category;
+			this.queryText = queryText;
+			this.catalogCategory = catalogCategory;
+			this.moreResultsItem = moreResultsItem;
+		}
+	}
+
 	public MarketplaceDiscoveryStrategy(CatalogDescriptor catalogDescriptor) {
 		if (catalogDescriptor == null) {
 			throw new IllegalArgumentException();
@@ -139,6 +188,12 @@ public class MarketplaceDiscoveryStrategy extends AbstractDiscoveryStrategy {
 
 	@Override
 	public void dispose() {
+		synchronized (itemsAwaitingFavorites) {
+			if (favoritesRefreshJob != null) {
+				favoritesRefreshJob.cancel();
+			}
+			itemsAwaitingFavorites.clear();
+		}
 		List<LoginListener> loginListeners = this.loginListeners;
 		this.loginListeners = null;
 		if (loginListeners != null) {
@@ -154,7 +209,7 @@ public class MarketplaceDiscoveryStrategy extends AbstractDiscoveryStrategy {
 			source.dispose();
 			source = null;
 		}
-		if (marketplaceInfo != null) {
+		if (marketplaceInfo != null && marketplaceInfo.hasUnsavedChanges()) {
 			final MarketplaceInfo fMarketplaceInfo = marketplaceInfo;
 			new Job(Messages.MarketplaceDiscoveryStrategy_saveMarketplaceInfoJobName) {
 
@@ -173,8 +228,8 @@ public class MarketplaceDiscoveryStrategy extends AbstractDiscoveryStrategy {
 					return Status.OK_STATUS;
 				}
 			}.schedule();
-			marketplaceInfo = null;
 		}
+		marketplaceInfo = null;
 		super.dispose();
 	}
 
@@ -223,6 +278,67 @@ public class MarketplaceDiscoveryStrategy extends AbstractDiscoveryStrategy {
 		return marketplaceService.getUserFavoritesService() != null;
 	}
 
+	private UserFavoritesService getCachedFavoritesService() {
+		IUserFavoritesService favoritesService = marketplaceService.getUserFavoritesService();
+		return favoritesService instanceof UserFavoritesService ? (UserFavoritesService) favoritesService : null;
+	}
+
+	private static void applyCachedFavorites(UserFavoritesService favoritesService, List<? extends INode> nodes) {
+		Set<String> favorites = favoritesService.getCachedFavoriteIds();
+		for (INode node : nodes) {
+			if (node instanceof Node) {
+				((Node) node).setUserFavorite(favorites == null ? null : favorites.contains(node.getId()));
+			}
+		}
+	}
+
+	/**
+	 * Read the favorites from the storage in the background and update the given items once they are known. Items
+	 * listed while a refresh is already running are updated by that refresh.
+	 */
+	private void refreshFavoritesInBackground(final UserFavoritesService favoritesService, List<CatalogItem> items) {
+		synchronized (itemsAwaitingFavorites) {
+			for (CatalogItem item : items) {
+				if (item instanceof MarketplaceNodeCatalogItem) {
+					itemsAwaitingFavorites.add((MarketplaceNodeCatalogItem) item);
+				}
+			}
+			if (favoritesRefreshJob != null) {
+				return;
+			}
+			favoritesRefreshJob = new Job(Messages.MarketplaceDiscoveryStrategy_FavoritesRefreshing) {
+
+				@Override
+				protected IStatus run(IProgressMonitor monitor) {
+					try {
+						favoritesService.getFavoriteIds(monitor);
+					} catch (NotAuthorizedException e) {
+						// user is not logged in. the stars stay unknown until they do.
+					} catch (Exception e) {
+						MarketplaceClientCore.error(Messages.MarketplaceDiscoveryStrategy_FavoritesRetrieveError, e);
+					}
+					Set<String> favorites = favoritesService.getCachedFavoriteIds();
+					List<MarketplaceNodeCatalogItem> items;
+					synchronized (itemsAwaitingFavorites) {
+						items = new ArrayList<>(itemsAwaitingFavorites);
+						itemsAwaitingFavorites.clear();
+						favoritesRefreshJob = null;
+					}
+					if (monitor.isCanceled()) {
+						return Status.CANCEL_STATUS;
+					}
+					for (MarketplaceNodeCatalogItem item : items) {
+						item.setUserFavorite(favorites == null ? null : favorites.contains(item.getId()));
+					}
+					return Status.OK_STATUS;
+				}
+			};
+			favoritesRefreshJob.setSystem(true);
+			favoritesRefreshJob.setPriority(Job.DECORATE);
+			favoritesRefreshJob.schedule();
+		}
+	}
+
 	@Override
 	public void performDiscovery(IProgressMonitor monitor) throws CoreException {
 		SubMonitor progress = SubMonitor.convert(monitor, Messages.MarketplaceDiscoveryStrategy_loadingMarketplace,
@@ -250,39 +366,14 @@ public class MarketplaceDiscoveryStrategy extends AbstractDiscoveryStrategy {
 
 	protected void handleSearchResult(MarketplaceCategory catalogCategory, ISearchResult result,
 			final IProgressMonitor monitor) {
+		handleSearchResult(catalogCategory, result, true, monitor);
+	}
+
+	private void handleSearchResult(MarketplaceCategory catalogCategory, ISearchResult result,
+			boolean retrieveFavorites, final IProgressMonitor monitor) {
 		List<CatalogItem> items = getItems();
 		if (items != null && !result.getNodes().isEmpty()) {
-			int nodeWork = 1000;
-			int favoritesWork = catalogCategory.getContents() == Contents.USER_FAVORITES ? 0 : 1000;
-			SubMonitor progress = SubMonitor.convert(monitor, Messages.MarketplaceDiscoveryStrategy_loadingResources,
-					result.getNodes().size() * nodeWork + favoritesWork);
-
-			try {
-				boolean userFavoritesSupported = false;
-				if (catalogCategory.getContents() == Contents.USER_FAVORITES) {
-					userFavoritesSupported = true;
-				} else if (hasUserFavoritesService()) {
-					try {
-						applyShellProvider();
-						marketplaceService.userFavorites(result.getNodes(), progress.newChild(favoritesWork));
-						userFavoritesSupported = true;
-					} catch (NotAuthorizedException e1) {
-						// user is not logged in. we just ignore this.
-					} catch (UnsupportedOperationException e1) {
-						// ignore
-					} catch (Exception e1) {
-						// something went wrong. log and proceed.
-						MarketplaceClientCore.error(Messages.MarketplaceDiscoveryStrategy_FavoritesRetrieveError, e1);
-					}
-				}
-				for (final INode node : result.getNodes()) {
-					CatalogItem catalogItem = createCatalogItem(node, catalogCategory.getId(), userFavoritesSupported,
-							progress.newChild(nodeWork));
-					items.add(catalogItem);
-				}
-			} finally {
-				progress.done();
-			}
+			addNodeItems(catalogCategory, result.getNodes(), retrieveFavorites, monitor);
 			if (result.getMatchCount() != null) {
 				catalogCategory.setMatchCount(result.getMatchCount());
 				if (result.getMatchCount() > result.getNodes().size()) {
@@ -293,6 +384,59 @@ public class MarketplaceDiscoveryStrategy extends AbstractDiscoveryStrategy {
 		}
 	}
 
+	/**
+	 * @param retrieveFavorites
+	 *            whether to refresh the favorite state of the nodes from the server, or to just keep what they
+	 *            already know
+	 */
+	private void addNodeItems(MarketplaceCategory catalogCategory, List<? extends INode> nodes,
+			boolean retrieveFavorites, IProgressMonitor monitor) {
+		List<CatalogItem> items = getItems();
+		int nodeWork = 1000;
+		int favoritesWork = catalogCategory.getContents() == Contents.USER_FAVORITES || !retrieveFavorites ? 0 : 1000;
+		SubMonitor progress = SubMonitor.convert(monitor, Messages.MarketplaceDiscoveryStrategy_loadingResources,
+				nodes.size() * nodeWork + favoritesWork);
+
+		try {
+			boolean userFavoritesSupported = false;
+			UserFavoritesService cachedFavoritesService = favoritesWork == 0 ? null : getCachedFavoritesService();
+			if (catalogCategory.getContents() == Contents.USER_FAVORITES) {
+				userFavoritesSupported = true;
+			} else if (!retrieveFavorites) {
+				userFavoritesSupported = hasUserFavoritesService();
+			} else if (cachedFavoritesService != null) {
+				// don't make the user wait for the favorites just to show the stars
+				applyCachedFavorites(cachedFavoritesService, nodes);
+				userFavoritesSupported = true;
+			} else if (hasUserFavoritesService()) {
+				try {
+					applyShellProvider();
+					marketplaceService.userFavorites(nodes, progress.newChild(favoritesWork));
+					userFavoritesSupported = true;
+				} catch (NotAuthorizedException e1) {
+					// user is not logged in. we just ignore this.
+				} catch (UnsupportedOperationException e1) {
+					// ignore
+				} catch (Exception e1) {
+					// something went wrong. log and proceed.
+					MarketplaceClientCore.error(Messages.MarketplaceDiscoveryStrategy_FavoritesRetrieveError, e1);
+				}
+			}
+			List<CatalogItem> nodeItems = new ArrayList<>(nodes.size());
+			for (final INode node : nodes) {
+				CatalogItem catalogItem = createCatalogItem(node, catalogCategory.getId(), userFavoritesSupported,
+						progress.newChild(nodeWork));
+				items.add(catalogItem);
+				nodeItems.add(catalogItem);
+			}
+			if (cachedFavoritesService != null && cachedFavoritesService.isFavoritesCacheStale()) {
+				refreshFavoritesInBackground(cachedFavoritesService, nodeItems);
+			}
+		} finally {
+			progress.done();
+		}
+	}
+
 	protected CatalogItem createCatalogItem(final INode node, String categoryId, boolean userFavoritesSupported,
 			IProgressMonitor monitor) {
 		String id = node.getId();
@@ -322,23 +466,16 @@ public class MarketplaceDiscoveryStrategy extends AbstractDiscoveryStrategy {
 				}
 				catalogItem.setInstallableUnitItems(installableUnitItems);
 			}
-			if (node.getShortdescription() == null && node.getBody() != null) {
+			// parse the descriptions here, so their display forms are memoized when the item is shown
+			HtmlText body = HtmlText.of(node.getBody());
+			if (node.getShortdescription() == null && body != null) {
 				// bug 306653 <!--break--> marks the end of the short description.
-				String descriptionText = node.getBody();
-				Matcher matcher = BREAK_PATTERN.matcher(node.getBody());
-				if (matcher.find()) {
-					int start = matcher.start();
-					if (start > 0) {
-						String shortDescriptionText = descriptionText.substring(0, start).trim();
-						if (shortDescriptionText.length() > 0) {
-							descriptionText = shortDescriptionText;
-						}
-					}
-				}
-				catalogItem.setDescription(descriptionText);
+				String descriptionText = body.getTeaser();
+				catalogItem.setDescription(descriptionText == null ? node.getBody() : descriptionText);
 			} else {
 				catalogItem.setDescription(node.getShortdescription());
 			}
+			HtmlText.of(catalogItem.getDescription());
 			String provider = node.getCompanyname();
 			if (provider == null || provider.isEmpty()) {
 				provider = node.getOwner();
@@ -361,7 +498,7 @@ public class MarketplaceDiscoveryStrategy extends AbstractDiscoveryStrategy {
 			}
 			if (node.getImage() != null) {
 				if (!source.getResourceProvider().containsResource(node.getImage())) {
-					cacheResource(source.getResourceProvider(), catalogItem, node.getImage());
+					cacheResource(source.getResourceProvider(), catalogItem, node.getImage(), Priority.ICON);
 				}
 				createIcon(catalogItem, node);
 			}
@@ -373,9 +510,7 @@ public class MarketplaceDiscoveryStrategy extends AbstractDiscoveryStrategy {
 				catalogItem.setOverview(overview);
 
 				if (node.getScreenshot() != null) {
-					if (!source.getResourceProvider().containsResource(node.getScreenshot())) {
-						cacheResource(source.getResourceProvider(), catalogItem, node.getScreenshot());
-					}
+					// screenshots are only retrieved once the user shows interest in an item
 					overview.setScreenshot(node.getScreenshot());
 				}
 			}
@@ -395,10 +530,20 @@ public class MarketplaceDiscoveryStrategy extends AbstractDiscoveryStrategy {
 
 	public static void cacheResource(ResourceProvider resourceProvider, CatalogItem catalogItem,
 			String resource) {
+		cacheResource(resourceProvider, catalogItem, resource, Priority.VISIBLE_ICON);
+	}
+
+	/**
+	 * Retrieve a resource for the given item in the background. The download is owned by the item's catalog source, so
+	 * it will be {@link #cancelPendingResources(long) cancelled} if it is still pending when the results of the next
+	 * query replace the item.
+	 */
+	public static void cacheResource(ResourceProvider resourceProvider, CatalogItem catalogItem, String resource,
+			Priority priority) {
 		if (!resourceProvider.containsResource(resource)) {
 			String requestSource = NLS.bind(Messages.MarketplaceDiscoveryStrategy_requestSource, catalogItem.getName(), catalogItem.getId());
 			try {
-				resourceProvider.retrieveResource(requestSource, resource);
+				resourceProvider.retrieveResource(requestSource, resource, priority, catalogItem.getSource());
 			} catch (URISyntaxException e) {
 				MarketplaceClientUi.log(IStatus.WARNING, Messages.MarketplaceDiscoveryStrategy_badUri,
 						catalogItem.getName(),
@@ -408,6 +553,8 @@ public class MarketplaceDiscoveryStrategy extends AbstractDiscoveryStrategy {
 						catalogItem.getName(),
 						catalogItem.getId(), resource, e);
 			}
+		} else {
+			resourceProvider.prioritize(resource, priority);
 		}
 	}
 
@@ -482,6 +629,7 @@ public class MarketplaceDiscoveryStrategy extends AbstractDiscoveryStrategy {
 		final int totalWork = 1000;
 		SubMonitor progress = SubMonitor.convert(monitor, Messages.MarketplaceDiscoveryStrategy_searchingMarketplace,
 				totalWork);
+		pagedQuery = null;
 		try {
 			ISearchResult result;
 			MarketplaceCategory catalogCategory = findMarketplaceCategory(progress.newChild(1));
@@ -505,6 +653,7 @@ public class MarketplaceDiscoveryStrategy extends AbstractDiscoveryStrategy {
 		final int totalWork = 1001;
 		SubMonitor progress = SubMonitor.convert(monitor, Messages.MarketplaceDiscoveryStrategy_searchingMarketplace,
 				totalWork);
+		pagedQuery = null;
 		try {
 			ISearchResult result;
 			MarketplaceCategory catalogCategory = findMarketplaceCategory(progress.newChild(1));
@@ -536,10 +685,29 @@ public class MarketplaceDiscoveryStrategy extends AbstractDiscoveryStrategy {
 					throw new CoreException(MarketplaceClientCore.computeStatus(ex, Messages.MarketplaceDiscoveryStrategy_unknownFilter));
 				}
 				progress.setWorkRemaining(totalWork - 1);
-				result = marketplaceService.search(resolvedMarket, resolvedCategory, queryText, progress.newChild(500));
+				boolean offline = false;
+				try {
+					result = marketplaceService.search(resolvedMarket, resolvedCategory, queryText,
+							progress.newChild(500));
+					recentSearchResults.put(resolvedMarket, resolvedCategory, queryText, result);
+				} catch (CoreException ex) {
+					result = ex.getStatus().getSeverity() == IStatus.CANCEL ? null
+							: searchLocally(resolvedMarket, resolvedCategory, queryText);
+					if (result == null || result.getNodes().isEmpty()) {
+						throw ex;
+					}
+					offline = true;
+					MarketplaceClientUi.log(IStatus.WARNING, Messages.MarketplaceDiscoveryStrategy_offlineSearch,
+							ex);
+				}
+				handleSearchResult(catalogCategory, result, !offline, progress.newChild(500));
+				if (!offline) {
+					startPagedQuery(resolvedMarket, resolvedCategory, queryText, catalogCategory, result);
+				}
+			} else {
+				handleSearchResult(catalogCategory, result, progress.newChild(500));
 			}
 
-			handleSearchResult(catalogCategory, result, progress.newChild(500));
 			if (result.getNodes().isEmpty()) {
 				catalogCategory.setMatchCount(0);
 				addCatalogItem(catalogCategory);
@@ -549,6 +717,131 @@ public class MarketplaceDiscoveryStrategy extends AbstractDiscoveryStrategy {
 		}
 	}
 
+	/**
+	 * Search the nodes that have already been retrieved from the marketplace during this session, without contacting
+	 * the server. This only finds nodes that have been part of earlier results, so it is meant for filtering as you
+	 * type and as a fallback if the server can't be reached. If a recent server result of a broader query had all its
+	 * matches, the query is answered by narrowing that result down instead. Either way, the result is provisional
+	 * until the query is {@link #performQuery(IMarket, ICategory, String, IProgressMonitor) sent to the server}.
+	 */
+	public void performLocalQuery(IMarket market, ICategory category, String queryText, IProgressMonitor monitor)
+			throws CoreException {
+		SubMonitor progress = SubMonitor.convert(monitor, Messages.MarketplaceDiscoveryStrategy_searchingMarketplace,
+				1001);
+		pagedQuery = null;
+		try {
+			MarketplaceCategory catalogCategory = findMarketplaceCategory(progress.newChild(1));
+			catalogCategory.setContents(Contents.QUERY);
+			IMarket resolvedMarket;
+			ICategory resolvedCategory;
+			try {
+				resolvedMarket = resolve(market, catalogCategory.getMarkets());
+				resolvedCategory = resolveCategory(category, catalogCategory.getMarkets());
+			} catch (IllegalArgumentException ex) {
+				throw new CoreException(MarketplaceClientCore.computeStatus(ex, Messages.MarketplaceDiscoveryStrategy_invalidFilter));
+			} catch (NoSuchElementException ex) {
+				throw new CoreException(MarketplaceClientCore.computeStatus(ex, Messages.MarketplaceDiscoveryStrategy_unknownFilter));
+			}
+			ISearchResult result = recentSearchResults.findRefinement(resolvedMarket, resolvedCategory, queryText);
+			if (result == null) {
+				result = searchLocally(resolvedMarket, resolvedCategory, queryText);
+			}
+			if (result == null || result.getNodes().isEmpty()) {
+				catalogCategory.setMatchCount(0);
+				addCatalogItem(catalogCategory);
+			} else {
+				handleSearchResult(catalogCategory, result, false, progress.newChild(1000));
+			}
+		} finally {
+			progress.done();
+		}
+	}
+
+	private ISearchResult searchLocally(IMarket market, ICategory category, String queryText) {
+		if (!(marketplaceService instanceof CachingMarketplaceService)) {
+			return null;
+		}
+		NodeIndex nodeIndex = ((CachingMarketplaceService) marketplaceService).getNodeIndex();
+		List<Node> nodes = new ArrayList<>();
+		for (INode node : nodeIndex.search(market, category, queryText, LOCAL_SEARCH_LIMIT)) {
+			nodes.add((Node) node);
+		}
+		SearchResult result = new SearchResult();
+		result.setMatchCount(nodes.size());
+		result.setNodes(nodes);
+		return result;
+	}
+
+	private void startPagedQuery(IMarket market, ICategory category, String queryText,
+			MarketplaceCategory catalogCategory, ISearchResult result) {
+		Integer matchCount = result.getMatchCount();
+		List<CatalogItem> items = getItems();
+		if (matchCount == null || matchCount <= result.getNodes().size() || items == null || items.isEmpty()) {
+			return;
+		}
+		CatalogItem lastItem = items.get(items.size() - 1);
+		if (lastItem.getData() != catalogDescriptor) {
+			return;
+		}
+		PagedQuery query = new PagedQuery(market, category, queryText, catalogCategory, lastItem);
+		for (INode node : result.getNodes()) {
+			query.nodeIds.add(node.getId());
+		}
+		pagedQuery = query;
+	}
+
+	/**
+	 * @return true if the last text query matched more nodes than have been loaded so far
+	 */
+	public boolean hasNextPage() {
+		return pagedQuery != null;
+	}
+
+	/**
+	 * Append the next page of results of the last text query to the current items. This does nothing if the current
+	 * items don't show the results of that query anymore or if all results have been loaded.
+	 */
+	public void loadNextPage(IProgressMonitor monitor) throws CoreException {
+		PagedQuery query = pagedQuery;
+		List<CatalogItem> items = getItems();
+		if (query == null || items == null) {
+			return;
+		}
+		if (!items.contains(query.moreResultsItem)) {
+			// another query replaced the results in the meantime
+			pagedQuery = null;
+			return;
+		}
+		SubMonitor progress = SubMonitor.convert(monitor, Messages.MarketplaceDiscoveryStrategy_searchingMarketplace,
+				1000);
+		try {
+			ISearchResult result = marketplaceService.search(query.market, query.category, query.queryText,
+					query.nextPage, progress.newChild(500));
+			// pages may overlap if the index changed since the first page was loaded
+			List<INode> newNodes = result.getNodes()
+					.stream()
+					.filter(node -> query.nodeIds.add(node.getId()))
+					.collect(Collectors.toList());
+
+			items.remove(query.moreResultsItem);
+			if (!newNodes.isEmpty()) {
+				addNodeItems(query.catalogCategory, newNodes, true, progress.newChild(500));
+			}
+			Integer matchCount = result.getMatchCount();
+			if (matchCount != null) {
+				query.catalogCategory.setMatchCount(matchCount);
+			}
+			query.nextPage++;
+			if (!newNodes.isEmpty() && matchCount != null && matchCount > query.nodeIds.size()) {
+				items.add(query.moreResultsItem);
+			} else if (pagedQuery == query) {
+				pagedQuery = null;
+			}
+		} finally {
+			progress.done();
+		}
+	}
+
 	private static ICategory resolveCategory(ICategory category, List<? extends IMarket> markets)
 			throws IllegalArgumentException, NoSuchElementException {
 		if (category != null && category.getId() == null) {
@@ -820,6 +1113,71 @@ public class MarketplaceDiscoveryStrategy extends AbstractDiscoveryStrategy {
 		}
 	}
 
+	/**
+	 * Retrieve the entries for the given contents without adding them to the catalog, so a later query for them is
+	 * answered from the service cache, and start downloading their icons at {@link Priority#PREFETCH}. The downloads
+	 * are owned by the catalog source, so they are {@link #cancelPendingResources(long) cancelled} once the results of
+	 * the next query are shown.
+	 *
+	 * @param maxIcons
+	 *            the maximum number of icon downloads to start
+	 * @return the started icon downloads
+	 */
+	public List<ResourceFuture> prefetch(Contents contents, int maxIcons, IProgressMonitor monitor)
+			throws CoreException {
+		SubMonitor progress = SubMonitor.convert(monitor, Messages.MarketplaceDiscoveryStrategy_searchingMarketplace,
+				1000);
+		try {
+			ISearchResult result;
+			switch (contents) {
+			case POPULAR:
+				result = marketplaceService.popular(progress.newChild(900));
+				break;
+			case RECENT:
+				result = marketplaceService.recent(progress.newChild(900));
+				break;
+			case RELATED:
+				SearchResult installed = computeInstalled(progress.newChild(400));
+				result = marketplaceService.related(installed.getNodes(), progress.newChild(500));
+				break;
+			case INSTALLED:
+				result = computeInstalled(progress.newChild(900));
+				break;
+			default:
+				return Collections.emptyList();
+			}
+			MarketplaceCatalogSource source = this.source;
+			if (source == null || result == null || result.getNodes() == null) {
+				return Collections.emptyList();
+			}
+			ResourceProvider resourceProvider = source.getResourceProvider();
+			List<ResourceFuture> downloads = new ArrayList<>();
+			for (INode node : result.getNodes()) {
+				if (downloads.size() >= maxIcons || progress.isCanceled()) {
+					break;
+				}
+				String image = node.getImage();
+				if (image == null || resourceProvider.containsResource(image)) {
+					continue;
+				}
+				String requestSource = NLS.bind(Messages.MarketplaceDiscoveryStrategy_requestSource, node.getName(),
+						node.getId());
+				try {
+					downloads.add(resourceProvider.retrieveResource(requestSource, image, Priority.PREFETCH, source));
+				} catch (URISyntaxException e) {
+					MarketplaceClientUi.log(IStatus.WARNING, Messages.MarketplaceDiscoveryStrategy_badUri,
+							node.getName(), node.getId(), image, e);
+				} catch (IOException e) {
+					MarketplaceClientUi.log(IStatus.WARNING, Messages.MarketplaceDiscoveryStrategy_downloadError,
+							node.getName(), node.getId(), image, e);
+				}
+			}
+			return downloads;
+		} finally {
+			monitor.done();
+		}
+	}
+
 	protected SearchResult computeInstalled(IProgressMonitor monitor) throws CoreException {
 		SearchResult result = new SearchResult();
 		result.setNodes(new ArrayList<Node>());
@@ -889,11 +1247,8 @@ public class MarketplaceDiscoveryStrategy extends AbstractDiscoveryStrategy {
 		return computeInstalledIUs(monitor).keySet();
 	}
 
-	protected synchronized Map<String, IInstallableUnit> computeInstalledIUs(IProgressMonitor monitor) {
-		if (featureIUById == null) {
-			featureIUById = MarketplaceClientUi.computeInstalledIUsById(monitor);
-		}
-		return featureIUById;
+	protected Map<String, IInstallableUnit> computeInstalledIUs(IProgressMonitor monitor) {
+		return MarketplaceClientUi.computeInstalledIUsById(monitor);
 	}
 
 	protected MarketplaceCategory findMarketplaceCategory(IProgressMonitor monitor) throws CoreException {
@@ -969,6 +1324,24 @@ public class MarketplaceDiscoveryStrategy extends AbstractDiscoveryStrategy {
 		return source;
 	}
 
+	/**
+	 * Cancel all resource downloads for this strategy's items that have not started yet.
+	 */
+	public void cancelPendingResources() {
+		cancelPendingResources(Long.MAX_VALUE);
+	}
+
+	/**
+	 * Cancel the resource downloads for this strategy's items that have not started yet and that were not requested
+	 * again since the given {@link ResourceProvider#markDownloads() mark}.
+	 */
+	public void cancelPendingResources(long mark) {
+		MarketplaceCatalogSource source = this.source;
+		if (source != null) {
+			source.getResourceProvider().cancelPendingDownloads(source, mark);
+		}
+	}
+
 	public void setShellProvider(IShellProvider shellProvider) {
 		this.shellProvider = shellProvider;
 		applyShellProvider();
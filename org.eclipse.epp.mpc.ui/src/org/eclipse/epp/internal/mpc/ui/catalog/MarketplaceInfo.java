@@ -17,6 +17,7 @@ import java.beans.XMLDecoder;
 import java.beans.XMLEncoder;
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -29,11 +30,15 @@ import java.net.URL;
 import java.net.URLDecoder;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.IStatus;
@@ -68,10 +73,34 @@ public class MarketplaceInfo {
 
 	private static final String PERSISTENT_FILE = MarketplaceInfo.class.getSimpleName() + ".xml"; //$NON-NLS-1$
 
+	private static final String JOURNAL_FILE = MarketplaceInfo.class.getSimpleName() + ".journal"; //$NON-NLS-1$
+
 	private Map<String, List<String>> nodeKeyToIU = new HashMap<>();
 
 	private Map<String, List<String>> iuToNodeKey = new HashMap<>();
 
+	/**
+	 * Lookup structures per marketplace, derived from {@link #nodeKeyToIU}. Rebuilt on demand whenever the mappings
+	 * might have been changed from outside.
+	 */
+	private Map<String, RepositoryIndex> repositoryIndexes;
+
+	/**
+	 * Parsed {@link #MPC_NODE_IU_PROPERTY} values
+	 */
+	private static final Map<String, List<String>> nodeUrlsByProperty = new ConcurrentHashMap<>();
+
+	/**
+	 * Mappings changed since the last save, with a <code>null</code> value for removed nodes
+	 */
+	private final Map<String, List<String>> unsavedChanges = new LinkedHashMap<>();
+
+	/**
+	 * Set if the mappings might have been changed without being recorded in {@link #unsavedChanges}, or if the
+	 * journal should be compacted, so the next save has to write all mappings.
+	 */
+	private boolean fullSaveRequired;
+
 	public MarketplaceInfo() {
 	}
 
@@ -79,13 +108,22 @@ public class MarketplaceInfo {
 		this();
 		nodeKeyToIU.putAll(info.getNodeKeyToIU());
 		iuToNodeKey.putAll(info.getIuToNodeKey());
+		fullSaveRequired = true;
 	}
 
-	public Map<String, List<String>> getNodeKeyToIU() {
+	/**
+	 * Exposed for persistence. Since the returned map might be modified, this drops the derived indexes and forces
+	 * the next save to write all mappings.
+	 */
+	public synchronized Map<String, List<String>> getNodeKeyToIU() {
+		repositoryIndexes = null;
+		fullSaveRequired = true;
 		return nodeKeyToIU;
 	}
 
-	public void setNodeKeyToIU(Map<String, List<String>> nodeKeyToIU) {
+	public synchronized void setNodeKeyToIU(Map<String, List<String>> nodeKeyToIU) {
+		repositoryIndexes = null;
+		fullSaveRequired = true;
 		this.nodeKeyToIU = nodeKeyToIU;
 	}
 
@@ -111,20 +149,11 @@ public class MarketplaceInfo {
 	@Deprecated
 	public synchronized Set<INode> computeInstalledNodes(URL repositoryUrl, Set<String> installedIus) {
 		Set<INode> nodes = new HashSet<>();
-
-		String keyPrefix = computeUrlKey(repositoryUrl) + '#';
-		for (Map.Entry<String, List<String>> entry : nodeKeyToIU.entrySet()) {
-			if (entry.getKey().startsWith(keyPrefix)) {
-				List<String> ius = nodeKeyToIU.get(entry.getKey());
-				if (computeInstalled(installedIus, ius, false)) {
-					String nodeId = entry.getKey().substring(keyPrefix.length());
-					Node node = new Node();
-					node.setId(nodeId);
-					nodes.add(node);
-				}
-			}
+		for (String nodeId : computeInstalledNodeIds(repositoryUrl, installedIus)) {
+			Node node = new Node();
+			node.setId(nodeId);
+			nodes.add(node);
 		}
-
 		return nodes;
 	}
 
@@ -140,35 +169,78 @@ public class MarketplaceInfo {
 	 */
 	public synchronized Set<INode> computeInstalledNodes(URL repositoryUrl, Map<String, IInstallableUnit> installedIus) {
 		Set<INode> nodes = new HashSet<>();
-
-		String keyPrefix = computeUrlKey(repositoryUrl) + '#';
-		for (Map.Entry<String, List<String>> entry : nodeKeyToIU.entrySet()) {
-			if (entry.getKey().startsWith(keyPrefix)) {
-				List<String> ius = nodeKeyToIU.get(entry.getKey());
-				if (computeInstalled(installedIus.keySet(), ius, false)) {
-					String nodeId = entry.getKey().substring(keyPrefix.length());
-					INode node = QueryHelper.nodeById(nodeId);
-					nodes.add(node);
-				}
-			}
+		for (String nodeId : computeInstalledNodeIds(repositoryUrl, installedIus.keySet())) {
+			nodes.add(QueryHelper.nodeById(nodeId));
 		}
+		String repositoryPrefix = repositoryUrl.toString();
 		for (IInstallableUnit iu : installedIus.values()) {
 			String nodeUrlsValue = iu.getProperty(MPC_NODE_IU_PROPERTY);
 			if (nodeUrlsValue == null) {
 				continue;
 			}
-			String[] nodeUrls = nodeUrlsValue == null ? null : nodeUrlsValue.split("(\\s*,\\s*|\\s+)"); //$NON-NLS-1$
-			for (String nodeUrl : nodeUrls) {
-				if (nodeUrl.startsWith(repositoryUrl.toString())) {
-					INode node = QueryHelper.nodeByUrl(nodeUrl);
-					nodes.add(node);
+			for (String nodeUrl : parseNodeUrls(nodeUrlsValue)) {
+				if (nodeUrl.startsWith(repositoryPrefix)) {
+					nodes.add(QueryHelper.nodeByUrl(nodeUrl));
 				}
 			}
 		}
-
 		return nodes;
 	}
 
+	private Set<String> computeInstalledNodeIds(URL repositoryUrl, Collection<String> installedIus) {
+		RepositoryIndex index = getRepositoryIndexes().get(computeUrlKey(repositoryUrl));
+		if (index == null) {
+			return Collections.emptySet();
+		}
+		Set<String> nodeIds = new HashSet<>();
+		for (String installedIu : installedIus) {
+			index.collectNodes(installedIu, nodeIds);
+			if (installedIu.endsWith(P2_FEATURE_GROUP_SUFFIX)) {
+				index.collectNodes(installedIu.substring(0, installedIu.length() - P2_FEATURE_GROUP_SUFFIX.length()),
+						nodeIds);
+			}
+		}
+		return nodeIds;
+	}
+
+	private Map<String, RepositoryIndex> getRepositoryIndexes() {
+		if (repositoryIndexes == null) {
+			Map<String, RepositoryIndex> indexes = new HashMap<>();
+			for (Map.Entry<String, List<String>> entry : nodeKeyToIU.entrySet()) {
+				String itemKey = entry.getKey();
+				int separator = itemKey.lastIndexOf('#');
+				if (separator == -1) {
+					continue;
+				}
+				indexes.computeIfAbsent(itemKey.substring(0, separator), k -> new RepositoryIndex())
+				.add(itemKey.substring(separator + 1), entry.getValue());
+			}
+			repositoryIndexes = indexes;
+		}
+		return repositoryIndexes;
+	}
+
+	/**
+	 * Split a {@link #MPC_NODE_IU_PROPERTY} value into node urls. The value is a comma or whitespace separated list.
+	 */
+	private static List<String> parseNodeUrls(String nodeUrlsValue) {
+		return nodeUrlsByProperty.computeIfAbsent(nodeUrlsValue, value -> {
+			List<String> nodeUrls = new ArrayList<>(1);
+			int start = -1;
+			for (int i = 0; i <= value.length(); i++) {
+				boolean separator = i == value.length() || value.charAt(i) == ','
+						|| Character.isWhitespace(value.charAt(i));
+				if (!separator && start == -1) {
+					start = i;
+				} else if (separator && start != -1) {
+					nodeUrls.add(value.substring(start, i));
+					start = -1;
+				}
+			}
+			return Collections.unmodifiableList(nodeUrls);
+		});
+	}
+
 	/**
 	 * Compute if the given node is installed. The given node must be fully realized, including its
 	 * {@link INode#getIus() ius}.
@@ -262,47 +334,45 @@ public class MarketplaceInfo {
 	}
 
 	public synchronized void map(URL marketUrl, INode node) {
-		String itemKey = computeItemKey(marketUrl, node);
-		if (node.getIus() != null && !node.getIus().getIuElements().isEmpty()) {
-			List<String> ius = new ArrayList<>();
-			Set<String> uniqueIus = new HashSet<>();
-			List<IIu> iuElements = node.getIus().getIuElements();
-			for (IIu iIu : iuElements) {
-				if (uniqueIus.add(iIu.getId())) {
-					ius.add(iIu.getId());
-				}
+		String urlKey = computeUrlKey(marketUrl);
+		String itemKey = urlKey + '#' + node.getId();
+		List<String> oldIus = nodeKeyToIU.remove(itemKey);
+		Set<String> previousIus = oldIus == null ? Collections.emptySet() : new HashSet<>(oldIus);
+		Set<String> uniqueIus = new LinkedHashSet<>();
+		if (node.getIus() != null) {
+			for (IIu iIu : node.getIus().getIuElements()) {
+				uniqueIus.add(iIu.getId());
 			}
-			nodeKeyToIU.put(itemKey, ius);
-			for (String iu : ius) {
+		}
+		for (String iu : previousIus) {
+			if (!uniqueIus.contains(iu)) {
 				List<String> catalogNodes = iuToNodeKey.get(iu);
 				if (catalogNodes != null) {
-					if (!catalogNodes.contains(itemKey)) {
-						catalogNodes.add(itemKey);
+					catalogNodes.remove(itemKey);
+					if (catalogNodes.isEmpty()) {
+						iuToNodeKey.remove(iu);
 					}
-				} else {
-					catalogNodes = new ArrayList<>(1);
-					catalogNodes.add(itemKey);
-					iuToNodeKey.put(iu, catalogNodes);
 				}
 			}
-		} else {
-			List<String> ius = nodeKeyToIU.remove(itemKey);
-			if (ius != null) {
-				for (String iu : ius) {
-					List<String> catalogNodes = iuToNodeKey.get(iu);
-					if (catalogNodes != null) {
-						catalogNodes.remove(itemKey);
-						if (catalogNodes.isEmpty()) {
-							iuToNodeKey.remove(iu);
-						}
-					}
+		}
+		List<String> ius = null;
+		if (!uniqueIus.isEmpty()) {
+			ius = new ArrayList<>(uniqueIus);
+			nodeKeyToIU.put(itemKey, ius);
+			for (String iu : ius) {
+				if (!previousIus.contains(iu)) {
+					iuToNodeKey.computeIfAbsent(iu, k -> new ArrayList<>(1)).add(itemKey);
 				}
 			}
 		}
-	}
-
-	private String computeItemKey(URL marketUrl, INode item) {
-		return computeUrlKey(marketUrl) + '#' + item.getId();
+		if (ius == null ? oldIus != null : !ius.equals(oldIus)) {
+			unsavedChanges.put(itemKey, ius);
+		}
+		if (repositoryIndexes != null) {
+			RepositoryIndex index = repositoryIndexes.computeIfAbsent(urlKey, k -> new RepositoryIndex());
+			index.remove(node.getId());
+			index.add(node.getId(), uniqueIus);
+		}
 	}
 
 	private String computeUrlKey(URL url) {
@@ -333,11 +403,21 @@ public class MarketplaceInfo {
 	}
 
 	/**
+	 * Load the persisted mappings from the journal. If there is none yet, the mappings are migrated from the
+	 * <code>MarketplaceInfo.xml</code> file written by earlier versions.
+	 *
 	 * @noreference This method is not intended to be referenced by clients.
 	 * @nooverride This method is not intended to be re-implemented or extended by clients.
 	 */
 	protected MarketplaceInfo load() {
 		try {
+			File journalFile = createJournalFile().load();
+			if (journalFile != null && journalFile.isFile() && journalFile.canRead()) {
+				MarketplaceInfo loaded = doLoad(journalFile);
+				if (loaded != null) {
+					return loaded;
+				}
+			}
 			RegistryFile registryFile = createRegistryFile();
 			File loadFile = registryFile.load();
 			if (loadFile != null && loadFile.canRead()) {
@@ -352,10 +432,22 @@ public class MarketplaceInfo {
 
 	protected MarketplaceInfo doLoad(File loadFile) {
 		synchronized (MarketplaceInfo.class) {
-			try (InputStream in = new BufferedInputStream(new FileInputStream(loadFile));
-					XMLDecoder decoder = new XMLDecoder(in)) {
-				Object object = decoder.readObject();
-				return (MarketplaceInfo) object;
+			try {
+				MarketplaceInfoJournal.Contents journal = MarketplaceInfoJournal.read(loadFile);
+				if (journal != null) {
+					MarketplaceInfo info = new MarketplaceInfo();
+					info.restore(journal.getMappings());
+					info.fullSaveRequired = journal.needsCompaction();
+					return info;
+				}
+				// legacy format, migrated to the journal on the next save
+				try (InputStream in = new BufferedInputStream(new FileInputStream(loadFile));
+						XMLDecoder decoder = new XMLDecoder(in)) {
+					Object object = decoder.readObject();
+					MarketplaceInfo info = (MarketplaceInfo) object;
+					info.fullSaveRequired = true;
+					return info;
+				}
 			} catch (Throwable t) {
 				// ignore, fallback
 				IStatus status = new Status(IStatus.WARNING, MarketplaceClientUi.BUNDLE_ID,
@@ -368,16 +460,82 @@ public class MarketplaceInfo {
 		}
 	}
 
+	private void restore(Map<String, List<String>> mappings) {
+		for (Map.Entry<String, List<String>> mapping : mappings.entrySet()) {
+			String itemKey = mapping.getKey();
+			nodeKeyToIU.put(itemKey, mapping.getValue());
+			for (String iu : mapping.getValue()) {
+				iuToNodeKey.computeIfAbsent(iu, k -> new ArrayList<>(1)).add(itemKey);
+			}
+		}
+	}
+
+	/**
+	 * @return true if there are mappings that haven't been saved yet
+	 */
+	public synchronized boolean hasUnsavedChanges() {
+		return fullSaveRequired || !unsavedChanges.isEmpty();
+	}
+
+	/**
+	 * Save the changed mappings. Changes are usually appended to the journal. All mappings are written if the journal
+	 * needs to be compacted, is new or is being migrated from the legacy format. In that case, changes appended by
+	 * other instances in the meantime are kept. The legacy <code>MarketplaceInfo.xml</code> files are left in place
+	 * for other and older installations sharing them.
+	 */
 	public void save() {
-		RegistryFile registryFile = createRegistryFile();
-		File saveFile = registryFile.save();
-		if (saveFile != null) {
-			synchronized (MarketplaceInfo.class) {
-				save(saveFile);
+		Map<String, List<String>> changes;
+		Map<String, List<String>> mappings = null;
+		synchronized (this) {
+			if (!hasUnsavedChanges()) {
+				return;
+			}
+			changes = new LinkedHashMap<>(unsavedChanges);
+			if (fullSaveRequired) {
+				mappings = new LinkedHashMap<>(nodeKeyToIU);
+			}
+			unsavedChanges.clear();
+			fullSaveRequired = false;
+		}
+		File saveFile = createJournalFile().save();
+		if (saveFile == null) {
+			return;
+		}
+		synchronized (MarketplaceInfo.class) {
+			try (Closeable lock = MarketplaceInfoJournal.lock(saveFile)) {
+				if (mappings == null && MarketplaceInfoJournal.isJournal(saveFile)) {
+					MarketplaceInfoJournal.append(saveFile, changes);
+					return;
+				}
+				if (mappings == null) {
+					synchronized (this) {
+						mappings = new LinkedHashMap<>(nodeKeyToIU);
+					}
+				}
+				Map<String, List<String>> merged = new LinkedHashMap<>();
+				MarketplaceInfoJournal.Contents journal = MarketplaceInfoJournal.isJournal(saveFile)
+						? MarketplaceInfoJournal.read(saveFile)
+								: null;
+				if (journal != null) {
+					merged.putAll(journal.getMappings());
+				}
+				merged.putAll(mappings);
+				MarketplaceInfoJournal.apply(merged, changes);
+				MarketplaceInfoJournal.write(saveFile, merged);
+			} catch (Throwable t) {
+				// fail safe
+				MarketplaceClientUi.error(t);
+				synchronized (this) {
+					fullSaveRequired = true;
+				}
 			}
 		}
 	}
 
+	/**
+	 * Write all mappings to the given file in the XML format used before the {@link #save() journal}. This can still
+	 * be {@link #load() loaded}, but it is not appended to on later saves.
+	 */
 	public void save(File registryFile) {
 		try {
 			File container = registryFile.getParentFile();
@@ -387,7 +545,9 @@ public class MarketplaceInfo {
 			OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(registryFile));
 			try {
 				XMLEncoder encoder = new XMLEncoder(outputStream);
-				encoder.writeObject(this);
+				synchronized (this) {
+					encoder.writeObject(this);
+				}
 				encoder.close();
 			} finally {
 				outputStream.close();
@@ -398,6 +558,21 @@ public class MarketplaceInfo {
 		}
 	}
 
+	/**
+	 * compute the journal file next to each of the {@link #createRegistryFile() registry file} locations
+	 *
+	 * @noreference This method is not intended to be referenced by clients.
+	 * @nooverride This method is not intended to be re-implemented or extended by clients.
+	 */
+	protected RegistryFile createJournalFile() {
+		File[] locations = createRegistryFile().getLocations();
+		File[] journalLocations = new File[locations.length];
+		for (int i = 0; i < locations.length; i++) {
+			journalLocations[i] = new File(locations[i].getParentFile(), JOURNAL_FILE);
+		}
+		return new RegistryFile(journalLocations);
+	}
+
 	/**
 	 * compute the registry file
 	 * <p>
@@ -530,10 +705,78 @@ public class MarketplaceInfo {
 		return legacyConfigFile;
 	}
 
+	/**
+	 * Compute a writable directory for additional persistent state next to the {@link MarketplaceInfo} file,
+	 * preferring the shared configuration area over the bundle's data area.
+	 *
+	 * @param name
+	 *            the name of the directory
+	 * @return the directory or null if no writable location is available
+	 */
+	public static File computeStateDirectory(String name) {
+		MarketplaceInfo info = new MarketplaceInfo();
+		File[] candidates;
+		try {
+			candidates = new File[] { info.computeConfigurationAreaRegistryFile(), info.computeBundleRegistryFile() };
+		} catch (RuntimeException e) {
+			MarketplaceClientUi.error(e);
+			return null;
+		}
+		for (File registryFile : candidates) {
+			if (registryFile == null || registryFile.getParentFile() == null) {
+				continue;
+			}
+			File directory = new File(registryFile.getParentFile(), name);
+			if ((directory.isDirectory() || directory.mkdirs()) && directory.canWrite()) {
+				return directory;
+			}
+		}
+		return null;
+	}
+
 	private static File computeConfigFile(File mpcConfigLocation) {
 		return new File(mpcConfigLocation, PERSISTENT_FILE);
 	}
 
+	/**
+	 * Node to IU mappings of a single marketplace, indexed in both directions
+	 */
+	private static class RepositoryIndex {
+		private final Map<String, Set<String>> iusByNode = new HashMap<>();
+
+		private final Map<String, Set<String>> nodesByIu = new HashMap<>();
+
+		void add(String nodeId, Collection<String> ius) {
+			if (ius.isEmpty()) {
+				return;
+			}
+			iusByNode.put(nodeId, new HashSet<>(ius));
+			for (String iu : ius) {
+				nodesByIu.computeIfAbsent(iu, k -> new HashSet<>(2)).add(nodeId);
+			}
+		}
+
+		void remove(String nodeId) {
+			Set<String> ius = iusByNode.remove(nodeId);
+			if (ius == null) {
+				return;
+			}
+			for (String iu : ius) {
+				Set<String> nodes = nodesByIu.get(iu);
+				if (nodes != null && nodes.remove(nodeId) && nodes.isEmpty()) {
+					nodesByIu.remove(iu);
+				}
+			}
+		}
+
+		void collectNodes(String iu, Set<String> nodeIds) {
+			Set<String> nodes = nodesByIu.get(iu);
+			if (nodes != null) {
+				nodeIds.addAll(nodes);
+			}
+		}
+	}
+
 	/**
 	 * This is only non-private for testing purposes
 	 *
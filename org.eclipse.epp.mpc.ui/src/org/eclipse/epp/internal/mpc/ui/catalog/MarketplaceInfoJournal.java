@@ -0,0 +1,275 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.internal.mpc.ui.catalog;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Line based store for the node to IU mappings of {@link MarketplaceInfo}. The file starts with a snapshot of all
+ * mappings, followed by the changes appended since. Each line is one tab separated record:
+ *
+ * <pre>
+ * + nodeKey iu...   map a node to the given IUs
+ * - nodeKey         forget a node
+ * </pre>
+ *
+ * An incomplete last line, e.g. after a crash while appending, is ignored and cut off before the next append. The file is rewritten atomically when it
+ * gets too large compared to the mappings it holds. Writers {@link #lock(File) lock} the journal, since it can be shared
+ * by several installations.
+ */
+final class MarketplaceInfoJournal {
+
+	private static final String HEADER = "#MarketplaceInfo journal 1"; //$NON-NLS-1$
+
+	private static final char MAP = '+';
+
+	private static final char UNMAP = '-';
+
+	private static final char SEPARATOR = '\t';
+
+	/**
+	 * Extra records tolerated on top of twice the number of mappings before the journal is compacted
+	 */
+	private static final int COMPACTION_SLACK = 500;
+
+	/**
+	 * Replayed contents of a journal file
+	 */
+	static final class Contents {
+		private final Map<String, List<String>> mappings;
+
+		private final int records;
+
+		Contents(Map<String, List<String>> mappings, int records) {
+			this.mappings = mappings;
+			this.records = records;
+		}
+
+		/**
+		 * @return the node key to IU mappings, in the order they were first recorded
+		 */
+		Map<String, List<String>> getMappings() {
+			return mappings;
+		}
+
+		boolean needsCompaction() {
+			return records > 2 * mappings.size() + COMPACTION_SLACK;
+		}
+	}
+
+	private MarketplaceInfoJournal() {
+	}
+
+	/**
+	 * @return the replayed journal, or null if the file is not a journal
+	 */
+	static Contents read(File file) throws IOException {
+		Map<String, List<String>> mappings = new LinkedHashMap<>();
+		int records = 0;
+		byte[] bytes = Files.readAllBytes(file.toPath());
+		String content = new String(bytes, StandardCharsets.UTF_8);
+		int end = content.indexOf('\n');
+		if (end == -1 || !HEADER.equals(content.substring(0, end).trim())) {
+			return null;
+		}
+		for (int start = end + 1; (end = content.indexOf('\n', start)) != -1; start = end + 1) {
+			String line = content.substring(start, end);
+			if (line.length() < 2 || line.charAt(1) != SEPARATOR) {
+				continue;
+			}
+			String[] fields = line.substring(2).split(String.valueOf(SEPARATOR));
+			String nodeKey = fields[0];
+			if (line.charAt(0) == MAP && fields.length > 1) {
+				mappings.put(nodeKey, new ArrayList<>(Arrays.asList(fields).subList(1, fields.length)));
+			} else if (line.charAt(0) == UNMAP) {
+				mappings.remove(nodeKey);
+			} else {
+				continue;
+			}
+			records++;
+		}
+		return new Contents(mappings, records);
+	}
+
+	/**
+	 * @return true if the file exists and starts with a journal header
+	 */
+	static boolean isJournal(File file) throws IOException {
+		if (!file.isFile()) {
+			return false;
+		}
+		try (BufferedReader reader = new BufferedReader(
+				new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+			String header = reader.readLine();
+			return header != null && HEADER.equals(header.trim());
+		}
+	}
+
+	/**
+	 * Acquire the lock guarding the given journal against concurrent writers in other processes. It has to be held
+	 * while appending to the journal and from reading to rewriting it, otherwise records appended by another process
+	 * in between would get lost.
+	 *
+	 * @return a handle that releases the lock when closed
+	 */
+	static Closeable lock(File file) throws IOException {
+		File container = file.getAbsoluteFile().getParentFile();
+		if (container != null && !container.exists()) {
+			container.mkdirs();
+		}
+		File lockFile = new File(container, file.getName() + ".lock"); //$NON-NLS-1$
+		FileChannel channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		try {
+			channel.lock();
+			return channel;
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Append the given changes to an existing journal. An incomplete record at the end of the file is dropped first,
+	 * otherwise the first appended record would be joined onto it.
+	 *
+	 * @param changes
+	 *            IUs by node key, with a <code>null</code> value for removed nodes
+	 */
+	static void append(File file, Map<String, List<String>> changes) throws IOException {
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			channel.truncate(completeLength(channel));
+			channel.position(channel.size());
+			try (Writer writer = new BufferedWriter(
+					new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8))) {
+				for (Map.Entry<String, List<String>> change : changes.entrySet()) {
+					writeRecord(writer, change.getKey(), change.getValue());
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the length of the file up to and including its last line break
+	 */
+	private static long completeLength(FileChannel channel) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(4096);
+		long end = channel.size();
+		while (end > 0) {
+			long start = Math.max(0, end - buffer.capacity());
+			buffer.clear();
+			buffer.limit((int) (end - start));
+			while (buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) >= 0) {
+				// fill the buffer
+			}
+			for (int i = buffer.position() - 1; i >= 0; i--) {
+				if (buffer.get(i) == '\n') {
+					return start + i + 1;
+				}
+			}
+			end = start;
+		}
+		return 0;
+	}
+
+	/**
+	 * Replace the file with a compacted journal holding just the given mappings. The new content is written to a
+	 * temporary file first and then moved into place, so readers never see a partial file.
+	 */
+	static void write(File file, Map<String, List<String>> mappings) throws IOException {
+		File container = file.getAbsoluteFile().getParentFile();
+		if (container != null && !container.exists()) {
+			container.mkdirs();
+		}
+		File tempFile = new File(container, file.getName() + ".tmp"); //$NON-NLS-1$
+		try {
+			try (Writer writer = new BufferedWriter(
+					new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8))) {
+				writer.write(HEADER);
+				writer.write('\n');
+				for (Map.Entry<String, List<String>> mapping : mappings.entrySet()) {
+					writeRecord(writer, mapping.getKey(), mapping.getValue());
+				}
+			}
+			try {
+				Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			if (tempFile.exists()) {
+				tempFile.delete();
+			}
+		}
+	}
+
+	/**
+	 * Apply journal style changes to the given mappings
+	 */
+	static void apply(Map<String, List<String>> mappings, Map<String, List<String>> changes) {
+		for (Map.Entry<String, List<String>> change : changes.entrySet()) {
+			if (change.getValue() == null) {
+				mappings.remove(change.getKey());
+			} else {
+				mappings.put(change.getKey(), change.getValue());
+			}
+		}
+	}
+
+	private static void writeRecord(Writer writer, String nodeKey, List<String> ius) throws IOException {
+		if (!isValidField(nodeKey) || (ius != null && !ius.stream().allMatch(MarketplaceInfoJournal::isValidField))) {
+			return;
+		}
+		if (ius == null || ius.isEmpty()) {
+			writer.write(UNMAP);
+			writer.write(SEPARATOR);
+			writer.write(nodeKey);
+		} else {
+			writer.write(MAP);
+			writer.write(SEPARATOR);
+			writer.write(nodeKey);
+			for (String iu : ius) {
+				writer.write(SEPARATOR);
+				writer.write(iu);
+			}
+		}
+		writer.write('\n');
+	}
+
+	private static boolean isValidField(String value) {
+		return value != null && !value.isEmpty() && value.indexOf(SEPARATOR) == -1 && value.indexOf('\n') == -1
+				&& value.indexOf('\r') == -1;
+	}
+}
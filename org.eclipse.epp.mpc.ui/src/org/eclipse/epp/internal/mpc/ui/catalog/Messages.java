@@ -39,8 +39,6 @@ class Messages extends NLS {
 
 	public static String MarketplaceCatalog_Discovery_Error;
 
-	public static String MarketplaceCatalog_ErrorReadingRepository;
-
 	public static String MarketplaceCatalog_failedWithError;
 
 	public static String MarketplaceCatalog_InvalidRepositoryUrl;
@@ -49,6 +47,8 @@ class Messages extends NLS {
 
 	public static String MarketplaceCatalog_queryingMarketplace;
 
+	public static String MarketplaceCatalog_strategyTimedOut;
+
 	public static String MarketplaceCatalog_UpdateCheckDiscoveryError;
 
 	public static String MarketplaceDiscoveryStrategy_badUri;
@@ -81,6 +81,8 @@ class Messages extends NLS {
 
 	public static String MarketplaceDiscoveryStrategy_noUrlMatch;
 
+	public static String MarketplaceDiscoveryStrategy_offlineSearch;
+
 	public static String MarketplaceDiscoveryStrategy_ParseError;
 
 	public static String MarketplaceDiscoveryStrategy_requestSource;
@@ -101,13 +103,25 @@ class Messages extends NLS {
 
 	public static String MarketplaceNodeCatalogItem_changeSupportError;
 	
+	public static String ResourceCache_loadError;
+
+	public static String ResourceCache_saveError;
+
+	public static String ResourceCache_savingIndex;
+
 	public static String ResourceProvider_downloadError;
 
 	public static String ResourceProvider_FailedCreatingTempDir;
 
 	public static String ResourceProvider_retrievingResource;
 
-	public static String ResourceProvider_waitingForDownload;
+	public static String UpdateAvailabilityService_ErrorReadingRepository;
+
+	public static String UpdateAvailabilityService_loadError;
+
+	public static String UpdateAvailabilityService_saveError;
+
+	public static String UpdateAvailabilityService_saving;
 	
 	static {
 		// initialize resource bundle
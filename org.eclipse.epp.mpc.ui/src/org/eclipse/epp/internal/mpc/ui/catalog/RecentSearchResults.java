@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.internal.mpc.ui.catalog;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.epp.internal.mpc.core.model.Node;
+import org.eclipse.epp.internal.mpc.core.model.SearchResult;
+import org.eclipse.epp.mpc.core.model.ICategory;
+import org.eclipse.epp.mpc.core.model.IIdentifiable;
+import org.eclipse.epp.mpc.core.model.IMarket;
+import org.eclipse.epp.mpc.core.model.INode;
+import org.eclipse.epp.mpc.core.model.ISearchResult;
+
+/**
+ * Remembers the last few text search results, so narrowing down a query while typing can be shown without another
+ * server round-trip. This is only done if a remembered query had all of its matches in one result and the new query
+ * adds more terms to it. The narrowed result is matched on the client, which doesn't match exactly like the server,
+ * so it is only a provisional answer until the query itself has been sent to the server.
+ */
+public final class RecentSearchResults {
+
+	private static final int MAX_ENTRIES = 16;
+
+	private static final class Entry {
+
+		private final String marketId;
+
+		private final String categoryId;
+
+		private final SearchTerms terms;
+
+		private final ISearchResult result;
+
+		Entry(String marketId, String categoryId, SearchTerms terms, ISearchResult result) {
+			this.marketId = marketId;
+			this.categoryId = categoryId;
+			this.terms = terms;
+			this.result = result;
+		}
+
+		boolean isComplete() {
+			Integer matchCount = result.getMatchCount();
+			return matchCount != null && matchCount <= result.getNodes().size();
+		}
+	}
+
+	private final Map<String, Entry> entries = new LinkedHashMap<>(MAX_ENTRIES, 0.75f, true);
+
+	public synchronized void put(IMarket market, ICategory category, String queryText, ISearchResult result) {
+		SearchTerms terms = SearchTerms.parse(queryText);
+		if (terms.isEmpty() || result == null || result.getNodes() == null) {
+			return;
+		}
+		String marketId = getId(market);
+		String categoryId = getId(category);
+		entries.put(computeKey(marketId, categoryId, terms), new Entry(marketId, categoryId, terms, result));
+		for (Iterator<Entry> i = entries.values().iterator(); entries.size() > MAX_ENTRIES && i.hasNext();) {
+			i.next();
+			i.remove();
+		}
+	}
+
+	/**
+	 * @return the result of the given query computed from a remembered complete result of a strictly broader query, or
+	 *         null if there is no such result
+	 */
+	public synchronized ISearchResult findRefinement(IMarket market, ICategory category, String queryText) {
+		SearchTerms terms = SearchTerms.parse(queryText);
+		if (terms.isEmpty()) {
+			return null;
+		}
+		String marketId = getId(market);
+		String categoryId = getId(category);
+		Entry best = null;
+		for (Entry entry : entries.values()) {
+			if (Objects.equals(marketId, entry.marketId) && Objects.equals(categoryId, entry.categoryId)
+					&& entry.isComplete() && terms.refines(entry.terms) && !entry.terms.refines(terms)
+					&& (best == null || entry.result.getNodes().size() < best.result.getNodes().size())) {
+				best = entry;
+			}
+		}
+		if (best == null) {
+			return null;
+		}
+		List<Node> nodes = new ArrayList<>();
+		for (INode node : best.result.getNodes()) {
+			if (terms.matches(node)) {
+				nodes.add((Node) node);
+			}
+		}
+		SearchResult result = new SearchResult();
+		result.setMatchCount(nodes.size());
+		result.setNodes(nodes);
+		return result;
+	}
+
+	private static String computeKey(String marketId, String categoryId, SearchTerms terms) {
+		return marketId + ':' + categoryId + ':' + terms;
+	}
+
+	private static String getId(IIdentifiable identifiable) {
+		return identifiable == null ? null : identifiable.getId();
+	}
+}
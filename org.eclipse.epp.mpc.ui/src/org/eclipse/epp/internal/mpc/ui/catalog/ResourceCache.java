@@ -0,0 +1,593 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.internal.mpc.ui.catalog;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.epp.internal.mpc.ui.MarketplaceClientUi;
+import org.eclipse.osgi.util.NLS;
+
+/**
+ * A persistent, size-limited cache for downloaded catalog resources like icons and screenshots. Resources are keyed by
+ * their URL and stored by content hash, so identical content is only stored once. The least recently used entries
+ * are evicted once the cache exceeds its size limit. Entries keep the HTTP validators of their download, so they can
+ * be revalidated with the server once they are no longer {@link #isFresh(Entry) fresh}.
+ * <p>
+ * The cache is meant to be shared by all workspaces of an installation. Concurrent instances merge their index on
+ * {@link #save()}, content files are never modified once written. Since another instance, or a resource handed out
+ * earlier, might still point to the content of a removed entry, content files are only deleted once they have been
+ * unused for a grace period. Reading an entry marks its content file as used.
+ */
+public class ResourceCache {
+
+	/**
+	 * Default size limit of the cache
+	 */
+	public static final long DEFAULT_MAX_SIZE = 50L * 1024 * 1024;
+
+	/**
+	 * Time after which cached resources are revalidated with the server
+	 */
+	public static final long DEFAULT_FRESHNESS = TimeUnit.DAYS.toMillis(1);
+
+	/**
+	 * Time that the content of a removed entry is kept after it was last used
+	 */
+	public static final long DEFAULT_EVICTION_GRACE = TimeUnit.HOURS.toMillis(1);
+
+	private static final String CACHE_DIR = "resources"; //$NON-NLS-1$
+
+	private static final String INDEX_FILE = "index"; //$NON-NLS-1$
+
+	private static final String INDEX_VERSION = "#mpc-resource-cache 1"; //$NON-NLS-1$
+
+	private static final String CONTENT_DIR = "content"; //$NON-NLS-1$
+
+	private static final String HASH_ALGORITHM = "SHA-1"; //$NON-NLS-1$
+
+	private static final long SAVE_DELAY = TimeUnit.SECONDS.toMillis(5);
+
+	private static final String TEMP_FILE_PREFIX = "download_"; //$NON-NLS-1$
+
+	/**
+	 * Minimum time between two updates of a content file's modification time on access
+	 */
+	private static final long TOUCH_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
+	public static final class Entry {
+
+		private final String key;
+
+		private final String hash;
+
+		private final long size;
+
+		private final String etag;
+
+		private final String lastModified;
+
+		private long lastValidated;
+
+		private long lastAccess;
+
+		Entry(String key, String hash, long size, String etag, String lastModified, long lastValidated,
+				long lastAccess) {
+			this.key = key;
+			this.hash = hash;
+			this.size = size;
+			this.etag = etag;
+			this.lastModified = lastModified;
+			this.lastValidated = lastValidated;
+			this.lastAccess = lastAccess;
+		}
+
+		public String getKey() {
+			return key;
+		}
+
+		public String getHash() {
+			return hash;
+		}
+
+		public long getSize() {
+			return size;
+		}
+
+		public String getEtag() {
+			return etag;
+		}
+
+		public String getLastModified() {
+			return lastModified;
+		}
+
+		public synchronized long getLastValidated() {
+			return lastValidated;
+		}
+
+		public synchronized long getLastAccess() {
+			return lastAccess;
+		}
+	}
+
+	private final File directory;
+
+	private final File contentDirectory;
+
+	private final long maxSize;
+
+	private final long freshness;
+
+	private final long evictionGrace;
+
+	private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+	private final Map<String, Integer> hashReferences = new HashMap<>();
+
+	/**
+	 * Content no longer referenced by any entry, with the time it was released
+	 */
+	private final Map<String, Long> releasedHashes = new HashMap<>();
+
+	private final Set<String> removedKeys = new HashSet<>();
+
+	private long totalSize;
+
+	private boolean loaded;
+
+	private final Job saveJob;
+
+	public ResourceCache(File directory) {
+		this(directory, DEFAULT_MAX_SIZE, DEFAULT_FRESHNESS);
+	}
+
+	public ResourceCache(File directory, long maxSize, long freshness) {
+		this(directory, maxSize, freshness, DEFAULT_EVICTION_GRACE);
+	}
+
+	/**
+	 * @param evictionGrace
+	 *            the time the content of a removed entry is kept after it was last used
+	 */
+	public ResourceCache(File directory, long maxSize, long freshness, long evictionGrace) {
+		this.directory = directory;
+		this.contentDirectory = new File(directory, CONTENT_DIR);
+		this.maxSize = maxSize;
+		this.freshness = freshness;
+		this.evictionGrace = evictionGrace;
+		this.saveJob = new Job(Messages.ResourceCache_savingIndex) {
+
+			{
+				setSystem(true);
+				setUser(false);
+				setPriority(DECORATE);
+			}
+
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				save();
+				return Status.OK_STATUS;
+			}
+		};
+	}
+
+	/**
+	 * Create a cache next to the persisted {@link MarketplaceInfo}, preferring the shared configuration area over the
+	 * bundle's data area.
+	 *
+	 * @return the cache or null if no writable location is available
+	 */
+	public static ResourceCache createDefault() {
+		File directory = MarketplaceInfo.computeStateDirectory(CACHE_DIR);
+		return directory == null ? null : new ResourceCache(directory);
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * Get the cached entry for the given key and mark it as recently used.
+	 *
+	 * @return the entry, or null if there is none or its content is missing
+	 */
+	public synchronized Entry get(String key) {
+		ensureLoaded();
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+		File contentFile = getContentFile(entry);
+		if (!contentFile.isFile()) {
+			removeEntry(entry);
+			return null;
+		}
+		long now = System.currentTimeMillis();
+		long lastAccess;
+		synchronized (entry) {
+			lastAccess = entry.lastAccess;
+			entry.lastAccess = now;
+		}
+		if (now - lastAccess >= TOUCH_INTERVAL) {
+			// tell other instances that the content is still in use
+			contentFile.setLastModified(now);
+		}
+		return entry;
+	}
+
+	/**
+	 * @return true if the entry was downloaded or revalidated recently enough to be used without asking the server
+	 */
+	public boolean isFresh(Entry entry) {
+		return System.currentTimeMillis() - entry.getLastValidated() < freshness;
+	}
+
+	/**
+	 * Record that the server confirmed the entry's content to be current.
+	 */
+	public void validated(Entry entry) {
+		synchronized (entry) {
+			entry.lastValidated = System.currentTimeMillis();
+		}
+		scheduleSave();
+	}
+
+	public File getContentFile(Entry entry) {
+		return new File(contentDirectory, entry.getHash());
+	}
+
+	public URL getURL(Entry entry) throws MalformedURLException {
+		return getContentFile(entry).toURI().toURL();
+	}
+
+	/**
+	 * Store the given content for the given key, replacing any previous entry.
+	 *
+	 * @param etag
+	 *            the content's entity tag or null
+	 * @param lastModified
+	 *            the content's last modification date as sent by the server, or null
+	 * @return the new entry
+	 */
+	public Entry put(String key, InputStream content, String etag, String lastModified) throws IOException {
+		if (!contentDirectory.isDirectory() && !contentDirectory.mkdirs() && !contentDirectory.isDirectory()) {
+			throw new IOException(NLS.bind(Messages.ResourceProvider_FailedCreatingTempDir,
+					contentDirectory.getAbsolutePath()));
+		}
+		File tempFile = File.createTempFile(TEMP_FILE_PREFIX, ".tmp", contentDirectory); //$NON-NLS-1$
+		try {
+			MessageDigest digest = createDigest();
+			long size;
+			try (DigestInputStream in = new DigestInputStream(content, digest);
+					OutputStream out = Files.newOutputStream(tempFile.toPath())) {
+				size = in.transferTo(out);
+			}
+			String hash = toHex(digest.digest());
+			File contentFile = new File(contentDirectory, hash);
+			long now = System.currentTimeMillis();
+			Entry entry = new Entry(key, hash, size, etag, lastModified, now, now);
+			synchronized (this) {
+				ensureLoaded();
+				// under the lock, so the content can't be deleted along with another entry in the meantime
+				if (!contentFile.isFile()) {
+					move(tempFile, contentFile);
+				} else {
+					contentFile.setLastModified(now);
+				}
+				Entry oldEntry = entries.get(key);
+				if (oldEntry != null && oldEntry.hash.equals(hash)) {
+					// same content - keep the file and its reference count
+					entries.put(key, entry);
+				} else {
+					if (oldEntry != null) {
+						removeEntry(oldEntry);
+					}
+					addEntry(entry);
+				}
+				removedKeys.remove(key);
+				evict();
+				deleteReleasedContent();
+			}
+			scheduleSave();
+			return entry;
+		} finally {
+			tempFile.delete();
+		}
+	}
+
+	/**
+	 * Remove the entry for the given key, e.g. because the resource no longer exists on the server
+	 */
+	public synchronized void remove(String key) {
+		ensureLoaded();
+		Entry entry = entries.get(key);
+		if (entry != null) {
+			removeEntry(entry);
+			deleteReleasedContent();
+			scheduleSave();
+		}
+	}
+
+	public synchronized long getTotalSize() {
+		ensureLoaded();
+		return totalSize;
+	}
+
+	/**
+	 * Persist the cache index. Entries added by other instances in the meantime are merged into this instance. Content
+	 * files that no instance refers to anymore are deleted after the grace period.
+	 */
+	public synchronized void save() {
+		if (!loaded) {
+			return;
+		}
+		try {
+			if (!directory.isDirectory() && !directory.mkdirs()) {
+				return;
+			}
+			File indexFile = new File(directory, INDEX_FILE);
+			for (Entry entry : readIndex(indexFile)) {
+				if (!entries.containsKey(entry.key) && !removedKeys.contains(entry.key)
+						&& getContentFile(entry).isFile()) {
+					addEntry(entry);
+				}
+			}
+			removedKeys.clear();
+			evict();
+			deleteUnreferencedContent();
+			File tempFile = new File(directory, INDEX_FILE + ".tmp"); //$NON-NLS-1$
+			try (BufferedWriter writer = Files.newBufferedWriter(tempFile.toPath(), StandardCharsets.UTF_8)) {
+				writer.write(INDEX_VERSION);
+				writer.newLine();
+				for (Entry entry : entries.values()) {
+					writer.write(toLine(entry));
+					writer.newLine();
+				}
+			}
+			move(tempFile, indexFile);
+		} catch (IOException e) {
+			MarketplaceClientUi.log(IStatus.WARNING, Messages.ResourceCache_saveError, directory, e);
+		}
+	}
+
+	private void scheduleSave() {
+		saveJob.schedule(SAVE_DELAY);
+	}
+
+	private void ensureLoaded() {
+		if (loaded) {
+			return;
+		}
+		loaded = true;
+		File indexFile = new File(directory, INDEX_FILE);
+		try {
+			for (Entry entry : readIndex(indexFile)) {
+				addEntry(entry);
+			}
+		} catch (IOException e) {
+			MarketplaceClientUi.log(IStatus.WARNING, Messages.ResourceCache_loadError, directory, e);
+		}
+		evict();
+	}
+
+	private static List<Entry> readIndex(File indexFile) throws IOException {
+		List<Entry> entries = new ArrayList<>();
+		if (!indexFile.isFile()) {
+			return entries;
+		}
+		try (BufferedReader reader = Files.newBufferedReader(indexFile.toPath(), StandardCharsets.UTF_8)) {
+			String line = reader.readLine();
+			if (!INDEX_VERSION.equals(line)) {
+				// unknown format - start over
+				return entries;
+			}
+			while ((line = reader.readLine()) != null) {
+				Entry entry = fromLine(line);
+				if (entry != null) {
+					entries.add(entry);
+				}
+			}
+		}
+		return entries;
+	}
+
+	private void addEntry(Entry entry) {
+		entries.put(entry.key, entry);
+		Integer references = hashReferences.get(entry.hash);
+		if (references == null) {
+			releasedHashes.remove(entry.hash);
+			hashReferences.put(entry.hash, 1);
+			totalSize += entry.size;
+		} else {
+			hashReferences.put(entry.hash, references + 1);
+		}
+	}
+
+	private void removeEntry(Entry entry) {
+		if (entries.remove(entry.key) == null) {
+			return;
+		}
+		removedKeys.add(entry.key);
+		Integer references = hashReferences.get(entry.hash);
+		if (references == null || references <= 1) {
+			hashReferences.remove(entry.hash);
+			totalSize -= entry.size;
+			releasedHashes.put(entry.hash, System.currentTimeMillis());
+		} else {
+			hashReferences.put(entry.hash, references - 1);
+		}
+	}
+
+	private void evict() {
+		if (totalSize <= maxSize) {
+			return;
+		}
+		List<Entry> lru = new ArrayList<>(entries.values());
+		lru.sort(Comparator.comparingLong(Entry::getLastAccess));
+		for (Entry entry : lru) {
+			if (totalSize <= maxSize) {
+				break;
+			}
+			removeEntry(entry);
+		}
+	}
+
+	/**
+	 * Delete the released content of this instance whose grace period is over
+	 */
+	private void deleteReleasedContent() {
+		if (releasedHashes.isEmpty()) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		for (Iterator<Map.Entry<String, Long>> i = releasedHashes.entrySet().iterator(); i.hasNext();) {
+			Map.Entry<String, Long> released = i.next();
+			if (now - released.getValue() >= evictionGrace) {
+				i.remove();
+				deleteIfUnused(new File(contentDirectory, released.getKey()), now);
+			}
+		}
+	}
+
+	/**
+	 * Delete all content files that are not referenced by the merged index and haven't been used for the grace period,
+	 * including those released by instances that are gone
+	 */
+	private void deleteUnreferencedContent() {
+		deleteReleasedContent();
+		File[] files = contentDirectory.listFiles();
+		if (files == null) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		for (File file : files) {
+			String name = file.getName();
+			if (!hashReferences.containsKey(name) && !releasedHashes.containsKey(name)
+					&& (!name.startsWith(TEMP_FILE_PREFIX) || now - file.lastModified() >= TimeUnit.DAYS.toMillis(1))) {
+				deleteIfUnused(file, now);
+			}
+		}
+	}
+
+	private void deleteIfUnused(File contentFile, long now) {
+		if (!hashReferences.containsKey(contentFile.getName()) && now - contentFile.lastModified() >= evictionGrace) {
+			contentFile.delete();
+		}
+	}
+
+	private static String toLine(Entry entry) {
+		return escape(entry.key) + '\t' + entry.hash + '\t' + entry.size + '\t' + entry.getLastValidated() + '\t'
+				+ entry.getLastAccess() + '\t' + escape(entry.etag) + '\t' + escape(entry.lastModified);
+	}
+
+	private static Entry fromLine(String line) {
+		String[] fields = line.split("\t", -1); //$NON-NLS-1$
+		if (fields.length != 7) {
+			return null;
+		}
+		try {
+			return new Entry(unescape(fields[0]), fields[1], Long.parseLong(fields[2]), unescape(fields[5]),
+					unescape(fields[6]), Long.parseLong(fields[3]), Long.parseLong(fields[4]));
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private static String escape(String value) {
+		if (value == null) {
+			return ""; //$NON-NLS-1$
+		}
+		return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$
+	}
+
+	private static String unescape(String value) {
+		if (value.isEmpty()) {
+			return null;
+		}
+		StringBuilder result = new StringBuilder(value.length());
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '\\' && i + 1 < value.length()) {
+				char next = value.charAt(++i);
+				switch (next) {
+				case 't':
+					c = '\t';
+					break;
+				case 'n':
+					c = '\n';
+					break;
+				case 'r':
+					c = '\r';
+					break;
+				default:
+					c = next;
+				}
+			}
+			result.append(c);
+		}
+		return result.toString();
+	}
+
+	private static MessageDigest createDigest() throws IOException {
+		try {
+			return MessageDigest.getInstance(HASH_ALGORITHM);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IOException(e);
+		}
+	}
+
+	private static String toHex(byte[] bytes) {
+		StringBuilder hex = new StringBuilder(bytes.length * 2);
+		for (byte b : bytes) {
+			hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+		}
+		return hex.toString();
+	}
+
+	private static void move(File source, File target) throws IOException {
+		try {
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE,
+					StandardCopyOption.REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+}
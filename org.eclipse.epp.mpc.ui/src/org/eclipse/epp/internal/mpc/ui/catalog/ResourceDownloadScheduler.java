@@ -0,0 +1,263 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.internal.mpc.ui.catalog;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.epp.internal.mpc.ui.catalog.ResourceProvider.Priority;
+
+/**
+ * Runs resource downloads on a bounded number of worker jobs. Pending downloads are ordered by {@link Priority} and
+ * request order, can be re-prioritized while they are waiting and can be cancelled by owner.
+ */
+public class ResourceDownloadScheduler {
+
+	/**
+	 * Stamps every request and repeated request of a download, shared by all schedulers so a {@link #mark()} applies
+	 * to all of them
+	 */
+	private static final AtomicLong REQUEST_STAMP = new AtomicLong();
+
+	public static final class DownloadRequest implements Comparable<DownloadRequest> {
+
+		private final String resourceName;
+
+		private final Object owner;
+
+		private final Consumer<IProgressMonitor> download;
+
+		private Priority priority;
+
+		private long sequence;
+
+		private long requested;
+
+		public DownloadRequest(String resourceName, Priority priority, Object owner,
+				Consumer<IProgressMonitor> download) {
+			this.resourceName = resourceName;
+			this.priority = priority;
+			this.owner = owner;
+			this.download = download;
+		}
+
+		public String getResourceName() {
+			return resourceName;
+		}
+
+		public Object getOwner() {
+			return owner;
+		}
+
+		public Priority getPriority() {
+			return priority;
+		}
+
+		@Override
+		public int compareTo(DownloadRequest o) {
+			int result = priority.compareTo(o.priority);
+			if (result == 0) {
+				result = Long.compare(sequence, o.sequence);
+			}
+			return result;
+		}
+	}
+
+	private final class DownloadWorker extends Job {
+
+		DownloadWorker() {
+			super(Messages.ResourceProvider_retrievingResource);
+			setPriority(INTERACTIVE);
+			setUser(false);
+			setSystem(true);
+		}
+
+		@Override
+		public boolean belongsTo(Object family) {
+			return family == ResourceDownloadScheduler.this;
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			DownloadRequest request;
+			while ((request = next(monitor)) != null) {
+				request.download.accept(monitor);
+			}
+			if (monitor.isCanceled()) {
+				// don't leave the remaining downloads without a worker
+				startWorker();
+				return Status.CANCEL_STATUS;
+			}
+			return Status.OK_STATUS;
+		}
+	}
+
+	private final int maxWorkers;
+
+	private final PriorityQueue<DownloadRequest> queue = new PriorityQueue<>();
+
+	private final Map<String, DownloadRequest> pending = new HashMap<>();
+
+	private int workers;
+
+	private long sequence;
+
+	public ResourceDownloadScheduler(int maxWorkers) {
+		this.maxWorkers = Math.max(1, maxWorkers);
+	}
+
+	/**
+	 * @return a mark to {@link #cancel(Object, long) cancel} only the downloads that haven't been requested again
+	 *         since
+	 */
+	public static long mark() {
+		return REQUEST_STAMP.get();
+	}
+
+	public void schedule(DownloadRequest request) {
+		synchronized (this) {
+			DownloadRequest existing = pending.get(request.resourceName);
+			if (existing != null) {
+				existing.requested = REQUEST_STAMP.incrementAndGet();
+				if (existing.priority.compareTo(request.priority) > 0) {
+					reprioritize(existing, request.priority);
+				}
+				return;
+			}
+			request.sequence = sequence++;
+			request.requested = REQUEST_STAMP.incrementAndGet();
+			pending.put(request.resourceName, request);
+			queue.add(request);
+		}
+		startWorker();
+	}
+
+	private void startWorker() {
+		synchronized (this) {
+			if (queue.isEmpty() || workers >= maxWorkers) {
+				return;
+			}
+			workers++;
+		}
+		new DownloadWorker().schedule();
+	}
+
+	/**
+	 * Move a pending download to a more urgent priority class. Downloads that already started or that already have an
+	 * equal or more urgent priority are left alone. In any case, a pending download counts as requested again.
+	 *
+	 * @return true if the download was re-prioritized
+	 */
+	public synchronized boolean prioritize(String resourceName, Priority priority) {
+		DownloadRequest request = pending.get(resourceName);
+		if (request == null) {
+			return false;
+		}
+		request.requested = REQUEST_STAMP.incrementAndGet();
+		if (request.priority.compareTo(priority) <= 0) {
+			return false;
+		}
+		reprioritize(request, priority);
+		return true;
+	}
+
+	/**
+	 * Promote the given pending downloads of an owner to {@link Priority#VISIBLE_ICON} and demote all other visible
+	 * downloads of that owner back to {@link Priority#ICON}.
+	 */
+	public synchronized void updateVisible(Object owner, Collection<String> visibleResourceNames) {
+		List<DownloadRequest> demoted = new ArrayList<>();
+		for (DownloadRequest request : pending.values()) {
+			if (request.owner == owner && request.priority == Priority.VISIBLE_ICON
+					&& !visibleResourceNames.contains(request.resourceName)) {
+				demoted.add(request);
+			}
+		}
+		for (DownloadRequest request : demoted) {
+			reprioritize(request, Priority.ICON);
+		}
+		for (String resourceName : visibleResourceNames) {
+			DownloadRequest request = pending.get(resourceName);
+			if (request != null && request.owner == owner && request.priority != Priority.VISIBLE_ICON) {
+				reprioritize(request, Priority.VISIBLE_ICON);
+			}
+		}
+	}
+
+	/**
+	 * Remove all downloads of the given owner that have not started yet.
+	 *
+	 * @return the removed downloads
+	 */
+	public List<DownloadRequest> cancel(Object owner) {
+		return cancel(owner, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Remove the downloads of the given owner that have not started yet and that were last requested before the given
+	 * {@link #mark() mark}.
+	 *
+	 * @return the removed downloads
+	 */
+	public synchronized List<DownloadRequest> cancel(Object owner, long mark) {
+		List<DownloadRequest> cancelled = new ArrayList<>();
+		for (DownloadRequest request : pending.values()) {
+			if ((owner == null || request.owner == owner) && request.requested <= mark) {
+				cancelled.add(request);
+			}
+		}
+		for (DownloadRequest request : cancelled) {
+			pending.remove(request.resourceName);
+			queue.remove(request);
+		}
+		return cancelled;
+	}
+
+	/**
+	 * Drop all pending downloads. Running workers finish their current download and then terminate.
+	 */
+	public synchronized void dispose() {
+		pending.clear();
+		queue.clear();
+	}
+
+	private void reprioritize(DownloadRequest request, Priority priority) {
+		if (request.priority == priority) {
+			return;
+		}
+		queue.remove(request);
+		request.priority = priority;
+		request.sequence = sequence++;
+		queue.add(request);
+	}
+
+	private synchronized DownloadRequest next(IProgressMonitor monitor) {
+		DownloadRequest request = monitor.isCanceled() ? null : queue.poll();
+		if (request == null) {
+			workers--;
+			return null;
+		}
+		pending.remove(request.resourceName);
+		return request;
+	}
+}
@@ -24,11 +24,16 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
-import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -36,12 +41,17 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.OperationCanceledException;
-import org.eclipse.core.runtime.Status;
-import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.epp.internal.mpc.core.util.IConditionalTransport;
+import org.eclipse.epp.internal.mpc.core.util.IConditionalTransport.ConditionalResponse;
 import org.eclipse.epp.internal.mpc.core.util.TransportFactory;
 import org.eclipse.epp.internal.mpc.core.util.URLUtil;
 import org.eclipse.epp.internal.mpc.ui.MarketplaceClientUi;
+import org.eclipse.epp.internal.mpc.ui.catalog.ResourceCache.Entry;
+import org.eclipse.epp.internal.mpc.ui.catalog.ResourceDownloadScheduler.DownloadRequest;
+import org.eclipse.epp.internal.mpc.ui.util.DisplayBatchExecutor;
+import org.eclipse.epp.mpc.core.service.ITransport;
 import org.eclipse.osgi.util.NLS;
+import org.eclipse.swt.widgets.Display;
 
 /**
  * @author David Green
@@ -49,6 +59,29 @@ import org.eclipse.osgi.util.NLS;
  */
 public class ResourceProvider {
 
+	/**
+	 * Download priority classes, from most to least urgent.
+	 */
+	public static enum Priority {
+		/**
+		 * Icons currently shown in the viewport and other resources that are displayed right away
+		 */
+		VISIBLE_ICON,
+		/**
+		 * Icons of items that are not currently visible
+		 */
+		ICON,
+		/**
+		 * Screenshots, which are only shown on demand
+		 */
+		SCREENSHOT,
+		/**
+		 * Icons of items on tabs that have not been opened yet and screenshots of items next to a hovered one,
+		 * retrieved while the connection is otherwise idle
+		 */
+		PREFETCH
+	}
+
 	public static interface ResourceReceiver<T> {
 		T processResource(URL resource);
 
@@ -57,54 +90,72 @@ public class ResourceProvider {
 
 	public static final class ResourceFuture implements Future<URL> {
 
-		private InputStream input;
+		private final File dir;
+
+		private final String resourceName;
 
-		private final FutureTask<URL> delegate;
+		private final CompletableFuture<URL> delegate = new CompletableFuture<>();
+
+		private boolean retrieving;
 
 		ResourceFuture(final File dir, final String resourceName) {
-			delegate = new FutureTask<>(() -> {
-				if (input == null) {
-					throw new IllegalStateException();
-				}
-				String filenameHint = resourceName;
-				if (filenameHint.lastIndexOf('/') != -1) {
-					filenameHint = filenameHint.substring(filenameHint.lastIndexOf('/') + 1);
+			this.dir = dir;
+			this.resourceName = resourceName;
+		}
+
+		private URL store(InputStream input) throws IOException {
+			String filenameHint = resourceName;
+			if (filenameHint.lastIndexOf('/') != -1) {
+				filenameHint = filenameHint.substring(filenameHint.lastIndexOf('/') + 1);
+			}
+			filenameHint = filenameHint.replaceAll("[^a-zA-Z0-9\\.]", "_"); //$NON-NLS-1$ //$NON-NLS-2$
+			if (filenameHint.length() > 32) {
+				String hash = Integer.toHexString(filenameHint.hashCode());
+				filenameHint = filenameHint.substring(0, 6) + "_" //$NON-NLS-1$
+						+ hash + "_" //$NON-NLS-1$
+						+ filenameHint.substring(filenameHint.length() - (32 - hash.length() - 1 - 6 - 1));
+			}
+			final File outputFile = createTempFile(dir, filenameHint);
+			outputFile.deleteOnExit();
+
+			URL outputURL;
+			try {
+				outputURL = outputFile.toURI().toURL();
+			} catch (MalformedURLException e) {
+				MarketplaceClientUi.error(e);
+				return null;
+			}
+			BufferedOutputStream output = new BufferedOutputStream(new FileOutputStream(outputFile));
+			boolean success = false;
+			try {
+				InputStream buffered = new BufferedInputStream(input);
+				int i;
+				while ((i = buffered.read()) != -1) {
+					output.write(i);
 				}
-				filenameHint = filenameHint.replaceAll("[^a-zA-Z0-9\\.]", "_"); //$NON-NLS-1$ //$NON-NLS-2$
-				if (filenameHint.length() > 32) {
-					String hash = Integer.toHexString(filenameHint.hashCode());
-					filenameHint = filenameHint.substring(0, 6) + "_" //$NON-NLS-1$
-							+ hash + "_" //$NON-NLS-1$
-							+ filenameHint.substring(filenameHint.length() - (32 - hash.length() - 1 - 6 - 1));
+				success = true;
+			} finally {
+				output.close();
+				if (!success || !outputFile.exists()) {
+					outputFile.delete();
+					outputURL = null;
 				}
-				final File outputFile = createTempFile(dir, filenameHint);
-				outputFile.deleteOnExit();
+			}
+			return outputURL;
+		}
 
-				URL outputURL;
-				try {
-					outputURL = outputFile.toURI().toURL();
-				} catch (MalformedURLException e) {
-					MarketplaceClientUi.error(e);
-					return null;
+		/**
+		 * Complete this future with an already available local resource.
+		 *
+		 * @return true if the future was completed, false if it was already done
+		 */
+		boolean complete(URL url) {
+			synchronized (this) {
+				if (retrieving) {
+					return false;
 				}
-				BufferedOutputStream output = new BufferedOutputStream(new FileOutputStream(outputFile));
-				boolean success = false;
-				try {
-					InputStream buffered = new BufferedInputStream(input);
-					int i;
-					while ((i = buffered.read()) != -1) {
-						output.write(i);
-					}
-					success = true;
-				} finally {
-					output.close();
-					if (!success || !outputFile.exists()) {
-						outputFile.delete();
-						outputURL = null;
-					}
-				}
-				return outputURL;
-			});
+			}
+			return delegate.complete(url);
 		}
 
 		@Override
@@ -132,29 +183,31 @@ public class ResourceProvider {
 			return delegate.get(timeout, unit);
 		}
 
-		FutureTask<URL> getDelegate() {
-			return delegate;
+		/**
+		 * A view of this future that can be used to register completion callbacks instead of waiting for the resource.
+		 * Callbacks run on the thread that completes the download, or immediately if it is already done.
+		 */
+		public CompletionStage<URL> toCompletionStage() {
+			return delegate.minimalCompletionStage();
 		}
 
 		public URL retrieve(InputStream stream) throws IOException {
-			synchronized(this)
-			{
-				if (this.isDone() || this.input != null) {
+			synchronized (this) {
+				if (this.isDone() || retrieving) {
 					return getURL();
 				}
-				this.input = stream;
+				retrieving = true;
 			}
-			try
-			{
-				delegate.run();
-				return getURL();
-			}
-			finally
-			{
+			try {
+				delegate.complete(store(stream));
+			} catch (IOException | RuntimeException e) {
+				delegate.completeExceptionally(e);
+			} finally {
 				synchronized (this) {
-					this.input = null;
+					retrieving = false;
 				}
 			}
+			return getURL();
 		}
 
 		public URL getURL() throws IOException {
@@ -175,6 +228,8 @@ public class ResourceProvider {
 				}
 			} catch (InterruptedException e) {
 				return null;
+			} catch (CancellationException e) {
+				return null;
 			}
 		}
 
@@ -191,10 +246,35 @@ public class ResourceProvider {
 
 	}
 
+	private static final int MAX_CONCURRENT_DOWNLOADS = 4;
+
 	private File dir;
 
 	private final Map<String, ResourceFuture> resources = new ConcurrentHashMap<>();
 
+	private final ResourceDownloadScheduler downloadScheduler = new ResourceDownloadScheduler(
+			MAX_CONCURRENT_DOWNLOADS);
+
+	private final ResourceCache cache;
+
+	private DisplayBatchExecutor displayExecutor;
+
+	public ResourceProvider() {
+		this(null);
+	}
+
+	/**
+	 * @param cache
+	 *            persistent cache for downloaded resources, or null to only keep them for the lifetime of this provider
+	 */
+	public ResourceProvider(ResourceCache cache) {
+		this.cache = cache;
+	}
+
+	public ResourceCache getCache() {
+		return cache;
+	}
+
 	public synchronized void init() throws IOException {
 		if (dir != null) {
 			return;
@@ -274,8 +354,22 @@ public class ResourceProvider {
 
 	public ResourceFuture retrieveResource(String requestSource, String resourceUrl) throws IOException,
 	URISyntaxException {
+		return retrieveResource(requestSource, resourceUrl, Priority.VISIBLE_ICON, null);
+	}
+
+	/**
+	 * Retrieve a resource in the background.
+	 *
+	 * @param priority
+	 *            the priority class of the download
+	 * @param owner
+	 *            the owner of the download, used to {@link #cancelPendingDownloads(Object) cancel} or
+	 *            {@link #updateVisibleResources(Object, Collection) re-prioritize} it. May be null.
+	 */
+	public ResourceFuture retrieveResource(String requestSource, String resourceUrl, Priority priority, Object owner)
+			throws IOException, URISyntaxException {
 		URI resourceUri = URLUtil.toURI(resourceUrl);
-		return retrieveResource(requestSource, resourceUrl, resourceUri);
+		return retrieveResource(requestSource, resourceUrl, resourceUri, priority, owner);
 	}
 
 	public ResourceFuture retrieveResource(String requestSource, URI resourceUrl) throws IOException {
@@ -284,6 +378,11 @@ public class ResourceProvider {
 
 	public ResourceFuture retrieveResource(final String requestSource, final String resourceName, final URI resourceUrl)
 			throws IOException {
+		return retrieveResource(requestSource, resourceName, resourceUrl, Priority.VISIBLE_ICON, null);
+	}
+
+	public ResourceFuture retrieveResource(final String requestSource, final String resourceName, final URI resourceUrl,
+			Priority priority, Object owner) throws IOException {
 		ResourceFuture resourceFuture;
 		boolean retrieve = false;
 		synchronized (this) {
@@ -294,41 +393,155 @@ public class ResourceProvider {
 			}
 		}
 		if (retrieve) {
+			final Entry cached = cache == null ? null : cache.get(resourceUrl.toString());
+			if (cached != null && cache.isFresh(cached) && resourceFuture.complete(cache.getURL(cached))) {
+				return resourceFuture;
+			}
 			final ResourceFuture finalResourceFuture = resourceFuture;
-			new Job(Messages.ResourceProvider_retrievingResource) {
+			downloadScheduler.schedule(new DownloadRequest(resourceName, priority, owner,
+					monitor -> download(requestSource, resourceUrl, finalResourceFuture, cached, monitor)));
+		} else if (!resourceFuture.isDone()) {
+			downloadScheduler.prioritize(resourceName, priority);
+		}
+		return resourceFuture;
+	}
 
-				{
-					setPriority(INTERACTIVE);
-					setUser(false);
-					setSystem(true);
+	private void download(String requestSource, URI resourceUrl, ResourceFuture resourceFuture, Entry cached,
+			IProgressMonitor monitor) {
+		try {
+			if (cache == null) {
+				try (InputStream in = TransportFactory.createTransport().stream(resourceUrl, monitor)) {
+					resourceFuture.retrieve(in);
 				}
+			} else {
+				downloadToCache(resourceUrl, resourceFuture, cached, monitor);
+			}
+		} catch (FileNotFoundException e) {
+			//MarketplaceClientUi.error(NLS.bind(Messages.AbstractResourceRunnable_resourceNotFound, new Object[] { catalogItem.getName(),
+			//catalogItem.getId(), resourceUrl }), e);
+			if (cached != null) {
+				// resource is gone, so don't keep serving the stale copy
+				cache.remove(cached.getKey());
+			}
+		} catch (IOException e) {
+			if (e.getCause() instanceof OperationCanceledException) {
+				// canceled, nothing we want to do here
+			} else {
+				MarketplaceClientUi.log(IStatus.WARNING, Messages.ResourceProvider_downloadError, requestSource,
+						resourceUrl, e);
+				completeFromCache(resourceFuture, cached);
+			}
+		} catch (CoreException e) {
+			MarketplaceClientUi.log(IStatus.WARNING, Messages.ResourceProvider_downloadError, requestSource,
+					resourceUrl, e);
+			completeFromCache(resourceFuture, cached);
+		} finally {
+			if (!resourceFuture.isDone()) {
+				// make sure no one waits forever for a download that never happened
+				resourceFuture.cancel(false);
+			}
+		}
+	}
 
-				@Override
-				protected IStatus run(IProgressMonitor monitor) {
-					try (InputStream in = TransportFactory.createTransport().stream(resourceUrl, monitor)) {
-						finalResourceFuture.retrieve(in);
-					} catch (FileNotFoundException e) {
-						//MarketplaceClientUi.error(NLS.bind(Messages.AbstractResourceRunnable_resourceNotFound, new Object[] { catalogItem.getName(),
-						//catalogItem.getId(), resourceUrl }), e);
-					} catch (IOException e) {
-						if (e.getCause() instanceof OperationCanceledException) {
-							// canceled, nothing we want to do here
-						} else {
-							MarketplaceClientUi.log(IStatus.WARNING, Messages.ResourceProvider_downloadError, requestSource,
-									resourceUrl, e);
-						}
-					} catch (CoreException e) {
-						MarketplaceClientUi.log(IStatus.WARNING, Messages.ResourceProvider_downloadError, requestSource,
-								resourceUrl, e);
+	private void downloadToCache(URI resourceUrl, ResourceFuture resourceFuture, Entry cached,
+			IProgressMonitor monitor) throws IOException, CoreException {
+		String key = resourceUrl.toString();
+		ITransport transport = TransportFactory.createTransport();
+		Entry entry;
+		if (transport instanceof IConditionalTransport) {
+			String etag = cached == null ? null : cached.getEtag();
+			String lastModified = cached == null ? null : cached.getLastModified();
+			try (ConditionalResponse response = ((IConditionalTransport) transport).stream(resourceUrl, etag,
+					lastModified, monitor)) {
+				if (response.isNotModified()) {
+					if (cached != null) {
+						cache.validated(cached);
+						completeFromCache(resourceFuture, cached);
 					}
-					return Status.OK_STATUS;
+					return;
 				}
-			}.schedule();
+				entry = cache.put(key, response.getContent(), response.getEtag(), response.getLastModified());
+			}
+		} else {
+			try (InputStream in = transport.stream(resourceUrl, monitor)) {
+				entry = cache.put(key, in, null, null);
+			}
+		}
+		resourceFuture.complete(cache.getURL(entry));
+	}
+
+	private void completeFromCache(ResourceFuture resourceFuture, Entry cached) {
+		if (cached == null || !cache.getContentFile(cached).isFile()) {
+			return;
+		}
+		try {
+			resourceFuture.complete(cache.getURL(cached));
+		} catch (MalformedURLException e) {
+			MarketplaceClientUi.error(e);
+		}
+	}
+
+	/**
+	 * Move a pending download to a more urgent priority class, e.g. because it just became visible.
+	 */
+	public void prioritize(String resourceName, Priority priority) {
+		downloadScheduler.prioritize(resourceName, priority);
+	}
+
+	/**
+	 * Promote the pending downloads of the given resources to {@link Priority#VISIBLE_ICON} and demote all other
+	 * visible downloads of the same owner.
+	 */
+	public void updateVisibleResources(Object owner, Collection<String> visibleResourceNames) {
+		downloadScheduler.updateVisible(owner, visibleResourceNames);
+	}
+
+	/**
+	 * Cancel all downloads of the given owner that have not started yet. The cancelled resources are unregistered, so
+	 * they will be downloaded again if they are requested later on.
+	 */
+	public void cancelPendingDownloads(Object owner) {
+		cancelPendingDownloads(owner, Long.MAX_VALUE);
+	}
+
+	/**
+	 * @return a mark to {@link #cancelPendingDownloads(Object, long) cancel} only the downloads that haven't been
+	 *         requested again since, e.g. to keep the downloads that a new listing shares with the one it replaces
+	 */
+	public static long markDownloads() {
+		return ResourceDownloadScheduler.mark();
+	}
+
+	/**
+	 * Cancel the downloads of the given owner that have not started yet and that were last requested before the given
+	 * {@link #markDownloads() mark}.
+	 */
+	public void cancelPendingDownloads(Object owner, long mark) {
+		if (owner == null) {
+			return;
+		}
+		List<DownloadRequest> cancelled = downloadScheduler.cancel(owner, mark);
+		for (DownloadRequest request : cancelled) {
+			ResourceFuture resourceFuture;
+			synchronized (this) {
+				resourceFuture = resources.get(request.getResourceName());
+				if (resourceFuture != null && !resourceFuture.isDone()) {
+					resources.remove(request.getResourceName());
+				} else {
+					resourceFuture = null;
+				}
+			}
+			if (resourceFuture != null) {
+				resourceFuture.cancel(false);
+			}
 		}
-		return resourceFuture;
 	}
 
 	public void dispose() {
+		downloadScheduler.dispose();
+		if (cache != null) {
+			cache.save();
+		}
 		File dir;
 		synchronized (this) {
 			dir = this.dir;
@@ -346,48 +559,43 @@ public class ResourceProvider {
 		}
 	}
 
+	/**
+	 * Pass the given resource to the receiver once it is available. If it is still being downloaded, the fallback
+	 * resource is provided right away. On completion, the resource is {@link ResourceReceiver#processResource(URL)
+	 * processed} on the downloading thread. If this was called on the display thread, the receiver then gets the
+	 * result on the display thread, together with all other receivers whose downloads completed in the meantime.
+	 */
 	public <T> void provideResource(final ResourceReceiver<T> receiver, final String resourcePath, T fallbackResource) {
 		final ResourceFuture resource = getResource(resourcePath);
 		if (resource != null) {
 			if (resource.isDone()) {
-				setResource(receiver, resourcePath, resource);
+				setResource(receiver, resource.getLocalURL(), Runnable::run);
 				return;
 			}
 			if (fallbackResource != null) {
 				receiver.setResource(fallbackResource);
 			}
-			new Job(Messages.ResourceProvider_waitingForDownload) {
-
-				{
-					setPriority(INTERACTIVE);
-					setUser(false);
-					setSystem(true);
-				}
-
-				@Override
-				protected IStatus run(IProgressMonitor monitor) {
-					return setResource(receiver, resourcePath, resource);
-				}
-			}.schedule();
+			Display display = Display.getCurrent();
+			Executor executor = display == null ? Runnable::run : getDisplayExecutor(display);
+			resource.toCompletionStage().thenAccept(url -> setResource(receiver, url, executor));
 		} else if (fallbackResource != null) {
 			receiver.setResource(fallbackResource);
 		}
 	}
 
-	private <T> IStatus setResource(final ResourceReceiver<T> receiver, final String resourcePath,
-			final ResourceFuture resource) {
-		try {
-			URL resourceUrl = resource.get();
-			if (resourceUrl != null) {
-				T processedResource = receiver.processResource(resourceUrl);
-				receiver.setResource(processedResource);
-			}
-		} catch (InterruptedException e) {
-			return Status.CANCEL_STATUS;
-		} catch (ExecutionException e) {
-			// already logged during download
+	private synchronized DisplayBatchExecutor getDisplayExecutor(Display display) {
+		if (displayExecutor == null || displayExecutor.getDisplay() != display) {
+			displayExecutor = new DisplayBatchExecutor(display);
+		}
+		return displayExecutor;
+	}
+
+	private static <T> void setResource(final ResourceReceiver<T> receiver, final URL resourceUrl,
+			Executor executor) {
+		if (resourceUrl != null) {
+			T processedResource = receiver.processResource(resourceUrl);
+			executor.execute(() -> receiver.setResource(processedResource));
 		}
-		return Status.OK_STATUS;
 	}
 
 }
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.internal.mpc.ui.catalog;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.epp.internal.mpc.core.service.NodeTokenizer;
+import org.eclipse.epp.mpc.core.model.INode;
+import org.eclipse.equinox.internal.p2.discovery.model.CatalogItem;
+
+/**
+ * The words of a search query, for matching already retrieved nodes on the client. Queries and nodes are split into
+ * words by the {@link NodeTokenizer}, like in the local node index, and a node matches if each term is the start of
+ * one of its words. This only approximates the server side search, so it is meant for narrowing down results the
+ * server already returned, not for finding new ones.
+ */
+public final class SearchTerms {
+
+	private static final SearchTerms EMPTY = new SearchTerms(Collections.emptyList());
+
+	private final List<String> terms;
+
+	private SearchTerms(List<String> terms) {
+		this.terms = terms;
+	}
+
+	public static SearchTerms parse(String queryText) {
+		if (queryText == null) {
+			return EMPTY;
+		}
+		List<String> terms = new ArrayList<>(NodeTokenizer.tokenize(queryText, new LinkedHashSet<>()));
+		return terms.isEmpty() ? EMPTY : new SearchTerms(Collections.unmodifiableList(terms));
+	}
+
+	public List<String> getTerms() {
+		return terms;
+	}
+
+	public boolean isEmpty() {
+		return terms.isEmpty();
+	}
+
+	/**
+	 * @return true if every term of the other query is also part of this query, i.e. this query is at least as
+	 *         narrow as the other one
+	 */
+	public boolean refines(SearchTerms other) {
+		return terms.containsAll(other.terms);
+	}
+
+	public boolean matches(INode node) {
+		return terms.isEmpty() || NodeTokenizer.matchesAll(NodeTokenizer.tokens(node), terms);
+	}
+
+	public boolean matches(CatalogItem item) {
+		if (item.getData() instanceof INode) {
+			return matches((INode) item.getData());
+		}
+		if (terms.isEmpty()) {
+			return true;
+		}
+		Set<String> tokens = NodeTokenizer.tokenize(item.getName(), new LinkedHashSet<>());
+		NodeTokenizer.tokenize(item.getDescription(), tokens);
+		return NodeTokenizer.matchesAll(tokens, terms);
+	}
+
+	@Override
+	public String toString() {
+		return String.join(" ", terms); //$NON-NLS-1$
+	}
+}
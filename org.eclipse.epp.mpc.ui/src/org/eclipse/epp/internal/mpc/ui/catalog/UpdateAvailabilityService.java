@@ -0,0 +1,598 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.internal.mpc.ui.catalog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.ListenerList;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.epp.internal.mpc.core.util.TransportFactory;
+import org.eclipse.epp.internal.mpc.ui.MarketplaceClientUi;
+import org.eclipse.epp.internal.mpc.ui.catalog.UpdateSiteProbe.ProbeResult;
+import org.eclipse.epp.internal.mpc.ui.catalog.UpdateSiteProbe.Validator;
+import org.eclipse.epp.internal.mpc.ui.operations.RepositoryTransactionHelper;
+import org.eclipse.epp.internal.mpc.ui.util.ConcurrentTaskManager;
+import org.eclipse.equinox.internal.p2.engine.ProfileEvent;
+import org.eclipse.equinox.internal.provisional.p2.core.eventbus.IProvisioningEventBus;
+import org.eclipse.equinox.internal.provisional.p2.core.eventbus.ProvisioningListener;
+import org.eclipse.equinox.p2.core.IProvisioningAgent;
+import org.eclipse.equinox.p2.core.ProvisionException;
+import org.eclipse.equinox.p2.metadata.IInstallableUnit;
+import org.eclipse.equinox.p2.metadata.Version;
+import org.eclipse.equinox.p2.query.IQuery;
+import org.eclipse.equinox.p2.query.IQueryResult;
+import org.eclipse.equinox.p2.query.QueryUtil;
+import org.eclipse.equinox.p2.repository.artifact.IArtifactRepositoryManager;
+import org.eclipse.equinox.p2.repository.metadata.IMetadataRepository;
+import org.eclipse.equinox.p2.repository.metadata.IMetadataRepositoryManager;
+import org.eclipse.equinox.p2.ui.ProvisioningUI;
+
+/**
+ * Knows which feature versions the update sites of installed marketplace entries provide. Site contents are
+ * retrieved in the background, cached for a while and persisted across sessions. Listeners are notified whenever the
+ * known contents change, so views can re-evaluate update availability without querying the sites themselves.
+ */
+public class UpdateAvailabilityService {
+
+	/**
+	 * Time after which the contents of an update site are retrieved again
+	 */
+	public static final long DEFAULT_TTL = TimeUnit.HOURS.toMillis(6);
+
+	private static final String STATE_DIR = "updates"; //$NON-NLS-1$
+
+	private static final String STATE_FILE = "sites.properties"; //$NON-NLS-1$
+
+	private static final String SITE_PREFIX = "site."; //$NON-NLS-1$
+
+	private static final String IU_PREFIX = "iu."; //$NON-NLS-1$
+
+	private static final String VALIDATORS_PREFIX = "check."; //$NON-NLS-1$
+
+	private static final char IU_SEPARATOR = '!';
+
+	private static final String FIELD_SEPARATOR = "\t"; //$NON-NLS-1$
+
+	private static final String RECORD_SEPARATOR = "\n"; //$NON-NLS-1$
+
+	private static final long SAVE_DELAY = TimeUnit.SECONDS.toMillis(2);
+
+	private static UpdateAvailabilityService instance;
+
+	/**
+	 * The highest feature group versions an update site provides
+	 */
+	public static final class SiteIndex {
+
+		private final long timestamp;
+
+		private final Map<String, Version> versions;
+
+		private final List<Validator> validators;
+
+		private final boolean failed;
+
+		SiteIndex(long timestamp, Map<String, Version> versions, List<Validator> validators, boolean failed) {
+			this.timestamp = timestamp;
+			this.versions = Collections.unmodifiableMap(versions);
+			this.validators = Collections.unmodifiableList(validators);
+			this.failed = failed;
+		}
+
+		public long getTimestamp() {
+			return timestamp;
+		}
+
+		/**
+		 * @return true if the site could not be read
+		 */
+		public boolean isFailed() {
+			return failed;
+		}
+
+		/**
+		 * @return the highest available version of the given IU or null if the site doesn't provide it
+		 */
+		public Version getVersion(String iuId) {
+			return versions.get(iuId);
+		}
+
+		public Map<String, Version> getVersions() {
+			return versions;
+		}
+
+		/**
+		 * @return the validators of the site's metadata files, used to find out if the site changed
+		 */
+		public List<Validator> getValidators() {
+			return validators;
+		}
+	}
+
+	private final Map<String, SiteIndex> sites = new ConcurrentHashMap<>();
+
+	private final ListenerList<Runnable> listeners = new ListenerList<>();
+
+	private final Set<URI> pendingSites = new LinkedHashSet<>();
+
+	private final AtomicLong installationStamp = new AtomicLong();
+
+	private final File stateFile;
+
+	private final long ttl;
+
+	private final Job saveJob;
+
+	private final Job refreshJob;
+
+	private IProvisioningEventBus eventBus;
+
+	private ProvisioningListener profileListener;
+
+	public UpdateAvailabilityService(File stateFile, long ttl) {
+		this.stateFile = stateFile;
+		this.ttl = ttl;
+		this.saveJob = new Job(Messages.UpdateAvailabilityService_saving) {
+
+			{
+				setSystem(true);
+				setPriority(DECORATE);
+			}
+
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				save();
+				return Status.OK_STATUS;
+			}
+		};
+		this.refreshJob = new Job(Messages.MarketplaceCatalog_checkingForUpdates) {
+
+			{
+				setSystem(true);
+				setPriority(LONG);
+			}
+
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				List<URI> uris;
+				synchronized (pendingSites) {
+					uris = new ArrayList<>(pendingSites);
+					pendingSites.clear();
+				}
+				if (!uris.isEmpty()) {
+					refresh(uris, monitor);
+				}
+				return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+			}
+		};
+		load();
+	}
+
+	public static synchronized UpdateAvailabilityService getInstance() {
+		if (instance == null) {
+			File stateDirectory = MarketplaceInfo.computeStateDirectory(STATE_DIR);
+			instance = new UpdateAvailabilityService(
+					stateDirectory == null ? null : new File(stateDirectory, STATE_FILE), DEFAULT_TTL);
+			instance.listenToProfileChanges();
+		}
+		return instance;
+	}
+
+	public static synchronized void disposeInstance() {
+		if (instance != null) {
+			instance.dispose();
+			instance = null;
+		}
+	}
+
+	/**
+	 * @return the known contents of the given site, or null if they are unknown or outdated
+	 */
+	public SiteIndex getSiteIndex(String site) {
+		if (site == null) {
+			return null;
+		}
+		SiteIndex index = sites.get(site);
+		if (index == null || System.currentTimeMillis() - index.getTimestamp() >= ttl) {
+			return null;
+		}
+		return index;
+	}
+
+	public void putSiteIndex(String site, Map<String, Version> versions) {
+		putSiteIndex(site, versions, Collections.emptyList());
+	}
+
+	public void putSiteIndex(String site, Map<String, Version> versions, List<Validator> validators) {
+		sites.put(site, new SiteIndex(System.currentTimeMillis(), new HashMap<>(versions),
+				new ArrayList<>(validators), false));
+		saveJob.schedule(SAVE_DELAY);
+	}
+
+	void putFailedSite(String site) {
+		// remembered so we don't retry on every query, but not persisted
+		sites.put(site,
+				new SiteIndex(System.currentTimeMillis(), Collections.emptyMap(), Collections.emptyList(), true));
+	}
+
+	/**
+	 * @return a number that changes whenever the installation changes, so clients know when to compare the available
+	 *         versions against the installed units again
+	 */
+	public long getInstallationStamp() {
+		return installationStamp.get();
+	}
+
+	/**
+	 * Notify listeners that the installed units changed. The site contents stay valid, only the comparison against the
+	 * installation has to be computed again.
+	 */
+	public void installationChanged() {
+		installationStamp.incrementAndGet();
+		fireChanged();
+	}
+
+	/**
+	 * Forget all known site contents.
+	 */
+	public void invalidate() {
+		sites.clear();
+		saveJob.schedule(SAVE_DELAY);
+		fireChanged();
+	}
+
+	public void addChangeListener(Runnable listener) {
+		listeners.add(listener);
+	}
+
+	public void removeChangeListener(Runnable listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Retrieve the contents of the given sites in the background. Listeners are notified once they are known.
+	 */
+	public void scheduleRefresh(Collection<URI> sites) {
+		boolean added = false;
+		synchronized (pendingSites) {
+			for (URI site : sites) {
+				if (getSiteIndex(site.toString()) == null) {
+					added |= pendingSites.add(site);
+				}
+			}
+		}
+		if (added) {
+			refreshJob.schedule();
+		}
+	}
+
+	/**
+	 * Retrieve the contents of the given sites and wait for them. Sites are {@link UpdateSiteProbe probed} through
+	 * their metadata files, only sites the probe doesn't understand are loaded through p2.
+	 */
+	public IStatus refresh(Collection<URI> uris, final IProgressMonitor monitor) {
+		if (uris.isEmpty()) {
+			return Status.OK_STATUS;
+		}
+		long start = System.currentTimeMillis();
+		try {
+			List<URI> unsupported = probe(uris, monitor);
+			if (unsupported.isEmpty() || monitor.isCanceled()) {
+				return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+			}
+			return load(unsupported, monitor);
+		} catch (CoreException e) {
+			MarketplaceClientUi.error(e);
+			return e.getStatus();
+		} finally {
+			if (!monitor.isCanceled()) {
+				// sites that didn't yield any contents must not be scheduled again by the listeners right away
+				for (URI uri : uris) {
+					SiteIndex index = sites.get(uri.toString());
+					if (index == null || index.getTimestamp() < start) {
+						putFailedSite(uri.toString());
+					}
+				}
+				fireChanged();
+			}
+		}
+	}
+
+	protected UpdateSiteProbe createProbe() {
+		return new UpdateSiteProbe(TransportFactory.createTransport());
+	}
+
+	/**
+	 * @return the sites that have to be loaded through p2 instead
+	 */
+	private List<URI> probe(Collection<URI> uris, IProgressMonitor monitor) throws CoreException {
+		ConcurrentTaskManager executor = new ConcurrentTaskManager(uris.size(),
+				Messages.MarketplaceCatalog_checkingForUpdates);
+		List<URI> unsupported = Collections.synchronizedList(new ArrayList<>());
+		UpdateSiteProbe probe = createProbe();
+		IProgressMonitor pm = linkedMonitor(monitor);
+		try {
+			for (final URI uri : uris) {
+				executor.submit(() -> {
+					String site = uri.toString();
+					SiteIndex previous = sites.get(site);
+					try {
+						ProbeResult result = probe.probe(uri, previous == null ? null : previous.getValidators(), pm);
+						if (result == null) {
+							unsupported.add(uri);
+						} else if (result.isNotModified()) {
+							putSiteIndex(site, previous.getVersions(), previous.getValidators());
+						} else {
+							putSiteIndex(site, result.getVersions(), result.getValidators());
+						}
+					} catch (IOException | CoreException e) {
+						putFailedSite(site);
+						MarketplaceClientUi.log(IStatus.WARNING,
+								Messages.UpdateAvailabilityService_ErrorReadingRepository, uri, e);
+					} catch (OperationCanceledException e) {
+						// nothing to do
+					}
+				});
+			}
+			executor.waitUntilFinished(monitor);
+		} finally {
+			executor.shutdownNow();
+		}
+		return new ArrayList<>(unsupported);
+	}
+
+	/**
+	 * Fully load the given sites through p2
+	 */
+	private IStatus load(Collection<URI> uris, final IProgressMonitor monitor) {
+		ConcurrentTaskManager executor = new ConcurrentTaskManager(uris.size(),
+				Messages.MarketplaceCatalog_checkingForUpdates);
+
+		IProvisioningAgent agent = ProvisioningUI.getDefaultUI().getSession().getProvisioningAgent();
+		IMetadataRepositoryManager metadataRepositoryManager = (IMetadataRepositoryManager) agent
+				.getService(IMetadataRepositoryManager.SERVICE_NAME);
+		IArtifactRepositoryManager artifactRepositoryManager = (IArtifactRepositoryManager) agent
+				.getService(IArtifactRepositoryManager.SERVICE_NAME);
+
+		try (RepositoryTransactionHelper repositories = new RepositoryTransactionHelper(metadataRepositoryManager,
+				artifactRepositoryManager)) {
+			final IProgressMonitor pm = linkedMonitor(monitor);
+			for (final URI uri : uris) {
+				//bug 560062 - add both artifact and metadata repo in case something breaks before we can clean up
+				repositories.addRepository(uri);
+
+				executor.submit(() -> {
+					try {
+						//bug 560062 - to be safe load the artifact repo as well, even though we don't need it here - and do it first because
+						//it's better to have artifact without meta than the other way around.
+						//see comments in RepositoryTransactionHelper.RepositoryTracker.init() for why we fully load artifact repos as well.
+						//TODO this needs a closer look - can we do without this without retriggering bug 560062? It's a serious performance killer...
+						artifactRepositoryManager.loadRepository(uri, pm);
+						if (pm.isCanceled()) {
+							return;
+						}
+						IMetadataRepository repository = metadataRepositoryManager.loadRepository(uri, pm);
+						if (pm.isCanceled()) {
+							return;
+						}
+
+						IQuery<IInstallableUnit> query = QueryUtil.createMatchQuery( //
+								"id ~= /*.feature.group/ && " + //$NON-NLS-1$
+								"properties['org.eclipse.equinox.p2.type.group'] == true ");//$NON-NLS-1$
+						IQueryResult<IInstallableUnit> result = repository.query(query, pm);
+
+						// compute highest version for all available IUs.
+						Map<String, Version> versions = new HashMap<>();
+						for (IInstallableUnit iu : result) {
+							Version version = iu.getVersion();
+							Version priorVersion = versions.put(iu.getId(), version);
+							if (priorVersion != null && priorVersion.compareTo(version) > 0) {
+								versions.put(iu.getId(), priorVersion);
+							}
+						}
+						putSiteIndex(uri.toString(), versions);
+					} catch (ProvisionException e) {
+						putFailedSite(uri.toString());
+						MarketplaceClientUi.log(IStatus.WARNING,
+								Messages.UpdateAvailabilityService_ErrorReadingRepository, uri, e);
+					} catch (OperationCanceledException e) {
+						// nothing to do
+					}
+				});
+			}
+			try {
+				executor.waitUntilFinished(monitor);
+			} catch (CoreException e) {
+				MarketplaceClientUi.error(e);
+				return e.getStatus();
+			}
+			return Status.OK_STATUS;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static IProgressMonitor linkedMonitor(final IProgressMonitor monitor) {
+		return new NullProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				return super.isCanceled() || monitor.isCanceled();
+			}
+		};
+	}
+
+	private void fireChanged() {
+		for (Runnable listener : listeners) {
+			try {
+				listener.run();
+			} catch (RuntimeException ex) {
+				MarketplaceClientUi.error(ex);
+			}
+		}
+	}
+
+	private void listenToProfileChanges() {
+		try {
+			IProvisioningAgent agent = ProvisioningUI.getDefaultUI().getSession().getProvisioningAgent();
+			eventBus = (IProvisioningEventBus) agent.getService(IProvisioningEventBus.SERVICE_NAME);
+		} catch (RuntimeException e) {
+			MarketplaceClientUi.error(e);
+			eventBus = null;
+		}
+		if (eventBus != null) {
+			profileListener = event -> {
+				if (event instanceof ProfileEvent && ((ProfileEvent) event).getReason() == ProfileEvent.CHANGED) {
+					installationChanged();
+				}
+			};
+			eventBus.addListener(profileListener);
+		}
+	}
+
+	void dispose() {
+		if (eventBus != null && profileListener != null) {
+			eventBus.removeListener(profileListener);
+		}
+		eventBus = null;
+		profileListener = null;
+		refreshJob.cancel();
+		if (saveJob.cancel()) {
+			save();
+		}
+	}
+
+	private void load() {
+		if (stateFile == null || !stateFile.isFile()) {
+			return;
+		}
+		Properties properties = new Properties();
+		try (InputStream in = Files.newInputStream(stateFile.toPath())) {
+			properties.load(in);
+		} catch (IOException | IllegalArgumentException e) {
+			MarketplaceClientUi.log(IStatus.WARNING, Messages.UpdateAvailabilityService_loadError, stateFile, e);
+			return;
+		}
+		Map<String, Long> timestamps = new HashMap<>();
+		Map<String, Map<String, Version>> versionsBySite = new HashMap<>();
+		Map<String, List<Validator>> validatorsBySite = new HashMap<>();
+		for (String key : properties.stringPropertyNames()) {
+			String value = properties.getProperty(key);
+			try {
+				if (key.startsWith(SITE_PREFIX)) {
+					timestamps.put(key.substring(SITE_PREFIX.length()), Long.parseLong(value));
+				} else if (key.startsWith(IU_PREFIX)) {
+					int separator = key.lastIndexOf(IU_SEPARATOR);
+					if (separator > IU_PREFIX.length()) {
+						String site = key.substring(IU_PREFIX.length(), separator);
+						versionsBySite.computeIfAbsent(site, s -> new HashMap<>())
+						.put(key.substring(separator + 1), Version.create(value));
+					}
+				} else if (key.startsWith(VALIDATORS_PREFIX)) {
+					validatorsBySite.put(key.substring(VALIDATORS_PREFIX.length()), decodeValidators(value));
+				}
+			} catch (IllegalArgumentException e) {
+				// skip broken entry
+			}
+		}
+		for (Map.Entry<String, Long> site : timestamps.entrySet()) {
+			Map<String, Version> versions = versionsBySite.get(site.getKey());
+			List<Validator> validators = validatorsBySite.get(site.getKey());
+			sites.put(site.getKey(), new SiteIndex(site.getValue(),
+					versions == null ? Collections.emptyMap() : versions,
+							validators == null ? Collections.emptyList() : validators, false));
+		}
+	}
+
+	/**
+	 * Persist the known site contents. Contents of sites that could not be read are not persisted.
+	 */
+	public synchronized void save() {
+		if (stateFile == null) {
+			return;
+		}
+		Properties properties = new Properties();
+		for (Map.Entry<String, SiteIndex> site : sites.entrySet()) {
+			SiteIndex index = site.getValue();
+			if (index.isFailed()) {
+				continue;
+			}
+			properties.setProperty(SITE_PREFIX + site.getKey(), Long.toString(index.getTimestamp()));
+			for (Map.Entry<String, Version> iu : index.getVersions().entrySet()) {
+				properties.setProperty(IU_PREFIX + site.getKey() + IU_SEPARATOR + iu.getKey(),
+						iu.getValue().toString());
+			}
+			if (!index.getValidators().isEmpty()) {
+				properties.setProperty(VALIDATORS_PREFIX + site.getKey(), encodeValidators(index.getValidators()));
+			}
+		}
+		try {
+			File tempFile = new File(stateFile.getParentFile(), stateFile.getName() + ".tmp"); //$NON-NLS-1$
+			try (OutputStream out = Files.newOutputStream(tempFile.toPath())) {
+				properties.store(out, null);
+			}
+			Files.move(tempFile.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			MarketplaceClientUi.log(IStatus.WARNING, Messages.UpdateAvailabilityService_saveError, stateFile, e);
+		}
+	}
+
+	private static String encodeValidators(List<Validator> validators) {
+		StringBuilder encoded = new StringBuilder();
+		for (Validator validator : validators) {
+			if (encoded.length() > 0) {
+				encoded.append(RECORD_SEPARATOR);
+			}
+			encoded.append(validator.getLocation()).append(FIELD_SEPARATOR);
+			encoded.append(validator.getTimestamp() == null ? "" : validator.getTimestamp()).append(FIELD_SEPARATOR); //$NON-NLS-1$
+			encoded.append(validator.getEtag() == null ? "" : validator.getEtag()).append(FIELD_SEPARATOR); //$NON-NLS-1$
+			encoded.append(validator.getLastModified() == null ? "" : validator.getLastModified()); //$NON-NLS-1$
+		}
+		return encoded.toString();
+	}
+
+	private static List<Validator> decodeValidators(String encoded) {
+		List<Validator> validators = new ArrayList<>();
+		for (String record : encoded.split(RECORD_SEPARATOR)) {
+			String[] fields = record.split(FIELD_SEPARATOR, -1);
+			if (fields.length == 4 && !fields[0].isEmpty()) {
+				validators.add(new Validator(fields[0], fields[1].isEmpty() ? null : fields[1],
+						fields[2].isEmpty() ? null : fields[2], fields[3].isEmpty() ? null : fields[3]));
+			}
+		}
+		return validators;
+	}
+}
@@ -0,0 +1,509 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.internal.mpc.ui.catalog;
+
+import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.epp.internal.mpc.core.util.IConditionalTransport;
+import org.eclipse.epp.internal.mpc.core.util.IConditionalTransport.ConditionalResponse;
+import org.eclipse.epp.mpc.core.service.ITransport;
+import org.eclipse.equinox.p2.metadata.Version;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Determines the highest feature group versions an update site provides by streaming its p2 metadata index,
+ * without loading the repository through p2. Only the metadata files are retrieved, artifact repositories are never
+ * touched. Previously retrieved files are revalidated by their repository timestamp (the {@code p2.timestamp} property
+ * in the repository header): a changed file is only read up to its header, and the site is unchanged if all
+ * timestamps still match. Where the server supports it, the HTTP validators of the files are sent along, so an
+ * unchanged file doesn't even need to be transferred.
+ * <p>
+ * Only plain and jar-compressed metadata over http(s) is understood. For anything else {@link #probe} returns null
+ * and the caller has to load the repository through p2 instead.
+ */
+public class UpdateSiteProbe {
+
+	private static final String P2_INDEX = "p2.index"; //$NON-NLS-1$
+
+	private static final String METADATA_ORDER_PROPERTY = "metadata.repository.factory.order"; //$NON-NLS-1$
+
+	private static final String SIMPLE_METADATA = "content.xml"; //$NON-NLS-1$
+
+	private static final String COMPOSITE_METADATA = "compositeContent.xml"; //$NON-NLS-1$
+
+	private static final String STOP_MARKER = "!"; //$NON-NLS-1$
+
+	private static final String FEATURE_GROUP_SUFFIX = ".feature.group"; //$NON-NLS-1$
+
+	private static final String GROUP_PROPERTY = "org.eclipse.equinox.p2.type.group"; //$NON-NLS-1$
+
+	private static final String TIMESTAMP_PROPERTY = "p2.timestamp"; //$NON-NLS-1$
+
+	private static final int MAX_COMPOSITE_DEPTH = 8;
+
+	private static final SAXParserFactory parserFactory;
+
+	static {
+		parserFactory = SAXParserFactory.newInstance();
+		parserFactory.setNamespaceAware(false);
+		parserFactory.setValidating(false);
+		setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+		setFeature("http://xml.org/sax/features/external-general-entities", false); //$NON-NLS-1$
+		setFeature("http://xml.org/sax/features/external-parameter-entities", false); //$NON-NLS-1$
+		setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false); //$NON-NLS-1$
+	}
+
+	/**
+	 * Repository timestamp and HTTP validators of a retrieved metadata file
+	 */
+	public static final class Validator {
+
+		private final String location;
+
+		private final String timestamp;
+
+		private final String etag;
+
+		private final String lastModified;
+
+		public Validator(String location, String timestamp, String etag, String lastModified) {
+			this.location = location;
+			this.timestamp = timestamp;
+			this.etag = etag;
+			this.lastModified = lastModified;
+		}
+
+		public String getLocation() {
+			return location;
+		}
+
+		/**
+		 * @return the file's {@code p2.timestamp} repository property, or null if it doesn't have one
+		 */
+		public String getTimestamp() {
+			return timestamp;
+		}
+
+		public String getEtag() {
+			return etag;
+		}
+
+		public String getLastModified() {
+			return lastModified;
+		}
+
+		boolean canRevalidate() {
+			return timestamp != null || etag != null || lastModified != null;
+		}
+	}
+
+	/**
+	 * Outcome of a successful probe
+	 */
+	public static final class ProbeResult {
+
+		private final Map<String, Version> versions;
+
+		private final List<Validator> validators;
+
+		ProbeResult(Map<String, Version> versions, List<Validator> validators) {
+			this.versions = versions;
+			this.validators = Collections.unmodifiableList(validators);
+		}
+
+		/**
+		 * @return true if the site didn't change since the previous probe
+		 */
+		public boolean isNotModified() {
+			return versions == null;
+		}
+
+		/**
+		 * @return the highest available version of each feature group, or null if {@link #isNotModified() not
+		 *         modified}
+		 */
+		public Map<String, Version> getVersions() {
+			return versions;
+		}
+
+		public List<Validator> getValidators() {
+			return validators;
+		}
+	}
+
+	private final ITransport transport;
+
+	public UpdateSiteProbe(ITransport transport) {
+		this.transport = transport;
+	}
+
+	/**
+	 * @param previous
+	 *            the validators of the previous probe of this site, or null
+	 * @return the site contents, or null if the site format is not supported
+	 * @throws IOException
+	 *             if the site could not be read
+	 * @throws CoreException
+	 *             if the site could not be read
+	 */
+	public ProbeResult probe(URI site, List<Validator> previous, IProgressMonitor monitor)
+			throws IOException, CoreException {
+		if (!isSupported(site)) {
+			return null;
+		}
+		if (previous != null && !previous.isEmpty() && isUnchanged(previous, monitor)) {
+			return new ProbeResult(null, previous);
+		}
+		Map<String, Version> versions = new HashMap<>();
+		List<Validator> validators = new ArrayList<>();
+		if (!probeRepository(site, versions, validators, new HashSet<>(), 0, monitor)) {
+			return null;
+		}
+		return new ProbeResult(versions, validators);
+	}
+
+	private static boolean isSupported(URI site) {
+		String scheme = site.getScheme();
+		return "http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme); //$NON-NLS-1$//$NON-NLS-2$
+	}
+
+	private boolean isUnchanged(List<Validator> previous, IProgressMonitor monitor) {
+		for (Validator validator : previous) {
+			checkCanceled(monitor);
+			if (!validator.canRevalidate()) {
+				return false;
+			}
+			try {
+				if (!isUnchanged(validator, monitor)) {
+					return false;
+				}
+			} catch (IOException | CoreException | IllegalArgumentException e) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isUnchanged(Validator validator, IProgressMonitor monitor) throws IOException, CoreException {
+		URI file = URI.create(validator.getLocation());
+		if (transport instanceof IConditionalTransport) {
+			try (ConditionalResponse response = ((IConditionalTransport) transport).stream(file,
+					validator.getEtag(), validator.getLastModified(), monitor)) {
+				if (response.isNotModified()) {
+					return true;
+				}
+				return validator.getTimestamp() != null
+						&& validator.getTimestamp().equals(readTimestamp(file, response.getContent()));
+			}
+		}
+		if (validator.getTimestamp() == null) {
+			return false;
+		}
+		try (InputStream in = transport.stream(file, monitor)) {
+			return validator.getTimestamp().equals(readTimestamp(file, in));
+		}
+	}
+
+	/**
+	 * Read the given metadata file only up to the end of its repository properties
+	 *
+	 * @return the file's repository timestamp, or null if it doesn't have one
+	 */
+	private static String readTimestamp(URI file, InputStream in) throws IOException {
+		RepositoryHandler handler = new RepositoryHandler(true);
+		parse(file, in, handler);
+		return handler.timestamp;
+	}
+
+	private boolean probeRepository(URI location, Map<String, Version> versions, List<Validator> validators,
+			Set<URI> visited, int depth, IProgressMonitor monitor) throws IOException, CoreException {
+		URI base = asDirectory(location);
+		if (depth > MAX_COMPOSITE_DEPTH || !visited.add(base)) {
+			// cyclic or absurdly nested composite - nothing more to find here
+			return true;
+		}
+		if (!isSupported(base)) {
+			return false;
+		}
+		for (String candidate : getMetadataCandidates(base, monitor)) {
+			checkCanceled(monitor);
+			URI file = base.resolve(candidate);
+			RepositoryHandler handler = new RepositoryHandler(false);
+			Validator validator;
+			try {
+				validator = read(file, handler, monitor);
+			} catch (FileNotFoundException e) {
+				continue;
+			}
+			validators.add(validator);
+			for (Map.Entry<String, Version> available : handler.versions.entrySet()) {
+				versions.merge(available.getKey(), available.getValue(),
+						(v1, v2) -> v1.compareTo(v2) >= 0 ? v1 : v2);
+			}
+			for (String child : handler.children) {
+				URI childLocation;
+				try {
+					childLocation = base.resolve(child);
+				} catch (IllegalArgumentException e) {
+					return false;
+				}
+				if (!probeRepository(childLocation, versions, validators, visited, depth + 1, monitor)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return the metadata files to try in order, following the site's p2.index if it has one
+	 */
+	private List<String> getMetadataCandidates(URI base, IProgressMonitor monitor) throws IOException, CoreException {
+		Properties index = new Properties();
+		try (InputStream in = transport.stream(base.resolve(P2_INDEX), monitor)) {
+			index.load(in);
+		} catch (FileNotFoundException e) {
+			// no index - use the default order
+		}
+		String order = index.getProperty(METADATA_ORDER_PROPERTY);
+		if (order == null) {
+			return Arrays.asList("content.jar", SIMPLE_METADATA, "compositeContent.jar", COMPOSITE_METADATA); //$NON-NLS-1$//$NON-NLS-2$
+		}
+		List<String> candidates = new ArrayList<>();
+		for (String factory : order.split(",")) { //$NON-NLS-1$
+			factory = factory.trim();
+			if (STOP_MARKER.equals(factory)) {
+				break;
+			}
+			if (SIMPLE_METADATA.equals(factory) || COMPOSITE_METADATA.equals(factory)) {
+				candidates.add(toJarName(factory));
+				candidates.add(factory);
+			}
+			// other formats (e.g. xz) are left to p2
+		}
+		return candidates;
+	}
+
+	private Validator read(URI file, RepositoryHandler handler, IProgressMonitor monitor)
+			throws IOException, CoreException {
+		String etag = null;
+		String lastModified = null;
+		InputStream content;
+		ConditionalResponse response = null;
+		if (transport instanceof IConditionalTransport) {
+			response = ((IConditionalTransport) transport).stream(file, null, null, monitor);
+			content = response.getContent();
+			etag = response.getEtag();
+			lastModified = response.getLastModified();
+		} else {
+			content = transport.stream(file, monitor);
+		}
+		try (InputStream in = content) {
+			parse(file, in, handler);
+		} finally {
+			if (response != null) {
+				response.close();
+			}
+		}
+		return new Validator(file.toString(), handler.timestamp, etag, lastModified);
+	}
+
+	private static void parse(URI file, InputStream in, RepositoryHandler handler) throws IOException {
+		String path = file.getPath();
+		if (path.endsWith(".jar")) { //$NON-NLS-1$
+			parseJar(in, toXmlName(path.substring(path.lastIndexOf('/') + 1)), handler);
+		} else {
+			parse(in, handler);
+		}
+	}
+
+	private static void parseJar(InputStream in, String entryName, RepositoryHandler handler) throws IOException {
+		ZipInputStream zip = new ZipInputStream(in);
+		for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+			if (entryName.equals(entry.getName())) {
+				parse(new FilterInputStream(zip) {
+					@Override
+					public void close() throws IOException {
+						// closed together with the jar
+					}
+				}, handler);
+				return;
+			}
+		}
+		throw new IOException(entryName);
+	}
+
+	private static void parse(InputStream in, RepositoryHandler handler) throws IOException {
+		try {
+			XMLReader reader = parserFactory.newSAXParser().getXMLReader();
+			reader.setEntityResolver((publicId, systemId) -> new InputSource(new StringReader(""))); //$NON-NLS-1$
+			reader.setContentHandler(handler);
+			reader.setErrorHandler(handler);
+			reader.parse(new InputSource(in));
+		} catch (HeaderComplete e) {
+			// only the header was requested
+		} catch (SAXException | ParserConfigurationException e) {
+			throw new IOException(e.getMessage(), e);
+		}
+	}
+
+	private static URI asDirectory(URI location) {
+		String path = location.getPath();
+		if (path == null || path.endsWith("/")) { //$NON-NLS-1$
+			return location;
+		}
+		return URI.create(location.toString() + "/"); //$NON-NLS-1$
+	}
+
+	private static String toJarName(String xmlName) {
+		return xmlName.substring(0, xmlName.length() - ".xml".length()) + ".jar"; //$NON-NLS-1$//$NON-NLS-2$
+	}
+
+	private static String toXmlName(String jarName) {
+		return jarName.substring(0, jarName.length() - ".jar".length()) + ".xml"; //$NON-NLS-1$//$NON-NLS-2$
+	}
+
+	private static void checkCanceled(IProgressMonitor monitor) {
+		if (monitor != null && monitor.isCanceled()) {
+			throw new OperationCanceledException();
+		}
+	}
+
+	private static void setFeature(String feature, boolean enablement) {
+		try {
+			parserFactory.setFeature(feature, enablement);
+		} catch (SAXException | ParserConfigurationException e) {
+			//ignore
+		}
+	}
+
+	/**
+	 * Thrown to stop parsing once the repository header has been read
+	 */
+	private static final class HeaderComplete extends SAXException {
+
+		private static final long serialVersionUID = 1L;
+	}
+
+	/**
+	 * Collects the timestamp and feature group versions of a simple repository, or the timestamp and children of a
+	 * composite repository
+	 */
+	private static class RepositoryHandler extends DefaultHandler {
+
+		private final boolean headerOnly;
+
+		private String timestamp;
+
+		private final Map<String, Version> versions = new HashMap<>();
+
+		private final List<String> children = new ArrayList<>();
+
+		private final List<String> path = new ArrayList<>();
+
+		private String unitId;
+
+		private String unitVersion;
+
+		private boolean unitIsGroup;
+
+		RepositoryHandler(boolean headerOnly) {
+			this.headerOnly = headerOnly;
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes)
+				throws SAXException {
+			String parent = path.isEmpty() ? null : path.get(path.size() - 1);
+			path.add(qName);
+			if (headerOnly && path.size() == 2 && !"properties".equals(qName)) { //$NON-NLS-1$
+				// the repository properties come first
+				throw new HeaderComplete();
+			}
+			switch (qName) {
+			case "unit": //$NON-NLS-1$
+				unitId = attributes.getValue("id"); //$NON-NLS-1$
+				unitVersion = attributes.getValue("version"); //$NON-NLS-1$
+				unitIsGroup = false;
+				break;
+			case "property": //$NON-NLS-1$
+				if ("properties".equals(parent) && path.size() == 3 //$NON-NLS-1$
+				&& TIMESTAMP_PROPERTY.equals(attributes.getValue("name"))) { //$NON-NLS-1$
+					timestamp = attributes.getValue("value"); //$NON-NLS-1$
+				} else if ("properties".equals(parent) && path.size() >= 3 //$NON-NLS-1$
+				&& "unit".equals(path.get(path.size() - 3)) //$NON-NLS-1$
+				&& GROUP_PROPERTY.equals(attributes.getValue("name"))) { //$NON-NLS-1$
+					unitIsGroup = Boolean.parseBoolean(attributes.getValue("value")); //$NON-NLS-1$
+				}
+				break;
+			case "child": //$NON-NLS-1$
+				String location = attributes.getValue("location"); //$NON-NLS-1$
+				if ("children".equals(parent) && location != null) { //$NON-NLS-1$
+					children.add(location);
+				}
+				break;
+			default:
+				break;
+			}
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) throws SAXException {
+			path.remove(path.size() - 1);
+			if (headerOnly && path.size() == 1) {
+				throw new HeaderComplete();
+			}
+			if ("unit".equals(qName)) { //$NON-NLS-1$
+				if (unitIsGroup && unitId != null && unitVersion != null && unitId.endsWith(FEATURE_GROUP_SUFFIX)) {
+					try {
+						versions.merge(unitId, Version.create(unitVersion),
+								(v1, v2) -> v1.compareTo(v2) >= 0 ? v1 : v2);
+					} catch (IllegalArgumentException e) {
+						// skip malformed version
+					}
+				}
+				unitId = null;
+				unitVersion = null;
+				unitIsGroup = false;
+			}
+		}
+	}
+}
@@ -15,7 +15,10 @@
  *******************************************************************************/
 package org.eclipse.epp.internal.mpc.ui.commands;
 
+import java.io.File;
 import java.lang.reflect.InvocationTargetException;
+import java.net.MalformedURLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -24,13 +27,18 @@ import org.eclipse.core.commands.ExecutionEvent;
 import org.eclipse.core.commands.ExecutionException;
 import org.eclipse.core.commands.IHandler;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.epp.internal.mpc.core.MarketplaceClientCore;
+import org.eclipse.epp.internal.mpc.core.service.DefaultCatalogService;
 import org.eclipse.epp.internal.mpc.ui.CatalogRegistry;
 import org.eclipse.epp.internal.mpc.ui.MarketplaceClientUi;
 import org.eclipse.epp.internal.mpc.ui.MarketplaceClientUiResources;
 import org.eclipse.epp.internal.mpc.ui.catalog.MarketplaceCatalog;
+import org.eclipse.epp.internal.mpc.ui.catalog.MarketplaceInfo;
 import org.eclipse.epp.internal.mpc.ui.catalog.ResourceProvider;
 import org.eclipse.epp.internal.mpc.ui.wizards.AbstractMarketplaceWizardDialog;
 import org.eclipse.epp.internal.mpc.ui.wizards.MarketplaceCatalogConfiguration;
@@ -53,6 +61,8 @@ import org.eclipse.ui.statushandlers.StatusManager;
  */
 public abstract class AbstractMarketplaceWizardCommand extends AbstractHandler implements IHandler {
 
+	private static final String CATALOG_CACHE_DIR = "catalogs"; //$NON-NLS-1$
+
 	private List<CatalogDescriptor> catalogDescriptors;
 
 	private CatalogDescriptor selectedCatalogDescriptor;
@@ -91,6 +101,7 @@ public abstract class AbstractMarketplaceWizardCommand extends AbstractHandler i
 		if (catalogDescriptors == null || catalogDescriptors.isEmpty()) {
 			final IStatus remoteCatalogStatus = installRemoteCatalogs();
 			configuration.getCatalogDescriptors().addAll(CatalogRegistry.getInstance().getCatalogDescriptors());
+			configuration.setFollowCatalogRegistry(true);
 			if (configuration.getCatalogDescriptors().isEmpty()) {
 				// doesn't make much sense to continue without catalogs.
 				// nothing will work and no way to recover later
@@ -159,13 +170,32 @@ public abstract class AbstractMarketplaceWizardCommand extends AbstractHandler i
 		this.selectedCatalogDescriptor = selectedCatalogDescriptor;
 	}
 
+	/**
+	 * Register the marketplace catalogs listed by the catalog service. If the catalogs of an earlier session are
+	 * cached, they are registered right away and brought up to date in the background, so the wizard doesn't have to
+	 * wait for the server.
+	 */
 	public IStatus installRemoteCatalogs() {
+		final ICatalogService catalogService = getCatalogService();
+		if (catalogService instanceof DefaultCatalogService) {
+			List<? extends ICatalog> cachedCatalogs = ((DefaultCatalogService) catalogService)
+					.listCachedCatalogs(new NullProgressMonitor());
+			if (cachedCatalogs != null && !cachedCatalogs.isEmpty()) {
+				try {
+					List<CatalogDescriptor> cachedDescriptors = installCatalogs(cachedCatalogs);
+					scheduleCatalogRefresh(catalogService, cachedDescriptors);
+					return Status.OK_STATUS;
+				} catch (MalformedURLException e) {
+					// broken cache - fall back to the server
+					MarketplaceClientUi.error(e);
+				}
+			}
+		}
 		try {
 			final AtomicReference<List<? extends ICatalog>> result = new AtomicReference<>();
 
 			PlatformUI.getWorkbench().getProgressService().busyCursorWhile(monitor -> {
 				try {
-					ICatalogService catalogService = ServiceHelper.getMarketplaceServiceLocator().getCatalogService();
 					final List<? extends ICatalog> catalogs = catalogService.listCatalogs(monitor);
 					result.set(catalogs);
 				} catch (CoreException e) {
@@ -176,35 +206,7 @@ public abstract class AbstractMarketplaceWizardCommand extends AbstractHandler i
 				}
 			});
 
-			List<? extends ICatalog> catalogs = result.get();
-			for (ICatalog catalog : catalogs) {
-				ResourceProvider resourceProvider = MarketplaceClientUiResources.getInstance().getResourceProvider();
-				String catalogName = catalog.getName();
-				String requestSource = NLS.bind(Messages.MarketplaceWizardCommand_requestCatalog, catalogName,
-						catalog.getId());
-				String catalogImageUrl = catalog.getImageUrl();
-				if (catalogImageUrl != null) {
-					try {
-						resourceProvider.retrieveResource(requestSource, catalogImageUrl);
-					} catch (Exception e) {
-						MarketplaceClientUi.log(IStatus.WARNING,
-								Messages.MarketplaceWizardCommand_FailedRetrievingCatalogImage, catalogName,
-								catalogImageUrl, e);
-					}
-				}
-				if (catalog.getBranding() != null && catalog.getBranding().getWizardIcon() != null) {
-					String wizardIconUrl = catalog.getBranding().getWizardIcon();
-					try {
-						resourceProvider.retrieveResource(requestSource, wizardIconUrl);
-					} catch (Exception e) {
-						MarketplaceClientUi.log(IStatus.WARNING,
-								Messages.MarketplaceWizardCommand_FailedRetrievingCatalogWizardIcon, catalogName,
-								wizardIconUrl, e);
-					}
-				}
-				CatalogDescriptor descriptor = new CatalogDescriptor(catalog);
-				registerOrOverrideCatalog(descriptor);
-			}
+			installCatalogs(result.get());
 		} catch (InterruptedException ie) {
 			if (ie.getMessage() == null || "".equals(ie.getMessage())) {
 				InterruptedException ie1 = new InterruptedException("Operation cancelled");
@@ -224,6 +226,117 @@ public abstract class AbstractMarketplaceWizardCommand extends AbstractHandler i
 		return Status.OK_STATUS;
 	}
 
+	private static ICatalogService getCatalogService() {
+		ICatalogService catalogService = ServiceHelper.getMarketplaceServiceLocator().getCatalogService();
+		if (catalogService instanceof DefaultCatalogService) {
+			DefaultCatalogService defaultCatalogService = (DefaultCatalogService) catalogService;
+			if (defaultCatalogService.getCacheDirectory() == null) {
+				File cacheDirectory = MarketplaceInfo.computeStateDirectory(CATALOG_CACHE_DIR);
+				defaultCatalogService.setCacheDirectory(cacheDirectory);
+			}
+		}
+		return catalogService;
+	}
+
+	private List<CatalogDescriptor> installCatalogs(List<? extends ICatalog> catalogs) throws MalformedURLException {
+		List<CatalogDescriptor> descriptors = new ArrayList<>();
+		for (ICatalog catalog : catalogs) {
+			retrieveCatalogImages(catalog);
+			CatalogDescriptor descriptor = new CatalogDescriptor(catalog);
+			registerOrOverrideCatalog(descriptor);
+			descriptors.add(descriptor);
+		}
+		return descriptors;
+	}
+
+	private static void retrieveCatalogImages(ICatalog catalog) {
+		ResourceProvider resourceProvider = MarketplaceClientUiResources.getInstance().getResourceProvider();
+		String catalogName = catalog.getName();
+		String requestSource = NLS.bind(Messages.MarketplaceWizardCommand_requestCatalog, catalogName,
+				catalog.getId());
+		String catalogImageUrl = catalog.getImageUrl();
+		if (catalogImageUrl != null) {
+			try {
+				resourceProvider.retrieveResource(requestSource, catalogImageUrl);
+			} catch (Exception e) {
+				MarketplaceClientUi.log(IStatus.WARNING,
+						Messages.MarketplaceWizardCommand_FailedRetrievingCatalogImage, catalogName,
+						catalogImageUrl, e);
+			}
+		}
+		if (catalog.getBranding() != null && catalog.getBranding().getWizardIcon() != null) {
+			String wizardIconUrl = catalog.getBranding().getWizardIcon();
+			try {
+				resourceProvider.retrieveResource(requestSource, wizardIconUrl);
+			} catch (Exception e) {
+				MarketplaceClientUi.log(IStatus.WARNING,
+						Messages.MarketplaceWizardCommand_FailedRetrievingCatalogWizardIcon, catalogName,
+						wizardIconUrl, e);
+			}
+		}
+	}
+
+	/**
+	 * List the catalogs from the server in the background and apply any changes to the {@link CatalogRegistry}. This
+	 * also updates the cached catalogs for the next session.
+	 */
+	private static void scheduleCatalogRefresh(final ICatalogService catalogService,
+			final List<CatalogDescriptor> cachedDescriptors) {
+		Job refreshJob = new Job(Messages.MarketplaceWizardCommand_refreshingCatalogs) {
+
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				final List<CatalogDescriptor> descriptors = new ArrayList<>();
+				try {
+					List<? extends ICatalog> catalogs = catalogService.listCatalogs(monitor);
+					for (ICatalog catalog : catalogs) {
+						retrieveCatalogImages(catalog);
+						descriptors.add(new CatalogDescriptor(catalog));
+					}
+				} catch (CoreException e) {
+					if (e.getStatus().getSeverity() == IStatus.CANCEL) {
+						return Status.CANCEL_STATUS;
+					}
+					// keep working with the cached catalogs
+					MarketplaceClientUi.handle(MarketplaceClientCore.computeStatus(e,
+							Messages.MarketplaceWizardCommand_CannotInstallRemoteLocations), StatusManager.LOG);
+					return Status.OK_STATUS;
+				} catch (MalformedURLException e) {
+					MarketplaceClientUi.handle(MarketplaceClientCore.computeStatus(e,
+							Messages.MarketplaceWizardCommand_CannotInstallRemoteLocations), StatusManager.LOG);
+					return Status.OK_STATUS;
+				}
+				if (descriptors.isEmpty() || !PlatformUI.isWorkbenchRunning()) {
+					return Status.OK_STATUS;
+				}
+				PlatformUI.getWorkbench().getDisplay().asyncExec(() -> updateCatalogs(descriptors, cachedDescriptors));
+				return Status.OK_STATUS;
+			}
+		};
+		refreshJob.setSystem(true);
+		refreshJob.setPriority(Job.LONG);
+		refreshJob.schedule();
+	}
+
+	/**
+	 * Bring the registered catalogs in line with the catalogs listed by the server. Catalogs that are still listed are
+	 * updated in place, new ones are added and catalogs that were only registered from the cache are removed. If such
+	 * a catalog replaced one contributed through the extension point, the contributed one is restored.
+	 */
+	private static void updateCatalogs(List<CatalogDescriptor> descriptors, List<CatalogDescriptor> cachedDescriptors) {
+		CatalogRegistry catalogRegistry = CatalogRegistry.getInstance();
+		for (CatalogDescriptor descriptor : descriptors) {
+			if (!catalogRegistry.update(descriptor)) {
+				catalogRegistry.register(descriptor);
+			}
+		}
+		for (CatalogDescriptor cachedDescriptor : cachedDescriptors) {
+			if (!descriptors.contains(cachedDescriptor)) {
+				catalogRegistry.unregisterOverride(cachedDescriptor);
+			}
+		}
+	}
+
 	private void registerOrOverrideCatalog(CatalogDescriptor descriptor) {
 		CatalogRegistry catalogRegistry = CatalogRegistry.getInstance();
 		List<CatalogDescriptor> descriptors = catalogRegistry.getCatalogDescriptors();
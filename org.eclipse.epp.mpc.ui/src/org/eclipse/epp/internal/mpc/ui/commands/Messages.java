@@ -36,6 +36,8 @@ class Messages extends NLS {
 
 	public static String MarketplaceWizardCommand_noRemoteCatalogs;
 
+	public static String MarketplaceWizardCommand_refreshingCatalogs;
+
 	public static String MarketplaceWizardCommand_requestCatalog;
 	static {
 		// initialize resource bundle
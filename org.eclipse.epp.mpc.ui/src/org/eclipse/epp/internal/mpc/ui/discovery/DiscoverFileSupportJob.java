@@ -26,7 +26,6 @@ import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.epp.internal.mpc.ui.MarketplaceClientUi;
 import org.eclipse.epp.internal.mpc.ui.Messages;
 import org.eclipse.epp.mpc.core.model.INode;
-import org.eclipse.epp.mpc.core.model.ISearchResult;
 import org.eclipse.epp.mpc.core.model.ITag;
 import org.eclipse.epp.mpc.core.service.IMarketplaceService;
 import org.eclipse.epp.mpc.core.service.IMarketplaceServiceLocator;
@@ -82,8 +81,17 @@ final class DiscoverFileSupportJob extends Job {
 
 		final List<? extends INode> nodes;
 		try {
-			ISearchResult searchResult = marketplaceService.tagged(fileExtensionTags, monitor);
-			nodes = orderNodesByTagSubExtensionCount(searchResult.getNodes(), fileExtensionTags);
+			Map<String, List<INode>> nodesByTag = TagLookupService.getInstance()
+					.lookup(marketplaceService, fileExtensionTags, monitor);
+			List<INode> foundNodes = new ArrayList<>();
+			for (List<INode> tagNodes : nodesByTag.values()) {
+				for (INode node : tagNodes) {
+					if (!foundNodes.contains(node)) {
+						foundNodes.add(node);
+					}
+				}
+			}
+			nodes = orderNodesByTagSubExtensionCount(foundNodes, fileExtensionTags);
 		} catch (Exception ex) {
 			IStatus status = new Status(IStatus.ERROR, MarketplaceClientUi.BUNDLE_ID,
 					NLS.bind(Messages.DiscoverFileSupportJob_discoveryFailed, getFileExtensionLabel(fileName)), ex);
@@ -12,8 +12,13 @@
  *******************************************************************************/
 package org.eclipse.epp.internal.mpc.ui.discovery;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -23,7 +28,6 @@ import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.epp.internal.mpc.ui.MarketplaceClientUi;
 import org.eclipse.epp.internal.mpc.ui.Messages;
 import org.eclipse.epp.mpc.core.model.INode;
-import org.eclipse.epp.mpc.core.model.ISearchResult;
 import org.eclipse.epp.mpc.core.service.IMarketplaceService;
 import org.eclipse.epp.mpc.core.service.IMarketplaceServiceLocator;
 import org.eclipse.osgi.util.NLS;
@@ -31,42 +35,79 @@ import org.osgi.framework.BundleContext;
 import org.osgi.framework.FrameworkUtil;
 import org.osgi.framework.ServiceReference;
 
+/**
+ * Looks up the marketplace entries for a batch of natures. Natures can be added until the job starts running, so the
+ * natures of many projects opened at once are looked up together.
+ */
 final class DiscoverNatureSupportJob extends Job {
-	private final String natureId;
 
-	private List<? extends INode> nodes;
+	private static final String NATURE_TAG_PREFIX = "nature_"; //$NON-NLS-1$
 
-	DiscoverNatureSupportJob(String natureId) {
-		super(NLS.bind(Messages.MissingNatureDetector_jobName, natureId));
-		this.natureId = natureId;
+	private final Set<String> natureIds = new LinkedHashSet<>();
+
+	private boolean started;
+
+	private final Map<String, Collection<INode>> candidates = new LinkedHashMap<>();
+
+	DiscoverNatureSupportJob() {
+		super(NLS.bind(Messages.MissingNatureDetector_jobName, "")); //$NON-NLS-1$
+	}
+
+	/**
+	 * Add a nature to look up
+	 *
+	 * @return false if the job has already started and the nature needs to be looked up by another job
+	 */
+	synchronized boolean addNature(String natureId) {
+		if (started) {
+			return false;
+		}
+		natureIds.add(natureId);
+		setName(NLS.bind(Messages.MissingNatureDetector_jobName, String.join(", ", natureIds))); //$NON-NLS-1$
+		return true;
 	}
 
 	@Override
 	protected IStatus run(IProgressMonitor monitor) {
+		List<String> tags = new ArrayList<>();
+		synchronized (this) {
+			started = true;
+			for (String natureId : natureIds) {
+				tags.add(NATURE_TAG_PREFIX + natureId);
+			}
+		}
+		if (tags.isEmpty()) {
+			return Status.OK_STATUS;
+		}
 		BundleContext bundleContext = FrameworkUtil.getBundle(this.getClass()).getBundleContext();
 		ServiceReference<IMarketplaceServiceLocator> locatorReference = bundleContext
 				.getServiceReference(IMarketplaceServiceLocator.class);
 		IMarketplaceServiceLocator locator = bundleContext.getService(locatorReference);
-		IMarketplaceService marketplaceService = locator.getDefaultMarketplaceService();
-		String fileExtensionTag = "nature_" + natureId; //$NON-NLS-1$]
 		try {
-			ISearchResult searchResult = marketplaceService.tagged(fileExtensionTag, monitor);
-			nodes = searchResult.getNodes();
+			IMarketplaceService marketplaceService = locator.getDefaultMarketplaceService();
+			Map<String, List<INode>> nodesByTag = TagLookupService.getInstance()
+					.lookup(marketplaceService, tags, monitor);
+			synchronized (this) {
+				for (Map.Entry<String, List<INode>> entry : nodesByTag.entrySet()) {
+					candidates.put(entry.getKey().substring(NATURE_TAG_PREFIX.length()), entry.getValue());
+				}
+			}
 		} catch (CoreException ex) {
 			IStatus status = new Status(IStatus.ERROR, MarketplaceClientUi.BUNDLE_ID,
-					NLS.bind(Messages.LookupByNatureJob_discoveryFailed, natureId), ex);
+					NLS.bind(Messages.LookupByNatureJob_discoveryFailed, String.join(", ", natureIds)), ex); //$NON-NLS-1$
 			MarketplaceClientUi.getLog().log(status);
 			// Do not return this status as it would show an error
 			return Status.CANCEL_STATUS;
+		} finally {
+			bundleContext.ungetService(locatorReference);
 		}
 		return Status.OK_STATUS;
 	}
 
-	public Collection<INode> getCandidates() {
-		return (List<INode>) this.nodes;
-	}
-
-	public String getNatureId() {
-		return natureId;
+	/**
+	 * @return the entries found for each nature id, natures without entries are omitted
+	 */
+	public synchronized Map<String, Collection<INode>> getCandidates() {
+		return new LinkedHashMap<>(candidates);
 	}
-}
\ No newline at end of file
+}
@@ -40,12 +40,22 @@ public class MissingNatureDetector implements IStartup, IPropertyChangeListener
 
 	public static final String ENABLEMENT_PROPERTY = "org.eclipse.epp.mpc.naturelookup"; //$NON-NLS-1$
 
+	/**
+	 * Time to wait for more projects to be opened before looking up their natures
+	 */
+	private static final long LOOKUP_DELAY = 1000;
+
 	private JobGroup allJobs;
 
 	private final Set<String> detectedNatures = new HashSet<>();
 
 	private final Set<DiscoverNatureSupportJob> lookupJobs = new HashSet<>();
 
+	/**
+	 * The lookup job that still accepts more natures, or null
+	 */
+	private DiscoverNatureSupportJob pendingLookupJob;
+
 	private final IResourceChangeListener projectOpenListener = event -> {
 		if (event.getDelta() == null) {
 			return;
@@ -73,25 +83,30 @@ public class MissingNatureDetector implements IStartup, IPropertyChangeListener
 
 	private void triggerNatureLookup(final String natureId) {
 		synchronized (lookupJobs) {
-			if (detectedNatures.contains(natureId)) {
+			if (!detectedNatures.add(natureId)) {
 				return;
-			} else {
-				DiscoverNatureSupportJob mpcJob = new DiscoverNatureSupportJob(natureId);
-				mpcJob.setSystem(false);
-				mpcJob.setUser(false);
-				mpcJob.setJobGroup(allJobs);
-				mpcJob.addJobChangeListener(new JobChangeAdapter() {
-					@Override
-					public void done(IJobChangeEvent event) {
-						showProposalsIfReady();
-					}
-				});
-				lookupJobs.add(mpcJob);
-				//schedule() needs to happen inside synchronized(...).
-				//Otherwise it's not guaranteed that allJobs.getActiveJobs() will consider it,
-				//and we might end up with processing unfinished jobs in showProposalsIfReady()
-				mpcJob.schedule();
 			}
+			if (pendingLookupJob != null && pendingLookupJob.addNature(natureId)) {
+				return;
+			}
+			DiscoverNatureSupportJob mpcJob = new DiscoverNatureSupportJob();
+			mpcJob.addNature(natureId);
+			mpcJob.setSystem(false);
+			mpcJob.setUser(false);
+			mpcJob.setJobGroup(allJobs);
+			mpcJob.addJobChangeListener(new JobChangeAdapter() {
+				@Override
+				public void done(IJobChangeEvent event) {
+					showProposalsIfReady();
+				}
+			});
+			lookupJobs.add(mpcJob);
+			pendingLookupJob = mpcJob;
+			//schedule() needs to happen inside synchronized(...).
+			//Otherwise it's not guaranteed that allJobs.getActiveJobs() will consider it,
+			//and we might end up with processing unfinished jobs in showProposalsIfReady()
+			//The delay collects the natures of all projects opened at about the same time into one lookup.
+			mpcJob.schedule(LOOKUP_DELAY);
 		}
 	}
 
@@ -103,12 +118,10 @@ public class MissingNatureDetector implements IStartup, IPropertyChangeListener
 			}
 			candidates = new HashMap<>();
 			for (DiscoverNatureSupportJob lookupJob : lookupJobs) {
-				Collection<INode> entryCandidates = lookupJob.getCandidates();
-				if (entryCandidates != null && !entryCandidates.isEmpty()) {
-					candidates.put(lookupJob.getNatureId(), entryCandidates);
-				}
+				candidates.putAll(lookupJob.getCandidates());
 			}
 			lookupJobs.clear();
+			pendingLookupJob = null;
 		}
 		if (!candidates.isEmpty()) {
 			new ShowNatureProposalsJob(candidates).schedule();
@@ -0,0 +1,394 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.internal.mpc.ui.discovery;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.epp.internal.mpc.core.model.Marketplace;
+import org.eclipse.epp.internal.mpc.core.model.Node;
+import org.eclipse.epp.internal.mpc.core.service.MarketplaceUnmarshaller;
+import org.eclipse.epp.internal.mpc.core.util.IConditionalTransport;
+import org.eclipse.epp.internal.mpc.core.util.IConditionalTransport.ConditionalResponse;
+import org.eclipse.epp.internal.mpc.core.util.TransportFactory;
+import org.eclipse.epp.internal.mpc.ui.MarketplaceClientUi;
+import org.eclipse.epp.internal.mpc.ui.Messages;
+import org.eclipse.epp.mpc.core.model.INode;
+import org.eclipse.epp.mpc.core.model.ITag;
+import org.eclipse.epp.mpc.core.service.IMarketplaceUnmarshaller;
+import org.eclipse.epp.mpc.core.service.ITransport;
+import org.eclipse.epp.mpc.core.service.ServiceHelper;
+
+/**
+ * A local copy of all marketplace entries tagged with a file extension or nature tag, so proposals for unknown files
+ * and projects can be made without asking the server, or without any network access at all.
+ * <p>
+ * The index is a marketplace listing in the usual XML format, with a node element for every tagged entry. It is
+ * downloaded from a configurable location and refreshed in the background once it is older than the refresh
+ * interval. On machines without network access, the index file can also be provided in the state directory. It is
+ * read again when it changes.
+ * <p>
+ * An index only describes the marketplace its entries come from. It is used for a marketplace if the urls of all its
+ * entries are below that marketplace's base url, other marketplaces are queried as usual.
+ *
+ * @see MarketplaceClientUi#getTagIndexUrl()
+ */
+public class TagIndex {
+
+	/**
+	 * Time after which the index is downloaded again
+	 */
+	public static final long DEFAULT_REFRESH_INTERVAL = TimeUnit.DAYS.toMillis(1);
+
+	/**
+	 * The tag families covered by the index
+	 */
+	static final String[] TAG_PREFIXES = { "fileExtension_", "nature_" }; //$NON-NLS-1$ //$NON-NLS-2$
+
+	static final String INDEX_FILE = "tagindex.xml"; //$NON-NLS-1$
+
+	private static final String STATE_FILE = "tagindex.properties"; //$NON-NLS-1$
+
+	private static final String TIMESTAMP = "timestamp"; //$NON-NLS-1$
+
+	private static final String SOURCE = "source"; //$NON-NLS-1$
+
+	private static final String ETAG = "etag"; //$NON-NLS-1$
+
+	private static final String LAST_MODIFIED = "lastModified"; //$NON-NLS-1$
+
+	private final File indexFile;
+
+	private final File stateFile;
+
+	private final URI source;
+
+	private final long refreshInterval;
+
+	/**
+	 * The indexed entries by tag, along with the urls of all entries
+	 */
+	static final class Contents {
+
+		private final Map<String, List<INode>> nodesByTag;
+
+		private final Set<String> nodeUrls;
+
+		private final Map<String, Boolean> marketplaces = new ConcurrentHashMap<>();
+
+		Contents(Map<String, List<INode>> nodesByTag, Set<String> nodeUrls) {
+			this.nodesByTag = nodesByTag;
+			this.nodeUrls = nodeUrls;
+		}
+
+		boolean isFrom(String marketplace) {
+			return marketplaces.computeIfAbsent(marketplace, m -> {
+				String prefix = normalizeUrl(m.endsWith("/") ? m : m + "/"); //$NON-NLS-1$ //$NON-NLS-2$
+				return !nodeUrls.isEmpty() && nodeUrls.stream().allMatch(url -> url.startsWith(prefix));
+			});
+		}
+	}
+
+	private final Job refreshJob;
+
+	private volatile Contents contents;
+
+	private long indexModified;
+
+	private long timestamp;
+
+	private String etag;
+
+	private String lastModified;
+
+	/**
+	 * @param directory
+	 *            the directory holding the local copy of the index
+	 * @param source
+	 *            the location to download the index from, or null to only use a local copy
+	 */
+	public TagIndex(File directory, URI source, long refreshInterval) {
+		this.indexFile = new File(directory, INDEX_FILE);
+		this.stateFile = new File(directory, STATE_FILE);
+		this.source = source;
+		this.refreshInterval = refreshInterval;
+		this.refreshJob = new Job(Messages.TagIndex_refreshing) {
+
+			{
+				setSystem(true);
+				setPriority(DECORATE);
+			}
+
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				refresh(monitor);
+				return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+			}
+		};
+		load();
+	}
+
+	/**
+	 * @return true if the index holds the entries of the marketplace with the given base url, so it can be used to
+	 *         answer lookups for that marketplace
+	 */
+	public boolean isFor(String marketplace) {
+		Contents index = contents;
+		return index != null && marketplace != null && index.isFrom(marketplace);
+	}
+
+	/**
+	 * @return true if the index knows whether there are entries for the given tag. Tags of the indexed families that
+	 *         don't appear in the index have no entries.
+	 * @see #isFor(String)
+	 */
+	public boolean covers(String tag) {
+		return contents != null && isIndexedTag(tag);
+	}
+
+	/**
+	 * @return the entries for the given tag, or an empty list if there are none or the tag is not
+	 *         {@link #covers(String) covered}
+	 */
+	public List<INode> getNodes(String tag) {
+		Contents index = contents;
+		if (index == null) {
+			return Collections.emptyList();
+		}
+		List<INode> nodes = index.nodesByTag.get(tag);
+		return nodes == null ? Collections.emptyList() : nodes;
+	}
+
+	/**
+	 * Download the index again in the background if it is outdated. Without a download location, a changed local copy
+	 * is read again.
+	 */
+	public synchronized void refreshIfStale() {
+		if (source == null ? indexFile.lastModified() != indexModified
+				: System.currentTimeMillis() - timestamp >= refreshInterval) {
+			refreshJob.schedule();
+		}
+	}
+
+	public void dispose() {
+		refreshJob.cancel();
+	}
+
+	/**
+	 * Download the index if it changed since it was last retrieved. A failed download is logged and keeps the
+	 * current index. Without a download location, the local copy is read again if it changed.
+	 */
+	public IStatus refresh(IProgressMonitor monitor) {
+		if (source == null) {
+			return reloadLocalCopy(monitor);
+		}
+		File tempFile = new File(indexFile.getParentFile(), indexFile.getName() + ".tmp"); //$NON-NLS-1$
+		try {
+			String newEtag = null;
+			String newLastModified = null;
+			ITransport transport = "file".equals(source.getScheme()) ? null : TransportFactory.createTransport(); //$NON-NLS-1$
+			if (transport instanceof IConditionalTransport) {
+				String currentEtag;
+				String currentLastModified;
+				synchronized (this) {
+					boolean known = contents != null;
+					currentEtag = known ? etag : null;
+					currentLastModified = known ? lastModified : null;
+				}
+				try (ConditionalResponse response = ((IConditionalTransport) transport).stream(source, currentEtag,
+						currentLastModified, monitor)) {
+					if (response.isNotModified()) {
+						updateState(System.currentTimeMillis(), currentEtag, currentLastModified);
+						return Status.OK_STATUS;
+					}
+					Files.copy(response.getContent(), tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+					newEtag = response.getEtag();
+					newLastModified = response.getLastModified();
+				}
+			} else {
+				try (InputStream in = transport == null ? Files.newInputStream(Paths.get(source))
+						: transport.stream(source, monitor)) {
+					Files.copy(in, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				}
+			}
+			Contents index = read(tempFile, monitor);
+			Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			synchronized (this) {
+				contents = index;
+				indexModified = indexFile.lastModified();
+			}
+			updateState(System.currentTimeMillis(), newEtag, newLastModified);
+			return Status.OK_STATUS;
+		} catch (IOException | CoreException e) {
+			return logRefreshError(e);
+		} finally {
+			tempFile.delete();
+		}
+	}
+
+	private IStatus reloadLocalCopy(IProgressMonitor monitor) {
+		long modified = indexFile.lastModified();
+		synchronized (this) {
+			if (modified == indexModified) {
+				return Status.OK_STATUS;
+			}
+			indexModified = modified;
+		}
+		if (modified == 0) {
+			contents = null;
+			return Status.OK_STATUS;
+		}
+		try {
+			contents = read(indexFile, monitor);
+			return Status.OK_STATUS;
+		} catch (IOException | CoreException e) {
+			IStatus status = MarketplaceClientUi.newStatus(IStatus.WARNING, Messages.TagIndex_loadError, indexFile, e);
+			MarketplaceClientUi.getLog().log(status);
+			return status;
+		}
+	}
+
+	private IStatus logRefreshError(Exception e) {
+		// try again on the next lookup after the refresh interval, don't retry on every lookup while offline
+		updateState(System.currentTimeMillis(), etag, lastModified);
+		IStatus status = MarketplaceClientUi.newStatus(IStatus.WARNING, Messages.TagIndex_downloadError, source, e);
+		MarketplaceClientUi.getLog().log(status);
+		return status;
+	}
+
+	private synchronized void updateState(long timestamp, String etag, String lastModified) {
+		this.timestamp = timestamp;
+		this.etag = etag;
+		this.lastModified = lastModified;
+		Properties properties = new Properties();
+		properties.setProperty(TIMESTAMP, Long.toString(timestamp));
+		if (source != null) {
+			properties.setProperty(SOURCE, source.toString());
+		}
+		if (etag != null) {
+			properties.setProperty(ETAG, etag);
+		}
+		if (lastModified != null) {
+			properties.setProperty(LAST_MODIFIED, lastModified);
+		}
+		try (OutputStream out = Files.newOutputStream(stateFile.toPath())) {
+			properties.store(out, null);
+		} catch (IOException e) {
+			MarketplaceClientUi.log(IStatus.WARNING, Messages.TagIndex_saveError, stateFile, e);
+		}
+	}
+
+	private synchronized void load() {
+		if (stateFile.isFile()) {
+			Properties properties = new Properties();
+			try (InputStream in = Files.newInputStream(stateFile.toPath())) {
+				properties.load(in);
+				// a changed download location invalidates the validators
+				if (source != null && source.toString().equals(properties.getProperty(SOURCE))) {
+					timestamp = Long.parseLong(properties.getProperty(TIMESTAMP, "0")); //$NON-NLS-1$
+					etag = properties.getProperty(ETAG);
+					lastModified = properties.getProperty(LAST_MODIFIED);
+				}
+			} catch (IOException | IllegalArgumentException e) {
+				MarketplaceClientUi.log(IStatus.WARNING, Messages.TagIndex_loadError, stateFile, e);
+			}
+		}
+		if (indexFile.isFile()) {
+			indexModified = indexFile.lastModified();
+			try {
+				contents = read(indexFile, null);
+			} catch (IOException | CoreException e) {
+				MarketplaceClientUi.log(IStatus.WARNING, Messages.TagIndex_loadError, indexFile, e);
+				timestamp = 0;
+			}
+		}
+	}
+
+	static Contents read(File file, IProgressMonitor monitor) throws IOException, CoreException {
+		IMarketplaceUnmarshaller unmarshaller = ServiceHelper.getMarketplaceUnmarshaller();
+		if (unmarshaller == null) {
+			unmarshaller = new MarketplaceUnmarshaller();
+		}
+		Marketplace marketplace;
+		try (InputStream in = Files.newInputStream(file.toPath())) {
+			marketplace = unmarshaller.unmarshal(in, Marketplace.class, monitor);
+		}
+		List<Node> nodes = new ArrayList<>(marketplace.getNode());
+		if (marketplace.getSearch() != null) {
+			nodes.addAll(marketplace.getSearch().getNode());
+		}
+		return index(nodes);
+	}
+
+	static Contents index(List<? extends INode> nodes) {
+		Map<String, List<INode>> index = new HashMap<>();
+		Set<String> urls = new LinkedHashSet<>();
+		for (INode node : nodes) {
+			if (node.getUrl() != null) {
+				urls.add(normalizeUrl(node.getUrl()));
+			}
+			if (node.getTags() == null || node.getTags().getTags() == null) {
+				continue;
+			}
+			for (ITag tag : node.getTags().getTags()) {
+				String name = tag.getName();
+				if (name != null && isIndexedTag(name)) {
+					List<INode> tagNodes = index.computeIfAbsent(name, t -> new ArrayList<>());
+					if (!tagNodes.contains(node)) {
+						tagNodes.add(node);
+					}
+				}
+			}
+		}
+		return new Contents(index, urls);
+	}
+
+	/**
+	 * Drop the scheme, so entries listed with http urls still match a marketplace accessed over https
+	 */
+	private static String normalizeUrl(String url) {
+		int schemeEnd = url.indexOf("://"); //$NON-NLS-1$
+		return (schemeEnd == -1 ? url : url.substring(schemeEnd + 3)).toLowerCase(Locale.ROOT);
+	}
+
+	static boolean isIndexedTag(String tag) {
+		for (String prefix : TAG_PREFIXES) {
+			if (tag.startsWith(prefix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
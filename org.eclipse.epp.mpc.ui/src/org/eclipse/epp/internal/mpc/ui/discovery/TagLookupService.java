@@ -0,0 +1,360 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.internal.mpc.ui.discovery;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.epp.internal.mpc.ui.MarketplaceClientUi;
+import org.eclipse.epp.internal.mpc.ui.Messages;
+import org.eclipse.epp.internal.mpc.ui.catalog.MarketplaceInfo;
+import org.eclipse.epp.mpc.core.model.INode;
+import org.eclipse.epp.mpc.core.model.ISearchResult;
+import org.eclipse.epp.mpc.core.model.ITag;
+import org.eclipse.epp.mpc.core.service.IMarketplaceService;
+import org.eclipse.epp.mpc.core.service.QueryHelper;
+
+/**
+ * Looks up the marketplace entries for nature and file extension tags. Several tags are sent in one request, and the
+ * entries found for each tag are remembered across sessions for a while. Tags without any entries are remembered as
+ * well, so they aren't queried again every time a project or file of that kind is opened.
+ */
+public class TagLookupService {
+
+	/**
+	 * Time after which the entries for a tag are looked up again
+	 */
+	public static final long DEFAULT_TTL = TimeUnit.DAYS.toMillis(7);
+
+	/**
+	 * Maximum number of tags sent in a single request, to keep the query url reasonably short
+	 */
+	static final int MAX_TAGS_PER_REQUEST = 20;
+
+	private static final String STATE_DIR = "taglookup"; //$NON-NLS-1$
+
+	private static final String STATE_FILE = "tags.properties"; //$NON-NLS-1$
+
+	private static final String KEY_SEPARATOR = "|"; //$NON-NLS-1$
+
+	private static final String VALUE_SEPARATOR = ";"; //$NON-NLS-1$
+
+	private static final String NODE_SEPARATOR = ","; //$NON-NLS-1$
+
+	private static final long SAVE_DELAY = TimeUnit.SECONDS.toMillis(2);
+
+	private static TagLookupService instance;
+
+	private static final class Entry {
+
+		private final long timestamp;
+
+		private final List<String> nodeIds;
+
+		Entry(long timestamp, List<String> nodeIds) {
+			this.timestamp = timestamp;
+			this.nodeIds = nodeIds;
+		}
+	}
+
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	private final File stateFile;
+
+	private final long ttl;
+
+	private final Job saveJob;
+
+	private final TagIndex tagIndex;
+
+	public TagLookupService(File stateFile, long ttl) {
+		this(stateFile, ttl, null);
+	}
+
+	/**
+	 * @param tagIndex
+	 *            a local index to answer lookups of the tags it covers from, or null
+	 */
+	public TagLookupService(File stateFile, long ttl, TagIndex tagIndex) {
+		this.stateFile = stateFile;
+		this.ttl = ttl;
+		this.tagIndex = tagIndex;
+		this.saveJob = new Job(Messages.TagLookupService_saving) {
+
+			{
+				setSystem(true);
+				setPriority(DECORATE);
+			}
+
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				save();
+				return Status.OK_STATUS;
+			}
+		};
+		load();
+	}
+
+	public static synchronized TagLookupService getInstance() {
+		if (instance == null) {
+			File stateDirectory = MarketplaceInfo.computeStateDirectory(STATE_DIR);
+			if (stateDirectory == null) {
+				instance = new TagLookupService(null, DEFAULT_TTL);
+			} else {
+				TagIndex tagIndex = new TagIndex(stateDirectory, MarketplaceClientUi.getTagIndexUrl(),
+						TagIndex.DEFAULT_REFRESH_INTERVAL);
+				instance = new TagLookupService(new File(stateDirectory, STATE_FILE), DEFAULT_TTL, tagIndex);
+			}
+		}
+		return instance;
+	}
+
+	public static synchronized void disposeInstance() {
+		if (instance != null) {
+			instance.dispose();
+			instance = null;
+		}
+	}
+
+	/**
+	 * Find the entries for the given tags. Tags covered by the local {@link TagIndex} are answered from it right away,
+	 * if the index {@link TagIndex#isFor(String) belongs} to the given marketplace.
+	 * Other tags that haven't been looked up recently are queried in batches of {@link #MAX_TAGS_PER_REQUEST}, the
+	 * entries of the rest are resolved by id in a single request if any are known.
+	 *
+	 * @return the entries found for each tag, in the order of the given tags. Tags without entries are omitted.
+	 */
+	public Map<String, List<INode>> lookup(IMarketplaceService marketplaceService, Collection<String> tags,
+			IProgressMonitor monitor) throws CoreException {
+		String marketplace = String.valueOf(marketplaceService.getBaseUrl());
+		Set<String> uniqueTags = new LinkedHashSet<>(tags);
+		Map<String, List<INode>> nodesByTag = new LinkedHashMap<>();
+		Map<String, List<String>> knownNodeIdsByTag = new LinkedHashMap<>();
+		List<String> unknownTags = new ArrayList<>();
+		if (tagIndex != null) {
+			tagIndex.refreshIfStale();
+		}
+		boolean useIndex = tagIndex != null && marketplaceService.getBaseUrl() != null
+				&& tagIndex.isFor(marketplace);
+		for (String tag : uniqueTags) {
+			if (useIndex && tagIndex.covers(tag)) {
+				List<INode> nodes = tagIndex.getNodes(tag);
+				if (!nodes.isEmpty()) {
+					nodesByTag.put(tag, nodes);
+				}
+				continue;
+			}
+			List<String> nodeIds = getKnownNodeIds(marketplace, tag);
+			if (nodeIds == null) {
+				unknownTags.add(tag);
+			} else if (!nodeIds.isEmpty()) {
+				knownNodeIdsByTag.put(tag, nodeIds);
+			}
+		}
+
+		int batches = (unknownTags.size() + MAX_TAGS_PER_REQUEST - 1) / MAX_TAGS_PER_REQUEST;
+		SubMonitor progress = SubMonitor.convert(monitor, batches + (knownNodeIdsByTag.isEmpty() ? 0 : 1));
+		for (int i = 0; i < unknownTags.size(); i += MAX_TAGS_PER_REQUEST) {
+			List<String> batch = unknownTags.subList(i, Math.min(i + MAX_TAGS_PER_REQUEST, unknownTags.size()));
+			ISearchResult result = marketplaceService.tagged(batch, progress.newChild(1));
+			Map<String, List<INode>> batchNodes = assignToTags(batch, result.getNodes());
+			// if the server didn't return all matches, a tag without entries might just have been cut off
+			boolean complete = result.getMatchCount() == null
+					|| result.getMatchCount() <= result.getNodes().size();
+			long timestamp = System.currentTimeMillis();
+			for (String tag : batch) {
+				List<INode> nodes = batchNodes.get(tag);
+				if (!nodes.isEmpty()) {
+					nodesByTag.put(tag, nodes);
+				}
+				if (complete || !nodes.isEmpty()) {
+					entries.put(computeKey(marketplace, tag), new Entry(timestamp, nodeIds(nodes)));
+				}
+			}
+		}
+		if (batches > 0) {
+			saveJob.schedule(SAVE_DELAY);
+		}
+
+		if (!knownNodeIdsByTag.isEmpty()) {
+			Map<String, INode> queryNodes = new LinkedHashMap<>();
+			for (List<String> nodeIds : knownNodeIdsByTag.values()) {
+				for (String nodeId : nodeIds) {
+					queryNodes.computeIfAbsent(nodeId, QueryHelper::nodeById);
+				}
+			}
+			Map<String, INode> resolvedNodes = new LinkedHashMap<>();
+			for (INode node : marketplaceService.getNodes(queryNodes.values(), progress.newChild(1))) {
+				resolvedNodes.put(node.getId(), node);
+			}
+			for (Map.Entry<String, List<String>> known : knownNodeIdsByTag.entrySet()) {
+				List<INode> nodes = new ArrayList<>();
+				for (String nodeId : known.getValue()) {
+					INode node = resolvedNodes.get(nodeId);
+					if (node != null) {
+						nodes.add(node);
+					}
+				}
+				if (!nodes.isEmpty()) {
+					nodesByTag.put(known.getKey(), nodes);
+				}
+			}
+		}
+
+		Map<String, List<INode>> orderedNodesByTag = new LinkedHashMap<>();
+		for (String tag : uniqueTags) {
+			List<INode> nodes = nodesByTag.get(tag);
+			if (nodes != null) {
+				orderedNodesByTag.put(tag, nodes);
+			}
+		}
+		return orderedNodesByTag;
+	}
+
+	/**
+	 * @return the ids of the entries remembered for the given tag, an empty list if the tag is known to have no
+	 *         entries, or null if the tag has not been looked up recently
+	 */
+	public List<String> getKnownNodeIds(String marketplace, String tag) {
+		Entry entry = entries.get(computeKey(marketplace, tag));
+		if (entry == null || System.currentTimeMillis() - entry.timestamp >= ttl) {
+			return null;
+		}
+		return entry.nodeIds;
+	}
+
+	/**
+	 * Distribute the entries found for a batch of tags to the tags they are marked with. If only one tag was queried,
+	 * all entries belong to it.
+	 */
+	static Map<String, List<INode>> assignToTags(List<String> tags, List<? extends INode> nodes) {
+		Map<String, List<INode>> nodesByTag = new LinkedHashMap<>();
+		for (String tag : tags) {
+			nodesByTag.put(tag, new ArrayList<>());
+		}
+		if (tags.size() == 1) {
+			nodesByTag.get(tags.get(0)).addAll(nodes);
+			return nodesByTag;
+		}
+		for (INode node : nodes) {
+			if (node.getTags() == null || node.getTags().getTags() == null) {
+				continue;
+			}
+			for (ITag nodeTag : node.getTags().getTags()) {
+				List<INode> tagNodes = nodesByTag.get(nodeTag.getName());
+				if (tagNodes != null && !tagNodes.contains(node)) {
+					tagNodes.add(node);
+				}
+			}
+		}
+		return nodesByTag;
+	}
+
+	private static List<String> nodeIds(List<INode> nodes) {
+		List<String> ids = new ArrayList<>(nodes.size());
+		for (INode node : nodes) {
+			if (node.getId() != null) {
+				ids.add(node.getId());
+			}
+		}
+		return ids;
+	}
+
+	private static String computeKey(String marketplace, String tag) {
+		return marketplace + KEY_SEPARATOR + tag;
+	}
+
+	public void dispose() {
+		if (tagIndex != null) {
+			tagIndex.dispose();
+		}
+		if (saveJob.cancel()) {
+			save();
+		}
+	}
+
+	private void load() {
+		if (stateFile == null || !stateFile.isFile()) {
+			return;
+		}
+		Properties properties = new Properties();
+		try (InputStream in = Files.newInputStream(stateFile.toPath())) {
+			properties.load(in);
+		} catch (IOException | IllegalArgumentException e) {
+			MarketplaceClientUi.log(IStatus.WARNING, Messages.TagLookupService_loadError, stateFile, e);
+			return;
+		}
+		for (String key : properties.stringPropertyNames()) {
+			String value = properties.getProperty(key);
+			int separator = value.indexOf(VALUE_SEPARATOR);
+			try {
+				long timestamp = Long.parseLong(separator == -1 ? value : value.substring(0, separator));
+				String nodeIds = separator == -1 ? "" : value.substring(separator + 1); //$NON-NLS-1$
+				entries.put(key, new Entry(timestamp, nodeIds.isEmpty() ? Collections.emptyList()
+						: Collections.unmodifiableList(Arrays.asList(nodeIds.split(NODE_SEPARATOR)))));
+			} catch (NumberFormatException e) {
+				// skip broken entry
+			}
+		}
+	}
+
+	/**
+	 * Persist the entries looked up so far. Outdated entries are dropped.
+	 */
+	public synchronized void save() {
+		if (stateFile == null) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		Properties properties = new Properties();
+		for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+			Entry value = entry.getValue();
+			if (now - value.timestamp >= ttl) {
+				continue;
+			}
+			properties.setProperty(entry.getKey(),
+					value.timestamp + VALUE_SEPARATOR + String.join(NODE_SEPARATOR, value.nodeIds));
+		}
+		try {
+			File tempFile = new File(stateFile.getParentFile(), stateFile.getName() + ".tmp"); //$NON-NLS-1$
+			try (OutputStream out = Files.newOutputStream(tempFile.toPath())) {
+				properties.store(out, null);
+			}
+			Files.move(tempFile.toPath(), stateFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			MarketplaceClientUi.log(IStatus.WARNING, Messages.TagLookupService_saveError, stateFile, e);
+		}
+	}
+}
@@ -17,14 +17,27 @@ import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.epp.internal.mpc.core.util.URLUtil;
+import org.eclipse.epp.internal.mpc.ui.MarketplaceClientUi;
+import org.eclipse.epp.internal.mpc.ui.util.ConcurrentTaskManager;
 import org.eclipse.equinox.internal.p2.discovery.model.CatalogItem;
 import org.eclipse.equinox.p2.core.ProvisionException;
 import org.eclipse.equinox.p2.metadata.IInstallableUnit;
@@ -37,11 +50,19 @@ import org.eclipse.equinox.p2.repository.metadata.IMetadataRepository;
 import org.eclipse.equinox.p2.repository.metadata.IMetadataRepositoryManager;
 import org.eclipse.equinox.p2.ui.ProvisioningUI;
 import org.eclipse.jface.operation.IRunnableWithProgress;
+import org.eclipse.osgi.util.NLS;
 
 public abstract class AbstractProvisioningOperation implements IRunnableWithProgress {
 
 	protected static final String P2_FEATURE_GROUP_SUFFIX = ".feature.group"; //$NON-NLS-1$
 
+	/**
+	 * Upper bound for repositories loaded at the same time
+	 */
+	private static final int MAX_CONCURRENT_REPOSITORY_LOADS = 4;
+
+	private static final long CANCEL_POLL_INTERVAL = 250;
+
 	protected final List<CatalogItem> items;
 
 	protected final ProvisioningUI provisioningUI;
@@ -85,16 +106,85 @@ public abstract class AbstractProvisioningOperation implements IRunnableWithProg
 		}
 
 		// fetch meta-data for these repositories
-		ArrayList<IMetadataRepository> repositories = new ArrayList<>();
-		monitor.setWorkRemaining(repositories.size());
+		List<URI> locations = new ArrayList<>(repositoryLocations);
+		monitor.setWorkRemaining(locations.size());
 		IMetadataRepositoryManager manager = (IMetadataRepositoryManager) session.getProvisioningAgent().getService(
 				IMetadataRepositoryManager.SERVICE_NAME);
-		for (URI uri : repositoryLocations) {
+		if (locations.size() == 1) {
 			checkCancelled(monitor);
-			IMetadataRepository repository = manager.loadRepository(uri, monitor.newChild(1));
-			repositories.add(repository);
+			List<IMetadataRepository> repositories = new ArrayList<>();
+			repositories.add(manager.loadRepository(locations.get(0), monitor.newChild(1)));
+			return repositories;
+		}
+		return loadRepositories(manager, locations, monitor);
+	}
+
+	/**
+	 * Load the given repositories concurrently. All loads are waited for, so a failing repository doesn't hide
+	 * problems with the others.
+	 *
+	 * @throws ProvisionException
+	 *             reporting every repository that could not be loaded
+	 */
+	public static List<IMetadataRepository> loadRepositories(final IMetadataRepositoryManager manager,
+			List<URI> locations, final IProgressMonitor monitor) throws ProvisionException {
+		final IProgressMonitor loadMonitor = new NullProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				return super.isCanceled() || monitor.isCanceled();
+			}
+		};
+		ConcurrentTaskManager executor = new ConcurrentTaskManager(
+				Math.min(locations.size(), MAX_CONCURRENT_REPOSITORY_LOADS),
+				Messages.AbstractProvisioningOperation_loadingRepositories);
+		try {
+			for (final URI uri : locations) {
+				executor.submit(() -> manager.loadRepository(uri, loadMonitor));
+			}
+			List<Future<?>> futures = new ArrayList<>(executor.getFutures());
+			List<IMetadataRepository> repositories = new ArrayList<>(locations.size());
+			MultiStatus errors = new MultiStatus(MarketplaceClientUi.BUNDLE_ID, 0,
+					Messages.AbstractProvisioningOperation_repositoriesFailed, null);
+			for (int i = 0; i < futures.size(); i++) {
+				URI uri = locations.get(i);
+				try {
+					repositories.add((IMetadataRepository) waitFor(futures.get(i), monitor));
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof OperationCanceledException) {
+						throw (OperationCanceledException) cause;
+					}
+					IStatus status = cause instanceof CoreException ? ((CoreException) cause).getStatus()
+							: new Status(IStatus.ERROR, MarketplaceClientUi.BUNDLE_ID, cause.getMessage(), cause);
+					errors.add(new MultiStatus(MarketplaceClientUi.BUNDLE_ID, 0, new IStatus[] { status },
+							NLS.bind(Messages.AbstractProvisioningOperation_repositoryFailed, uri), null));
+				}
+				monitor.worked(1);
+			}
+			if (!errors.isOK()) {
+				IStatus[] children = errors.getChildren();
+				throw new ProvisionException(children.length == 1 ? children[0] : errors);
+			}
+			return repositories;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static Object waitFor(Future<?> future, IProgressMonitor monitor) throws ExecutionException {
+		for (;;) {
+			if (monitor.isCanceled()) {
+				throw new OperationCanceledException();
+			}
+			try {
+				return future.get(CANCEL_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				// check for cancellation and continue waiting
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new OperationCanceledException();
+			}
 		}
-		return repositories;
 	}
 
 	/**
@@ -106,11 +196,16 @@ public abstract class AbstractProvisioningOperation implements IRunnableWithProg
 	protected List<IInstallableUnit> queryInstallableUnits(SubMonitor monitor, List<IMetadataRepository> repositories)
 			throws URISyntaxException {
 		final List<IInstallableUnit> installableUnits = new ArrayList<>();
+		final Map<URI, Set<String>> featureIdsBySite = computeFeatureIdsBySite();
 
 		monitor.setWorkRemaining(repositories.size());
 		for (final IMetadataRepository repository : repositories) {
 			checkCancelled(monitor);
-			final Set<String> installableUnitIdsThisRepository = getDescriptorIds(repository);
+			final Set<String> installableUnitIdsThisRepository = featureIdsBySite.get(repository.getLocation());
+			if (installableUnitIdsThisRepository == null) {
+				monitor.worked(1);
+				continue;
+			}
 
 			IQuery<IInstallableUnit> query = QueryUtil.createLatestQuery(QueryUtil.createIUGroupQuery());
 			IQueryResult<IInstallableUnit> result = repository.query(query, monitor.newChild(1));
@@ -125,16 +220,18 @@ public abstract class AbstractProvisioningOperation implements IRunnableWithProg
 		return installableUnits;
 	}
 
-	private Set<String> getDescriptorIds(final IMetadataRepository repository) throws URISyntaxException {
-		final Set<String> installableUnitIdsThisRepository = new HashSet<>();
-		// determine all installable units for this repository
+	/**
+	 * @return the feature ids requested from each update site
+	 */
+	private Map<URI, Set<String>> computeFeatureIdsBySite() throws URISyntaxException {
+		Map<URI, Set<String>> featureIdsBySite = new HashMap<>();
 		for (CatalogItem descriptor : items) {
-			if (descriptor.getSiteUrl() != null
-					&& repository.getLocation().equals(URLUtil.toURI(descriptor.getSiteUrl()))) {
-				installableUnitIdsThisRepository.addAll(getFeatureIds(descriptor));
+			if (descriptor.getSiteUrl() != null) {
+				URI site = URLUtil.toURI(descriptor.getSiteUrl());
+				featureIdsBySite.computeIfAbsent(site, s -> new HashSet<>()).addAll(getFeatureIds(descriptor));
 			}
 		}
-		return installableUnitIdsThisRepository;
+		return featureIdsBySite;
 	}
 
 	protected Set<String> getFeatureIds(CatalogItem descriptor) {
@@ -17,6 +17,12 @@ import org.eclipse.osgi.util.NLS;
 class Messages extends NLS {
 	private static final String BUNDLE_NAME = "org.eclipse.epp.internal.mpc.ui.operations.messages"; //$NON-NLS-1$
 
+	public static String AbstractProvisioningOperation_loadingRepositories;
+
+	public static String AbstractProvisioningOperation_repositoriesFailed;
+
+	public static String AbstractProvisioningOperation_repositoryFailed;
+
 	public static String CompositeProfileChangeOperation_ChangeRequestError;
 
 	public static String ProfileChangeOperationComputer_unknownOperation;
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.internal.mpc.ui.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.eclipse.epp.internal.mpc.ui.MarketplaceClientUi;
+import org.eclipse.swt.SWTException;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Executes tasks on the display thread. Tasks submitted from any thread before the display gets around to them are
+ * run together in a single {@link Display#asyncExec(Runnable) asyncExec} instead of one round trip per task.
+ * Tasks submitted after the display was disposed are dropped.
+ */
+public class DisplayBatchExecutor implements Executor {
+
+	private final Display display;
+
+	private final Runnable drain = this::drain;
+
+	private List<Runnable> pending = new ArrayList<>();
+
+	private boolean scheduled;
+
+	public DisplayBatchExecutor(Display display) {
+		this.display = display;
+	}
+
+	public Display getDisplay() {
+		return display;
+	}
+
+	@Override
+	public void execute(Runnable task) {
+		synchronized (this) {
+			pending.add(task);
+			if (scheduled) {
+				return;
+			}
+			scheduled = true;
+		}
+		try {
+			if (!display.isDisposed()) {
+				display.asyncExec(drain);
+				return;
+			}
+		} catch (SWTException ex) {
+			// display got disposed concurrently
+		}
+		synchronized (this) {
+			scheduled = false;
+			pending.clear();
+		}
+	}
+
+	private void drain() {
+		List<Runnable> tasks;
+		synchronized (this) {
+			tasks = pending;
+			pending = new ArrayList<>();
+			scheduled = false;
+		}
+		for (Runnable task : tasks) {
+			try {
+				task.run();
+			} catch (RuntimeException ex) {
+				MarketplaceClientUi.error(ex);
+			}
+		}
+	}
+}
@@ -0,0 +1,248 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.internal.mpc.ui.util;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.jface.resource.DeviceResourceException;
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.RGB;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Display-scoped cache of decoded and scaled images. Images are reference counted: every {@link #acquire(URL)
+ * acquired} image has to be {@link #release(Image) released} again. Released images stay in the cache and are
+ * only disposed once the least recently used ones exceed the cache capacity, or when the display is disposed.
+ * <p>
+ * All methods must be called from the display thread.
+ */
+public final class ImageCache {
+
+	private static final String DISPLAY_KEY = ImageCache.class.getName();
+
+	/**
+	 * Number of unreferenced images kept for reuse
+	 */
+	private static final int DEFAULT_CAPACITY = 256;
+
+	private static final class Key {
+
+		private final Object source;
+
+		private final int maxWidth;
+
+		private final int maxHeight;
+
+		private final RGB background;
+
+		Key(Object source, int maxWidth, int maxHeight, RGB background) {
+			this.source = source;
+			this.maxWidth = maxWidth;
+			this.maxHeight = maxHeight;
+			this.background = background;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(source, maxWidth, maxHeight, background);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return maxWidth == other.maxWidth && maxHeight == other.maxHeight && source.equals(other.source)
+					&& Objects.equals(background, other.background);
+		}
+	}
+
+	private static final class Entry {
+
+		private final Key key;
+
+		private final Image image;
+
+		private int references;
+
+		Entry(Key key, Image image) {
+			this.key = key;
+			this.image = image;
+		}
+	}
+
+	private final Display display;
+
+	private final int capacity;
+
+	private final Map<Key, Entry> entries = new HashMap<>();
+
+	private final Map<Image, Entry> imageEntries = new IdentityHashMap<>();
+
+	private final LinkedHashMap<Key, Entry> unreferenced = new LinkedHashMap<>(16, 0.75f, true);
+
+	private boolean disposed;
+
+	ImageCache(Display display, int capacity) {
+		this.display = display;
+		this.capacity = capacity;
+	}
+
+	/**
+	 * @return the cache for the given display, created on first access
+	 */
+	public static ImageCache getInstance(Display display) {
+		ImageCache cache = (ImageCache) display.getData(DISPLAY_KEY);
+		if (cache == null) {
+			cache = new ImageCache(display, DEFAULT_CAPACITY);
+			display.setData(DISPLAY_KEY, cache);
+			display.disposeExec(cache::dispose);
+		}
+		return cache;
+	}
+
+	/**
+	 * Get the decoded image for the given location.
+	 *
+	 * @return the image, which must be {@link #release(Image) released} by the caller
+	 * @throws DeviceResourceException
+	 *             if the image could not be decoded
+	 */
+	public Image acquire(URL url) throws DeviceResourceException {
+		Key key = new Key(url.toExternalForm(), -1, -1, null);
+		Entry entry = entries.get(key);
+		if (entry == null) {
+			Image image = (Image) ImageDescriptor.createFromURL(url).createResource(display);
+			entry = add(key, image);
+		}
+		return reference(entry);
+	}
+
+	/**
+	 * Get a copy of the given image that is scaled to fit the given bounds. Scaled copies are shared between all
+	 * callers asking for the same source image, size and background.
+	 *
+	 * @param background
+	 *            background color used in place of transparency, or null
+	 * @return the scaled image, which must be {@link #release(Image) released} by the caller
+	 * @see Util#scaleImage(Image, int, int, Color)
+	 */
+	public Image acquireScaled(Image source, int maxWidth, int maxHeight, RGB background) {
+		Entry sourceEntry = imageEntries.get(source);
+		// images we don't manage are identified by instance
+		Object sourceKey = sourceEntry == null ? source : sourceEntry.key;
+		Key key = new Key(sourceKey, maxWidth, maxHeight, background);
+		Entry entry = entries.get(key);
+		if (entry == null || entry.image.isDisposed()) {
+			if (entry != null) {
+				remove(entry);
+			}
+			Color backgroundColor = background == null ? null : new Color(display, background);
+			try {
+				Image scaled = Util.scaleImage(source, maxWidth, maxHeight, backgroundColor);
+				entry = add(key, scaled);
+			} finally {
+				if (backgroundColor != null) {
+					backgroundColor.dispose();
+				}
+			}
+		}
+		return reference(entry);
+	}
+
+	/**
+	 * Release an image previously obtained from this cache. Images that didn't come from this cache are ignored.
+	 */
+	public void release(Image image) {
+		if (image == null) {
+			return;
+		}
+		Entry entry = imageEntries.get(image);
+		if (entry == null || entry.references <= 0) {
+			return;
+		}
+		entry.references--;
+		if (entry.references == 0) {
+			unreferenced.put(entry.key, entry);
+			trim();
+		}
+	}
+
+	/**
+	 * @return true if the given image is managed by this cache
+	 */
+	public boolean contains(Image image) {
+		return imageEntries.containsKey(image);
+	}
+
+	private Entry add(Key key, Image image) {
+		Entry entry = new Entry(key, image);
+		entries.put(key, entry);
+		imageEntries.put(image, entry);
+		return entry;
+	}
+
+	private Image reference(Entry entry) {
+		if (entry.references++ == 0) {
+			unreferenced.remove(entry.key);
+		}
+		return entry.image;
+	}
+
+	private void trim() {
+		if (unreferenced.size() <= capacity) {
+			return;
+		}
+		List<Entry> evicted = new ArrayList<>();
+		for (Iterator<Entry> i = unreferenced.values().iterator(); i.hasNext()
+				&& unreferenced.size() - evicted.size() > capacity;) {
+			evicted.add(i.next());
+		}
+		for (Entry entry : evicted) {
+			remove(entry);
+		}
+	}
+
+	private void remove(Entry entry) {
+		entries.remove(entry.key);
+		imageEntries.remove(entry.image);
+		unreferenced.remove(entry.key);
+		if (!entry.image.isDisposed()) {
+			entry.image.dispose();
+		}
+	}
+
+	void dispose() {
+		if (disposed) {
+			return;
+		}
+		disposed = true;
+		for (Entry entry : new ArrayList<>(entries.values())) {
+			remove(entry);
+		}
+	}
+}
@@ -16,14 +16,19 @@ package org.eclipse.epp.internal.mpc.ui.wizards;
 
 import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
+import org.eclipse.epp.internal.mpc.core.util.HtmlText;
 import org.eclipse.epp.internal.mpc.core.util.TextUtil;
 import org.eclipse.epp.internal.mpc.ui.MarketplaceClientUiResources;
 import org.eclipse.epp.internal.mpc.ui.catalog.MarketplaceCatalogSource;
+import org.eclipse.epp.internal.mpc.ui.catalog.MarketplaceDiscoveryStrategy;
+import org.eclipse.epp.internal.mpc.ui.catalog.ResourceProvider;
+import org.eclipse.epp.internal.mpc.ui.catalog.ResourceProvider.Priority;
 import org.eclipse.epp.internal.mpc.ui.css.StyleHelper;
-import org.eclipse.epp.internal.mpc.ui.util.Util;
+import org.eclipse.epp.internal.mpc.ui.util.ImageCache;
 import org.eclipse.epp.internal.mpc.ui.wizards.MarketplaceDiscoveryResources.ImageReceiver;
 import org.eclipse.epp.mpc.core.model.INode;
 import org.eclipse.epp.mpc.core.model.ITag;
@@ -40,6 +45,7 @@ import org.eclipse.jface.dialogs.IDialogConstants;
 import org.eclipse.jface.layout.GridDataFactory;
 import org.eclipse.jface.layout.GridLayoutFactory;
 import org.eclipse.jface.layout.PixelConverter;
+import org.eclipse.jface.viewers.StructuredViewer;
 import org.eclipse.jface.window.ToolTip;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.SWT;
@@ -47,7 +53,6 @@ import org.eclipse.swt.SWTError;
 import org.eclipse.swt.SWTException;
 import org.eclipse.swt.accessibility.AccessibleAdapter;
 import org.eclipse.swt.accessibility.AccessibleEvent;
-import org.eclipse.swt.browser.Browser;
 import org.eclipse.swt.custom.StyleRange;
 import org.eclipse.swt.custom.StyledText;
 import org.eclipse.swt.events.PaintEvent;
@@ -155,6 +160,13 @@ public abstract class AbstractMarketplaceDiscoveryItem<T extends CatalogItem> ex
 
 	private static Boolean browserAvailable;
 
+	/**
+	 * Number of items on each side of a hovered item whose screenshots are retrieved in advance
+	 */
+	private static final int SCREENSHOT_PREFETCH_NEIGHBORS = 2;
+
+	private boolean screenshotsRequested;
+
 	private final PropertyChangeListener propertyChangeListener;
 
 	private PixelConverter pixelConverter;
@@ -202,6 +214,7 @@ public abstract class AbstractMarketplaceDiscoveryItem<T extends CatalogItem> ex
 		}
 		createContent(this);
 		createSeparator(this);
+		hookScreenshotIntent(this);
 	}
 
 	protected String getItemId() {
@@ -299,9 +312,9 @@ public abstract class AbstractMarketplaceDiscoveryItem<T extends CatalogItem> ex
 		if (descriptionText == null) {
 			descriptionText = ""; //$NON-NLS-1$
 		} else {
-			descriptionText = TextUtil.stripHtmlMarkup(descriptionText).trim();
+			// usually memoized when the item was retrieved
+			descriptionText = HtmlText.of(descriptionText).getPlainText();
 		}
-		descriptionText = descriptionText.replaceAll("(\\r\\n)|\\n|\\r|\\s{2,}", " "); //$NON-NLS-1$ //$NON-NLS-2$
 
 		String promotionLabel = null;
 		if (descriptionText.startsWith(Messages.DiscoveryItem_Promotion_Marker)) {
@@ -451,8 +464,9 @@ public abstract class AbstractMarketplaceDiscoveryItem<T extends CatalogItem> ex
 				Rectangle bounds = image.getBounds();
 				if (bounds.width < 0.8 * MAX_IMAGE_WIDTH || bounds.width > MAX_IMAGE_WIDTH
 						|| bounds.height > MAX_IMAGE_HEIGHT) {
-					final Image[] scaledImage = new Image[] {
-							Util.scaleImage(image, MAX_IMAGE_WIDTH, MAX_IMAGE_HEIGHT, background) };
+					final ImageCache imageCache = getResources().getImageCache();
+					final Image[] scaledImage = new Image[] { imageCache.acquireScaled(image, MAX_IMAGE_WIDTH,
+							MAX_IMAGE_HEIGHT, background == null ? null : background.getRGB()) };
 					if (image.getImageData().getTransparencyType() != SWT.TRANSPARENCY_NONE) {
 						//Need to repaint on background color change
 						final Image sourceImage = image;
@@ -467,19 +481,21 @@ public abstract class AbstractMarketplaceDiscoveryItem<T extends CatalogItem> ex
 										|| !lastBackground.equals(control.getBackground())))
 										|| (lastBackground == null && control.getBackground() != null)) {
 									lastBackground = control.getBackground();
-									Image newScaledImage = Util.scaleImage(sourceImage, MAX_IMAGE_WIDTH,
-											MAX_IMAGE_HEIGHT, lastBackground);
+									if (sourceImage.isDisposed()) {
+										return;
+									}
+									Image newScaledImage = imageCache.acquireScaled(sourceImage, MAX_IMAGE_WIDTH,
+											MAX_IMAGE_HEIGHT, lastBackground == null ? null : lastBackground.getRGB());
 									Image oldScaledImage = scaledImage[0];
+									scaledImage[0] = newScaledImage;
 									iconLabel.setImage(newScaledImage);
-									if (oldScaledImage != null && !oldScaledImage.isDisposed()) {
-										oldScaledImage.dispose();
-									}
+									imageCache.release(oldScaledImage);
 								}
 							}
 						});
 					}
 					image = scaledImage[0];
-					iconLabel.addDisposeListener(e -> scaledImage[0].dispose());
+					iconLabel.addDisposeListener(e -> imageCache.release(scaledImage[0]));
 				}
 				iconLabel.setImage(image);
 			} catch (SWTException e) {
@@ -515,10 +531,9 @@ public abstract class AbstractMarketplaceDiscoveryItem<T extends CatalogItem> ex
 	private synchronized boolean computeBrowserAvailable(Composite composite) {
 		if (browserAvailable == null) {
 			// SWT Snippet148: detect if a browser is available by attempting to create one
-			// SWTError is thrown if not available.
+			// SWTError is thrown if not available. The browser is kept for the first overview tooltip.
 			try {
-				Browser browser = new Browser(composite, SWT.NULL);
-				browser.dispose();
+				BrowserPool.getPool(composite.getShell()).warmUp();
 				browserAvailable = true;
 			} catch (SWTError | NoClassDefFoundError | Exception e) {
 				browserAvailable = false;
@@ -757,6 +772,92 @@ public abstract class AbstractMarketplaceDiscoveryItem<T extends CatalogItem> ex
 		// ignore
 	}
 
+	/**
+	 * Screenshots are only shown in the overview tooltip, so instead of retrieving them for the whole listing, they are
+	 * retrieved once the pointer dwells on an item. The neighbouring items are likely to be looked at next, so their
+	 * screenshots are retrieved as well, while the connection is otherwise idle.
+	 */
+	private void hookScreenshotIntent(Control control) {
+		control.addListener(SWT.MouseHover, event -> requestScreenshots());
+		if (control instanceof Composite) {
+			for (Control child : ((Composite) control).getChildren()) {
+				hookScreenshotIntent(child);
+			}
+		}
+	}
+
+	private void requestScreenshots() {
+		if (isDisposed()) {
+			return;
+		}
+		if (screenshotsRequested && !isScreenshotRequested(connector)) {
+			// the download was cancelled when the listing changed
+			screenshotsRequested = false;
+		}
+		if (screenshotsRequested) {
+			return;
+		}
+		screenshotsRequested = true;
+		requestScreenshot(connector, Priority.SCREENSHOT);
+		for (CatalogItem neighbor : getNeighbors()) {
+			requestScreenshot(neighbor, Priority.PREFETCH);
+		}
+	}
+
+	/**
+	 * @return the items shown next to this one, in display order
+	 */
+	private List<CatalogItem> getNeighbors() {
+		List<CatalogItem> neighbors = new ArrayList<>();
+		StructuredViewer listViewer = viewer == null ? null : viewer.getViewer();
+		if (listViewer instanceof VirtualControlListViewer) {
+			// the virtual list creates and hides its item controls out of order, so ask it for the element order
+			for (Object element : ((VirtualControlListViewer) listViewer).getNeighbors(connector,
+					SCREENSHOT_PREFETCH_NEIGHBORS)) {
+				if (element instanceof CatalogItem) {
+					neighbors.add((CatalogItem) element);
+				}
+			}
+			return neighbors;
+		}
+		List<Control> siblings = Arrays.asList(getParent().getChildren());
+		int index = siblings.indexOf(this);
+		int from = Math.max(0, index - SCREENSHOT_PREFETCH_NEIGHBORS);
+		int to = Math.min(siblings.size() - 1, index + SCREENSHOT_PREFETCH_NEIGHBORS);
+		for (int i = from; i <= to; i++) {
+			Control sibling = siblings.get(i);
+			if (sibling != this && sibling instanceof AbstractMarketplaceDiscoveryItem<?>) {
+				neighbors.add(((AbstractMarketplaceDiscoveryItem<?>) sibling).connector);
+			}
+		}
+		return neighbors;
+	}
+
+	private static void requestScreenshot(CatalogItem item, Priority priority) {
+		ResourceProvider resourceProvider = getScreenshotProvider(item);
+		if (resourceProvider != null) {
+			MarketplaceDiscoveryStrategy.cacheResource(resourceProvider, item, item.getOverview().getScreenshot(),
+					priority);
+		}
+	}
+
+	/**
+	 * @return true if the item's screenshot is retrieved or was retrieved already, or if it has no screenshot
+	 */
+	private static boolean isScreenshotRequested(CatalogItem item) {
+		ResourceProvider resourceProvider = getScreenshotProvider(item);
+		return resourceProvider == null || resourceProvider.containsResource(item.getOverview().getScreenshot());
+	}
+
+	private static ResourceProvider getScreenshotProvider(CatalogItem item) {
+		Overview overview = item.getOverview();
+		if (overview == null || overview.getScreenshot() == null
+				|| !(item.getSource() instanceof MarketplaceCatalogSource)) {
+			return null;
+		}
+		return ((MarketplaceCatalogSource) item.getSource()).getResourceProvider();
+	}
+
 	private void hookRecursively(Control control, Listener listener) {
 		control.addListener(SWT.Dispose, listener);
 		control.addListener(SWT.MouseHover, listener);
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.internal.mpc.ui.wizards;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.browser.Browser;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Shell;
+
+/**
+ * Keeps {@link Browser} widgets alive between tooltips of a shell. Creating a browser takes hundreds of milliseconds on
+ * some platforms, while tooltip shells are recreated every time they are shown. Released browsers are moved to a hidden
+ * shell that lives as long as the owning shell and are moved back into the next tooltip, so only the first tooltip pays
+ * for the browser.
+ * <p>
+ * Platforms that can't reparent a browser simply get a new one each time.
+ */
+public class BrowserPool {
+
+	private static final String POOL_KEY = BrowserPool.class.getName();
+
+	private static final int MAX_IDLE_BROWSERS = 2;
+
+	private final Shell parkingShell;
+
+	private final Deque<Browser> idle = new ArrayDeque<>();
+
+	protected BrowserPool(Shell shell) {
+		parkingShell = new Shell(shell, SWT.NO_TRIM);
+		// the parking shell is disposed with its parent, taking all idle browsers with it
+		parkingShell.addDisposeListener(e -> idle.clear());
+	}
+
+	/**
+	 * @return the pool of the given shell, created on first access
+	 */
+	public static BrowserPool getPool(Shell shell) {
+		BrowserPool pool = (BrowserPool) shell.getData(POOL_KEY);
+		if (pool == null || pool.parkingShell.isDisposed()) {
+			pool = new BrowserPool(shell);
+			shell.setData(POOL_KEY, pool);
+		}
+		return pool;
+	}
+
+	/**
+	 * Take an idle browser from the pool and move it into the given parent, or create a new one if there is none.
+	 */
+	public Browser acquire(Composite parent) {
+		Browser browser;
+		while ((browser = idle.poll()) != null) {
+			if (browser.isDisposed()) {
+				continue;
+			}
+			if (reparent(browser, parent)) {
+				return browser;
+			}
+			browser.dispose();
+		}
+		return new Browser(parent, SWT.NULL);
+	}
+
+	/**
+	 * Return the browser to the pool as soon as its shell is disposed, instead of disposing it with the shell.
+	 */
+	public void releaseOnDispose(Browser browser) {
+		// the shell's dispose event is sent before its children are released
+		browser.getShell().addListener(SWT.Dispose, e -> release(browser));
+	}
+
+	/**
+	 * Move the browser to the hidden parking shell for later reuse, or dispose it if the pool is full or reparenting is
+	 * not supported.
+	 */
+	public void release(Browser browser) {
+		if (browser.isDisposed()) {
+			return;
+		}
+		if (parkingShell.isDisposed() || idle.size() >= MAX_IDLE_BROWSERS || !reparent(browser, parkingShell)) {
+			browser.dispose();
+			return;
+		}
+		browser.setLayoutData(null);
+		idle.push(browser);
+	}
+
+	/**
+	 * Create a browser ahead of time so the first tooltip doesn't have to wait for it.
+	 */
+	public void warmUp() {
+		if (idle.isEmpty() && !parkingShell.isDisposed()) {
+			idle.push(new Browser(parkingShell, SWT.NULL));
+		}
+	}
+
+	/**
+	 * @return false if the platform can't move the browser to the given parent
+	 */
+	protected boolean reparent(Browser browser, Composite parent) {
+		return browser.setParent(parent);
+	}
+}
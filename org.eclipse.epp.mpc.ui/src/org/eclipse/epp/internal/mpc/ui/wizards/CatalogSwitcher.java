@@ -13,10 +13,21 @@
  *******************************************************************************/
 package org.eclipse.epp.internal.mpc.ui.wizards;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.eclipse.epp.internal.mpc.ui.CatalogRegistry;
 import org.eclipse.epp.internal.mpc.ui.css.StyleHelper;
 import org.eclipse.epp.mpc.ui.CatalogDescriptor;
 import org.eclipse.equinox.internal.p2.discovery.model.CatalogCategory;
@@ -36,10 +47,12 @@ import org.eclipse.swt.events.ControlAdapter;
 import org.eclipse.swt.events.ControlEvent;
 import org.eclipse.swt.events.SelectionListener;
 import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.layout.FillLayout;
 import org.eclipse.swt.layout.RowLayout;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
 
 /**
  * @author Benjamin Muskalla
@@ -53,16 +66,28 @@ public class CatalogSwitcher extends Composite implements ISelectionProvider {
 
 	private final MarketplaceCatalogConfiguration configuration;
 
-	private final ImageRegistry imageRegistry = new ImageRegistry();
+	private ImageRegistry imageRegistry = new ImageRegistry();
 
 	private final List<ISelectionChangedListener> listeners = new LinkedList<>();
 
 	private final List<CatalogSwitcherItem> items = new LinkedList<>();
 
+	private final Queue<CatalogSwitcherItem> pendingImages = new ConcurrentLinkedQueue<>();
+
+	private final Job imageJob;
+
+	private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+
+	private Runnable registryListener;
+
 	private CatalogDescriptor selection;
 
+	private ScrolledComposite scrollArea;
+
 	private Composite marketplaceArea;
 
+	private SelectionListener selectionListener;
+
 	public CatalogSwitcher(Composite parent, int style, MarketplaceCatalogConfiguration configuration) {
 		super(parent, style);
 		this.configuration = configuration;
@@ -75,12 +100,70 @@ public class CatalogSwitcher extends Composite implements ISelectionProvider {
 		StyleHelper styleHelper = new StyleHelper().on(this);
 		styleHelper.setClass("CatalogSwitcher");
 
+		imageJob = createImageJob(getDisplay());
 		createContents(this);
+		if (configuration.isFollowCatalogRegistry()) {
+			listenToCatalogRegistry();
+		}
+		// also called when only the wizard's shell is disposed
+		addDisposeListener(e -> {
+			if (registryListener != null) {
+				CatalogRegistry.getInstance().removeChangeListener(registryListener);
+				registryListener = null;
+			}
+			imageJob.cancel();
+			pendingImages.clear();
+		});
+	}
+
+	/**
+	 * Retrieve the icons of all items in a single background job, one after the other
+	 */
+	private Job createImageJob(final Display display) {
+		Job job = new Job(Messages.CatalogSwitcher_retrieveMetaData) {
+
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				CatalogSwitcherItem item;
+				// check for cancellation first, so a cancelled run doesn't take items of the run replacing it
+				while (!monitor.isCanceled() && (item = pendingImages.poll()) != null) {
+					final CatalogSwitcherItem currentItem = item;
+					final Image image = currentItem.retrieveCatalogImage();
+					if (image != null && !display.isDisposed()) {
+						display.asyncExec(() -> {
+							if (!currentItem.isDisposed()) {
+								currentItem.setCatalogImage(image);
+							}
+						});
+					}
+				}
+				return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+		job.setPriority(Job.DECORATE);
+		return job;
+	}
+
+	private void listenToCatalogRegistry() {
+		final Display display = getDisplay();
+		registryListener = () -> {
+			// coalesce the changes of a whole catalog update into a single refresh
+			if (!display.isDisposed() && refreshScheduled.compareAndSet(false, true)) {
+				display.asyncExec(() -> {
+					refreshScheduled.set(false);
+					if (!isDisposed()) {
+						refreshCatalogs();
+					}
+				});
+			}
+		};
+		CatalogRegistry.getInstance().addChangeListener(registryListener);
 	}
 
 	private void createContents(final Composite parent) {
 		createHeader(parent);
-		final ScrolledComposite scrollArea = new ScrolledComposite(parent, SWT.V_SCROLL);
+		scrollArea = new ScrolledComposite(parent, SWT.V_SCROLL);
 		scrollArea.setBackgroundMode(SWT.INHERIT_DEFAULT);
 		scrollArea.setLayout(new FillLayout());
 		marketplaceArea = new Composite(scrollArea, SWT.NONE);
@@ -91,7 +174,7 @@ public class CatalogSwitcher extends Composite implements ISelectionProvider {
 		layout.marginLeft = layout.marginRight = layout.marginTop = layout.marginBottom = layout.marginHeight = layout.marginWidth = 0;
 		marketplaceArea.setLayout(layout);
 
-		SelectionListener selectionListener = SelectionListener.widgetSelectedAdapter(c -> {
+		selectionListener = SelectionListener.widgetSelectedAdapter(c -> {
 			Object data = c.data;
 			if (data instanceof CatalogDescriptor) {
 				CatalogDescriptor catalogDescriptor = (CatalogDescriptor) data;
@@ -100,13 +183,7 @@ public class CatalogSwitcher extends Composite implements ISelectionProvider {
 				fireSelectionChanged();
 			}
 		});
-		items.clear();
-		List<CatalogDescriptor> catalogDescriptors = configuration.getCatalogDescriptors();
-		for (CatalogDescriptor catalogDescriptor : catalogDescriptors) {
-			CatalogSwitcherItem item = createMarketplace(marketplaceArea, catalogDescriptor);
-			item.addSelectionListener(selectionListener);
-			items.add(item);
-		}
+		createItems();
 
 		scrollArea.setExpandVertical(true);
 		scrollArea.setExpandHorizontal(true);
@@ -114,13 +191,60 @@ public class CatalogSwitcher extends Composite implements ISelectionProvider {
 		scrollArea.addControlListener(new ControlAdapter() {
 			@Override
 			public void controlResized(ControlEvent e) {
-				Rectangle r = parent.getClientArea();
-				int scrollBarWidth = scrollArea.getVerticalBar().getSize().x;
-				scrollArea.setMinSize(marketplaceArea.computeSize(r.width - scrollBarWidth, SWT.DEFAULT));
+				updateScrollSize();
 			}
 		});
 	}
 
+	private void createItems() {
+		items.clear();
+		List<CatalogDescriptor> catalogDescriptors = configuration.getCatalogDescriptors();
+		for (CatalogDescriptor catalogDescriptor : catalogDescriptors) {
+			CatalogSwitcherItem item = createMarketplace(marketplaceArea, catalogDescriptor);
+			item.addSelectionListener(selectionListener);
+			items.add(item);
+		}
+		pendingImages.addAll(items);
+		imageJob.schedule();
+	}
+
+	private void updateScrollSize() {
+		Rectangle r = getClientArea();
+		int scrollBarWidth = scrollArea.getVerticalBar().getSize().x;
+		scrollArea.setMinSize(marketplaceArea.computeSize(r.width - scrollBarWidth, SWT.DEFAULT));
+	}
+
+	/**
+	 * Show the catalogs currently registered in the {@link CatalogRegistry}. The selected catalog stays, even if it is
+	 * no longer registered.
+	 */
+	private void refreshCatalogs() {
+		List<CatalogDescriptor> catalogDescriptors = configuration.getCatalogDescriptors();
+		List<CatalogDescriptor> updatedDescriptors = new ArrayList<>();
+		for (CatalogDescriptor registered : CatalogRegistry.getInstance().getCatalogDescriptors()) {
+			// keep the identity of the selected catalog
+			updatedDescriptors.add(registered.equals(selection) ? selection : registered);
+		}
+		if (selection != null && !updatedDescriptors.contains(selection)) {
+			updatedDescriptors.add(selection);
+		}
+		catalogDescriptors.clear();
+		catalogDescriptors.addAll(updatedDescriptors);
+
+		imageJob.cancel();
+		pendingImages.clear();
+		for (CatalogSwitcherItem item : items) {
+			item.dispose();
+		}
+		// icons might have changed along with the catalogs
+		disposeWhenIdle(imageRegistry);
+		imageRegistry = new ImageRegistry();
+		createItems();
+		refreshSelection();
+		marketplaceArea.layout(true);
+		updateScrollSize();
+	}
+
 	private void createHeader(Composite parent) {
 		CatalogCategory fakeCategory = new CatalogCategory();
 		fakeCategory.setName(Messages.CatalogSwitcher_Header);
@@ -147,9 +271,33 @@ public class CatalogSwitcher extends Composite implements ISelectionProvider {
 		}
 	}
 
+	/**
+	 * Dispose the given registry once the image job is done with it. Cancelling the job doesn't interrupt the retrieval
+	 * of the current item's icon, which still uses the registry.
+	 */
+	private void disposeWhenIdle(final ImageRegistry registry) {
+		final Display display = getDisplay();
+		final AtomicBoolean disposed = new AtomicBoolean();
+		final Runnable dispose = () -> {
+			if (disposed.compareAndSet(false, true) && !display.isDisposed()) {
+				display.asyncExec(registry::dispose);
+			}
+		};
+		imageJob.addJobChangeListener(new JobChangeAdapter() {
+			@Override
+			public void done(IJobChangeEvent event) {
+				event.getJob().removeJobChangeListener(this);
+				dispose.run();
+			}
+		});
+		if (imageJob.getState() == Job.NONE) {
+			dispose.run();
+		}
+	}
+
 	@Override
 	public void dispose() {
-		imageRegistry.dispose();
+		disposeWhenIdle(imageRegistry);
 		super.dispose();
 	}
 
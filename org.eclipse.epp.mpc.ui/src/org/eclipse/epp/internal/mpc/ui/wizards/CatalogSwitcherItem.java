@@ -12,17 +12,12 @@
  *******************************************************************************/
 package org.eclipse.epp.internal.mpc.ui.wizards;
 
-import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.ListenerList;
-import org.eclipse.core.runtime.Status;
-import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.epp.internal.mpc.ui.MarketplaceClientUiResources;
 import org.eclipse.epp.internal.mpc.ui.css.StyleHelper;
 import org.eclipse.epp.mpc.ui.CatalogDescriptor;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.jface.resource.ImageRegistry;
-import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.MouseListener;
 import org.eclipse.swt.events.SelectionEvent;
@@ -42,6 +37,8 @@ public class CatalogSwitcherItem extends Composite {
 
 	private final ImageRegistry imageRegistry;
 
+	private final CatalogDescriptor catalogDescriptor;
+
 	private Label iconLabel;
 
 	private ListenerList<SelectionListener> selectionListeners;
@@ -51,6 +48,7 @@ public class CatalogSwitcherItem extends Composite {
 	public CatalogSwitcherItem(Composite parent, ImageRegistry imageRegistry, CatalogDescriptor catalogDescriptor) {
 		super(parent, SWT.NONE);
 		this.setData(catalogDescriptor);
+		this.catalogDescriptor = catalogDescriptor;
 		this.imageRegistry = imageRegistry;
 
 		createContent();
@@ -78,38 +76,29 @@ public class CatalogSwitcherItem extends Composite {
 		styleHelper.on(iconLabel).setClass("CatalogImage");
 
 		CatalogDescriptor catalogDescriptor = getCatalogDescriptor();
-		retrieveCatalogImage(catalogDescriptor, iconLabel);
 		CatalogToolTip.attachCatalogToolTip(iconLabel, catalogDescriptor);
 	}
 
-	private void retrieveCatalogImage(final CatalogDescriptor catalogDescriptor, final Label label) {
-		//TODO we could simplify all this using the ResourceManager and/or MarketplaceDiscoveryResources,
-		// if the CatalogDescriptor had the image URL instead of an ImageDescriptor
-		Job job = new Job(Messages.CatalogSwitcher_retrieveMetaData) {
-
-			@Override
-			protected IStatus run(IProgressMonitor monitor) {
-				if (label.isDisposed()) {
-					return Status.OK_STATUS;
-				}
-				monitor.beginTask(NLS.bind(Messages.CatalogSwitcher_downloadCatalogImage, catalogDescriptor.getLabel()),
-						1);
-				final Image image = getCatalogIcon(catalogDescriptor);
-				monitor.worked(1);
-				if (image != null && !label.isDisposed()) { // recheck - getCatalogIcon can take a bit if it needs to download the image...
-					label.getDisplay().asyncExec(() -> {
-						if (!label.isDisposed() && !image.isDisposed()) {
-							label.setImage(image);
-						}
-					});
-				}
-				monitor.done();
-				return Status.OK_STATUS;
-			}
-		};
-		job.setSystem(true);
-		job.setPriority(Job.DECORATE);
-		job.schedule();
+	/**
+	 * Retrieve the catalog's icon, downloading it if necessary. Called by the {@link CatalogSwitcher} from a background
+	 * job.
+	 *
+	 * @return the catalog's icon, the default icon if it has none, or null if this item has been disposed
+	 */
+	Image retrieveCatalogImage() {
+		if (isDisposed()) {
+			return null;
+		}
+		return getCatalogIcon(catalogDescriptor);
+	}
+
+	/**
+	 * Show the retrieved icon. Must be called on the UI thread.
+	 */
+	void setCatalogImage(Image image) {
+		if (!iconLabel.isDisposed() && image != null && !image.isDisposed()) {
+			iconLabel.setImage(image);
+		}
 	}
 
 	private Image getCatalogIcon(final CatalogDescriptor catalogDescriptor) {
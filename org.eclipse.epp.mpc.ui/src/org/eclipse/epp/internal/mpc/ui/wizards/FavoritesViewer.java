@@ -19,6 +19,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
+import org.eclipse.epp.internal.mpc.ui.MarketplaceClientUi;
 import org.eclipse.epp.internal.mpc.ui.catalog.FavoriteListCatalogItem;
 import org.eclipse.epp.internal.mpc.ui.catalog.FavoritesDiscoveryStrategy;
 import org.eclipse.epp.internal.mpc.ui.catalog.MarketplaceNodeCatalogItem;
@@ -222,6 +223,9 @@ public class FavoritesViewer extends CatalogViewer {
 	@Override
 	protected StructuredViewer doCreateViewer(Composite container) {
 		StructuredViewer viewer = super.doCreateViewer(container);
+		if (MarketplaceClientUi.useVirtualList()) {
+			viewer = VirtualControlListViewer.replace(viewer, container, SWT.BORDER, this::doCreateViewerItem);
+		}
 		discoveryResources = new MarketplaceDiscoveryResources(container.getDisplay());
 		viewer.getControl().addDisposeListener(e -> {
 			discoveryResources.dispose();
@@ -40,6 +40,8 @@ public class MarketplaceCatalogConfiguration extends CatalogConfiguration implem
 
 	private ContentType initialContentType;
 
+	private boolean followCatalogRegistry;
+
 	public MarketplaceCatalogConfiguration() {
 		setShowTagFilter(false);
 		setShowInstalled(true);
@@ -74,6 +76,18 @@ public class MarketplaceCatalogConfiguration extends CatalogConfiguration implem
 		this.catalogDescriptors = catalogDescriptors;
 	}
 
+	/**
+	 * @return true if the {@link #getCatalogDescriptors() catalog descriptors} were taken from the
+	 *         {@link org.eclipse.epp.internal.mpc.ui.CatalogRegistry CatalogRegistry} and should follow its changes
+	 */
+	public boolean isFollowCatalogRegistry() {
+		return followCatalogRegistry;
+	}
+
+	public void setFollowCatalogRegistry(boolean followCatalogRegistry) {
+		this.followCatalogRegistry = followCatalogRegistry;
+	}
+
 	@Override
 	public CatalogDescriptor getCatalogDescriptor() {
 		return catalogDescriptor;
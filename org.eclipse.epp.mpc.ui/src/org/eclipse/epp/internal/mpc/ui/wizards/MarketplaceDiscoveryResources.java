@@ -13,10 +13,11 @@
 package org.eclipse.epp.internal.mpc.ui.wizards;
 
 import java.io.File;
-import java.lang.reflect.Field;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -25,14 +26,12 @@ import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.epp.internal.mpc.ui.MarketplaceClientUi;
 import org.eclipse.epp.internal.mpc.ui.catalog.MarketplaceCatalogSource;
 import org.eclipse.epp.internal.mpc.ui.catalog.ResourceProvider.ResourceFuture;
+import org.eclipse.epp.internal.mpc.ui.util.DisplayBatchExecutor;
+import org.eclipse.epp.internal.mpc.ui.util.ImageCache;
 import org.eclipse.equinox.internal.p2.discovery.AbstractCatalogSource;
 import org.eclipse.equinox.internal.p2.discovery.model.Icon;
 import org.eclipse.equinox.internal.p2.ui.discovery.wizards.DiscoveryResources;
 import org.eclipse.jface.resource.DeviceResourceException;
-import org.eclipse.jface.resource.ImageDescriptor;
-import org.eclipse.jface.resource.JFaceResources;
-import org.eclipse.jface.resource.LocalResourceManager;
-import org.eclipse.jface.resource.ResourceManager;
 import org.eclipse.swt.SWTException;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.widgets.Display;
@@ -48,40 +47,36 @@ public class MarketplaceDiscoveryResources extends DiscoveryResources {
 
 	private final Display display;
 
-	private final ResourceManager resourceManager;
+	private final ImageCache imageCache;
 
-	private final boolean disposeResourceManager;
+	private final List<Image> acquiredImages = new ArrayList<>();
+
+	private final DisplayBatchExecutor uiExecutor;
+
+	private boolean disposed;
 
 	public MarketplaceDiscoveryResources(Display display) {
 		super(display);
 		this.display = display;
-		ResourceManager existingResourceManager = retrieveResourceManager(display);
-		this.disposeResourceManager = existingResourceManager == null;
-		this.resourceManager = existingResourceManager == null ? new LocalResourceManager(
-				JFaceResources.getResources(display)) : existingResourceManager;
-	}
-
-	private ResourceManager retrieveResourceManager(Display display) {
-		try {
-			Field resourceManager = DiscoveryResources.class.getDeclaredField("resourceManager"); //$NON-NLS-1$
-			try {
-				resourceManager.setAccessible(true);
-				return (ResourceManager) resourceManager.get(this);
-			} finally {
-				resourceManager.setAccessible(false);
-			}
-		} catch (Exception e) {
-			MarketplaceClientUi.error(e);
-			return null;
-		}
+		this.imageCache = ImageCache.getInstance(display);
+		this.uiExecutor = new DisplayBatchExecutor(display);
 	}
 
 	@Override
 	public void dispose() {
 		super.dispose();
-		if (disposeResourceManager) {
-			resourceManager.dispose();
+		disposed = true;
+		for (Image image : acquiredImages) {
+			imageCache.release(image);
 		}
+		acquiredImages.clear();
+	}
+
+	/**
+	 * @return the display's shared image cache
+	 */
+	public ImageCache getImageCache() {
+		return imageCache;
 	}
 
 	public String getIconPath(Icon icon, int dimension, boolean fallback) {
@@ -109,30 +104,28 @@ public class MarketplaceDiscoveryResources extends DiscoveryResources {
 	public void setImage(final ImageReceiver receiver, final AbstractCatalogSource discoverySource,
 			final String imagePath, Image fallbackImage) {
 		if (imagePath != null && imagePath.length() > 0) {
-			Image image = null;
+			ResourceFuture resource = null;
 			if (discoverySource instanceof MarketplaceCatalogSource) {
 				MarketplaceCatalogSource marketplaceSource = (MarketplaceCatalogSource) discoverySource;
-				ResourceFuture resource = marketplaceSource.getResourceProvider().getResource(imagePath);
-				if (resource != null) {
-					URL localURL = resource.getLocalURL();
-					if (localURL != null) {
-						try {
-							File imageFile = new File(
-									new URI(localURL.getProtocol(), null, localURL.getPath(), null, null));
-							if (imageFile.exists()) {
-								image = safeCreateImage(imagePath, localURL);
-							}
-						} catch (URISyntaxException e) {
-							logFailedLoadingImage(imagePath, localURL, e);
-						}
+				resource = marketplaceSource.getResourceProvider().getResource(imagePath);
+				if (resource != null && resource.isDone()) {
+					Image image = createLocalImage(imagePath, resource.getLocalURL());
+					if (image != null) {
+						receiver.setImage(image);
+						return;
 					}
 				}
 			}
-			if (image != null) {
-				receiver.setImage(image);
-			} else if (fallbackImage != null) {
+			if (fallbackImage != null) {
 				receiver.setImage(fallbackImage);
 			}
+			if (resource != null) {
+				if (!resource.isDone()) {
+					// no need to wait in a job, just create the image once the download completes
+					resource.toCompletionStage().thenAcceptAsync(url -> setImage(receiver, imagePath, url), uiExecutor);
+				}
+				return;
+			}
 			new Job(Messages.MarketplaceDiscoveryResources_retrievingImage) {
 
 				{
@@ -148,12 +141,7 @@ public class MarketplaceDiscoveryResources extends DiscoveryResources {
 							if (imagePath != null && imagePath.length() > 0) {
 								final URL resource = discoverySource.getResource(imagePath);
 								if (resource != null) {
-									display.asyncExec(() -> {
-										final Image image1 = safeCreateImage(imagePath, resource);
-										if (image1 != null) {
-											receiver.setImage(image1);
-										}
-									});
+									uiExecutor.execute(() -> setImage(receiver, imagePath, resource));
 								}
 							}
 						} catch (Exception e) {
@@ -171,10 +159,38 @@ public class MarketplaceDiscoveryResources extends DiscoveryResources {
 		}
 	}
 
+	private void setImage(ImageReceiver receiver, String imagePath, URL url) {
+		if (url == null) {
+			return;
+		}
+		Image image = safeCreateImage(imagePath, url);
+		if (image != null) {
+			receiver.setImage(image);
+		}
+	}
+
+	private Image createLocalImage(String imagePath, URL localURL) {
+		if (localURL == null) {
+			return null;
+		}
+		try {
+			File imageFile = new File(new URI(localURL.getProtocol(), null, localURL.getPath(), null, null));
+			if (imageFile.exists()) {
+				return safeCreateImage(imagePath, localURL);
+			}
+		} catch (URISyntaxException e) {
+			logFailedLoadingImage(imagePath, localURL, e);
+		}
+		return null;
+	}
+
 	private Image safeCreateImage(String imagePath, URL url) {
+		if (disposed) {
+			return null;
+		}
 		try {
-			ImageDescriptor descriptor = ImageDescriptor.createFromURL(url);
-			Image image = resourceManager.createImage(descriptor);
+			Image image = imageCache.acquire(url);
+			acquiredImages.add(image);
 			return image;
 		} catch (DeviceResourceException ex) {
 			logFailedLoadingImage(imagePath, url, ex);
@@ -950,7 +950,6 @@ public class MarketplacePage extends CatalogPage implements IWizardButtonLabelPr
 		if (branding.getWizardIcon() == null) {
 			setImageDescriptor(defaultWizardIconDescriptor);
 		} else {
-			final Display display = Display.getCurrent();
 			MarketplaceClientUiResources.getInstance()
 			.getResourceProvider()
 			.provideResource(new ResourceReceiver<ImageDescriptor>() {
@@ -962,14 +961,13 @@ public class MarketplacePage extends CatalogPage implements IWizardButtonLabelPr
 
 				@Override
 				public void setResource(final ImageDescriptor resource) {
-					display.asyncExec(() -> {
-						try {
-							setImageDescriptor(resource);
-						} catch (SWTException ex) {
-							// broken image
-							setImageDescriptor(defaultWizardIconDescriptor);
-						}
-					});
+					// called on the display thread
+					try {
+						setImageDescriptor(resource);
+					} catch (SWTException ex) {
+						// broken image
+						setImageDescriptor(defaultWizardIconDescriptor);
+					}
 				}
 			}, branding.getWizardIcon(), defaultWizardIconDescriptor);
 		}
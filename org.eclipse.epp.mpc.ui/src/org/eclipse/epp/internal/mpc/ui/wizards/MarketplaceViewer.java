@@ -20,25 +20,33 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.epp.internal.mpc.core.MarketplaceClientCore;
 import org.eclipse.epp.internal.mpc.core.model.Identifiable;
 import org.eclipse.epp.internal.mpc.ui.MarketplaceClientUi;
 import org.eclipse.epp.internal.mpc.ui.catalog.MarketplaceCatalog;
+import org.eclipse.epp.internal.mpc.ui.catalog.MarketplaceCatalogSource;
 import org.eclipse.epp.internal.mpc.ui.catalog.MarketplaceCategory;
 import org.eclipse.epp.internal.mpc.ui.catalog.MarketplaceCategory.Contents;
 import org.eclipse.epp.internal.mpc.ui.catalog.MarketplaceDiscoveryStrategy;
 import org.eclipse.epp.internal.mpc.ui.catalog.MarketplaceNodeCatalogItem;
+import org.eclipse.epp.internal.mpc.ui.catalog.ResourceProvider;
+import org.eclipse.epp.internal.mpc.ui.catalog.SearchTerms;
+import org.eclipse.epp.internal.mpc.ui.catalog.UpdateAvailabilityService;
 import org.eclipse.epp.internal.mpc.ui.catalog.UserActionCatalogItem;
 import org.eclipse.epp.internal.mpc.ui.catalog.UserActionCatalogItem.UserAction;
 import org.eclipse.epp.internal.mpc.ui.css.StyleHelper;
@@ -56,6 +64,7 @@ import org.eclipse.equinox.internal.p2.discovery.AbstractDiscoveryStrategy;
 import org.eclipse.equinox.internal.p2.discovery.Catalog;
 import org.eclipse.equinox.internal.p2.discovery.model.CatalogCategory;
 import org.eclipse.equinox.internal.p2.discovery.model.CatalogItem;
+import org.eclipse.equinox.internal.p2.discovery.model.Icon;
 import org.eclipse.equinox.internal.p2.discovery.model.Tag;
 import org.eclipse.equinox.internal.p2.ui.discovery.util.ControlListItem;
 import org.eclipse.equinox.internal.p2.ui.discovery.util.ControlListViewer;
@@ -76,8 +85,10 @@ import org.eclipse.jface.viewers.StructuredViewer;
 import org.eclipse.jface.viewers.ViewerFilter;
 import org.eclipse.jface.window.IShellProvider;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.ScrolledComposite;
 import org.eclipse.swt.events.SelectionAdapter;
 import org.eclipse.swt.events.SelectionEvent;
+import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.widgets.Button;
@@ -85,6 +96,8 @@ import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Listener;
+import org.eclipse.swt.widgets.ScrollBar;
 import org.eclipse.swt.widgets.Text;
 import org.eclipse.ui.statushandlers.StatusManager;
 import org.osgi.framework.BundleContext;
@@ -235,6 +248,54 @@ public class MarketplaceViewer extends CatalogViewer {
 
 	private boolean inUpdate;
 
+	private static final int VISIBLE_RESOURCES_UPDATE_DELAY = 100;
+
+	private boolean visibleResourcesUpdatePending;
+
+	/**
+	 * The next page of search results is prefetched once the user scrolled to within this many screens of the end
+	 */
+	private static final double NEXT_PAGE_PREFETCH_SCREENS = 1.5;
+
+	private volatile Job nextPageJob;
+
+	private boolean nextPageFailed;
+
+	/**
+	 * Time to wait for more keystrokes before a typed query is sent
+	 */
+	private static final int INCREMENTAL_SEARCH_DELAY = 300;
+
+	/**
+	 * Typed queries shorter than this are only used to narrow down the shown results, they are not sent
+	 */
+	private static final int MIN_INCREMENTAL_QUERY_LENGTH = 3;
+
+	private int incrementalSearchGeneration;
+
+	private volatile Job incrementalSearchJob;
+
+	/**
+	 * Time to wait after a tab was shown before the other tabs are retrieved in the background
+	 */
+	private static final int PREFETCH_DELAY = 1000;
+
+	/**
+	 * Tabs whose contents have been retrieved already, either because they were shown or in the background
+	 */
+	private final Set<ContentType> prefetchedTabs = ConcurrentHashMap.newKeySet();
+
+	private final AtomicLong prefetchBudget = new AtomicLong(MarketplaceClientUi.getPrefetchBudget() * 1024L);
+
+	private volatile Job prefetchJob;
+
+	/**
+	 * Narrows down the shown results to the typed text until the server answered, or null
+	 */
+	private SearchTerms prefilter;
+
+	private boolean settingFindText;
+
 	private Composite header;
 
 	private final LoginListener loginListener = new LoginListener() {
@@ -293,6 +354,141 @@ public class MarketplaceViewer extends CatalogViewer {
 				doQuery();
 			}
 		});
+		installIncrementalSearch(parent);
+	}
+
+	private void installIncrementalSearch(Composite header) {
+		for (Control control : header.getChildren()) {
+			if (control instanceof TextSearchControl) {
+				final Text text = ((TextSearchControl) control).getTextControl();
+				text.addModifyListener(e -> findTextModified(text.getText()));
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Search as the user types: the shown results are narrowed down right away and the query is sent once the user
+	 * stopped typing for a moment. With the local filter preference, the entries retrieved so far are searched on
+	 * every keystroke instead, and only an explicit query goes to the server.
+	 *
+	 * @see MarketplaceClientUi#useLocalFilter()
+	 */
+	private void findTextModified(String text) {
+		if (settingFindText || contentType != ContentType.SEARCH || getControl() == null
+				|| getControl().isDisposed()) {
+			return;
+		}
+		final int generation = ++incrementalSearchGeneration;
+		SearchTerms terms = getTagQuery(text) == null ? SearchTerms.parse(text) : null;
+		if (terms != null && terms.isEmpty()) {
+			terms = null;
+		}
+		if (terms != null && MarketplaceClientUi.useLocalFilter()) {
+			scheduleIncrementalSearch(true);
+			return;
+		}
+		if (prefilter != null || terms != null) {
+			prefilter = terms;
+			runUpdate(() -> getViewer().refresh());
+		}
+		String queryText = text == null ? "" : text.trim(); //$NON-NLS-1$
+		if (!queryText.isEmpty() && queryText.length() < MIN_INCREMENTAL_QUERY_LENGTH) {
+			return;
+		}
+		getControl().getDisplay().timerExec(INCREMENTAL_SEARCH_DELAY, () -> {
+			if (generation == incrementalSearchGeneration && getControl() != null && !getControl().isDisposed()
+					&& contentType == ContentType.SEARCH) {
+				scheduleIncrementalSearch(false);
+			}
+		});
+	}
+
+	/**
+	 * @param local
+	 *            true to only search the entries retrieved so far, false to query the server
+	 */
+	private void scheduleIncrementalSearch(final boolean local) {
+		initQueryFromFilters();
+		final QueryData queryData = this.queryData;
+		final ContentType queryType = contentType;
+		final Display display = getControl().getDisplay();
+		queryContentType = queryType;
+		nextPageFailed = false;
+		final long resourceMark = ResourceProvider.markDownloads();
+		cancelPrefetch();
+
+		final Job previousJob = incrementalSearchJob;
+		if (previousJob != null) {
+			// aborts the superseded request in the transport
+			previousJob.cancel();
+		}
+		Job job = new Job(Messages.MarketplaceViewer_searching) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				cancelAndWait(previousJob);
+				cancelNextPageLoad();
+				if (monitor.isCanceled()) {
+					return Status.CANCEL_STATUS;
+				}
+				IStatus status = local ? runLocalQuery(queryData, monitor)
+						: runQuery(queryData, null, queryType, monitor);
+				if (monitor.isCanceled() || status.getSeverity() == IStatus.CANCEL) {
+					return Status.CANCEL_STATUS;
+				}
+				if (!status.isOK()) {
+					// don't interrupt typing with error dialogs
+					MarketplaceClientUi.handle(status, StatusManager.LOG);
+				}
+				display.asyncExec(() -> {
+					if (incrementalSearchJob != this || getControl() == null || getControl().isDisposed()) {
+						return;
+					}
+					incrementalSearchJob = null;
+					prefilter = null;
+					updateViewer(queryData.queryText);
+					if (status.getSeverity() < IStatus.ERROR) {
+						cancelReplacedResources(resourceMark);
+					}
+					verifyUpdateSiteAvailability();
+				});
+				return Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+		incrementalSearchJob = job;
+		job.schedule();
+	}
+
+	/**
+	 * Drop pending typed queries, e.g. because an explicit query replaces them
+	 */
+	private void cancelIncrementalSearch() {
+		incrementalSearchGeneration++;
+		prefilter = null;
+		Job job = incrementalSearchJob;
+		if (job != null) {
+			job.cancel();
+		}
+	}
+
+	/**
+	 * Cancel the pending resource downloads of a listing that was just replaced. Downloads that were requested again
+	 * for the new listing since the given {@link ResourceProvider#markDownloads() mark} are kept.
+	 */
+	private void cancelReplacedResources(long resourceMark) {
+		getCatalog().cancelPendingResources(resourceMark);
+	}
+
+	private static void cancelAndWait(Job job) {
+		if (job != null) {
+			job.cancel();
+			try {
+				job.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
 	}
 
 	protected static void fixFindControlsLayout(Composite header) {
@@ -630,7 +826,12 @@ public class MarketplaceViewer extends CatalogViewer {
 			Field filterTextField = FilteredViewer.class.getDeclaredField("filterText"); //$NON-NLS-1$
 			filterTextField.setAccessible(true);
 			TextSearchControl textSearchControl = (TextSearchControl) filterTextField.get(this);
-			textSearchControl.getTextControl().setText(tag);
+			settingFindText = true;
+			try {
+				textSearchControl.getTextControl().setText(tag);
+			} finally {
+				settingFindText = false;
+			}
 		} catch (Exception e) {
 			MarketplaceClientUi.log(IStatus.WARNING, Messages.MarketplaceViewer_Could_not_change_find_text, e);
 		}
@@ -665,54 +866,25 @@ public class MarketplaceViewer extends CatalogViewer {
 		try {
 			final ContentType queryType = contentType;
 			queryContentType = queryType;
+			// resources for the current listing are obsolete once the new results replace it
+			final long resourceMark = ResourceProvider.markDownloads();
+			// leave the connection to the query the user is waiting for
+			cancelPrefetch();
 			final IStatus[] result = new IStatus[1];
+			nextPageFailed = false;
+			// a typed query that is still pending is superseded by this one
+			cancelIncrementalSearch();
 			context.run(true, true, monitor -> {
-				switch (queryType) {
-				case POPULAR:
-					result[0] = getCatalog().popular(monitor);
-					break;
-				case RECENT:
-					result[0] = getCatalog().recent(monitor);
-					break;
-				case RELATED:
-					result[0] = getCatalog().related(monitor);
-					break;
-				case INSTALLED:
-					result[0] = getCatalog().installed(monitor);
-					break;
-				case FAVORITES:
-					result[0] = getCatalog().userFavorites(false, monitor);
-					break;
-				case SELECTION:
-					Set<INode> selectedNodesById = getSelectionModel().getItemToSelectedOperation()
-					.keySet()
-					.stream()
-					.map(node -> QueryHelper.nodeById(node.getId()))
-					.collect(Collectors.toSet());
-					result[0] = getCatalog().performNodeQuery(monitor, selectedNodesById);
-					break;
-				case SEARCH:
-				case FEATURED_MARKET:
-				default:
-					if (nodes != null && !nodes.isEmpty()) {
-						result[0] = getCatalog().performNodeQuery(monitor, nodes);
-					} else if (queryData.queryText != null && queryData.queryText.length() > 0) {
-						String tag = getTagQuery(queryData.queryText);
-						if (tag != null) {
-							result[0] = getCatalog().tagged(tag, monitor);
-						} else {
-							result[0] = getCatalog().performQuery(queryData.queryMarket, queryData.queryCategory,
-									queryData.queryText, monitor);
-						}
-					} else {
-						result[0] = getCatalog().featured(monitor, queryData.queryMarket, queryData.queryCategory);
+				// the pending page belongs to the results we are about to replace
+				cancelNextPageLoad();
+				cancelAndWait(incrementalSearchJob);
+				result[0] = runQuery(queryData, nodes, queryType, monitor);
+				MarketplaceViewer.this.getControl().getDisplay().syncExec(() -> {
+					updateViewer(queryData.queryText);
+					if (!monitor.isCanceled() && result[0] != null && result[0].getSeverity() < IStatus.ERROR) {
+						cancelReplacedResources(resourceMark);
 					}
-					break;
-				}
-				if (!monitor.isCanceled() && result[0] != null && result[0].getSeverity() != IStatus.CANCEL) {
-					getCatalog().checkForUpdates(monitor);
-				}
-				MarketplaceViewer.this.getControl().getDisplay().syncExec(() -> updateViewer(queryData.queryText));
+				});
 			});
 
 			if (result[0] != null && !result[0].isOK() && result[0].getSeverity() != IStatus.CANCEL) {
@@ -722,6 +894,8 @@ public class MarketplaceViewer extends CatalogViewer {
 				return result[0];
 			} else {
 				verifyUpdateSiteAvailability();
+				prefetchedTabs.add(queryType);
+				schedulePrefetch();
 				return Status.OK_STATUS;
 			}
 		} catch (InvocationTargetException e) {
@@ -734,6 +908,123 @@ public class MarketplaceViewer extends CatalogViewer {
 		}
 	}
 
+	/**
+	 * Retrieve the tabs that have not been shown yet in the background, so switching to them doesn't have to wait for
+	 * the server.
+	 *
+	 * @see TabPrefetchJob
+	 */
+	private void schedulePrefetch() {
+		if (prefetchBudget.get() <= 0 || getControl() == null || getControl().isDisposed()) {
+			return;
+		}
+		List<ContentType> tabs = new ArrayList<>();
+		for (ContentType tab : getPrefetchTabs()) {
+			if (!prefetchedTabs.contains(tab)) {
+				tabs.add(tab);
+			}
+		}
+		if (tabs.isEmpty()) {
+			return;
+		}
+		cancelPrefetch();
+		Job job = new TabPrefetchJob(getCatalog(), tabs, prefetchedTabs, prefetchBudget);
+		prefetchJob = job;
+		job.schedule(PREFETCH_DELAY);
+	}
+
+	private void cancelPrefetch() {
+		Job job = prefetchJob;
+		if (job != null) {
+			prefetchJob = null;
+			job.cancel();
+		}
+	}
+
+	/**
+	 * @return the tabs of the current marketplace that can be retrieved in the background, most likely to be opened
+	 *         first. The favorites tab is left out, since favorites are not cached.
+	 */
+	private List<ContentType> getPrefetchTabs() {
+		CatalogDescriptor catalogDescriptor = getWizard().getConfiguration().getCatalogDescriptor();
+		ICatalogBranding branding = catalogDescriptor == null ? null : catalogDescriptor.getCatalogBranding();
+		List<ContentType> tabs = new ArrayList<>();
+		if (branding == null || branding.hasPopularTab()) {
+			tabs.add(ContentType.POPULAR);
+		}
+		if (branding == null || branding.hasRecentTab()) {
+			tabs.add(ContentType.RECENT);
+		}
+		tabs.add(ContentType.INSTALLED);
+		if (branding != null && branding.hasRelatedTab()) {
+			tabs.add(ContentType.RELATED);
+		}
+		return tabs;
+	}
+
+	/**
+	 * Run the catalog query for the given tab. This must not be called from the UI thread.
+	 */
+	private IStatus runQuery(QueryData queryData, Set<? extends INode> nodes, ContentType queryType,
+			IProgressMonitor monitor) {
+		IStatus result;
+		switch (queryType) {
+		case POPULAR:
+			result = getCatalog().popular(monitor);
+			break;
+		case RECENT:
+			result = getCatalog().recent(monitor);
+			break;
+		case RELATED:
+			result = getCatalog().related(monitor);
+			break;
+		case INSTALLED:
+			result = getCatalog().installed(monitor);
+			break;
+		case FAVORITES:
+			result = getCatalog().userFavorites(false, monitor);
+			break;
+		case SELECTION:
+			Set<INode> selectedNodesById = getSelectionModel().getItemToSelectedOperation()
+			.keySet()
+			.stream()
+			.map(node -> QueryHelper.nodeById(node.getId()))
+			.collect(Collectors.toSet());
+			result = getCatalog().performNodeQuery(monitor, selectedNodesById);
+			break;
+		case SEARCH:
+		case FEATURED_MARKET:
+		default:
+			if (nodes != null && !nodes.isEmpty()) {
+				result = getCatalog().performNodeQuery(monitor, nodes);
+			} else if (queryData.queryText != null && queryData.queryText.length() > 0) {
+				String tag = getTagQuery(queryData.queryText);
+				if (tag != null) {
+					result = getCatalog().tagged(tag, monitor);
+				} else {
+					result = getCatalog().performQuery(queryData.queryMarket, queryData.queryCategory,
+							queryData.queryText, monitor);
+				}
+			} else {
+				result = getCatalog().featured(monitor, queryData.queryMarket, queryData.queryCategory);
+			}
+			break;
+		}
+		if (!monitor.isCanceled() && result != null && result.getSeverity() != IStatus.CANCEL) {
+			getCatalog().applyKnownUpdates(monitor);
+		}
+		return result;
+	}
+
+	private IStatus runLocalQuery(QueryData queryData, IProgressMonitor monitor) {
+		IStatus result = getCatalog().performLocalQuery(queryData.queryMarket, queryData.queryCategory,
+				queryData.queryText, monitor);
+		if (!monitor.isCanceled() && result.getSeverity() != IStatus.CANCEL) {
+			getCatalog().applyKnownUpdates(monitor);
+		}
+		return result;
+	}
+
 	private String getTagQuery(String queryText) {
 		if (queryText != null && queryText.toLowerCase().startsWith(QUERY_TAG_KEYWORD)) {
 			String tag = queryText.substring(QUERY_TAG_KEYWORD.length()).trim();
@@ -756,6 +1047,180 @@ public class MarketplaceViewer extends CatalogViewer {
 			// bug 305274: scrollbars don't always appear after switching tabs, so we re-do the layout
 			getViewer().getControl().getParent().layout(true, true);
 		});
+		scheduleVisibleResourcesUpdate();
+	}
+
+	private void installUpdateAvailabilityListener(StructuredViewer viewer) {
+		final Display display = viewer.getControl().getDisplay();
+		// comparing against the installation may have to scan the profile, so keep it off the UI thread
+		final Job refreshJob = new Job(Messages.MarketplaceViewer_refreshingUpdates) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				if (display.isDisposed()) {
+					return Status.OK_STATUS;
+				}
+				getCatalog().refreshAvailableUpdates();
+				if (monitor.isCanceled() || display.isDisposed()) {
+					return Status.CANCEL_STATUS;
+				}
+				display.asyncExec(() -> {
+					if (getControl() == null || getControl().isDisposed()) {
+						return;
+					}
+					runUpdate(() -> getViewer().refresh());
+				});
+				return Status.OK_STATUS;
+			}
+		};
+		refreshJob.setSystem(true);
+		refreshJob.setPriority(Job.DECORATE);
+		final Runnable listener = refreshJob::schedule;
+		final UpdateAvailabilityService updateService = UpdateAvailabilityService.getInstance();
+		updateService.addChangeListener(listener);
+		viewer.getControl().addDisposeListener(e -> {
+			updateService.removeChangeListener(listener);
+			refreshJob.cancel();
+		});
+	}
+
+	private void installVisibleResourcesTracker(StructuredViewer viewer) {
+		Control control = viewer.getControl();
+		if (!(control instanceof ScrolledComposite)) {
+			return;
+		}
+		Listener listener = e -> scheduleVisibleResourcesUpdate();
+		ScrollBar verticalBar = ((ScrolledComposite) control).getVerticalBar();
+		if (verticalBar != null) {
+			verticalBar.addListener(SWT.Selection, listener);
+		}
+		control.addListener(SWT.Resize, listener);
+	}
+
+	private void scheduleVisibleResourcesUpdate() {
+		if (visibleResourcesUpdatePending) {
+			return;
+		}
+		Control control = getViewer().getControl();
+		if (control.isDisposed()) {
+			return;
+		}
+		visibleResourcesUpdatePending = true;
+		control.getDisplay().timerExec(VISIBLE_RESOURCES_UPDATE_DELAY, () -> {
+			visibleResourcesUpdatePending = false;
+			updateVisibleResources();
+			maybeLoadNextPage();
+		});
+	}
+
+	/**
+	 * Prefetch the next page of search results in the background if the user scrolled close to the end of the
+	 * current results
+	 */
+	private void maybeLoadNextPage() {
+		if (nextPageJob != null || nextPageFailed || queryContentType != contentType
+				|| (contentType != ContentType.SEARCH && contentType != ContentType.FEATURED_MARKET)) {
+			return;
+		}
+		Control control = getViewer().getControl();
+		if (control.isDisposed() || !(control instanceof ScrolledComposite)) {
+			return;
+		}
+		ScrolledComposite scrolledComposite = (ScrolledComposite) control;
+		Control content = scrolledComposite.getContent();
+		if (content == null || content.isDisposed()) {
+			return;
+		}
+		int viewportHeight = scrolledComposite.getClientArea().height;
+		int remainingHeight = content.getSize().y - scrolledComposite.getOrigin().y - viewportHeight;
+		if (remainingHeight > viewportHeight * NEXT_PAGE_PREFETCH_SCREENS || !getCatalog().hasNextPage()) {
+			return;
+		}
+
+		final Display display = control.getDisplay();
+		Job job = new Job(Messages.MarketplaceViewer_loadingMoreResults) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				IStatus status = getCatalog().loadNextPage(monitor);
+				if (!monitor.isCanceled() && status.getSeverity() != IStatus.CANCEL) {
+					getCatalog().applyKnownUpdates(monitor);
+				}
+				final boolean failed = status.getSeverity() > IStatus.WARNING;
+				if (!status.isOK() && status.getSeverity() != IStatus.CANCEL) {
+					MarketplaceClientUi.handle(status, StatusManager.LOG);
+				}
+				display.asyncExec(() -> {
+					if (nextPageJob == this) {
+						nextPageJob = null;
+					}
+					nextPageFailed |= failed;
+					if (getControl() == null || getControl().isDisposed() || monitor.isCanceled()) {
+						return;
+					}
+					runUpdate(() -> getViewer().refresh());
+					scheduleVisibleResourcesUpdate();
+				});
+				return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+			}
+		};
+		job.setSystem(true);
+		nextPageJob = job;
+		job.schedule();
+	}
+
+	private void cancelNextPageLoad() {
+		Job job = nextPageJob;
+		if (job != null) {
+			cancelAndWait(job);
+			if (nextPageJob == job) {
+				nextPageJob = null;
+			}
+		}
+	}
+
+	/**
+	 * Download icons for the items in the viewport before all others
+	 */
+	private void updateVisibleResources() {
+		Control control = getViewer().getControl();
+		if (control.isDisposed() || !(control instanceof ScrolledComposite)) {
+			return;
+		}
+		ScrolledComposite scrolledComposite = (ScrolledComposite) control;
+		Control content = scrolledComposite.getContent();
+		if (!(content instanceof Composite) || content.isDisposed()) {
+			return;
+		}
+		Point origin = scrolledComposite.getOrigin();
+		Rectangle clientArea = scrolledComposite.getClientArea();
+		Rectangle visibleArea = new Rectangle(origin.x, origin.y, clientArea.width, clientArea.height);
+		Map<MarketplaceCatalogSource, Set<String>> visibleResources = new HashMap<>();
+		for (Control child : ((Composite) content).getChildren()) {
+			if (!child.isVisible() || !child.getBounds().intersects(visibleArea)) {
+				continue;
+			}
+			Object data = child.getData();
+			if (data instanceof CatalogItem && ((CatalogItem) data).getSource() instanceof MarketplaceCatalogSource) {
+				CatalogItem catalogItem = (CatalogItem) data;
+				Set<String> resources = visibleResources.computeIfAbsent(
+						(MarketplaceCatalogSource) catalogItem.getSource(), source -> new HashSet<>());
+				Icon icon = catalogItem.getIcon();
+				if (icon != null) {
+					addResource(resources, icon.getImage32());
+					addResource(resources, icon.getImage48());
+					addResource(resources, icon.getImage64());
+				}
+			}
+		}
+		for (Entry<MarketplaceCatalogSource, Set<String>> entry : visibleResources.entrySet()) {
+			MarketplaceCatalogSource source = entry.getKey();
+			source.getResourceProvider().updateVisibleResources(source, entry.getValue());
+		}
+	}
+
+	private static void addResource(Set<String> resources, String resource) {
+		if (resource != null && resource.length() > 0) {
+			resources.add(resource);
+		}
 	}
 
 	private void runUpdate(Runnable r) {
@@ -942,6 +1407,11 @@ public class MarketplaceViewer extends CatalogViewer {
 //			MarketplaceNodeCatalogItem nodeItem = (MarketplaceNodeCatalogItem) item;
 //			return Boolean.TRUE.equals(nodeItem.getUserFavorite());
 //		}
+		// until a typed query is answered, narrow down the previous results on the client
+		SearchTerms currentPrefilter = prefilter;
+		if (currentPrefilter != null && item instanceof MarketplaceNodeCatalogItem) {
+			return currentPrefilter.matches(item);
+		}
 		// all other filtering is done server-side, so never filter here
 		return true;
 	}
@@ -961,7 +1431,10 @@ public class MarketplaceViewer extends CatalogViewer {
 		}
 		StructuredViewer viewer = super.doCreateViewer(container);
 
-		if (!MarketplaceClientUi.useNativeBorders()) {
+		if (MarketplaceClientUi.useVirtualList()) {
+			viewer = VirtualControlListViewer.replace(viewer, container,
+					MarketplaceClientUi.useNativeBorders() ? SWT.BORDER : SWT.NONE, this::doCreateViewerItem);
+		} else if (!MarketplaceClientUi.useNativeBorders()) {
 			StructuredViewer superViewer = viewer;
 
 			viewer = new ControlListViewer(container, SWT.NONE) {
@@ -986,6 +1459,9 @@ public class MarketplaceViewer extends CatalogViewer {
 			final ServiceReference<IDiscoveryItemFactory> ref = serviceReference;
 			viewer.getControl().addDisposeListener(e -> bundleContext.ungetService(ref));
 		}
+		installVisibleResourcesTracker(viewer);
+		installUpdateAvailabilityListener(viewer);
+		viewer.getControl().addDisposeListener(e -> cancelPrefetch());
 		new StyleHelper().on(viewer.getControl()).setClass("MarketplaceViewer");
 		return viewer;
 	}
@@ -1026,6 +1502,9 @@ public class MarketplaceViewer extends CatalogViewer {
 
 	@Override
 	public void updateCatalog() {
+		// the tabs retrieved so far belong to the previous marketplace
+		cancelPrefetch();
+		prefetchedTabs.clear();
 		if (getWizard().wantInitializeInitialSelection()) {
 			try {
 				getWizard().initializeInitialSelection();
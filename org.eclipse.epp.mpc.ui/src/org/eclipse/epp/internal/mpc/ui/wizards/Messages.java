@@ -29,8 +29,6 @@ class Messages extends NLS {
 
 	public static String CatalogSelectionPage_solutionMarketplaceCatalog;
 
-	public static String CatalogSwitcher_downloadCatalogImage;
-
 	public static String CatalogSwitcher_Header;
 
 	public static String CatalogSwitcher_retrieveMetaData;
@@ -226,8 +224,14 @@ class Messages extends NLS {
 
 	public static String MarketplaceViewer_go;
 
+	public static String MarketplaceViewer_loadingMoreResults;
+
 	public static String MarketplaceViewer_PopularBannerTitle;
 
+	public static String MarketplaceViewer_refreshingUpdates;
+
+	public static String MarketplaceViewer_searching;
+
 	public static String MarketplaceViewer_unexpectedException;
 
 	public static String MarketplaceWizard_cannotOpenUrl;
@@ -344,6 +348,8 @@ class Messages extends NLS {
 
 	public static String ShareSolutionLink_Twitter;
 
+	public static String TabPrefetchJob_prefetchingTabs;
+
 	public static String UserFavoritesAbstractImportActionItem_importFavoritesActionLabel;
 
 	public static String UserFavoritesAbstractImportActionItem_importFavoritesTooltip;
@@ -16,23 +16,26 @@ package org.eclipse.epp.internal.mpc.ui.wizards;
 
 import java.io.InputStream;
 import java.net.URL;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Scanner;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.Platform;
-import org.eclipse.epp.internal.mpc.core.util.TextUtil;
+import org.eclipse.epp.internal.mpc.core.util.HtmlText;
 import org.eclipse.epp.internal.mpc.ui.MarketplaceClientUi;
 import org.eclipse.epp.internal.mpc.ui.catalog.MarketplaceCatalogSource;
 import org.eclipse.epp.internal.mpc.ui.catalog.MarketplaceDiscoveryStrategy;
 import org.eclipse.epp.internal.mpc.ui.catalog.ResourceProvider;
 import org.eclipse.epp.internal.mpc.ui.catalog.ResourceProvider.ResourceReceiver;
 import org.eclipse.epp.internal.mpc.ui.css.StyleHelper;
-import org.eclipse.epp.internal.mpc.ui.util.Util;
+import org.eclipse.epp.internal.mpc.ui.util.ImageCache;
 import org.eclipse.equinox.internal.p2.discovery.model.Overview;
 import org.eclipse.equinox.internal.p2.ui.discovery.util.WorkbenchUtil;
 import org.eclipse.jface.layout.GridDataFactory;
 import org.eclipse.jface.layout.GridLayoutFactory;
-import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.resource.DeviceResourceException;
 import org.eclipse.jface.resource.JFaceResources;
 import org.eclipse.jface.window.ToolTip;
 import org.eclipse.osgi.util.NLS;
@@ -87,6 +90,29 @@ class OverviewToolTip extends ToolTip {
 
 	private final IMarketplaceWebBrowser browser;
 
+	private static final String DOCUMENT_KEY = OverviewToolTip.class.getName() + ".document"; //$NON-NLS-1$
+
+	private static final String DOCUMENT_PREFIX = "<html><style>"; //$NON-NLS-1$
+
+	private static final int MAX_CACHED_DOCUMENTS = 100;
+
+	/**
+	 * Style sheets by font and theme
+	 */
+	private static final Map<String, String> cssCache = new HashMap<>();
+
+	/**
+	 * Rendered summaries of the most recently shown overviews
+	 */
+	private static final Map<Overview, String> documentCache = new LinkedHashMap<Overview, String>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Overview, String> eldest) {
+			return size() > MAX_CACHED_DOCUMENTS;
+		}
+	};
+
 	private static URL latestThemeCssUrl;
 
 	private static String latestThemeCss;
@@ -157,33 +183,40 @@ class OverviewToolTip extends ToolTip {
 		}
 		gridDataFactory.applyTo(summaryContainer);
 
-		Browser summaryLabel = new Browser(summaryContainer, SWT.NULL);
+		BrowserPool browserPool = BrowserPool.getPool(this.parent.getShell());
+		Browser summaryLabel = browserPool.acquire(summaryContainer);
 		AbstractMarketplaceDiscoveryItem.setWidgetId(summaryLabel,
 				AbstractMarketplaceDiscoveryItem.WIDGET_ID_DESCRIPTION);
 
 		Font dialogFont = JFaceResources.getDialogFont();
 		summaryLabel.setFont(dialogFont);
-		String cssStyle = createCssStyle(summaryLabel);
-		String html = "<html><style>" + cssStyle + "</style><body>" + TextUtil.cleanInformalHtmlMarkup(summary) //$NON-NLS-1$//$NON-NLS-2$
-		+ "</body></html>"; //$NON-NLS-1$
-		summaryLabel.setText(html);
+		String html = getDocument(summaryLabel, summary);
+		// a pooled browser might still show this document from the last time
+		if (!html.equals(summaryLabel.getData(DOCUMENT_KEY))) {
+			summaryLabel.setText(html);
+			summaryLabel.setData(DOCUMENT_KEY, html);
+		}
 		summaryLabel.setBackground(backgroundColor);
 		// instead of opening links in the tooltip, open a new browser window
-		summaryLabel.addLocationListener(new LocationListener() {
+		LocationListener locationListener = new LocationListener() {
 			@Override
 			public void changing(LocationEvent event) {
 				if (event.location.equals("about:blank")) { //$NON-NLS-1$
 					return;
 				}
 				event.doit = false;
-				OverviewToolTip.this.hide();
+				// don't move the browser back to the pool while it is still dispatching this event
+				event.display.asyncExec(() -> OverviewToolTip.this.hide());
 				WorkbenchUtil.openUrl(event.location, IWorkbenchBrowserSupport.AS_EXTERNAL);
 			}
 
 			@Override
 			public void changed(LocationEvent event) {
 			}
-		});
+		};
+		summaryLabel.addLocationListener(locationListener);
+		summaryLabel.getShell().addListener(SWT.Dispose, e -> summaryLabel.removeLocationListener(locationListener));
+		browserPool.releaseOnDispose(summaryLabel);
 
 		GridDataFactory.fillDefaults().align(SWT.FILL, SWT.FILL).grab(true, true).hint(SWT.DEFAULT,
 				hasImage ? SWT.DEFAULT : SCREENSHOT_HEIGHT)
@@ -258,19 +291,37 @@ class OverviewToolTip extends ToolTip {
 		return container;
 	}
 
-	private String createCssStyle(Browser summaryLabel) {
-		String defaultCss = computeDefaultCss(summaryLabel);
+	private String getDocument(Browser summaryLabel, String summary) {
+		String cssStyle = createCssStyle(summaryLabel);
+		String document = documentCache.get(overview);
+		if (document == null || !document.startsWith(cssStyle, DOCUMENT_PREFIX.length())) {
+			HtmlText summaryText = HtmlText.of(summary);
+			document = DOCUMENT_PREFIX + cssStyle + "</style><body>" //$NON-NLS-1$
+					+ (summaryText == null ? "" : summaryText.getHtml()) + "</body></html>"; //$NON-NLS-1$ //$NON-NLS-2$
+			documentCache.put(overview, document);
+		}
+		return document;
+	}
 
+	private String createCssStyle(Browser summaryLabel) {
 		StyleHelper styleHelper = new StyleHelper().on(summaryLabel);
-		String themeCss = loadStylesheet(styleHelper, CSS_PATH);
-		if (themeCss == null) {
-			themeCss = DEFAULT_THEME_CSS;
+		URL themeCssUrl = styleHelper.getCurrentThemeStylesheet(CSS_PATH);
+		FontData fontData = summaryLabel.getFont().getFontData()[0];
+		String key = fontData.getName() + ':' + fontData.getHeight() + ':' + themeCssUrl;
+		String cssStyle = cssCache.get(key);
+		if (cssStyle == null) {
+			String defaultCss = computeDefaultCss(fontData);
+			String themeCss = loadStylesheet(themeCssUrl);
+			if (themeCss == null) {
+				themeCss = DEFAULT_THEME_CSS;
+			}
+			cssStyle = defaultCss + " " + themeCss; //$NON-NLS-1$
+			cssCache.put(key, cssStyle);
 		}
-		return defaultCss + " " + themeCss; //$NON-NLS-1$
+		return cssStyle;
 	}
 
-	private String loadStylesheet(StyleHelper styleHelper, String cssPath) {
-		URL cssUrl = styleHelper.getCurrentThemeStylesheet(cssPath);
+	private String loadStylesheet(URL cssUrl) {
 		if (cssUrl == null) {
 			return null;
 		}
@@ -290,9 +341,7 @@ class OverviewToolTip extends ToolTip {
 		}
 	}
 
-	private String computeDefaultCss(Browser summaryLabel) {
-		Font dialogFont = summaryLabel.getFont();
-		FontData[] fontData = dialogFont.getFontData();
+	private String computeDefaultCss(FontData fontData) {
 		String attr = ""; //$NON-NLS-1$
 		String fontSizeUnitOfMeasure = "pt"; //$NON-NLS-1$
 		if (Platform.OS_MACOSX.equals(Platform.getOS())) {
@@ -301,8 +350,8 @@ class OverviewToolTip extends ToolTip {
 			attr = "overflow: auto; "; //$NON-NLS-1$
 		}
 
-		String defaultTextStyle = attr + "font-family:\"" + fontData[0].getName() //$NON-NLS-1$
-				+ "\",Arial,sans-serif !important;font-size:" + fontData[0].getHeight() + fontSizeUnitOfMeasure //$NON-NLS-1$
+		String defaultTextStyle = attr + "font-family:\"" + fontData.getName() //$NON-NLS-1$
+				+ "\",Arial,sans-serif !important;font-size:" + fontData.getHeight() + fontSizeUnitOfMeasure //$NON-NLS-1$
 				+ " !important;"; //$NON-NLS-1$
 		String defaultBodyStyle = "margin: 0px;"; //$NON-NLS-1$
 		String defaultCss = "*  {" + defaultTextStyle + "} body { " + defaultBodyStyle + "}"; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
@@ -317,41 +366,35 @@ class OverviewToolTip extends ToolTip {
 	private void provideImage(final Label imageLabel, MarketplaceCatalogSource discoverySource, final String imagePath) {
 		ResourceProvider resourceProvider = discoverySource.getResourceProvider();
 		MarketplaceDiscoveryStrategy.cacheResource(resourceProvider, overview.getItem(), imagePath);
-		resourceProvider.provideResource(new ResourceReceiver<ImageDescriptor>() {
+		resourceProvider.provideResource(new ResourceReceiver<URL>() {
 
 			@Override
-			public ImageDescriptor processResource(URL resource) {
-				return ImageDescriptor.createFromURL(resource);
+			public URL processResource(URL resource) {
+				return resource;
 			}
 
 			@Override
-			public void setResource(final ImageDescriptor resource) {
+			public void setResource(final URL resource) {
+				// called on the display thread
 				if (resource != null && imageLabel != null && !imageLabel.isDisposed()) {
-					imageLabel.getDisplay().asyncExec(() -> {
-						if (!imageLabel.isDisposed()) {
-							try {
-								Image image = resource.createImage();
-								if (image != null) {
-									Rectangle imageBounds = image.getBounds();
-									if (imageBounds.width > SCREENSHOT_WIDTH
-											|| imageBounds.height > SCREENSHOT_HEIGHT) {
-										final Image scaledImage = Util.scaleImage(image, SCREENSHOT_WIDTH,
-												SCREENSHOT_HEIGHT);
-										Image originalImage = image;
-										image = scaledImage;
-										originalImage.dispose();
-									}
-									final Image fimage = image;
-									imageLabel.addDisposeListener(e -> fimage.dispose());
-									imageLabel.setImage(image);
-								}
-							} catch (SWTException e) {
-								// ignore, probably a bad image format
-								MarketplaceClientUi.error(NLS.bind(Messages.OverviewToolTip_cannotRenderImage_reason,
-										imagePath, e.getMessage()), e);
-							}
+					ImageCache imageCache = ImageCache.getInstance(imageLabel.getDisplay());
+					try {
+						Image image = imageCache.acquire(resource);
+						Rectangle imageBounds = image.getBounds();
+						if (imageBounds.width > SCREENSHOT_WIDTH || imageBounds.height > SCREENSHOT_HEIGHT) {
+							Image originalImage = image;
+							image = imageCache.acquireScaled(originalImage, SCREENSHOT_WIDTH,
+									SCREENSHOT_HEIGHT, null);
+							imageCache.release(originalImage);
 						}
-					});
+						final Image fimage = image;
+						imageLabel.addDisposeListener(e -> imageCache.release(fimage));
+						imageLabel.setImage(image);
+					} catch (DeviceResourceException | SWTException e) {
+						// ignore, probably a bad image format
+						MarketplaceClientUi.error(NLS.bind(Messages.OverviewToolTip_cannotRenderImage_reason,
+								imagePath, e.getMessage()), e);
+					}
 				}
 			}
 		}, imagePath, null);
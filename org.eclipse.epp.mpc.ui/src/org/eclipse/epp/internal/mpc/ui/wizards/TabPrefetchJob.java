@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.internal.mpc.ui.wizards;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.SubMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.epp.internal.mpc.ui.catalog.MarketplaceCatalog;
+import org.eclipse.epp.internal.mpc.ui.catalog.MarketplaceCategory.Contents;
+import org.eclipse.epp.internal.mpc.ui.catalog.ResourceProvider.ResourceFuture;
+import org.eclipse.epp.internal.mpc.ui.wizards.MarketplaceViewer.ContentType;
+
+/**
+ * Retrieves the entries and icons of tabs that have not been opened yet while the wizard is otherwise idle, so
+ * switching to them later on is answered from memory. Every completed icon download is charged to a byte budget shared
+ * by all prefetch runs of a viewer, and the job stops once it is spent. Tabs that could not be completed are left to
+ * the next run.
+ *
+ * @see org.eclipse.epp.internal.mpc.ui.MarketplaceClientUi#getPrefetchBudget()
+ */
+class TabPrefetchJob extends Job {
+
+	/**
+	 * Icons of entries further down a tab are left to the viewer once the tab is opened
+	 */
+	private static final int MAX_ICONS_PER_TAB = 30;
+
+	private static final long DOWNLOAD_POLL_INTERVAL = 250;
+
+	private static final long DOWNLOAD_TIMEOUT = TimeUnit.SECONDS.toMillis(30);
+
+	private final MarketplaceCatalog catalog;
+
+	private final List<ContentType> tabs;
+
+	private final Set<ContentType> prefetchedTabs;
+
+	private final AtomicLong budget;
+
+	/**
+	 * @param tabs
+	 *            the tabs to retrieve, in order
+	 * @param prefetchedTabs
+	 *            receives the tabs that were retrieved completely
+	 * @param budget
+	 *            the remaining number of bytes that may be downloaded
+	 */
+	TabPrefetchJob(MarketplaceCatalog catalog, List<ContentType> tabs, Set<ContentType> prefetchedTabs,
+			AtomicLong budget) {
+		super(Messages.TabPrefetchJob_prefetchingTabs);
+		this.catalog = catalog;
+		this.tabs = tabs;
+		this.prefetchedTabs = prefetchedTabs;
+		this.budget = budget;
+		setSystem(true);
+		setPriority(DECORATE);
+	}
+
+	@Override
+	protected IStatus run(IProgressMonitor monitor) {
+		SubMonitor progress = SubMonitor.convert(monitor, Messages.TabPrefetchJob_prefetchingTabs, tabs.size());
+		for (ContentType tab : tabs) {
+			if (progress.isCanceled()) {
+				return Status.CANCEL_STATUS;
+			}
+			if (budget.get() <= 0) {
+				break;
+			}
+			Contents contents = toContents(tab);
+			if (contents == null) {
+				progress.worked(1);
+				continue;
+			}
+			try {
+				List<ResourceFuture> downloads = catalog.prefetch(contents, MAX_ICONS_PER_TAB, progress.newChild(1));
+				if (awaitDownloads(downloads, progress) && !progress.isCanceled()) {
+					prefetchedTabs.add(tab);
+				}
+			} catch (CoreException e) {
+				// most likely offline - opening the tab will report the problem, so don't keep trying in the background
+				break;
+			}
+		}
+		return progress.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+	}
+
+	/**
+	 * @return true if all downloads completed
+	 */
+	private boolean awaitDownloads(List<ResourceFuture> downloads, IProgressMonitor monitor) {
+		boolean complete = true;
+		for (ResourceFuture download : downloads) {
+			long deadline = System.currentTimeMillis() + DOWNLOAD_TIMEOUT;
+			while (!download.isDone() && !monitor.isCanceled() && System.currentTimeMillis() < deadline) {
+				try {
+					download.get(DOWNLOAD_POLL_INTERVAL, TimeUnit.MILLISECONDS);
+				} catch (TimeoutException e) {
+					// poll again
+				} catch (ExecutionException | CancellationException e) {
+					break;
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return false;
+				}
+			}
+			if (monitor.isCanceled()) {
+				return false;
+			}
+			URL resource = getResource(download);
+			if (resource == null) {
+				complete = false;
+			} else {
+				budget.addAndGet(-size(resource));
+			}
+		}
+		return complete;
+	}
+
+	private static URL getResource(ResourceFuture download) {
+		if (!download.isDone() || download.isCancelled()) {
+			return null;
+		}
+		try {
+			return download.get();
+		} catch (ExecutionException | CancellationException e) {
+			return null;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+
+	private static long size(URL resource) {
+		if (!"file".equals(resource.getProtocol())) { //$NON-NLS-1$
+			return 0;
+		}
+		try {
+			return new File(resource.toURI()).length();
+		} catch (URISyntaxException | IllegalArgumentException e) {
+			return 0;
+		}
+	}
+
+	private static Contents toContents(ContentType tab) {
+		switch (tab) {
+		case POPULAR:
+			return Contents.POPULAR;
+		case RECENT:
+			return Contents.RECENT;
+		case RELATED:
+			return Contents.RELATED;
+		case INSTALLED:
+			return Contents.INSTALLED;
+		default:
+			return null;
+		}
+	}
+}
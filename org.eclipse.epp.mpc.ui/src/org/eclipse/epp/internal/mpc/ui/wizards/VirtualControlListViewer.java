@@ -0,0 +1,470 @@
+/*******************************************************************************
+ * Copyright (c) 2026 The Eclipse Foundation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ * 	The Eclipse Foundation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.epp.internal.mpc.ui.wizards;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+import org.eclipse.equinox.internal.p2.ui.discovery.util.ControlListItem;
+import org.eclipse.jface.resource.JFaceResources;
+import org.eclipse.jface.viewers.StructuredViewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.ScrolledComposite;
+import org.eclipse.swt.graphics.Point;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Layout;
+import org.eclipse.swt.widgets.ScrollBar;
+import org.eclipse.swt.widgets.Widget;
+
+/**
+ * A replacement for the discovery ControlListViewer that only creates item controls for the rows in or near the
+ * viewport. Rows that haven't been rendered yet are assumed to have the average height of the rendered ones. Item
+ * controls are bound to their element, so controls that scroll out of view are hidden and kept for a while instead of
+ * being recreated when they come back.
+ */
+public abstract class VirtualControlListViewer extends StructuredViewer {
+
+	/**
+	 * Row height assumed before any row was measured
+	 */
+	private static final int DEFAULT_ITEM_HEIGHT = 90;
+
+	/**
+	 * Rows rendered above and below the viewport
+	 */
+	private static final int OVERSCAN = 3;
+
+	/**
+	 * Hidden item controls kept for reuse
+	 */
+	private static final int CACHED_ITEMS = 24;
+
+	private static final int ITEM_SPACING = 1;
+
+	private final ScrolledComposite scrolled;
+
+	private final Composite content;
+
+	private Object[] elements = new Object[0];
+
+	private final Map<Object, Integer> indexes = new HashMap<>();
+
+	/**
+	 * Last known height of each row, or -1 if it was never rendered
+	 */
+	private int[] heights = new int[0];
+
+	/**
+	 * Whether the height of a row was measured with its current control and width
+	 */
+	private boolean[] measured = new boolean[0];
+
+	private int[] offsets = { 0 };
+
+	/**
+	 * Rendered items in least recently used order
+	 */
+	private final LinkedHashMap<Object, ControlListItem<?>> items = new LinkedHashMap<>(32, 0.75f, true);
+
+	private final Set<Object> emptyElements = new HashSet<>();
+
+	private final List<Object> selection = new ArrayList<>();
+
+	private int layoutWidth = -1;
+
+	private boolean updating;
+
+	public VirtualControlListViewer(Composite parent, int style) {
+		scrolled = new ScrolledComposite(parent, style | SWT.V_SCROLL);
+		scrolled.setExpandHorizontal(true);
+		scrolled.setExpandVertical(false);
+
+		content = new Composite(scrolled, SWT.NONE);
+		content.setBackground(parent.getDisplay().getSystemColor(SWT.COLOR_LIST_BACKGROUND));
+		content.setLayout(new VirtualLayout());
+		scrolled.setContent(content);
+
+		ScrollBar verticalBar = scrolled.getVerticalBar();
+		if (verticalBar != null) {
+			int fontHeight = JFaceResources.getDefaultFont().getFontData()[0].getHeight();
+			verticalBar.setIncrement(fontHeight * 2);
+			verticalBar.addListener(SWT.Selection, e -> updateViewport());
+		}
+		scrolled.addListener(SWT.Resize, e -> updateViewport());
+		hookControl(scrolled);
+	}
+
+	/**
+	 * Create a virtual viewer in place of the given one, taking over its content provider and filters. The given
+	 * viewer's control is disposed.
+	 */
+	public static StructuredViewer replace(StructuredViewer viewer, Composite container, int style,
+			BiFunction<Composite, Object, ControlListItem<?>> itemFactory) {
+		StructuredViewer virtualViewer = new VirtualControlListViewer(container, style) {
+			@Override
+			protected ControlListItem<?> doCreateItem(Composite parent, Object element) {
+				return itemFactory.apply(parent, element);
+			}
+		};
+		virtualViewer.setContentProvider(viewer.getContentProvider());
+		virtualViewer.setFilters(viewer.getFilters());
+		viewer.getControl().dispose();
+		return virtualViewer;
+	}
+
+	protected abstract ControlListItem<?> doCreateItem(Composite parent, Object element);
+
+	/**
+	 * Update the given item's control in place after its element changed.
+	 *
+	 * @return false if the item can't be updated and has to be created again
+	 */
+	protected boolean doRefreshItem(ControlListItem<?> item, Object element) {
+		if (item instanceof AbstractMarketplaceDiscoveryItem<?>) {
+			((AbstractMarketplaceDiscoveryItem<?>) item).refresh();
+			return true;
+		}
+		// no generic way to update other items
+		return false;
+	}
+
+	@Override
+	public Control getControl() {
+		return scrolled;
+	}
+
+	@Override
+	protected void inputChanged(Object input, Object oldInput) {
+		super.inputChanged(input, oldInput);
+		refreshAll();
+	}
+
+	@Override
+	protected Widget doFindInputItem(Object element) {
+		return null;
+	}
+
+	@Override
+	protected Widget doFindItem(Object element) {
+		ControlListItem<?> item = items.get(element);
+		return item == null || item.isDisposed() ? null : item;
+	}
+
+	@Override
+	protected void doUpdateItem(Widget widget, Object element, boolean fullMap) {
+		Integer index = indexes.get(element);
+		if (index != null && widget instanceof ControlListItem<?>) {
+			refreshItem(element, (ControlListItem<?>) widget, index);
+		}
+	}
+
+	@Override
+	protected void internalRefresh(Object element) {
+		if (element == null) {
+			return;
+		}
+		Integer index = indexes.get(element);
+		if (index == null || element.equals(getRoot())) {
+			refreshAll();
+			return;
+		}
+		ControlListItem<?> item = items.get(element);
+		if (item != null && !item.isDisposed()) {
+			refreshItem(element, item, index);
+		}
+	}
+
+	@SuppressWarnings("rawtypes")
+	@Override
+	protected List getSelectionFromWidget() {
+		return new ArrayList<>(selection);
+	}
+
+	@SuppressWarnings("rawtypes")
+	@Override
+	protected void setSelectionToWidget(List list, boolean reveal) {
+		selection.clear();
+		if (list != null) {
+			for (Object element : list) {
+				if (indexes.containsKey(element)) {
+					selection.add(element);
+				}
+			}
+		}
+		if (reveal && !selection.isEmpty()) {
+			reveal(selection.get(0));
+		}
+	}
+
+	/**
+	 * @return the elements shown around the given one, up to the given distance on each side, in display order and
+	 *         without the element itself
+	 */
+	public List<Object> getNeighbors(Object element, int distance) {
+		List<Object> neighbors = new ArrayList<>();
+		Integer index = indexes.get(element);
+		if (index != null) {
+			int from = Math.max(0, index - distance);
+			int to = Math.min(elements.length - 1, index + distance);
+			for (int i = from; i <= to; i++) {
+				if (i != index) {
+					neighbors.add(elements[i]);
+				}
+			}
+		}
+		return neighbors;
+	}
+
+	@Override
+	public void reveal(Object element) {
+		Integer index = indexes.get(element);
+		if (index == null || scrolled.isDisposed()) {
+			return;
+		}
+		Rectangle clientArea = scrolled.getClientArea();
+		Point origin = scrolled.getOrigin();
+		int top = offsets[index];
+		int bottom = offsets[index + 1] - ITEM_SPACING;
+		if (bottom > origin.y + clientArea.height) {
+			scrolled.setOrigin(origin.x, bottom - clientArea.height);
+		}
+		if (top < scrolled.getOrigin().y) {
+			scrolled.setOrigin(origin.x, top);
+		}
+		updateViewport();
+	}
+
+	private void refreshAll() {
+		if (content.isDisposed()) {
+			return;
+		}
+		Object[] sortedChildren = getRoot() == null ? new Object[0] : getSortedChildren(getRoot());
+		Map<Object, Integer> oldIndexes = new HashMap<>(indexes);
+		int[] oldHeights = heights;
+
+		elements = sortedChildren;
+		indexes.clear();
+		heights = new int[elements.length];
+		measured = new boolean[elements.length];
+		for (int i = 0; i < elements.length; i++) {
+			indexes.put(elements[i], i);
+			Integer oldIndex = oldIndexes.get(elements[i]);
+			heights[i] = oldIndex == null ? -1 : oldHeights[oldIndex];
+		}
+		computeOffsets();
+
+		// keep the controls of the elements that are still shown
+		updating = true;
+		try {
+			for (Iterator<Map.Entry<Object, ControlListItem<?>>> i = items.entrySet().iterator(); i.hasNext();) {
+				Map.Entry<Object, ControlListItem<?>> entry = i.next();
+				ControlListItem<?> item = entry.getValue();
+				if (item.isDisposed()) {
+					i.remove();
+				} else if (!indexes.containsKey(entry.getKey()) || !doRefreshItem(item, entry.getKey())) {
+					item.dispose();
+					i.remove();
+				}
+			}
+		} finally {
+			updating = false;
+		}
+		emptyElements.clear();
+		selection.retainAll(indexes.keySet());
+		updateContentSize();
+		updateViewport();
+	}
+
+	private void refreshItem(Object element, ControlListItem<?> item, int index) {
+		if (!doRefreshItem(item, element)) {
+			// render it again
+			items.remove(element);
+			item.dispose();
+		}
+		measured[index] = false;
+		updateViewport();
+	}
+
+	/**
+	 * Render the rows in and near the viewport, measure the ones that weren't measured yet and hide the rest
+	 */
+	private void updateViewport() {
+		if (updating || content.isDisposed()) {
+			return;
+		}
+		updating = true;
+		try {
+			Rectangle clientArea = scrolled.getClientArea();
+			if (clientArea.width != layoutWidth) {
+				layoutWidth = clientArea.width;
+				Arrays.fill(measured, false);
+				updateContentSize();
+			}
+			Set<Object> visible = new HashSet<>();
+			// measuring rows changes the offsets, so the visible range might move a bit
+			for (int pass = 0; pass < 3; pass++) {
+				visible.clear();
+				if (elements.length == 0) {
+					break;
+				}
+				int originY = scrolled.getOrigin().y;
+				int anchor = indexAt(originY);
+				int anchorDelta = originY - offsets[anchor];
+				int first = Math.max(0, anchor - OVERSCAN);
+				int last = Math.min(elements.length - 1, indexAt(originY + clientArea.height) + OVERSCAN);
+				boolean changed = false;
+				for (int i = first; i <= last; i++) {
+					ControlListItem<?> item = materialize(i);
+					if (item == null) {
+						continue;
+					}
+					visible.add(elements[i]);
+					if (!measured[i]) {
+						int height = item.computeSize(layoutWidth, SWT.DEFAULT, true).y;
+						measured[i] = true;
+						if (height != heights[i]) {
+							heights[i] = height;
+							changed = true;
+						}
+					}
+				}
+				if (!changed) {
+					break;
+				}
+				computeOffsets();
+				updateContentSize();
+				// keep the topmost row in place
+				scrolled.setOrigin(scrolled.getOrigin().x, offsets[anchor] + anchorDelta);
+			}
+			for (Map.Entry<Object, ControlListItem<?>> entry : items.entrySet()) {
+				ControlListItem<?> item = entry.getValue();
+				if (visible.contains(entry.getKey())) {
+					int index = indexes.get(entry.getKey());
+					item.setBounds(0, offsets[index], layoutWidth, heights[index]);
+					item.setVisible(true);
+				} else if (item.getVisible()) {
+					item.setVisible(false);
+				}
+			}
+			evict(visible);
+		} finally {
+			updating = false;
+		}
+	}
+
+	private ControlListItem<?> materialize(int index) {
+		Object element = elements[index];
+		ControlListItem<?> item = items.get(element);
+		if (item != null && !item.isDisposed()) {
+			return item;
+		}
+		if (emptyElements.contains(element)) {
+			return null;
+		}
+		item = doCreateItem(content, element);
+		if (item == null) {
+			emptyElements.add(element);
+			heights[index] = 0;
+			measured[index] = true;
+			return null;
+		}
+		items.put(element, item);
+		measured[index] = false;
+		return item;
+	}
+
+	private void evict(Set<Object> visible) {
+		int excess = items.size() - visible.size() - CACHED_ITEMS;
+		for (Iterator<Map.Entry<Object, ControlListItem<?>>> i = items.entrySet().iterator(); excess > 0
+				&& i.hasNext();) {
+			Map.Entry<Object, ControlListItem<?>> entry = i.next();
+			if (!visible.contains(entry.getKey())) {
+				entry.getValue().dispose();
+				i.remove();
+				excess--;
+			}
+		}
+	}
+
+	private void computeOffsets() {
+		int measuredSum = 0;
+		int measuredCount = 0;
+		for (int height : heights) {
+			if (height > 0) {
+				measuredSum += height;
+				measuredCount++;
+			}
+		}
+		int estimate = measuredCount == 0 ? DEFAULT_ITEM_HEIGHT : measuredSum / measuredCount;
+		offsets = new int[elements.length + 1];
+		for (int i = 0; i < elements.length; i++) {
+			int height = heights[i] >= 0 ? heights[i] : estimate;
+			offsets[i + 1] = offsets[i] + height + (height > 0 ? ITEM_SPACING : 0);
+		}
+	}
+
+	private void updateContentSize() {
+		int width = layoutWidth >= 0 ? layoutWidth : scrolled.getClientArea().width;
+		Point size = content.getSize();
+		int height = offsets[offsets.length - 1];
+		if (size.x != width || size.y != height) {
+			content.setSize(width, height);
+		}
+	}
+
+	/**
+	 * @return the row at the given vertical position
+	 */
+	private int indexAt(int y) {
+		int low = 0;
+		int high = elements.length - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (offsets[mid] <= y) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return Math.max(0, low);
+	}
+
+	/**
+	 * Positions the rendered rows. Items asking their parent to lay out again are measured again.
+	 */
+	private class VirtualLayout extends Layout {
+
+		@Override
+		protected Point computeSize(Composite composite, int wHint, int hHint, boolean flushCache) {
+			return new Point(wHint == SWT.DEFAULT ? Math.max(layoutWidth, 0) : wHint, offsets[offsets.length - 1]);
+		}
+
+		@Override
+		protected void layout(Composite composite, boolean flushCache) {
+			if (flushCache && !updating) {
+				Arrays.fill(measured, false);
+			}
+			updateViewport();
+		}
+	}
+}